@@ -82,6 +82,10 @@ public final class Script extends Program implements TopLevelNode<StatementListI
         return !getParserOptions().contains(Parser.Option.FunctionThis);
     }
 
+    public boolean isPreParsed() {
+        return getParserOptions().contains(Parser.Option.PreParse);
+    }
+
     @Override
     public boolean hasSyntheticNodes() {
         return syntheticNodes;
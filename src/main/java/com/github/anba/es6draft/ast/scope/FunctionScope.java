@@ -11,6 +11,7 @@ import java.util.Set;
 
 import com.github.anba.es6draft.ast.FunctionDeclaration;
 import com.github.anba.es6draft.ast.FunctionNode;
+import com.github.anba.es6draft.parser.FunctionBoundary;
 
 /**
  * Scope class for {@link FunctionNode} objects.
@@ -90,4 +91,11 @@ public interface FunctionScope extends TopLevelScope {
      * @return the function declarations
      */
     List<FunctionDeclaration> blockFunctions();
+
+    /**
+     * Returns the source location of this function if it was recorded by the parser.
+     * 
+     * @return the function boundary or {@code null} if not available
+     */
+    FunctionBoundary boundary();
 }
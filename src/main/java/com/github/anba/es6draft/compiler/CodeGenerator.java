@@ -164,6 +164,8 @@ final class CodeGenerator {
     private final EnumSet<CompatibilityOption> options;
     private final EnumSet<Parser.Option> parserOptions;
     private final EnumSet<Compiler.Option> compilerOptions;
+    private final LazyCompilation lazyCompilation;
+    private FunctionNode lazyFunction;
 
     private final StatementGenerator stmtgen = new StatementGenerator(this);
     private final ExpressionGenerator exprgen = new ExpressionGenerator(this);
@@ -173,12 +175,22 @@ final class CodeGenerator {
 
     CodeGenerator(Code code, Program program, ExecutorService executor,
             EnumSet<Compiler.Option> compilerOptions) {
+        this(code, program, executor, compilerOptions, null);
+    }
+
+    CodeGenerator(Code code, Program program, ExecutorService executor,
+            EnumSet<Compiler.Option> compilerOptions, LazyCompilation lazyCompilation) {
         this.code = code;
         this.program = program;
         this.executor = executor;
         this.options = program.getOptions();
         this.parserOptions = program.getParserOptions();
         this.compilerOptions = compilerOptions;
+        this.lazyCompilation = lazyCompilation;
+        if (lazyCompilation != null) {
+            code.getClasses().get(0).addField(Modifier.PUBLIC | Modifier.STATIC,
+                    LazyCompilation.FIELD_NAME, Types.LazyCompilation, null);
+        }
     }
 
     Program getProgram() {
@@ -203,11 +215,27 @@ final class CodeGenerator {
     private int templateKey(TemplateLiteral template) {
         Integer key = templateKeys.get(template);
         if (key == null) {
-            templateKeys.put(template, key = templateKeys.size());
+            // Lazily compiled functions share the template objects of the enclosing script.
+            int newKey = lazyCompilation != null ? lazyCompilation.nextTemplateKey()
+                    : templateKeys.size();
+            templateKeys.put(template, key = newKey);
         }
         return key;
     }
 
+    /**
+     * Returns the main class type.
+     * 
+     * @return the main class type
+     */
+    Type getMainClass() {
+        return code.getClasses().get(0).classType;
+    }
+
+    private boolean isLazyCompiled(FunctionNode node) {
+        return lazyCompilation != null && node != lazyFunction && LazyCompilation.isSupported(node);
+    }
+
     private final HashMap<StatementListMethod, Completion> statementCompletions = new HashMap<>();
 
     /* ----------------------------------------------------------------------------------------- */
@@ -739,6 +767,12 @@ final class CodeGenerator {
             compile((FunctionDefinition) function);
         } else if (function instanceof GeneratorDefinition) {
             compile((GeneratorDefinition) function);
+        } else if (function instanceof ArrowFunction) {
+            compile((ArrowFunction) function);
+        } else if (function instanceof AsyncArrowFunction) {
+            compile((AsyncArrowFunction) function);
+        } else if (function instanceof MethodDefinition) {
+            compile((MethodDefinition) function);
         } else {
             assert function instanceof AsyncFunctionDefinition;
             compile((AsyncFunctionDefinition) function);
@@ -748,6 +782,13 @@ final class CodeGenerator {
         defaultFunctionConstructor(function);
     }
 
+    void compileLazyFunction(FunctionNode function) {
+        assert lazyCompilation != null && lazyFunction == null;
+        // The requested function itself is compiled eagerly, nested functions are compiled lazily.
+        lazyFunction = function;
+        compileFunction(function);
+    }
+
     private void defaultFunctionConstructor(FunctionNode function) {
         InstructionVisitor mv = new InstructionVisitor(code.newConstructor(Modifier.PUBLIC,
                 MethodDescriptors.FunctionConstructor));
@@ -791,6 +832,13 @@ final class CodeGenerator {
         if (!isCompiled(node)) {
             Future<String> source = getSource(node);
 
+            if (isLazyCompiled(node)) {
+                // runtime-info method for the lazy compilation stub
+                int index = lazyCompilation.addFunction(node);
+                new RuntimeInfoGenerator(this).lazyRuntimeInfo(node, index, source);
+                return;
+            }
+
             // initialization method
             new FunctionDeclarationInstantiationGenerator(this).generate(node);
 
@@ -10,6 +10,8 @@ import java.lang.reflect.Field;
 import java.lang.reflect.Modifier;
 import java.util.Collections;
 import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.concurrent.ExecutorService;
 
 import com.github.anba.es6draft.ast.AsyncFunctionDefinition;
@@ -35,7 +37,8 @@ import com.github.anba.es6draft.runtime.modules.SourceTextModuleRecord;
 public final class Compiler {
     public enum Option {
         DebugInfo, PrintCode, PrintFullCode, IterationCatchStackOverflow, NoResume, NoCompletion,
-        NoByteCodeSizeValidation, NoTailCall, SourceMap
+        NoByteCodeSizeValidation, NoTailCall, SourceMap, LazyCompilation, TieredCompilation,
+        JoniRegExp, JDKRegExp
     }
 
     private final ExecutorService executor;
@@ -58,6 +61,41 @@ public final class Compiler {
      *             if the script node could not be compiled
      */
     public CompiledScript compile(Script script, String className) throws CompilationException {
+        if (!isEnabled(Compiler.Option.LazyCompilation)
+                && !isEnabled(Compiler.Option.TieredCompilation)
+                && !script.isPreParsed()) {
+            return defineAndLoad(compileToClasses(script, className), className);
+        }
+        LazyCompilation lazyCompilation = new LazyCompilation(script, className, executor,
+                compilerOptions);
+        CompiledScript compiledScript = defineAndLoad(
+                toClasses(compileScript(script, className, lazyCompilation)), className);
+        lazyCompilation.install(compiledScript.getClass());
+        return compiledScript;
+    }
+
+    /**
+     * Compiles a script node to Java class files. The returned map contains the class file bytes
+     * keyed by the internal class name. The classes can be loaded with
+     * {@link #defineAndLoad(Map, String)}. Functions are always compiled eagerly.
+     * 
+     * @param script
+     *            the script node
+     * @param className
+     *            the class name
+     * @return the class files of the compiled script
+     * @throws CompilationException
+     *             if the script node could not be compiled
+     */
+    public Map<String, byte[]> compileToClasses(Script script, String className)
+            throws CompilationException {
+        if (script.isPreParsed()) {
+            throw new IllegalArgumentException("Function bodies of pre-parsed scripts are missing");
+        }
+        return toClasses(compileScript(script, className, null));
+    }
+
+    private Code compileScript(Script script, String className, LazyCompilation lazyCompilation) {
         if (!isEnabled(Compiler.Option.NoCompletion)) {
             CompletionValueVisitor.performCompletion(script);
         }
@@ -72,10 +110,11 @@ public final class Compiler {
         Code code = new Code(Modifier.PUBLIC | Modifier.FINAL, className, ClassSignature.NONE,
                 Types.CompiledScript, Collections.<Type> emptyList(), NodeSourceInfo.create(script,
                         compilerOptions));
-        CodeGenerator codegen = new CodeGenerator(code, script, executor, compilerOptions);
+        CodeGenerator codegen = new CodeGenerator(code, script, executor, compilerOptions,
+                lazyCompilation);
         codegen.compile(script);
 
-        return defineAndLoad(code, className);
+        return code;
     }
 
     /**
@@ -110,7 +149,7 @@ public final class Compiler {
         CodeGenerator codegen = new CodeGenerator(code, module, executor, compilerOptions);
         codegen.compile(module, moduleRecord);
 
-        return defineAndLoad(code, className);
+        return defineAndLoad(toClasses(code), className);
     }
 
     /**
@@ -177,11 +216,47 @@ public final class Compiler {
         CodeGenerator codegen = new CodeGenerator(code, script, executor, compilerOptions);
         codegen.compileFunction(function);
 
-        return defineAndLoad(code, className);
+        return defineAndLoad(toClasses(code), className);
+    }
+
+    /**
+     * Compiles a function node which was deferred by {@link LazyCompilation}.
+     * 
+     * @param function
+     *            the re-parsed function node
+     * @param script
+     *            the synthetic script node of the re-parsed function
+     * @param className
+     *            the class name
+     * @param lazyCompilation
+     *            the lazy compilation state of the enclosing script
+     * @return the compiled function
+     */
+    CompiledFunction compileLazy(FunctionNode function, Script script, String className,
+            LazyCompilation lazyCompilation) {
+        if (!isEnabled(Compiler.Option.NoByteCodeSizeValidation)) {
+            try {
+                CodeSizeAnalysis.analyze(function, executor);
+            } catch (CodeSizeException e) {
+                throw new CompilationException(e.getMessage());
+            }
+        }
+
+        Code code = new Code(Modifier.PUBLIC | Modifier.FINAL, className, ClassSignature.NONE,
+                Types.CompiledFunction, Collections.<Type> emptyList(), NodeSourceInfo.create(
+                        function, compilerOptions));
+        CodeGenerator codegen = new CodeGenerator(code, script, executor, compilerOptions,
+                lazyCompilation);
+        codegen.compileLazyFunction(function);
+
+        CompiledFunction compiledFunction = defineAndLoad(toClasses(code), className);
+        lazyCompilation.install(compiledFunction.getClass());
+        return compiledFunction;
     }
 
     private static Script functionScript(FunctionNode function) {
-        Scope enclosingScope = function.getScope().getEnclosingScope();
+        // Named function expressions are enclosed by a block scope for the function name.
+        Scope enclosingScope = function.getScope().getEnclosingScope().getTop();
         assert enclosingScope instanceof ScriptScope;
         return ((ScriptScope) enclosingScope).getNode();
     }
@@ -190,18 +265,39 @@ public final class Compiler {
         return compilerOptions.contains(option);
     }
 
-    private <T> T defineAndLoad(Code code, String clazzName) {
-        boolean printCode = isEnabled(Option.PrintCode);
-        boolean printSimple = printCode && !isEnabled(Option.PrintFullCode);
+    private Map<String, byte[]> toClasses(Code code) {
         boolean debugInfo = isEnabled(Option.DebugInfo);
-        CodeLoader loader = new CodeLoader();
+        LinkedHashMap<String, byte[]> classes = new LinkedHashMap<>();
         for (ClassCode classCode : code.getClasses()) {
-            String className = Type.className(classCode.className);
             if (debugInfo) {
                 classCode.addField(Modifier.PRIVATE | Modifier.STATIC, "classBytes",
                         Type.of(byte[].class), null);
             }
-            byte[] bytes = classCode.toByteArray();
+            classes.put(classCode.className, classCode.toByteArray());
+        }
+        return classes;
+    }
+
+    /**
+     * Defines the classes in a new class loader and returns a new instance of {@code clazzName}.
+     * 
+     * @param <T>
+     *            the compiled object type
+     * @param classes
+     *            the class files keyed by the internal class name
+     * @param clazzName
+     *            the class name
+     * @return the compiled object
+     * @see #compileToClasses(Script, String)
+     */
+    public <T> T defineAndLoad(Map<String, byte[]> classes, String clazzName) {
+        boolean printCode = isEnabled(Option.PrintCode);
+        boolean printSimple = printCode && !isEnabled(Option.PrintFullCode);
+        boolean debugInfo = isEnabled(Option.DebugInfo);
+        CodeLoader loader = new CodeLoader();
+        for (Map.Entry<String, byte[]> entry : classes.entrySet()) {
+            String className = Type.className(entry.getKey());
+            byte[] bytes = entry.getValue();
             if (printCode) {
                 System.out.println(Code.toByteCode(bytes, printSimple));
             }
@@ -100,6 +100,14 @@ final class ExpressionGenerator extends DefaultCodeGenerator<ValType, Expression
                 Type.methodType(Type.BOOLEAN_TYPE, Types.Object, Types.Object,
                         Types.ExecutionContext));
 
+        static final MethodName ScriptRuntime_increment = MethodName.findStatic(
+                Types.ScriptRuntime, "increment",
+                Type.methodType(Types.Number, Types.Object, Types.ExecutionContext));
+
+        static final MethodName ScriptRuntime_decrement = MethodName.findStatic(
+                Types.ScriptRuntime, "decrement",
+                Type.methodType(Types.Number, Types.Object, Types.ExecutionContext));
+
         static final MethodName ScriptRuntime_typeof = MethodName.findStatic(Types.ScriptRuntime,
                 "typeof", Type.methodType(Types.String, Types.Object));
 
@@ -2925,7 +2933,7 @@ final class ExpressionGenerator extends DefaultCodeGenerator<ValType, Expression
                 Name resolvedName = ident.getResolvedName();
                 if (resolvedName == null || !resolvedName.isLocal()) {
                     // TODO: Add referenceValueOrUndefined() method
-                    ReferenceOp.LOOKUP.reference(ident, mv, codegen);
+                    IdentifierResolution.resolve(ident, mv);
                     mv.loadExecutionContext();
                     mv.lineInfo(node);
                     mv.invoke(Methods.ScriptRuntime_typeof_Reference);
@@ -2990,12 +2998,20 @@ final class ExpressionGenerator extends DefaultCodeGenerator<ValType, Expression
     private static abstract class UnaryUpdateOp {
         abstract void operation(ExpressionVisitor mv);
 
+        abstract MethodName speculativeOperation();
+
         final ValType emit(UnaryExpression node, ExpressionVisitor mv, ExpressionGenerator gen) {
             LeftHandSideExpression expr = (LeftHandSideExpression) node.getOperand();
             ReferenceOp<LeftHandSideExpression> op = ReferenceOp.of(expr);
 
             ValType type = op.referenceForUpdate(expr, mv, gen.codegen);
             ValType vtype = op.getValue(expr, type, mv);
+            if (vtype == ValType.Any && !(node.getOperator().isPostfix() && node.hasCompletion())) {
+                // Unknown value type, speculate on int32 values (e.g. loop counters).
+                mv.loadExecutionContext();
+                mv.invoke(speculativeOperation());
+                return op.putValue(expr, type, ValType.Any, node.hasCompletion(), mv);
+            }
             ToNumber(vtype, mv);
 
             if (!node.getOperator().isPostfix()) {
@@ -3022,6 +3038,11 @@ final class ExpressionGenerator extends DefaultCodeGenerator<ValType, Expression
                 mv.dconst(1d);
                 mv.dadd();
             }
+
+            @Override
+            MethodName speculativeOperation() {
+                return Methods.ScriptRuntime_increment;
+            }
         };
         // 12.4.5 Postfix Decrement Operator
         // 12.5.8 Prefix Decrement Operator
@@ -3031,6 +3052,11 @@ final class ExpressionGenerator extends DefaultCodeGenerator<ValType, Expression
                 mv.dconst(1d);
                 mv.dsub();
             }
+
+            @Override
+            MethodName speculativeOperation() {
+                return Methods.ScriptRuntime_decrement;
+            }
         };
     }
 
@@ -9,9 +9,15 @@ package com.github.anba.es6draft.compiler;
 import com.github.anba.es6draft.ast.BindingIdentifier;
 import com.github.anba.es6draft.ast.IdentifierReference;
 import com.github.anba.es6draft.ast.Node;
+import com.github.anba.es6draft.ast.scope.ModuleScope;
+import com.github.anba.es6draft.ast.scope.Name;
+import com.github.anba.es6draft.ast.scope.Scope;
+import com.github.anba.es6draft.ast.scope.ScriptScope;
+import com.github.anba.es6draft.ast.scope.WithScope;
 import com.github.anba.es6draft.compiler.DefaultCodeGenerator.ValType;
 import com.github.anba.es6draft.compiler.assembler.MethodName;
 import com.github.anba.es6draft.compiler.assembler.Type;
+import com.github.anba.es6draft.runtime.internal.Bootstrap;
 
 /**
  * 8.3.1 ResolveBinding ( name, [env] )
@@ -43,6 +49,73 @@ final class IdentifierResolution {
         return resolveValue(node, node.getName(), mv);
     }
 
+    /**
+     * Resolves the binding for an assignment. Statically resolvable bindings are not resolved to a
+     * reference object, instead only the execution context is pushed on the stack and the binding
+     * is accessed through {@link #getValue(IdentifierReference, ExpressionVisitor)} and
+     * {@link #putValue(IdentifierReference, ValType, ExpressionVisitor)}. This is equivalent to
+     * resolving the reference early, because no shadowing binding can be introduced in between.
+     * <p>
+     * stack: [] -> [ref] or [] -> [cx]
+     * 
+     * @param node
+     *            the identifier reference
+     * @param mv
+     *            the expression visitor
+     * @return {@link ValType#Reference} for reference objects, otherwise {@link ValType#Object}
+     */
+    static ValType resolveForAssignment(IdentifierReference node, ExpressionVisitor mv) {
+        if (isStaticallyResolvable(node.getName(), mv.getScope())) {
+            mv.loadExecutionContext();
+            return ValType.Object;
+        }
+        return resolve(node, node.getName(), mv);
+    }
+
+    /**
+     * Retrieves the value of a binding resolved through
+     * {@link #resolveForAssignment(IdentifierReference, ExpressionVisitor)}.
+     * <p>
+     * stack: [cx] -> [value]
+     * 
+     * @param node
+     *            the identifier reference
+     * @param mv
+     *            the expression visitor
+     * @return the value type
+     */
+    static ValType getValue(IdentifierReference node, ExpressionVisitor mv) {
+        mv.aconst(node.getName());
+        mv.iconst(mv.isStrict());
+        mv.lineInfo(node);
+        mv.invokedynamic(Bootstrap.getBindingValueName(),
+                Bootstrap.getBindingValueMethodDescriptor(), Bootstrap.getBindingValueBootstrap());
+        return ValType.Any;
+    }
+
+    /**
+     * Assigns the value of a binding resolved through
+     * {@link #resolveForAssignment(IdentifierReference, ExpressionVisitor)}.
+     * <p>
+     * stack: [cx, value] -> []
+     * 
+     * @param node
+     *            the identifier reference
+     * @param value
+     *            the value type
+     * @param mv
+     *            the expression visitor
+     */
+    static void putValue(IdentifierReference node, ValType value, ExpressionVisitor mv) {
+        mv.toBoxed(value);
+        mv.aconst(node.getName());
+        mv.iconst(mv.isStrict());
+        mv.lineInfo(node);
+        mv.invokedynamic(Bootstrap.getSetBindingValueName(),
+                Bootstrap.getSetBindingValueMethodDescriptor(),
+                Bootstrap.getSetBindingValueBootstrap());
+    }
+
     private static ValType resolve(Node node, String identifierName, ExpressionVisitor mv) {
         mv.loadExecutionContext();
         mv.aconst(identifierName);
@@ -57,7 +130,42 @@ final class IdentifierResolution {
         mv.aconst(identifierName);
         mv.iconst(mv.isStrict());
         mv.lineInfo(node);
-        mv.invoke(Methods.ExecutionContext_resolveBindingValue);
+        if (isStaticallyResolvable(identifierName, mv.getScope())) {
+            mv.invokedynamic(Bootstrap.getBindingValueName(),
+                    Bootstrap.getBindingValueMethodDescriptor(),
+                    Bootstrap.getBindingValueBootstrap());
+        } else {
+            mv.invoke(Methods.ExecutionContext_resolveBindingValue);
+        }
         return ValType.Any;
     }
+
+    /**
+     * Returns {@code true} if {@code identifierName} is declared in an enclosing function or block
+     * scope and neither a {@code with} statement nor a non-strict direct eval call can introduce a
+     * shadowing binding. Reads and writes of those bindings are resolved through a (depth, slot)
+     * inline cache.
+     * 
+     * @param identifierName
+     *            the identifier name
+     * @param currentScope
+     *            the current scope
+     * @return {@code true} if the binding is statically resolvable
+     */
+    private static boolean isStaticallyResolvable(String identifierName, Scope currentScope) {
+        Name name = new Name(identifierName);
+        for (Scope scope : currentScope) {
+            if (scope instanceof WithScope || scope.isDynamic()) {
+                return false;
+            }
+            if (scope instanceof ScriptScope || scope instanceof ModuleScope) {
+                // Global and module bindings are not cached.
+                return false;
+            }
+            if (scope.isDeclared(name)) {
+                return true;
+            }
+        }
+        return false;
+    }
 }
@@ -0,0 +1,535 @@
+/**
+ * Copyright (c) 2012-2015 André Bargull
+ * Alle Rechte vorbehalten / All Rights Reserved.  Use is subject to license terms.
+ *
+ * <https://github.com/anba/es6draft>
+ */
+package com.github.anba.es6draft.compiler;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.invoke.MutableCallSite;
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.github.anba.es6draft.ast.FunctionNode;
+import com.github.anba.es6draft.ast.HoistableDeclaration;
+import com.github.anba.es6draft.ast.MethodDefinition;
+import com.github.anba.es6draft.ast.Script;
+import com.github.anba.es6draft.ast.scope.Scope;
+import com.github.anba.es6draft.ast.scope.WithScope;
+import com.github.anba.es6draft.interpreter.InterpretedFunction;
+import com.github.anba.es6draft.interpreter.Interpreter;
+import com.github.anba.es6draft.parser.FunctionBoundary;
+import com.github.anba.es6draft.parser.Parser;
+import com.github.anba.es6draft.runtime.ExecutionContext;
+import com.github.anba.es6draft.runtime.World;
+import com.github.anba.es6draft.runtime.internal.CompatibilityOption;
+import com.github.anba.es6draft.runtime.internal.DebugInfo;
+import com.github.anba.es6draft.runtime.internal.MethodLookup;
+import com.github.anba.es6draft.runtime.internal.RuntimeInfo;
+import com.github.anba.es6draft.runtime.internal.RuntimeInfo.FunctionFlags;
+import com.github.anba.es6draft.runtime.internal.Source;
+import com.github.anba.es6draft.runtime.objects.iteration.GeneratorObject;
+import com.github.anba.es6draft.runtime.objects.promise.PromiseObject;
+import com.github.anba.es6draft.runtime.types.Constructor;
+import com.github.anba.es6draft.runtime.types.ScriptObject;
+import com.github.anba.es6draft.runtime.types.builtins.OrdinaryAsyncFunction;
+import com.github.anba.es6draft.runtime.types.builtins.OrdinaryConstructorFunction;
+import com.github.anba.es6draft.runtime.types.builtins.OrdinaryFunction;
+import com.github.anba.es6draft.runtime.types.builtins.OrdinaryGenerator;
+
+/**
+ * Support class for lazily compiled functions.
+ * <p>
+ * When {@link Compiler.Option#LazyCompilation} is enabled, functions with a {@link FunctionBoundary}
+ * are not compiled together with their enclosing script. Instead a stub {@link RuntimeInfo.Function}
+ * is emitted whose call and construct entry points are backed by {@link MutableCallSite}s. The
+ * first invocation compiles the function into a new class and retargets the call sites to the
+ * compiled code. Functions nested in a lazily compiled function are compiled lazily as well.
+ * <p>
+ * The syntax tree of the enclosing script is not retained. On first invocation the function is
+ * parsed again from the source code recorded in its boundary, so line and column information and
+ * the function name are the same as for eagerly compiled functions. Scripts parsed with
+ * {@link Parser.Option#PreParse} don't build the syntax tree of function bodies in the first place,
+ * early errors in a function body which are not detected by the pre-parser are reported when the
+ * function is first invoked.
+ * <p>
+ * When {@link Compiler.Option#TieredCompilation} is enabled, simple functions are executed by the
+ * {@link Interpreter} first, both for calls and for construct calls. After
+ * {@link #PROMOTION_THRESHOLD} invocations the function is compiled on the background compiler
+ * thread of its {@link World} and the call sites are retargeted to the compiled code. Every
+ * {@link Interpreter#BACK_EDGE_INTERVAL} loop back-edges in the interpreter count as an additional
+ * invocation, so long-running loops are promoted, too.
+ */
+public final class LazyCompilation {
+    /** Name of the static field which holds the {@link LazyCompilation} instance */
+    static final String FIELD_NAME = "lazyCompilation";
+    /** Number of interpreted invocations before a function is compiled */
+    static final int PROMOTION_THRESHOLD = 10;
+
+    private final Source source;
+    private final EnumSet<CompatibilityOption> options;
+    private final EnumSet<Parser.Option> parserOptions;
+    private final String className;
+    private final ExecutorService executor;
+    private final EnumSet<Compiler.Option> compilerOptions;
+    private final boolean tiered;
+
+    // guarded by this
+    private final ArrayList<FunctionRecord> functions = new ArrayList<>();
+    // guarded by this
+    private int templateKeys = 0;
+    // guarded by this
+    private int classCounter = 0;
+
+    private static final class FunctionRecord {
+        final FunctionBoundary boundary;
+        final boolean isConstructor;
+        final boolean enclosedByWith;
+        final String functionName;
+        final String methodName;
+        final String className;
+        LazyFunction function;
+
+        FunctionRecord(FunctionNode node, boolean enclosedByWith) {
+            this.boundary = node.getScope().boundary();
+            this.isConstructor = node.isConstructor();
+            this.enclosedByWith = enclosedByWith;
+            if (node instanceof MethodDefinition) {
+                this.functionName = null;
+                this.methodName = null;
+                this.className = ((MethodDefinition) node).getClassName();
+            } else if (node instanceof HoistableDeclaration) {
+                this.functionName = null;
+                this.methodName = null;
+                this.className = null;
+            } else {
+                // Names of function expressions may have been inferred from the enclosing code.
+                this.functionName = node.getFunctionName();
+                this.methodName = node.getMethodName();
+                this.className = null;
+            }
+        }
+
+        void restoreNames(FunctionNode function) {
+            if (function instanceof MethodDefinition) {
+                if (className != null) {
+                    ((MethodDefinition) function).setClassName(className);
+                }
+            } else if (functionName != null) {
+                function.setFunctionName(functionName);
+                function.setMethodName(methodName);
+            }
+        }
+    }
+
+    LazyCompilation(Script script, String className, ExecutorService executor,
+            EnumSet<Compiler.Option> compilerOptions) {
+        this.source = script.getSource();
+        this.options = EnumSet.copyOf(script.getOptions());
+        this.parserOptions = EnumSet.of(Parser.Option.EvalScript, Parser.Option.FunctionThis,
+                Parser.Option.PreParse);
+        if (script.getParserOptions().contains(Parser.Option.NativeCall)) {
+            this.parserOptions.add(Parser.Option.NativeCall);
+        }
+        if (script.getParserOptions().contains(Parser.Option.EnclosedByWithStatement)) {
+            this.parserOptions.add(Parser.Option.EnclosedByWithStatement);
+        }
+        this.className = className;
+        this.executor = executor;
+        this.compilerOptions = compilerOptions;
+        this.tiered = compilerOptions.contains(Compiler.Option.TieredCompilation);
+    }
+
+    /**
+     * Returns {@code true} if the function node can be compiled lazily.
+     *
+     * @param node
+     *            the function node
+     * @return {@code true} if the function can be compiled lazily
+     */
+    static boolean isSupported(FunctionNode node) {
+        return node.getScope().boundary() != null;
+    }
+
+    /**
+     * Registers a function for lazy compilation and returns its index.
+     *
+     * @param node
+     *            the function node
+     * @return the function index
+     */
+    synchronized int addFunction(FunctionNode node) {
+        assert isSupported(node);
+        functions.add(new FunctionRecord(node, isEnclosedByWithStatement(node)));
+        return functions.size() - 1;
+    }
+
+    private static boolean isEnclosedByWithStatement(FunctionNode node) {
+        for (Scope scope : node.getScope().getEnclosingScope()) {
+            if (scope instanceof WithScope) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the next template literal key. Template literal keys need to be unique for all
+     * classes created for a single script.
+     *
+     * @return the next template literal key
+     */
+    synchronized int nextTemplateKey() {
+        return templateKeys++;
+    }
+
+    /**
+     * Stores this object in the static field of the compiled class.
+     *
+     * @param clazz
+     *            the compiled class
+     */
+    void install(Class<?> clazz) {
+        try {
+            Field field = clazz.getField(FIELD_NAME);
+            field.set(null, this);
+        } catch (ReflectiveOperationException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Returns the stub function object for the requested function. Called from generated code.
+     *
+     * @param index
+     *            the function index
+     * @param methodInfo
+     *            the method info object
+     * @param functionName
+     *            the function name
+     * @param functionFlags
+     *            the function flags
+     * @param expectedArgumentCount
+     *            the number of expected arguments
+     * @param source
+     *            the encoded source string
+     * @param bodySourceStart
+     *            the body source start index
+     * @return the stub function object
+     */
+    public synchronized RuntimeInfo.Function newFunction(int index, Object methodInfo,
+            String functionName, int functionFlags, int expectedArgumentCount, String source,
+            int bodySourceStart) {
+        FunctionRecord record = functions.get(index);
+        if (record.function == null) {
+            RuntimeInfo.Function info = RuntimeInfo.newFunction(methodInfo, functionName,
+                    functionFlags, expectedArgumentCount, source, bodySourceStart, null, null, null);
+            record.function = new LazyFunction(this, index, info, record.isConstructor);
+        }
+        return record.function;
+    }
+
+    private RuntimeInfo.Function compile(int index, RuntimeInfo.Function info) {
+        FunctionRecord record;
+        String functionClassName;
+        synchronized (this) {
+            record = functions.get(index);
+            functionClassName = className + "$" + (++classCounter);
+        }
+        FunctionNode function = parse(record, info);
+        Script script = functionScript(function);
+        CompiledFunction compiled;
+        if (executor.isShutdown()) {
+            ExecutorService newExecutor = Executors.newFixedThreadPool(2);
+            try {
+                compiled = new Compiler(newExecutor, compilerOptions).compileLazy(function, script,
+                        functionClassName, this);
+            } finally {
+                newExecutor.shutdown();
+            }
+        } else {
+            compiled = new Compiler(executor, compilerOptions).compileLazy(function, script,
+                    functionClassName, this);
+        }
+        return compiled.getFunction();
+    }
+
+    private InterpretedFunction interpret(int index, RuntimeInfo.Function info,
+            InterpretedFunction.Profile profile) {
+        FunctionRecord record;
+        synchronized (this) {
+            record = functions.get(index);
+        }
+        FunctionNode function = parse(record, info);
+        return Interpreter.function(functionScript(function), function,
+                info.is(FunctionFlags.Legacy), profile);
+    }
+
+    private FunctionNode parse(FunctionRecord record, RuntimeInfo.Function info) {
+        EnumSet<Parser.Option> parserOptions = EnumSet.copyOf(this.parserOptions);
+        if (info.isStrict()) {
+            parserOptions.add(Parser.Option.Strict);
+        }
+        if (record.enclosedByWith) {
+            parserOptions.add(Parser.Option.EnclosedByWithStatement);
+        }
+        // Early errors which are not detected when pre-parsing the function body are reported
+        // when the function is parsed completely.
+        FunctionNode function = new Parser(source, options, parserOptions)
+                .parseFunction(record.boundary);
+        record.restoreNames(function);
+        return function;
+    }
+
+    private static Script functionScript(FunctionNode function) {
+        return (Script) function.getScope().getEnclosingScope().getTop().getNode();
+    }
+
+    private static final MethodHandle callTargetMH, constructTargetMH, interpretMH,
+            interpretConstructMH;
+    static {
+        MethodLookup lookup = new MethodLookup(MethodHandles.lookup());
+        callTargetMH = lookup.findVirtual(LazyFunction.class, "callTarget",
+                MethodType.methodType(MethodHandle.class));
+        interpretMH = lookup.findVirtual(LazyFunction.class, "interpret", MethodType.methodType(
+                Object.class, OrdinaryFunction.class, ExecutionContext.class, Object.class,
+                Object[].class));
+        constructTargetMH = lookup.findVirtual(LazyFunction.class, "constructTarget",
+                MethodType.methodType(MethodHandle.class));
+        interpretConstructMH = lookup.findVirtual(LazyFunction.class, "interpretConstruct",
+                MethodType.methodType(ScriptObject.class, OrdinaryConstructorFunction.class,
+                        ExecutionContext.class, Constructor.class, Object[].class));
+    }
+
+    private static MethodType callType(RuntimeInfo.Function info) {
+        if (info.isGenerator()) {
+            return MethodType.methodType(GeneratorObject.class, OrdinaryGenerator.class,
+                    ExecutionContext.class, Object.class, Object[].class);
+        }
+        if (info.isAsync()) {
+            return MethodType.methodType(PromiseObject.class, OrdinaryAsyncFunction.class,
+                    ExecutionContext.class, Object.class, Object[].class);
+        }
+        return MethodType.methodType(Object.class, OrdinaryFunction.class,
+                ExecutionContext.class, Object.class, Object[].class);
+    }
+
+    private static MethodType constructType(RuntimeInfo.Function info) {
+        if (info.isGenerator()) {
+            return MethodType.methodType(GeneratorObject.class, OrdinaryGenerator.class,
+                    ExecutionContext.class, Constructor.class, Object[].class);
+        }
+        if (info.isAsync()) {
+            return MethodType.methodType(PromiseObject.class, OrdinaryAsyncFunction.class,
+                    ExecutionContext.class, Constructor.class, Object[].class);
+        }
+        Class<?> returnType = info.is(FunctionFlags.TailCall) ? Object.class : ScriptObject.class;
+        return MethodType.methodType(returnType, OrdinaryConstructorFunction.class,
+                ExecutionContext.class, Constructor.class, Object[].class);
+    }
+
+    /**
+     * Stub function object for lazily compiled functions.
+     * <p>
+     * The stub reports the tail-call flag for all functions which may contain tail calls, so the
+     * function objects are always created with the tail-call adapters. Non tail-call functions
+     * simply return their result through the adapter.
+     */
+    private static final class LazyFunction implements RuntimeInfo.Function,
+            InterpretedFunction.Profile {
+        private final LazyCompilation compilation;
+        private final int index;
+        private final RuntimeInfo.Function info;
+        private final MutableCallSite callSite;
+        private final MutableCallSite constructSite;
+        private volatile RuntimeInfo.Function compiled;
+        // guarded by this
+        private boolean interpreterChecked;
+        private volatile InterpretedFunction interpreted;
+        private final AtomicInteger invocations = new AtomicInteger();
+        private final AtomicBoolean promoted = new AtomicBoolean();
+
+        LazyFunction(LazyCompilation compilation, int index, RuntimeInfo.Function info,
+                boolean isConstructor) {
+            this.compilation = compilation;
+            this.index = index;
+            this.info = info;
+            this.callSite = newCallSite(callType(info), callTargetMH.bindTo(this));
+            this.constructSite = isConstructor ? newCallSite(constructType(info),
+                    constructTargetMH.bindTo(this)) : null;
+        }
+
+        private static MutableCallSite newCallSite(MethodType type, MethodHandle target) {
+            MutableCallSite callSite = new MutableCallSite(type);
+            callSite.setTarget(MethodHandles.foldArguments(MethodHandles.exactInvoker(type),
+                    target));
+            return callSite;
+        }
+
+        private RuntimeInfo.Function compiled() {
+            RuntimeInfo.Function function = compiled;
+            if (function == null) {
+                synchronized (this) {
+                    function = compiled;
+                    if (function == null) {
+                        function = compilation.compile(index, info);
+                        callSite.setTarget(function.callMethod().asType(callSite.type()));
+                        if (constructSite != null) {
+                            constructSite.setTarget(function.constructMethod().asType(
+                                    constructSite.type()));
+                        }
+                        compiled = function;
+                    }
+                }
+            }
+            return function;
+        }
+
+        MethodHandle callTarget() {
+            if (!(compilation.tiered && interpreterTarget())) {
+                compiled();
+            }
+            return callSite.getTarget();
+        }
+
+        MethodHandle constructTarget() {
+            if (!(compilation.tiered && interpreterTarget())) {
+                compiled();
+            }
+            return constructSite.getTarget();
+        }
+
+        private synchronized boolean interpreterTarget() {
+            if (compiled != null) {
+                return false;
+            }
+            if (!interpreterChecked) {
+                interpreterChecked = true;
+                InterpretedFunction function = compilation.interpret(index, info, this);
+                if (function != null) {
+                    interpreted = function;
+                    callSite.setTarget(interpretMH.bindTo(this).asType(callSite.type()));
+                    if (constructSite != null) {
+                        constructSite.setTarget(interpretConstructMH.bindTo(this).asType(
+                                constructSite.type()));
+                    }
+                }
+            }
+            return interpreted != null;
+        }
+
+        Object interpret(OrdinaryFunction function, ExecutionContext callerContext,
+                Object thisValue, Object[] arguments) {
+            countInvocations(function, 1);
+            return interpreted.call(function, callerContext, thisValue, arguments);
+        }
+
+        ScriptObject interpretConstruct(OrdinaryConstructorFunction function,
+                ExecutionContext callerContext, Constructor newTarget, Object[] arguments) {
+            countInvocations(function, 1);
+            return interpreted.construct(function, callerContext, newTarget, arguments);
+        }
+
+        @Override
+        public void backEdges(OrdinaryFunction function, int count) {
+            countInvocations(function, 1);
+        }
+
+        private void countInvocations(OrdinaryFunction function, int count) {
+            if (!promoted.get() && invocations.addAndGet(count) >= PROMOTION_THRESHOLD
+                    && promoted.compareAndSet(false, true)) {
+                promote(function.getRealm().getWorld());
+            }
+        }
+
+        private void promote(World<?> world) {
+            world.compileInBackground(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        compiled();
+                    } catch (RuntimeException e) {
+                        // Ignore compilation errors, continue with the interpreter.
+                    }
+                }
+            });
+        }
+
+        @Override
+        public Object methodInfo() {
+            return info.methodInfo();
+        }
+
+        @Override
+        public String functionName() {
+            return info.functionName();
+        }
+
+        @Override
+        public boolean isStrict() {
+            return info.isStrict();
+        }
+
+        @Override
+        public boolean isGenerator() {
+            return info.isGenerator();
+        }
+
+        @Override
+        public boolean isAsync() {
+            return info.isAsync();
+        }
+
+        @Override
+        public boolean is(FunctionFlags flag) {
+            if (flag == FunctionFlags.ResumeGenerator) {
+                // Depends on the code size analysis of the compiled function.
+                return compiled().is(flag);
+            }
+            return info.is(flag);
+        }
+
+        @Override
+        public int functionFlags() {
+            return info.functionFlags();
+        }
+
+        @Override
+        public int expectedArgumentCount() {
+            return info.expectedArgumentCount();
+        }
+
+        @Override
+        public RuntimeInfo.FunctionSource source() {
+            return info.source();
+        }
+
+        @Override
+        public MethodHandle callMethod() {
+            return callSite.dynamicInvoker();
+        }
+
+        @Override
+        public MethodHandle constructMethod() {
+            return constructSite != null ? constructSite.dynamicInvoker() : null;
+        }
+
+        @Override
+        public MethodHandle handle() {
+            return compiled().handle();
+        }
+
+        @Override
+        public DebugInfo debugInfo() {
+            return compiled().debugInfo();
+        }
+    }
+}
@@ -102,7 +102,8 @@ final class NodeSourceInfo {
         }
 
         private static Script functionScript(FunctionNode function) {
-            Scope enclosingScope = function.getScope().getEnclosingScope();
+            // Named function expressions are enclosed by a block scope for the function name.
+            Scope enclosingScope = function.getScope().getEnclosingScope().getTop();
             assert enclosingScope instanceof ScriptScope;
             return ((ScriptScope) enclosingScope).getNode();
         }
@@ -21,6 +21,7 @@ import com.github.anba.es6draft.compiler.assembler.Jump;
 import com.github.anba.es6draft.compiler.assembler.MethodName;
 import com.github.anba.es6draft.compiler.assembler.Type;
 import com.github.anba.es6draft.compiler.assembler.Variable;
+import com.github.anba.es6draft.runtime.internal.Bootstrap;
 
 /**
  *
@@ -455,7 +456,13 @@ abstract class ReferenceOp<NODE extends LeftHandSideExpression> {
         // stack: [base, key] -> [value]
         mv.loadExecutionContext();
         mv.lineInfo(node);
-        mv.invoke(elementGetMethod(elementType));
+        if (isDynamicElementKey(elementType)) {
+            mv.invokedynamic(Bootstrap.getElementGetName(),
+                    Bootstrap.getElementGetMethodDescriptor(elementType == ValType.Number_int),
+                    Bootstrap.getElementGetBootstrap());
+        } else {
+            mv.invoke(elementGetMethod(elementType));
+        }
         return ValType.Any;
     }
 
@@ -466,7 +473,33 @@ abstract class ReferenceOp<NODE extends LeftHandSideExpression> {
         mv.loadExecutionContext();
         mv.iconst(mv.isStrict());
         mv.lineInfo(node);
-        mv.invoke(elementSetMethod(elementType));
+        if (isDynamicElementKey(elementType)) {
+            mv.invokedynamic(Bootstrap.getElementSetName(),
+                    Bootstrap.getElementSetMethodDescriptor(elementType == ValType.Number_int),
+                    Bootstrap.getElementSetBootstrap());
+        } else {
+            mv.invoke(elementSetMethod(elementType));
+        }
+        return ValType.Empty;
+    }
+
+    private static ValType getProperty(PropertyAccessor node, ExpressionVisitor mv) {
+        // stack: [base, key] -> [value]
+        mv.loadExecutionContext();
+        mv.lineInfo(node);
+        mv.invokedynamic(Bootstrap.getPropertyGetName(), Bootstrap.getPropertyGetMethodDescriptor(),
+                Bootstrap.getPropertyGetBootstrap());
+        return ValType.Any;
+    }
+
+    private static ValType setProperty(PropertyAccessor node, ValType value, ExpressionVisitor mv) {
+        // stack: [base, key, value] -> []
+        mv.toBoxed(value);
+        mv.loadExecutionContext();
+        mv.iconst(mv.isStrict());
+        mv.lineInfo(node);
+        mv.invokedynamic(Bootstrap.getPropertySetName(), Bootstrap.getPropertySetMethodDescriptor(),
+                Bootstrap.getPropertySetBootstrap());
         return ValType.Empty;
     }
 
@@ -480,6 +513,21 @@ abstract class ReferenceOp<NODE extends LeftHandSideExpression> {
         return ValType.Boolean;
     }
 
+    /**
+     * Element accesses with int or untyped keys are linked through invokedynamic call sites to
+     * allow specialized access for typed arrays.
+     */
+    private static boolean isDynamicElementKey(ValType elementType) {
+        switch (elementType) {
+        case Number_int:
+        case Any:
+        case Object:
+            return true;
+        default:
+            return false;
+        }
+    }
+
     private static MethodName checkAccessMethod(ValType elementType) {
         switch (elementType) {
         case Number:
@@ -561,9 +609,8 @@ abstract class ReferenceOp<NODE extends LeftHandSideExpression> {
         @Override
         protected ValType reference(IdentifierReference node, boolean update, ExpressionVisitor mv,
                 CodeGenerator gen) {
-            // stack: [] -> [ref]
-            ValType ref = IdentifierResolution.resolve(node, mv);
-            assert ref == ValType.Reference : "type is not reference: " + ref;
+            // stack: [] -> [ref] or [] -> [cx]
+            ValType ref = IdentifierResolution.resolveForAssignment(node, mv);
             if (update) {
                 mv.dup();
             }
@@ -572,19 +619,29 @@ abstract class ReferenceOp<NODE extends LeftHandSideExpression> {
 
         @Override
         ValType getValue(IdentifierReference node, ValType ref, ExpressionVisitor mv) {
+            if (ref != ValType.Reference) {
+                // stack: [cx] -> [value]
+                return IdentifierResolution.getValue(node, mv);
+            }
             // stack: [ref] -> [value]
             return GetValue(node, ref, mv);
         }
 
         @Override
         void putValue(IdentifierReference node, ValType ref, ValType value, ExpressionVisitor mv) {
+            if (ref != ValType.Reference) {
+                // stack: [cx, value] -> []
+                IdentifierResolution.putValue(node, value, mv);
+                return;
+            }
             // stack: [ref, value] -> []
             PutValue(node, ref, value, mv);
         }
 
         @Override
         ValType delete(IdentifierReference node, ExpressionVisitor mv, CodeGenerator gen) {
-            ValType ref = reference(node, false, mv, gen);
+            // stack: [] -> [ref]
+            ValType ref = IdentifierResolution.resolve(node, mv);
             return Delete(node, ref, mv);
         }
 
@@ -593,7 +650,7 @@ abstract class ReferenceOp<NODE extends LeftHandSideExpression> {
                 ExpressionVisitor mv, CodeGenerator gen) {
             if (withThis) {
                 // stack: [] -> [ref, ref]
-                ValType ref = reference(node, mv, gen);
+                ValType ref = IdentifierResolution.resolve(node, mv);
                 mv.dup();
                 // stack: [ref, ref] -> [value, ref]
                 getValue(node, ref, mv);
@@ -659,13 +716,13 @@ abstract class ReferenceOp<NODE extends LeftHandSideExpression> {
         @Override
         ValType getValue(PropertyAccessor node, ValType ref, ExpressionVisitor mv) {
             // stack: [base, key] -> [value]
-            return getElement(node, ValType.String, mv);
+            return getProperty(node, mv);
         }
 
         @Override
         void putValue(PropertyAccessor node, ValType ref, ValType value, ExpressionVisitor mv) {
             // stack: [base, key, value] -> []
-            setElement(node, ValType.String, value, mv);
+            setProperty(node, value, mv);
         }
 
         @Override
@@ -686,9 +743,7 @@ abstract class ReferenceOp<NODE extends LeftHandSideExpression> {
                 mv.dup();
             }
             mv.aconst(node.getName());
-            mv.loadExecutionContext();
-            mv.lineInfo(node);
-            mv.invoke(Methods.ScriptRuntime_getPropertyValue);
+            getProperty(node, mv);
             if (withThis) {
                 // stack: [thisValue, func] -> [func, thisValue]
                 mv.swap();
@@ -789,9 +844,7 @@ abstract class ReferenceOp<NODE extends LeftHandSideExpression> {
                 mv.dup();
             }
             ValType elementType = evalPropertyKey(node.getElement(), mv, gen);
-            mv.loadExecutionContext();
-            mv.lineInfo(node);
-            mv.invoke(elementGetMethod(elementType));
+            getElement(node, elementType, mv);
             if (withThis) {
                 mv.swap();
             }
@@ -12,6 +12,7 @@ import static com.github.anba.es6draft.semantics.StaticSemantics.IsStrict;
 import java.lang.invoke.CallSite;
 import java.lang.invoke.MethodHandles;
 import java.lang.invoke.MethodType;
+import java.util.List;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
 
@@ -68,6 +69,12 @@ final class RuntimeInfoGenerator {
                         Types.String, Type.INT_TYPE, Type.INT_TYPE, Types.String, Type.INT_TYPE,
                         Types.MethodHandle, Types.MethodHandle, Types.MethodHandle,
                         Types.MethodHandle));
+
+        // class: LazyCompilation
+        static final MethodName LazyCompilation_newFunction = MethodName.findVirtual(
+                Types.LazyCompilation, "newFunction", Type.methodType(Types.RuntimeInfo$Function,
+                        Type.INT_TYPE, Types.Object, Types.String, Type.INT_TYPE, Type.INT_TYPE,
+                        Types.String, Type.INT_TYPE));
     }
 
     private final CodeGenerator codegen;
@@ -140,9 +147,80 @@ final class RuntimeInfoGenerator {
         if (node.getScope().hasEval()) {
             functionFlags |= FunctionFlags.Eval.getValue();
         }
+        int comparator = numericComparator(node);
+        if (comparator > 0) {
+            functionFlags |= FunctionFlags.AscendingComparator.getValue();
+        } else if (comparator < 0) {
+            functionFlags |= FunctionFlags.DescendingComparator.getValue();
+        }
         return functionFlags;
     }
 
+    /**
+     * Returns {@code 1} if the function is {@code (a, b) => a - b}, {@code -1} if it is
+     * {@code (a, b) => b - a}, and {@code 0} otherwise. Function bodies consisting of a single
+     * {@code return a - b} statement are recognized, too.
+     * 
+     * @param node
+     *            the function node
+     * @return the sort direction or {@code 0} if not a numeric comparator
+     */
+    private static int numericComparator(FunctionNode node) {
+        if (node.isGenerator() || node.isAsync()) {
+            return 0;
+        }
+        List<FormalParameter> formals = node.getParameters().getFormals();
+        if (formals.size() != 2) {
+            return 0;
+        }
+        String a = parameterName(formals.get(0)), b = parameterName(formals.get(1));
+        if (a == null || b == null || a.equals(b)) {
+            return 0;
+        }
+        Expression body;
+        if (node instanceof ArrowFunction && ((ArrowFunction) node).getExpression() != null) {
+            body = ((ArrowFunction) node).getExpression();
+        } else {
+            List<StatementListItem> statements = node.getStatements();
+            if (statements == null || statements.size() != 1
+                    || !(statements.get(0) instanceof ReturnStatement)) {
+                return 0;
+            }
+            body = ((ReturnStatement) statements.get(0)).getExpression();
+        }
+        if (!(body instanceof BinaryExpression)
+                || ((BinaryExpression) body).getOperator() != BinaryExpression.Operator.SUB) {
+            return 0;
+        }
+        String x = identifierName(((BinaryExpression) body).getLeft());
+        String y = identifierName(((BinaryExpression) body).getRight());
+        if (a.equals(x) && b.equals(y)) {
+            return 1;
+        }
+        if (b.equals(x) && a.equals(y)) {
+            return -1;
+        }
+        return 0;
+    }
+
+    private static String parameterName(FormalParameter formal) {
+        if (formal.getElement() instanceof BindingElement) {
+            BindingElement element = (BindingElement) formal.getElement();
+            if (element.getInitializer() == null
+                    && element.getBinding() instanceof BindingIdentifier) {
+                return ((BindingIdentifier) element.getBinding()).getName().getIdentifier();
+            }
+        }
+        return null;
+    }
+
+    private static String identifierName(Expression expr) {
+        if (expr instanceof IdentifierReference) {
+            return ((IdentifierReference) expr).getName();
+        }
+        return null;
+    }
+
     private boolean isLegacy(FunctionNode node) {
         return !IsStrict(node)
                 && (node instanceof FunctionDeclaration || node instanceof FunctionExpression)
@@ -199,6 +277,30 @@ final class RuntimeInfoGenerator {
         asm.end();
     }
 
+    void lazyRuntimeInfo(FunctionNode node, int index, Future<String> source) {
+        InstructionAssembler asm = new InstructionAssembler(codegen.newMethod(node,
+                FunctionName.RTI));
+        asm.begin();
+
+        // Tail calls are only known after compilation, the pre-parser records tail call candidates.
+        boolean tailCall = IsStrict(node) && !node.isGenerator() && !node.isAsync()
+                && !codegen.isEnabled(Compiler.Option.NoTailCall)
+                && node.getScope().boundary().hasTailCalls();
+
+        asm.getstatic(codegen.getMainClass(), LazyCompilation.FIELD_NAME, Types.LazyCompilation);
+        asm.iconst(index);
+        asm.invokedynamic("methodInfo", Type.methodType(Types.Object), RUNTIME_INFO_BOOTSTRAP);
+        asm.aconst(node.getFunctionName());
+        asm.iconst(functionFlags(node, tailCall));
+        asm.iconst(ExpectedArgumentCount(node.getParameters()));
+        asm.aconst(get(source));
+        asm.iconst(node.getHeaderSource().length());
+        asm.invoke(Methods.LazyCompilation_newFunction);
+        asm._return();
+
+        asm.end();
+    }
+
     void runtimeInfo(Script node) {
         InstructionAssembler asm = new InstructionAssembler(codegen.newMethod(node, ScriptName.RTI));
         asm.begin();
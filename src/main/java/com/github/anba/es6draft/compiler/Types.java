@@ -85,6 +85,7 @@ final class Types {
     static final Type CompiledFunction = Type.of(CompiledFunction.class);
     static final Type CompiledModule = Type.of(CompiledModule.class);
     static final Type CompiledScript = Type.of(CompiledScript.class);
+    static final Type LazyCompilation = Type.of(LazyCompilation.class);
 
     // runtime
     static final Type AbstractOperations = Type.of(AbstractOperations.class);
@@ -0,0 +1,250 @@
+/**
+ * Copyright (c) 2012-2015 André Bargull
+ * Alle Rechte vorbehalten / All Rights Reserved.  Use is subject to license terms.
+ *
+ * <https://github.com/anba/es6draft>
+ */
+package com.github.anba.es6draft.interpreter;
+
+import static com.github.anba.es6draft.runtime.ExecutionContext.newFunctionExecutionContext;
+import static com.github.anba.es6draft.runtime.LexicalEnvironment.newFunctionEnvironment;
+import static com.github.anba.es6draft.runtime.types.Reference.GetValue;
+import static com.github.anba.es6draft.runtime.types.Undefined.UNDEFINED;
+import static com.github.anba.es6draft.runtime.types.builtins.LegacyArgumentsObject.CreateLegacyArgumentsObject;
+import static com.github.anba.es6draft.runtime.types.builtins.OrdinaryObject.OrdinaryCreateFromConstructor;
+
+import java.util.List;
+
+import com.github.anba.es6draft.ast.Expression;
+import com.github.anba.es6draft.ast.ReturnStatement;
+import com.github.anba.es6draft.ast.StatementListItem;
+import com.github.anba.es6draft.runtime.ExecutionContext;
+import com.github.anba.es6draft.runtime.FunctionEnvironmentRecord;
+import com.github.anba.es6draft.runtime.LexicalEnvironment;
+import com.github.anba.es6draft.runtime.internal.InterpreterFrames;
+import com.github.anba.es6draft.runtime.internal.InterpreterFrames.Frame;
+import com.github.anba.es6draft.runtime.internal.ScriptException;
+import com.github.anba.es6draft.runtime.internal.ScriptRuntime;
+import com.github.anba.es6draft.runtime.types.Constructor;
+import com.github.anba.es6draft.runtime.types.Intrinsics;
+import com.github.anba.es6draft.runtime.types.ScriptObject;
+import com.github.anba.es6draft.runtime.types.builtins.OrdinaryConstructorFunction;
+import com.github.anba.es6draft.runtime.types.builtins.OrdinaryFunction;
+
+/**
+ * Interpreted function body for simple functions.
+ * <p>
+ * Only ordinary functions with a simple parameter list are supported. The function body may only
+ * contain statements supported by {@link Interpreter}, optionally followed by a single return
+ * statement. The function must not reference {@code arguments} or call {@code eval}.
+ */
+public final class InterpretedFunction {
+    /**
+     * Receives execution counts of interpreted functions.
+     */
+    public interface Profile {
+        /**
+         * Called after {@code count} loop back-edges were taken in <var>function</var>.
+         * 
+         * @param function
+         *            the function object
+         * @param count
+         *            the number of loop back-edges
+         */
+        void backEdges(OrdinaryFunction function, int count);
+    }
+
+    private final Interpreter interpreter;
+    private final boolean strict;
+    private final boolean legacy;
+    private final String[] parameterNames;
+    private final boolean hasDuplicates;
+    private final String[] mappedNames;
+    private final String[] varNames;
+    private final List<StatementListItem> statements;
+    private final String methodName;
+    private final String fileName;
+    private final int lineNumber;
+
+    InterpretedFunction(Interpreter interpreter, boolean strict, boolean legacy,
+            String[] parameterNames, String[] mappedNames, String[] varNames,
+            List<StatementListItem> statements, String methodName, String fileName,
+            int lineNumber) {
+        this.interpreter = interpreter;
+        this.strict = strict;
+        this.legacy = legacy;
+        this.parameterNames = parameterNames;
+        this.hasDuplicates = hasDuplicates(mappedNames);
+        this.mappedNames = mappedNames;
+        this.varNames = varNames;
+        this.statements = statements;
+        this.methodName = methodName;
+        this.fileName = fileName;
+        this.lineNumber = lineNumber;
+    }
+
+    private static boolean hasDuplicates(String[] mappedNames) {
+        for (String name : mappedNames) {
+            if (name == null) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 9.2.1 [[Call]] ( thisArgument, argumentsList)
+     *
+     * @param function
+     *            the function object
+     * @param callerContext
+     *            the caller execution context
+     * @param thisValue
+     *            the this-value
+     * @param arguments
+     *            the function arguments
+     * @return the function return value
+     */
+    public Object call(OrdinaryFunction function, ExecutionContext callerContext,
+            Object thisValue, Object[] arguments) {
+        if (!legacy) {
+            return callEvaluate(function, callerContext, thisValue, arguments);
+        }
+        Object oldCaller = function.getLegacyCaller();
+        Object oldArguments = function.getLegacyArguments();
+        function.setLegacyCaller(callerContext.getCurrentFunction());
+        try {
+            return callEvaluate(function, callerContext, thisValue, arguments);
+        } finally {
+            function.restoreLegacyProperties(oldCaller, oldArguments);
+        }
+    }
+
+    /**
+     * 9.2.2 [[Construct]] ( argumentsList, newTarget)
+     *
+     * @param function
+     *            the function object
+     * @param callerContext
+     *            the caller execution context
+     * @param newTarget
+     *            the newTarget constructor
+     * @param arguments
+     *            the function arguments
+     * @return the new object
+     */
+    public ScriptObject construct(OrdinaryConstructorFunction function,
+            ExecutionContext callerContext, Constructor newTarget, Object[] arguments) {
+        if (!legacy) {
+            return constructEvaluate(function, callerContext, newTarget, arguments);
+        }
+        Object oldCaller = function.getLegacyCaller();
+        Object oldArguments = function.getLegacyArguments();
+        function.setLegacyCaller(callerContext.getCurrentFunction());
+        try {
+            return constructEvaluate(function, callerContext, newTarget, arguments);
+        } finally {
+            function.restoreLegacyProperties(oldCaller, oldArguments);
+        }
+    }
+
+    private Object callEvaluate(OrdinaryFunction function, ExecutionContext callerContext,
+            Object thisValue, Object[] arguments) {
+        /* 9.2.1.1 PrepareForOrdinaryCall, 9.2.1.2 OrdinaryCallBindThis */
+        Object thisArgument = strict ? thisValue : ScriptRuntime.functionThisValue(function,
+                thisValue);
+        return evaluate(function, callerContext, null, thisArgument, arguments);
+    }
+
+    private ScriptObject constructEvaluate(OrdinaryConstructorFunction function,
+            ExecutionContext callerContext, Constructor newTarget, Object[] arguments) {
+        /* steps 1-5 */
+        ScriptObject thisArgument = OrdinaryCreateFromConstructor(callerContext, newTarget,
+                Intrinsics.ObjectPrototype);
+        /* steps 6-12 */
+        Object result = evaluate(function, callerContext, newTarget, thisArgument, arguments);
+        /* steps 13-15 */
+        if (result instanceof ScriptObject) {
+            return (ScriptObject) result;
+        }
+        return thisArgument;
+    }
+
+    private Object evaluate(OrdinaryFunction function, ExecutionContext callerContext,
+            Constructor newTarget, Object thisArgument, Object[] arguments) {
+        LexicalEnvironment<FunctionEnvironmentRecord> env = newFunctionEnvironment(function,
+                newTarget, thisArgument);
+        ExecutionContext calleeContext = newFunctionExecutionContext(function, env);
+        Frame frame = new Frame(methodName, fileName, lineNumber, callerContext);
+        calleeContext.setInterpreterFrame(frame);
+        try {
+            /* 9.2.1.3 OrdinaryCallEvaluateBody */
+            FunctionDeclarationInstantiation(calleeContext, function, env, arguments);
+            return EvaluateBody(calleeContext, frame);
+        } catch (ScriptException e) {
+            InterpreterFrames.unwind(frame, e);
+            throw e;
+        }
+    }
+
+    /**
+     * 9.2.12 FunctionDeclarationInstantiation(func, argumentsList)
+     */
+    private void FunctionDeclarationInstantiation(ExecutionContext calleeContext,
+            OrdinaryFunction function, LexicalEnvironment<FunctionEnvironmentRecord> env,
+            Object[] arguments) {
+        FunctionEnvironmentRecord envRec = env.getEnvRec();
+        /* step 21 */
+        for (String paramName : parameterNames) {
+            if (!envRec.hasBinding(paramName)) {
+                envRec.createMutableBinding(paramName, false);
+                if (hasDuplicates) {
+                    envRec.initializeBinding(paramName, UNDEFINED);
+                }
+            }
+        }
+        /* step 22 (arguments object not needed) */
+        if (legacy) {
+            if (parameterNames.length == 0) {
+                function.setLegacyArguments(CreateLegacyArgumentsObject(calleeContext, function,
+                        arguments));
+            } else {
+                function.setLegacyArguments(CreateLegacyArgumentsObject(calleeContext, function,
+                        arguments, mappedNames, env));
+            }
+        }
+        /* steps 24-26 */
+        for (int i = 0; i < parameterNames.length; ++i) {
+            Object value = i < arguments.length ? arguments[i] : UNDEFINED;
+            if (hasDuplicates) {
+                envRec.setMutableBinding(parameterNames[i], value, false);
+            } else {
+                envRec.initializeBinding(parameterNames[i], value);
+            }
+        }
+        /* step 27 */
+        for (String varName : varNames) {
+            envRec.createMutableBinding(varName, false);
+            envRec.initializeBinding(varName, UNDEFINED);
+        }
+        /* steps 28-37 (not applicable) */
+    }
+
+    /**
+     * 14.1.22 Runtime Semantics: EvaluateBody
+     */
+    private Object EvaluateBody(ExecutionContext calleeContext, Frame frame) {
+        for (StatementListItem stmt : statements) {
+            frame.setLineNumber(stmt.getBeginLine());
+            if (stmt instanceof ReturnStatement) {
+                Expression expr = ((ReturnStatement) stmt).getExpression();
+                if (expr == null) {
+                    return UNDEFINED;
+                }
+                return GetValue(expr.accept(interpreter, calleeContext), calleeContext);
+            }
+            stmt.accept(interpreter, calleeContext);
+        }
+        return UNDEFINED;
+    }
+}
@@ -16,17 +16,27 @@ import static com.github.anba.es6draft.runtime.types.Reference.PutValue;
 import static com.github.anba.es6draft.runtime.types.Undefined.UNDEFINED;
 import static com.github.anba.es6draft.runtime.types.builtins.ArrayObject.ArrayCreate;
 import static com.github.anba.es6draft.runtime.types.builtins.OrdinaryObject.ObjectCreate;
+import static com.github.anba.es6draft.semantics.StaticSemantics.BoundNames;
+import static com.github.anba.es6draft.semantics.StaticSemantics.IsSimpleParameterList;
+import static com.github.anba.es6draft.semantics.StaticSemantics.IsStrict;
 import static com.github.anba.es6draft.semantics.StaticSemantics.PropName;
+import static com.github.anba.es6draft.semantics.StaticSemantics.VarDeclaredNames;
 
+import java.util.ArrayList;
 import java.util.EnumSet;
+import java.util.HashSet;
 import java.util.List;
 
 import com.github.anba.es6draft.ast.*;
 import com.github.anba.es6draft.ast.BinaryExpression.Operator;
+import com.github.anba.es6draft.ast.scope.FunctionScope;
+import com.github.anba.es6draft.ast.scope.Name;
 import com.github.anba.es6draft.parser.Parser;
 import com.github.anba.es6draft.runtime.ExecutionContext;
 import com.github.anba.es6draft.runtime.internal.CompatibilityOption;
 import com.github.anba.es6draft.runtime.internal.IndexedMap;
+import com.github.anba.es6draft.runtime.internal.InterpreterFrames;
+import com.github.anba.es6draft.runtime.internal.JVMNames;
 import com.github.anba.es6draft.runtime.internal.ScriptRuntime;
 import com.github.anba.es6draft.runtime.objects.Eval;
 import com.github.anba.es6draft.runtime.objects.Eval.EvalFlags;
@@ -38,12 +48,17 @@ import com.github.anba.es6draft.runtime.types.Reference;
 import com.github.anba.es6draft.runtime.types.ScriptObject;
 import com.github.anba.es6draft.runtime.types.Undefined;
 import com.github.anba.es6draft.runtime.types.builtins.ArrayObject;
+import com.github.anba.es6draft.runtime.types.builtins.OrdinaryFunction;
 import com.github.anba.es6draft.runtime.types.builtins.OrdinaryObject;
 
 /**
  * Basic interpreter to speed-up evaluation of simple eval-scripts.
  */
 public final class Interpreter extends DefaultNodeVisitor<Object, ExecutionContext> {
+    private static final int MAX_FNAME_LENGTH = 0x400;
+    /** Number of loop back-edges between two {@link InterpretedFunction.Profile} updates */
+    public static final int BACK_EDGE_INTERVAL = 100;
+
     /**
      * Returns a new {@link InterpretedScript} if {@code parsedScript} can be interpreted, otherwise
      * returns {@code null}.
@@ -59,12 +74,120 @@ public final class Interpreter extends DefaultNodeVisitor<Object, ExecutionConte
         return new InterpretedScript(parsedScript);
     }
 
+    /**
+     * Returns a new {@link InterpretedFunction} if {@code function} can be interpreted, otherwise
+     * returns {@code null}.
+     * 
+     * @param parsedScript
+     *            the script node which contains the function
+     * @param function
+     *            the function node
+     * @param legacy
+     *            {@code true} if the function has legacy {@code caller} and {@code arguments}
+     *            properties
+     * @param profile
+     *            the profile to report loop back-edges or {@code null}
+     * @return the interpreted function or {@code null}
+     */
+    public static InterpretedFunction function(Script parsedScript, FunctionNode function,
+            boolean legacy, InterpretedFunction.Profile profile) {
+        if (!(function instanceof FunctionDeclaration || function instanceof FunctionExpression)) {
+            return null;
+        }
+        FunctionScope scope = function.getScope();
+        if (scope.hasEval() || scope.needsArguments() || scope.hasSuperReference()) {
+            return null;
+        }
+        if (!IsSimpleParameterList(function.getParameters())) {
+            return null;
+        }
+        List<StatementListItem> statements = function.getStatements();
+        for (int i = 0, size = statements.size(); i < size; ++i) {
+            StatementListItem stmt = statements.get(i);
+            if (stmt instanceof ReturnStatement) {
+                Expression expr = ((ReturnStatement) stmt).getExpression();
+                if (i + 1 != size
+                        || (expr != null && !expr.accept(InterpreterTest.FUNCTION, null))) {
+                    return null;
+                }
+                if (expr != null && IsStrict(function) && hasTailCall(expr)) {
+                    // Tail calls are not supported in the interpreter.
+                    return null;
+                }
+            } else if (!stmt.accept(InterpreterTest.FUNCTION, null)) {
+                return null;
+            }
+        }
+
+        List<Name> parameters = BoundNames(function.getParameters());
+        String[] parameterNames = new String[parameters.size()];
+        String[] mappedNames = new String[parameters.size()];
+        HashSet<String> parameterNamesSet = new HashSet<>();
+        for (int i = parameters.size() - 1; i >= 0; --i) {
+            String name = parameters.get(i).getIdentifier();
+            parameterNames[i] = name;
+            if (parameterNamesSet.add(name)) {
+                mappedNames[i] = name;
+            }
+        }
+        ArrayList<String> varNames = new ArrayList<>();
+        for (Name name : VarDeclaredNames(function)) {
+            if (!parameterNamesSet.contains(name.getIdentifier())) {
+                varNames.add(name.getIdentifier());
+            }
+        }
+        boolean strict = IsStrict(function);
+        Interpreter interpreter = new Interpreter(parsedScript.getParserOptions(), strict, profile);
+        String methodName = JVMNames.toBytecodeName(methodName(function) + "~0");
+        String fileName = parsedScript.getSource().getName();
+        return new InterpretedFunction(interpreter, strict, legacy, parameterNames, mappedNames,
+                varNames.toArray(new String[varNames.size()]), statements, methodName, fileName,
+                function.getBeginLine());
+    }
+
+    private static String methodName(FunctionNode function) {
+        // Same method name as in CodeGenerator, the suffix is removed in stack traces.
+        String name = function.getMethodName();
+        if (name.isEmpty()) {
+            return "anonymous";
+        }
+        return name.length() > MAX_FNAME_LENGTH ? name.substring(0, MAX_FNAME_LENGTH) : name;
+    }
+
+    private static boolean hasTailCall(Expression expr) {
+        if (expr instanceof CallExpression || expr instanceof NewExpression
+                || expr instanceof TemplateCallExpression) {
+            return true;
+        }
+        if (expr instanceof ConditionalExpression) {
+            ConditionalExpression conditional = (ConditionalExpression) expr;
+            return hasTailCall(conditional.getThen()) || hasTailCall(conditional.getOtherwise());
+        }
+        if (expr instanceof CommaExpression) {
+            List<Expression> operands = ((CommaExpression) expr).getOperands();
+            return hasTailCall(operands.get(operands.size() - 1));
+        }
+        if (expr instanceof BinaryExpression) {
+            BinaryExpression binary = (BinaryExpression) expr;
+            return (binary.getOperator() == Operator.AND || binary.getOperator() == Operator.OR)
+                    && hasTailCall(binary.getRight());
+        }
+        return false;
+    }
+
     private final EnumSet<Parser.Option> parserOptions;
     private final boolean strict;
+    private final InterpretedFunction.Profile profile;
 
     public Interpreter(Script parsedScript) {
-        this.parserOptions = EnumSet.copyOf(parsedScript.getParserOptions());
-        this.strict = parsedScript.isStrict();
+        this(parsedScript.getParserOptions(), parsedScript.isStrict(), null);
+    }
+
+    private Interpreter(EnumSet<Parser.Option> parserOptions, boolean strict,
+            InterpretedFunction.Profile profile) {
+        this.parserOptions = EnumSet.copyOf(parserOptions);
+        this.strict = strict;
+        this.profile = profile;
     }
 
     /* ----------------------------------------------------------------------------------------- */
@@ -576,6 +699,95 @@ public final class Interpreter extends DefaultNodeVisitor<Object, ExecutionConte
         return GetValue(node.getExpression().accept(this, cx), cx);
     }
 
+    @Override
+    public Object visit(EmptyStatement node, ExecutionContext cx) {
+        return null;
+    }
+
+    @Override
+    public Object visit(BlockStatement node, ExecutionContext cx) {
+        Object completionValue = null;
+        for (StatementListItem stmt : node.getStatements()) {
+            lineInfo(stmt, cx);
+            Object val = stmt.accept(this, cx);
+            if (val != null) {
+                completionValue = val;
+            }
+        }
+        return completionValue;
+    }
+
+    @Override
+    public Object visit(WhileStatement node, ExecutionContext cx) {
+        while (ToBoolean(GetValue(node.getTest().accept(this, cx), cx))) {
+            lineInfo(node.getStatement(), cx);
+            node.getStatement().accept(this, cx);
+            backEdge(cx);
+            lineInfo(node, cx);
+        }
+        return null;
+    }
+
+    @Override
+    public Object visit(DoWhileStatement node, ExecutionContext cx) {
+        do {
+            lineInfo(node.getStatement(), cx);
+            node.getStatement().accept(this, cx);
+            backEdge(cx);
+            lineInfo(node, cx);
+        } while (ToBoolean(GetValue(node.getTest().accept(this, cx), cx)));
+        return null;
+    }
+
+    @Override
+    public Object visit(ForStatement node, ExecutionContext cx) {
+        Node head = node.getHead();
+        if (head instanceof Expression) {
+            GetValue(head.accept(this, cx), cx);
+        } else if (head != null) {
+            head.accept(this, cx);
+        }
+        Expression test = node.getTest(), step = node.getStep();
+        while (test == null || ToBoolean(GetValue(test.accept(this, cx), cx))) {
+            lineInfo(node.getStatement(), cx);
+            node.getStatement().accept(this, cx);
+            backEdge(cx);
+            lineInfo(node, cx);
+            if (step != null) {
+                GetValue(step.accept(this, cx), cx);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Updates the line number of the current interpreter frame, if any.
+     * 
+     * @param node
+     *            the current node
+     * @param cx
+     *            the execution context
+     */
+    private static void lineInfo(Node node, ExecutionContext cx) {
+        InterpreterFrames.Frame frame = cx.getInterpreterFrame();
+        if (frame != null) {
+            frame.setLineNumber(node.getBeginLine());
+        }
+    }
+
+    /**
+     * Counts a loop back-edge in the current interpreter frame.
+     * 
+     * @param cx
+     *            the execution context
+     */
+    private void backEdge(ExecutionContext cx) {
+        if (cx.getInterpreterFrame().incrementBackEdges() % BACK_EDGE_INTERVAL == 0
+                && profile != null) {
+            profile.backEdges((OrdinaryFunction) cx.getCurrentFunction(), BACK_EDGE_INTERVAL);
+        }
+    }
+
     @Override
     public Object visit(AssignmentExpression node, ExecutionContext cx) {
         if (node.getOperator() == AssignmentExpression.Operator.ASSIGN) {
@@ -939,7 +1151,15 @@ public final class Interpreter extends DefaultNodeVisitor<Object, ExecutionConte
      * {@link NodeVisitor} to test whether or not the script can be executed by the interpreter.
      */
     private static final class InterpreterTest extends DefaultNodeVisitor<Boolean, Void> {
-        static final DefaultNodeVisitor<Boolean, Void> INSTANCE = new InterpreterTest();
+        static final DefaultNodeVisitor<Boolean, Void> INSTANCE = new InterpreterTest(false);
+        /** Loops are only supported in function bodies */
+        static final DefaultNodeVisitor<Boolean, Void> FUNCTION = new InterpreterTest(true);
+
+        private final boolean loops;
+
+        private InterpreterTest(boolean loops) {
+            this.loops = loops;
+        }
 
         @Override
         protected Boolean visit(Node node, Void value) {
@@ -981,6 +1201,55 @@ public final class Interpreter extends DefaultNodeVisitor<Object, ExecutionConte
             return node.getExpression().accept(this, value);
         }
 
+        @Override
+        public Boolean visit(EmptyStatement node, Void value) {
+            return true;
+        }
+
+        @Override
+        public Boolean visit(BlockStatement node, Void value) {
+            if (node.getScope().isPresent()) {
+                return false;
+            }
+            for (StatementListItem stmt : node.getStatements()) {
+                if (!stmt.accept(this, value)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private boolean isSimpleLoop(IterationStatement node) {
+            return loops && !node.hasBreak() && !node.hasContinue();
+        }
+
+        @Override
+        public Boolean visit(WhileStatement node, Void value) {
+            return isSimpleLoop(node) && node.getTest().accept(this, value)
+                    && node.getStatement().accept(this, value);
+        }
+
+        @Override
+        public Boolean visit(DoWhileStatement node, Void value) {
+            return isSimpleLoop(node) && node.getTest().accept(this, value)
+                    && node.getStatement().accept(this, value);
+        }
+
+        @Override
+        public Boolean visit(ForStatement node, Void value) {
+            if (!isSimpleLoop(node) || node.getScope().isPresent()) {
+                return false;
+            }
+            Node head = node.getHead();
+            if (head != null && !(head instanceof Expression || head instanceof VariableStatement)) {
+                return false;
+            }
+            return (head == null || head.accept(this, value))
+                    && (node.getTest() == null || node.getTest().accept(this, value))
+                    && (node.getStep() == null || node.getStep().accept(this, value))
+                    && node.getStatement().accept(this, value);
+        }
+
         @Override
         public Boolean visit(CallExpression node, Void value) {
             if (!node.getBase().accept(this, value)) {
@@ -0,0 +1,148 @@
+/**
+ * Copyright (c) 2012-2015 André Bargull
+ * Alle Rechte vorbehalten / All Rights Reserved.  Use is subject to license terms.
+ *
+ * <https://github.com/anba/es6draft>
+ */
+package com.github.anba.es6draft.parser;
+
+import java.util.Set;
+
+import com.github.anba.es6draft.ast.MethodDefinition.MethodAllocation;
+
+/**
+ * The source location of a function, recorded by the parser to support lazy compilation.
+ * <p>
+ * The boundary retains the source code of the function and its start location in the enclosing
+ * source, and which parser production is used to parse it again, see
+ * {@link Parser#parseFunction(FunctionBoundary)}.
+ */
+public final class FunctionBoundary {
+    enum Kind {
+        FunctionDeclaration, FunctionExpression, GeneratorDeclaration, GeneratorExpression,
+        AsyncFunctionDeclaration, AsyncFunctionExpression, ArrowFunction, AsyncArrowFunction,
+        Method
+    }
+
+    private final String sourceCode;
+    private final Kind kind;
+    private final int line;
+    private final int column;
+    private final boolean allowIn;
+    private final boolean yieldAllowed;
+    private final boolean awaitAllowed;
+    private final MethodAllocation allocation;
+    private final boolean tailCalls;
+    private final Set<String> identifiers;
+
+    FunctionBoundary(String sourceCode, Kind kind, int line, int column, boolean allowIn,
+            boolean yieldAllowed, boolean awaitAllowed, MethodAllocation allocation,
+            boolean tailCalls, Set<String> identifiers) {
+        this.sourceCode = sourceCode;
+        this.kind = kind;
+        this.line = line;
+        this.column = column;
+        this.allowIn = allowIn;
+        this.yieldAllowed = yieldAllowed;
+        this.awaitAllowed = awaitAllowed;
+        this.allocation = allocation;
+        this.tailCalls = tailCalls;
+        this.identifiers = identifiers;
+    }
+
+    /**
+     * Returns the source code of the function, includes leading whitespace and comments.
+     *
+     * @return the source code
+     */
+    String getSourceCode() {
+        return sourceCode;
+    }
+
+    /**
+     * Returns the parser production of the function.
+     *
+     * @return the function kind
+     */
+    Kind getKind() {
+        return kind;
+    }
+
+    /**
+     * Returns the line number where the function's source code starts.
+     *
+     * @return the start line
+     */
+    int getLine() {
+        return line;
+    }
+
+    /**
+     * Returns the column offset where the function's source code starts.
+     *
+     * @return the start column
+     */
+    int getColumn() {
+        return column;
+    }
+
+    /**
+     * Returns {@code true} if the in-operator is allowed in a concise arrow function body.
+     *
+     * @return {@code true} if the in-operator is allowed
+     */
+    boolean isAllowIn() {
+        return allowIn;
+    }
+
+    /**
+     * Returns {@code true} if the function is nested in a context which allows yield expressions.
+     *
+     * @return {@code true} if yield expressions are allowed in the enclosing context
+     */
+    boolean isYieldAllowed() {
+        return yieldAllowed;
+    }
+
+    /**
+     * Returns {@code true} if the function is nested in a context which allows await expressions.
+     *
+     * @return {@code true} if await expressions are allowed in the enclosing context
+     */
+    boolean isAwaitAllowed() {
+        return awaitAllowed;
+    }
+
+    /**
+     * Returns the method allocation kind for method definitions.
+     *
+     * @return the method allocation or {@code null} if the function is not a method
+     */
+    MethodAllocation getAllocation() {
+        return allocation;
+    }
+
+    /**
+     * Returns {@code true} if the function contains a return statement or concise body in strict
+     * mode code whose expression has a call in tail position. The compiled function may still use
+     * non-tail calls for these nodes, for example when the return statement is nested in a
+     * try-finally statement.
+     *
+     * @return {@code true} if the function may contain tail calls
+     */
+    public boolean hasTailCalls() {
+        return tailCalls;
+    }
+
+    /**
+     * Returns the identifiers referenced in the function body if the body was pre-parsed. The set
+     * is a superset of the free variables of the function body, it also contains names declared in
+     * the body and property names.
+     *
+     * @return the identifiers of the pre-parsed function body or {@code null} if the function body
+     *         was parsed completely
+     */
+    public Set<String> getIdentifiers() {
+        return identifiers;
+    }
+}
@@ -11,6 +11,7 @@ import static com.github.anba.es6draft.runtime.types.Null.NULL;
 import static com.github.anba.es6draft.runtime.types.builtins.ArrayObject.ArrayCreate;
 import static com.github.anba.es6draft.runtime.types.builtins.OrdinaryObject.ObjectCreate;
 
+import com.github.anba.es6draft.runtime.AtomTable;
 import com.github.anba.es6draft.runtime.ExecutionContext;
 import com.github.anba.es6draft.runtime.types.Intrinsics;
 import com.github.anba.es6draft.runtime.types.builtins.ArrayObject;
@@ -22,9 +23,11 @@ import com.github.anba.es6draft.runtime.types.builtins.OrdinaryObject;
 public final class JSONObjectBuilder implements
         JSONBuilder<Object, OrdinaryObject, ArrayObject, Object> {
     private final ExecutionContext cx;
+    private final AtomTable atoms;
 
     public JSONObjectBuilder(ExecutionContext cx) {
         this.cx = cx;
+        this.atoms = cx.getRealm().getAtomTable();
     }
 
     @Override
@@ -50,7 +53,8 @@ public final class JSONObjectBuilder implements
     @Override
     public void finishProperty(OrdinaryObject object, String name, String rawName, long index,
             Object value) {
-        CreateDataPropertyOrThrow(cx, object, name, value);
+        // Objects in JSON documents often share the same property names.
+        CreateDataPropertyOrThrow(cx, object, atoms.intern(name), value);
     }
 
     @Override
@@ -56,6 +56,8 @@ public final class Parser {
     private TokenStream ts;
     private ParseContext context;
     private boolean moduleCode;
+    private String sourceCode;
+    private ParseContext lazyFunctionParent;
 
     private enum StrictMode {
         Unknown, Strict, NonStrict
@@ -147,6 +149,7 @@ public final class Parser {
         boolean returnAllowed = false;
         boolean legacyGenerator = false;
         boolean explicitStrict = false;
+        boolean isClassConstructor = false;
         boolean isDerivedClassConstructor = false;
 
         StrictMode strictMode = StrictMode.Unknown;
@@ -366,6 +369,9 @@ public final class Parser {
         boolean needsArguments;
         boolean directEval;
         boolean superReference;
+        boolean tailCalls;
+        Set<String> identifiers;
+        FunctionBoundary boundary;
 
         FunctionContext(ScopeContext enclosing, boolean isLexical) {
             super(enclosing);
@@ -571,6 +577,11 @@ public final class Parser {
         public List<FunctionDeclaration> blockFunctions() {
             return emptyIfNull(blockFunctions);
         }
+
+        @Override
+        public FunctionBoundary boundary() {
+            return boundary;
+        }
     }
 
     private static final class FunctionBodyContext extends ScopeContext {
@@ -1082,6 +1093,13 @@ public final class Parser {
          * Parse functions as native.
          */
         NativeFunction,
+
+        /**
+         * Only scan function bodies for balanced brackets and early errors which don't require a
+         * syntax tree, the statements of function bodies are not parsed. The function is parsed
+         * completely from its {@link FunctionBoundary} when it is compiled.
+         */
+        PreParse,
     }
 
     public Parser(Source source, EnumSet<CompatibilityOption> options, EnumSet<Option> parserOptions) {
@@ -1889,6 +1907,7 @@ public final class Parser {
         if (ts != null)
             throw new IllegalStateException();
         ts = new TokenStream(this, new TokenStreamInput(source));
+        sourceCode = source;
         return script();
     }
 
@@ -1909,6 +1928,81 @@ public final class Parser {
         return module();
     }
 
+    /**
+     * Parses a function from its recorded source location. The function is parsed as if it was
+     * the only declaration of an eval-script, the returned function node is enclosed by the
+     * synthetic script node.
+     * 
+     * @param boundary
+     *            the function boundary
+     * @return the parsed function
+     * @throws ParserException
+     *             if the input source could not be parsed successfully
+     */
+    public FunctionNode parseFunction(FunctionBoundary boundary) throws ParserException {
+        if (ts != null)
+            throw new IllegalStateException();
+
+        newContext(ContextKind.Script);
+        try {
+            applyStrictMode(false);
+            context.yieldAllowed = boundary.isYieldAllowed();
+            context.awaitAllowed = boundary.isAwaitAllowed();
+
+            sourceCode = boundary.getSourceCode();
+            lazyFunctionParent = context;
+            ts = new TokenStream(this, new TokenStreamInput(sourceCode));
+            // Negative line start to report columns relative to the enclosing source.
+            ts.reset(0, ((long) boundary.getLine() << 32) | (-boundary.getColumn() & 0xFFFFFFFFL));
+            long begin = ts.beginPosition();
+
+            FunctionNode function;
+            switch (boundary.getKind()) {
+            case FunctionDeclaration:
+                function = functionDeclaration(false);
+                break;
+            case FunctionExpression:
+                function = functionExpression();
+                break;
+            case GeneratorDeclaration:
+                function = generatorDeclaration(false, false);
+                break;
+            case GeneratorExpression:
+                function = generatorExpression(false);
+                break;
+            case AsyncFunctionDeclaration:
+                function = asyncFunctionDeclaration(false);
+                break;
+            case AsyncFunctionExpression:
+                function = asyncFunctionExpression();
+                break;
+            case ArrowFunction:
+                function = arrowFunction(boundary.isAllowIn());
+                break;
+            case AsyncArrowFunction:
+                function = asyncArrowFunction(boundary.isAllowIn());
+                break;
+            case Method:
+                function = (MethodDefinition) methodDefinition(boundary.getAllocation(), false,
+                        NO_DECORATORS);
+                break;
+            default:
+                throw new AssertionError();
+            }
+            assert context.assertLiteralsUnchecked(0);
+            boolean strict = (context.strictMode == StrictMode.Strict);
+
+            ScriptContext scope = context.scriptContext;
+            Script script = new Script(begin, ts.endPosition(), source, scope,
+                    Collections.<StatementListItem> emptyList(), options, parserOptions, strict);
+            scope.node = script;
+
+            return function;
+        } finally {
+            restoreContext();
+        }
+    }
+
     /**
      * Parses the input source as function code.
      * 
@@ -2995,6 +3089,48 @@ public final class Parser {
         }
     }
 
+    private <FUNCTION extends FunctionNode> FUNCTION preParsed(FUNCTION function,
+            FunctionBoundary.Kind kind, int start, long lineinfo, boolean allowIn) {
+        if (!hasFunctionBoundary()) {
+            return function;
+        }
+        MethodAllocation allocation = null;
+        if (function instanceof MethodDefinition) {
+            allocation = ((MethodDefinition) function).getAllocation();
+        }
+        ParseContext context = this.context;
+        FunctionContext scope = context.funContext;
+        String functionSource = ts.range(start, ts.position());
+        int line = (int) (lineinfo >>> 32), column = start - (int) lineinfo;
+        scope.boundary = new FunctionBoundary(functionSource, kind, line, column, allowIn,
+                context.parent.yieldAllowed, context.parent.awaitAllowed, allocation,
+                scope.tailCalls, scope.identifiers);
+        return function;
+    }
+
+    /**
+     * Returns {@code true} if the current function can be parsed again from a
+     * {@link FunctionBoundary}.
+     * 
+     * @return {@code true} if a function boundary is recorded for the current function
+     */
+    private boolean hasFunctionBoundary() {
+        if (sourceCode == null || moduleCode || isEnabled(Option.NativeFunction)) {
+            return false;
+        }
+        // Legacy generators are only detected when parsing the function body and class
+        // constructors are compiled together with their class definition.
+        return !context.legacyGenerator && !context.isClassConstructor;
+    }
+
+    private void tailCallCandidate(Expression expr) {
+        ParseContext context = this.context;
+        if (context.funContext != null && context.strictMode != StrictMode.NonStrict
+                && !TailCallNodes(expr).isEmpty()) {
+            context.funContext.tailCalls = true;
+        }
+    }
+
     /**
      * <strong>[14.1] Function Definitions</strong>
      * 
@@ -3009,6 +3145,8 @@ public final class Parser {
      * @return the parsed function declaration
      */
     private FunctionDeclaration functionDeclaration(boolean isDefault) {
+        int start = ts.position();
+        long lineinfo = ts.lineinfo();
         newContext(ContextKind.Function);
         try {
             long begin = ts.beginPosition();
@@ -3060,7 +3198,8 @@ public final class Parser {
             function_EarlyErrors(function);
             addFunctionDeclaration(function, hasName && isDefault);
 
-            return inheritStrictness(function);
+            return preParsed(inheritStrictness(function),
+                    FunctionBoundary.Kind.FunctionDeclaration, start, lineinfo, true);
         } finally {
             restoreContext();
         }
@@ -3077,6 +3216,8 @@ public final class Parser {
      * @return the parsed function expression
      */
     private FunctionExpression functionExpression() {
+        int start = ts.position();
+        long lineinfo = ts.lineinfo();
         long begin = ts.beginPosition();
         consume(Token.FUNCTION);
         boolean hasName = token() != Token.LP;
@@ -3127,7 +3268,8 @@ public final class Parser {
 
             function_EarlyErrors(function);
 
-            return inheritStrictness(function);
+            return preParsed(inheritStrictness(function),
+                    FunctionBoundary.Kind.FunctionExpression, start, lineinfo, true);
         } finally {
             restoreContext();
             if (hasName) {
@@ -3368,7 +3510,13 @@ public final class Parser {
         if (context.strictMode != StrictMode.Strict) {
             context.funContext.lexicalScope = enterFunctionBodyContext();
         }
-        List<StatementListItem> body = statementList(end);
+        List<StatementListItem> body;
+        if (end == Token.RC && isEnabled(Option.PreParse) && context.parent != lazyFunctionParent
+                && hasFunctionBoundary()) {
+            body = preParseFunctionBody();
+        } else {
+            body = statementList(end);
+        }
         if (context.strictMode != StrictMode.Strict) {
             exitFunctionBodyContext();
         }
@@ -3380,6 +3528,478 @@ public final class Parser {
         return merge(prologue, body);
     }
 
+    /**
+     * Skips over the function body if it can be scanned without building its syntax tree, otherwise
+     * the function body is parsed completely.
+     * 
+     * @return the list of parsed statement list items
+     */
+    private List<StatementListItem> preParseFunctionBody() {
+        long position = ts.position(), lineinfo = ts.lineinfo();
+        try {
+            if (skipFunctionBody()) {
+                return Collections.emptyList();
+            }
+        } catch (ParserException e) {
+            // Report the error from the parser.
+        }
+        ts.reset(position, lineinfo);
+        return statementList(Token.RC);
+    }
+
+    private enum BracketKind {
+        Paren, ConditionParen, Bracket, Block, ObjectLiteral, FunctionBody, ClassBody, Unknown,
+        Template
+    }
+
+    private static final class BracketContext {
+        final BracketContext parent;
+        final BracketKind kind;
+        int conditionals;
+        int classes;
+
+        BracketContext(BracketContext parent, BracketKind kind) {
+            this.parent = parent;
+            this.kind = kind;
+        }
+
+        boolean isStatementList() {
+            return kind == BracketKind.Block || kind == BracketKind.FunctionBody;
+        }
+    }
+
+    /**
+     * Scans the function body for balanced brackets and the early errors which can be detected
+     * from the tokens alone. No syntax tree is created, the identifiers of the function body and
+     * the function flags are recorded in the current function context. The token stream is
+     * positioned at the closing brace of the function body if the scan was successful.
+     * <p>
+     * Returns {@code false} if the tokens of the function body cannot be classified without
+     * parsing them, for example a slash after a function expression, or if the scan detected an
+     * early error. The function body needs to be parsed completely in that case.
+     * 
+     * @return {@code true} if the function body was skipped
+     */
+    private boolean skipFunctionBody() {
+        ParseContext context = this.context;
+        if (context.strictMode == StrictMode.Unknown) {
+            return false;
+        }
+        boolean strictFunction = context.strictMode == StrictMode.Strict;
+        HashSet<String> identifiers = new HashSet<>();
+        boolean usesArguments = false, usesEval = false, usesSuper = false, hasReturn = false;
+        boolean hasFunction = false;
+        BracketContext brackets = new BracketContext(null, BracketKind.FunctionBody);
+        BracketKind closed = null;
+        Token previous = Token.LC;
+        String previousName = null;
+        boolean propertyName = false, conditionalColon = false, deleteName = false;
+        int classBodies = 0;
+        for (Token tok = token();; tok = ts.nextToken()) {
+            // Class bodies are strict mode code.
+            boolean strict = strictFunction || classBodies > 0;
+            boolean previousProperty = propertyName;
+            propertyName = previous == Token.DOT;
+            if (deleteName) {
+                // 12.5.4.1 Static Semantics: Early Errors
+                deleteName = false;
+                if (tok != Token.DOT && tok != Token.LB && tok != Token.LP
+                        && tok != Token.TEMPLATE) {
+                    return false;
+                }
+            }
+            if (strict && isRestrictedName(previousName)
+                    && (Token.isAssignmentOperator(tok) || tok == Token.INC || tok == Token.DEC)) {
+                // 12.1.1 Static Semantics: Early Errors
+                return false;
+            }
+            String name = null;
+            switch (tok) {
+            case NAME:
+            case ESCAPED_NAME:
+                name = ts.getString();
+                break;
+            case LET:
+            case ASYNC:
+                name = tok.getName();
+                break;
+            case STATIC:
+                if (strict && !propertyName && brackets.kind != BracketKind.ClassBody) {
+                    return false;
+                }
+                name = tok.getName();
+                break;
+            case IMPLEMENTS:
+            case INTERFACE:
+            case PACKAGE:
+            case PRIVATE:
+            case PROTECTED:
+            case PUBLIC:
+                if (strict && !propertyName) {
+                    return false;
+                }
+                name = tok.getName();
+                break;
+            case ESCAPED_RESERVED_WORD:
+            case ESCAPED_STRICT_RESERVED_WORD:
+            case ESCAPED_YIELD:
+            case ESCAPED_ASYNC:
+            case ESCAPED_AWAIT:
+            case ESCAPED_LET:
+                if (!propertyName) {
+                    return false;
+                }
+                break;
+            case YIELD:
+                // Either an identifier, a legacy generator or a yield in a nested function.
+                if (!propertyName && (!context.yieldAllowed || hasFunction)) {
+                    return false;
+                }
+                break;
+            case AWAIT:
+                if (!propertyName && (!context.awaitAllowed || hasFunction)) {
+                    return false;
+                }
+                break;
+            case WITH:
+                // 13.11.1 Static Semantics: Early Errors
+                if (strict && !propertyName) {
+                    return false;
+                }
+                break;
+            case FUNCTION:
+                hasFunction |= !propertyName;
+                break;
+            case CLASS:
+                if (!propertyName) {
+                    brackets.classes += 1;
+                }
+                break;
+            case SUPER:
+                if (!propertyName) {
+                    // super() and new super() are only allowed in class constructors.
+                    if (!context.findSuperContext().kind.isMethod() || hasFunction
+                            || previous == Token.NEW) {
+                        return false;
+                    }
+                    usesSuper = true;
+                }
+                break;
+            case RETURN:
+                hasReturn |= !propertyName;
+                break;
+            case HOOK:
+                if (previous == Token.HOOK) {
+                    // Report the error from the parser.
+                    return false;
+                }
+                brackets.conditionals += 1;
+                break;
+            case DOT:
+                if (previous == Token.HOOK) {
+                    return false;
+                }
+                break;
+            case TRIPLE_DOT:
+                if (brackets.kind == BracketKind.ObjectLiteral) {
+                    return false;
+                }
+                break;
+            case COLON:
+                conditionalColon = brackets.conditionals > 0;
+                if (conditionalColon) {
+                    brackets.conditionals -= 1;
+                }
+                break;
+            case DIV:
+            case ASSIGN_DIV: {
+                Boolean regExp = isRegularExpression(previous, previousProperty, previousName,
+                        closed);
+                if (regExp == null) {
+                    return false;
+                }
+                if (regExp) {
+                    long begin = ts.beginPosition();
+                    String pattern = ts.readRegularExpression(tok);
+                    String flags = ts.readRegularExpressionFlags();
+                    regularExpressionLiteral_EarlyErrors(begin, pattern, flags);
+                    tok = Token.REGEXP;
+                }
+                break;
+            }
+            case TEMPLATE:
+                ts.readTemplateLiteral(Token.TEMPLATE);
+                if (ts.currentToken() == Token.LC) {
+                    brackets = new BracketContext(brackets, BracketKind.Template);
+                    tok = Token.LC;
+                }
+                break;
+            case LP:
+                if (previous == Token.SUPER) {
+                    return false;
+                }
+                if ("eval".equals(previousName)) {
+                    usesEval = true;
+                }
+                brackets = new BracketContext(brackets,
+                        isConditionKeyword(previous) && !previousProperty
+                                ? BracketKind.ConditionParen : BracketKind.Paren);
+                break;
+            case LB:
+                brackets = new BracketContext(brackets, BracketKind.Bracket);
+                break;
+            case LC:
+                if (previous == Token.CATCH) {
+                    return false;
+                }
+                brackets = new BracketContext(brackets, braceKind(previous, previousName,
+                        closed, conditionalColon, ts.hasCurrentLineTerminator(), brackets));
+                if (brackets.kind == BracketKind.ClassBody) {
+                    classBodies += 1;
+                }
+                break;
+            case RP:
+                if (brackets.kind != BracketKind.Paren
+                        && brackets.kind != BracketKind.ConditionParen) {
+                    return false;
+                }
+                closed = brackets.kind;
+                brackets = brackets.parent;
+                break;
+            case RB:
+                if (brackets.kind != BracketKind.Bracket) {
+                    return false;
+                }
+                closed = brackets.kind;
+                brackets = brackets.parent;
+                break;
+            case RC:
+                if (brackets.parent == null) {
+                    // End of the function body.
+                    FunctionContext funContext = context.funContext;
+                    if (funContext.parameterNames != null) {
+                        for (Name parameter : funContext.parameterNames) {
+                            identifiers.remove(parameter.getIdentifier());
+                        }
+                    }
+                    funContext.identifiers = identifiers;
+                    if (usesArguments) {
+                        funContext.needsArguments(false);
+                    }
+                    if (usesEval) {
+                        context.setHasEval();
+                    }
+                    if (usesSuper) {
+                        context.findSuperContext().setNeedsSuperBinding();
+                    }
+                    if (hasReturn && strictFunction) {
+                        // Conservatively assume the function has tail calls.
+                        funContext.tailCalls = true;
+                    }
+                    return true;
+                }
+                if (brackets.kind == BracketKind.Template) {
+                    if (previous == Token.LC) {
+                        // Empty template substitution.
+                        return false;
+                    }
+                    brackets = brackets.parent;
+                    ts.readTemplateLiteral(Token.RC);
+                    if (ts.currentToken() == Token.LC) {
+                        brackets = new BracketContext(brackets, BracketKind.Template);
+                        tok = Token.LC;
+                    } else {
+                        tok = Token.TEMPLATE;
+                    }
+                    break;
+                }
+                if (brackets.kind == BracketKind.Paren
+                        || brackets.kind == BracketKind.ConditionParen
+                        || brackets.kind == BracketKind.Bracket) {
+                    return false;
+                }
+                if (brackets.kind == BracketKind.ClassBody) {
+                    classBodies -= 1;
+                }
+                closed = brackets.kind;
+                brackets = brackets.parent;
+                break;
+            case EOF:
+                return false;
+            default:
+            }
+            if (name != null && !propertyName) {
+                identifiers.add(name);
+                usesArguments |= "arguments".equals(name);
+                if (strict && isRestrictedName(name) && isBindingKeyword(previous)) {
+                    // 12.1.1 Static Semantics: Early Errors
+                    return false;
+                }
+                deleteName = strict && previous == Token.DELETE;
+                previousName = name;
+            } else {
+                previousName = null;
+            }
+            previous = tok;
+        }
+    }
+
+    private static boolean isRestrictedName(String name) {
+        return "eval".equals(name) || "arguments".equals(name);
+    }
+
+    private static boolean isBindingKeyword(Token token) {
+        switch (token) {
+        case VAR:
+        case LET:
+        case CONST:
+        case FUNCTION:
+        case CLASS:
+        case INC:
+        case DEC:
+            return true;
+        default:
+            return false;
+        }
+    }
+
+    private static boolean isConditionKeyword(Token token) {
+        switch (token) {
+        case IF:
+        case WHILE:
+        case FOR:
+        case WITH:
+        case SWITCH:
+        case CATCH:
+            return true;
+        default:
+            return false;
+        }
+    }
+
+    /**
+     * Returns {@code true} if the token completes an operand, i.e. a following slash is a division
+     * operator.
+     * 
+     * @param token
+     *            the token to inspect
+     * @return {@code true} if the token ends an operand
+     */
+    private static boolean isOperandEnd(Token token) {
+        switch (token) {
+        case NAME:
+        case ESCAPED_NAME:
+        case LET:
+        case ASYNC:
+        case STATIC:
+        case IMPLEMENTS:
+        case INTERFACE:
+        case PACKAGE:
+        case PRIVATE:
+        case PROTECTED:
+        case PUBLIC:
+        case THIS:
+        case SUPER:
+        case NULL:
+        case TRUE:
+        case FALSE:
+        case NUMBER:
+        case STRING:
+        case REGEXP:
+        case TEMPLATE:
+        case RB:
+        case INC:
+        case DEC:
+            return true;
+        default:
+            return false;
+        }
+    }
+
+    /**
+     * Returns {@code true} if a slash after the previous token starts a regular expression literal
+     * or {@code null} if it cannot be decided without parsing.
+     */
+    private static Boolean isRegularExpression(Token previous, boolean propertyName,
+            String previousName, BracketKind closed) {
+        if (propertyName) {
+            return false;
+        }
+        switch (previous) {
+        case RP:
+            return closed == BracketKind.ConditionParen;
+        case RC:
+            // Unknown if the brace closes a function or class expression or declaration.
+            if (closed == BracketKind.Block) {
+                return true;
+            }
+            if (closed == BracketKind.ObjectLiteral) {
+                return false;
+            }
+            return null;
+        default:
+            if ("of".equals(previousName)) {
+                // Either the contextual keyword in for-of statements or an identifier.
+                return null;
+            }
+            return !isOperandEnd(previous);
+        }
+    }
+
+    /**
+     * Returns the kind of the brace after the previous token.
+     */
+    private static BracketKind braceKind(Token previous, String previousName,
+            BracketKind closed, boolean conditionalColon, boolean lineTerminator,
+            BracketContext brackets) {
+        if (brackets.classes > 0) {
+            brackets.classes -= 1;
+            return BracketKind.ClassBody;
+        }
+        switch (previous) {
+        case RP:
+            return closed == BracketKind.ConditionParen ? BracketKind.Block
+                    : BracketKind.FunctionBody;
+        case ARROW:
+            return BracketKind.FunctionBody;
+        case LC:
+            if (brackets.kind == BracketKind.Template) {
+                return BracketKind.ObjectLiteral;
+            }
+            return brackets.isStatementList() ? BracketKind.Block : BracketKind.Unknown;
+        case COLON:
+            if (conditionalColon) {
+                return BracketKind.ObjectLiteral;
+            }
+            if (brackets.isStatementList()) {
+                // Labelled statement or case clause.
+                return BracketKind.Block;
+            }
+            return brackets.kind == BracketKind.Unknown ? BracketKind.Unknown
+                    : BracketKind.ObjectLiteral;
+        case RC:
+        case SEMI:
+        case ELSE:
+        case DO:
+        case TRY:
+        case FINALLY:
+            return BracketKind.Block;
+        case RETURN:
+        case YIELD:
+        case AWAIT:
+            // Automatic semicolon insertion before the brace.
+            return lineTerminator ? BracketKind.Block : BracketKind.ObjectLiteral;
+        case LET:
+            return BracketKind.ObjectLiteral;
+        default:
+            if ("of".equals(previousName)) {
+                return BracketKind.ObjectLiteral;
+            }
+            // Automatic semicolon insertion after an operand.
+            return isOperandEnd(previous) ? BracketKind.Block : BracketKind.ObjectLiteral;
+        }
+    }
+
     private void computeBlockFunctions() {
         assert context.kind.isFunction();
         if (!isEnabled(CompatibilityOption.BlockFunctionDeclaration)) {
@@ -3447,6 +4067,7 @@ public final class Parser {
             context.funContext.lexicalScope = enterFunctionBodyContext();
         }
         Expression expr = assignmentExpression(true);
+        tailCallCandidate(expr);
         if (context.strictMode != StrictMode.Strict) {
             exitFunctionBodyContext();
         }
@@ -3484,6 +4105,8 @@ public final class Parser {
      * @return the parsed arrow function
      */
     private ArrowFunction arrowFunction(boolean allowIn) {
+        int start = ts.position();
+        long lineinfo = ts.lineinfo();
         newContext(ContextKind.ArrowFunction);
         try {
             long begin = ts.beginPosition();
@@ -3529,7 +4152,8 @@ public final class Parser {
 
                 arrowFunction_EarlyErrors(function);
 
-                return inheritStrictness(function);
+                return preParsed(inheritStrictness(function),
+                        FunctionBoundary.Kind.ArrowFunction, start, lineinfo, allowIn);
             } else {
                 int startBody = ts.position();
                 Expression expression = arrowFunctionExpressionBody(parameters, allowIn);
@@ -3545,7 +4169,8 @@ public final class Parser {
 
                 arrowFunction_EarlyErrors(function);
 
-                return inheritStrictness(function);
+                return preParsed(inheritStrictness(function),
+                        FunctionBoundary.Kind.ArrowFunction, start, lineinfo, allowIn);
             }
         } finally {
             restoreContext();
@@ -3568,6 +4193,7 @@ public final class Parser {
             context.funContext.lexicalScope = enterFunctionBodyContext();
         }
         Expression expression = assignmentExpression(allowIn);
+        tailCallCandidate(expression);
         if (context.strictMode != StrictMode.Strict) {
             exitFunctionBodyContext();
         }
@@ -3645,6 +4271,8 @@ public final class Parser {
      */
     private PropertyDefinition normalMethod(MethodAllocation allocation, boolean hasExtends,
             List<Expression> decorators) {
+        int start = ts.position();
+        long lineinfo = ts.lineinfo();
         long begin = ts.beginPosition();
         PropertyName propertyName = propertyName();
         if (token() == Token.ASSIGN && allocation == MethodAllocation.Class && decorators.isEmpty()
@@ -3653,16 +4281,19 @@ public final class Parser {
             Expression propertyValue = assignmentExpression(true);
             return new PropertyValueDefinition(begin, ts.endPosition(), propertyName, propertyValue);
         }
-        return normalMethod(allocation, hasExtends, decorators, begin, propertyName);
+        return normalMethod(allocation, hasExtends, decorators, begin, propertyName, start,
+                lineinfo);
     }
 
     private MethodDefinition normalMethod(MethodAllocation allocation, boolean hasExtends,
-            List<Expression> decorators, long begin, PropertyName propertyName) {
+            List<Expression> decorators, long begin, PropertyName propertyName, int start,
+            long lineinfo) {
         newContext(ContextKind.Method);
         try {
             MethodType type;
             if (allocation == MethodAllocation.Prototype
                     && "constructor".equals(propertyName.getName())) {
+                context.isClassConstructor = true;
                 context.isDerivedClassConstructor = hasExtends;
                 type = hasExtends ? MethodType.DerivedConstructor : MethodType.BaseConstructor;
             } else {
@@ -3693,7 +4324,8 @@ public final class Parser {
 
             methodDefinition_EarlyErrors(method);
 
-            return inheritStrictness(method);
+            return preParsed(inheritStrictness(method),
+                    FunctionBoundary.Kind.Method, start, lineinfo, true);
         } finally {
             restoreContext();
         }
@@ -3714,6 +4346,8 @@ public final class Parser {
      * @return the parsed getter method definition
      */
     private MethodDefinition getterMethod(MethodAllocation allocation, List<Expression> decorators) {
+        int start = ts.position();
+        long lineinfo = ts.lineinfo();
         long begin = ts.beginPosition();
 
         consume(Token.NAME); // "get"
@@ -3754,7 +4388,8 @@ public final class Parser {
 
             methodDefinition_EarlyErrors(method);
 
-            return inheritStrictness(method);
+            return preParsed(inheritStrictness(method),
+                    FunctionBoundary.Kind.Method, start, lineinfo, true);
         } finally {
             restoreContext();
         }
@@ -3775,6 +4410,8 @@ public final class Parser {
      * @return the parsed setter method definition
      */
     private MethodDefinition setterMethod(MethodAllocation allocation, List<Expression> decorators) {
+        int start = ts.position();
+        long lineinfo = ts.lineinfo();
         long begin = ts.beginPosition();
 
         consume(Token.NAME); // "set"
@@ -3815,7 +4452,8 @@ public final class Parser {
 
             methodDefinition_EarlyErrors(method);
 
-            return inheritStrictness(method);
+            return preParsed(inheritStrictness(method),
+                    FunctionBoundary.Kind.Method, start, lineinfo, true);
         } finally {
             restoreContext();
         }
@@ -3897,6 +4535,8 @@ public final class Parser {
      */
     private MethodDefinition generatorMethod(MethodAllocation allocation,
             List<Expression> decorators) {
+        int start = ts.position();
+        long lineinfo = ts.lineinfo();
         long begin = ts.beginPosition();
         consume(Token.MUL);
         PropertyName propertyName = propertyName();
@@ -3929,7 +4569,8 @@ public final class Parser {
 
             methodDefinition_EarlyErrors(method);
 
-            return inheritStrictness(method);
+            return preParsed(inheritStrictness(method),
+                    FunctionBoundary.Kind.Method, start, lineinfo, true);
         } finally {
             restoreContext();
         }
@@ -3953,6 +4594,8 @@ public final class Parser {
      * @return the parsed generator declaration
      */
     private GeneratorDeclaration generatorDeclaration(boolean isDefault, boolean isLegacy) {
+        int start = ts.position();
+        long lineinfo = ts.lineinfo();
         newContext(ContextKind.Generator);
         try {
             context.legacyGenerator = isLegacy;
@@ -4004,7 +4647,8 @@ public final class Parser {
             generator_EarlyErrors(generator);
             addDeclaration(generator, hasName && isDefault);
 
-            return inheritStrictness(generator);
+            return preParsed(inheritStrictness(generator),
+                    FunctionBoundary.Kind.GeneratorDeclaration, start, lineinfo, true);
         } finally {
             restoreContext();
         }
@@ -4023,6 +4667,8 @@ public final class Parser {
      * @return the parsed generator expression declaration
      */
     private GeneratorExpression generatorExpression(boolean isLegacy) {
+        int start = ts.position();
+        long lineinfo = ts.lineinfo();
         long begin = ts.beginPosition();
         consume(Token.FUNCTION);
         if (!isLegacy) {
@@ -4073,7 +4719,8 @@ public final class Parser {
 
             generator_EarlyErrors(generator);
 
-            return inheritStrictness(generator);
+            return preParsed(inheritStrictness(generator),
+                    FunctionBoundary.Kind.GeneratorExpression, start, lineinfo, true);
         } finally {
             restoreContext();
             if (hasName) {
@@ -4530,6 +5177,8 @@ public final class Parser {
      * @return the parsed async function declaration
      */
     private AsyncFunctionDeclaration asyncFunctionDeclaration(boolean isDefault) {
+        int start = ts.position();
+        long lineinfo = ts.lineinfo();
         newContext(ContextKind.AsyncFunction);
         try {
             long begin = ts.beginPosition();
@@ -4575,7 +5224,8 @@ public final class Parser {
             asyncFunction_EarlyErrors(function);
             addDeclaration(function, hasName && isDefault);
 
-            return inheritStrictness(function);
+            return preParsed(inheritStrictness(function),
+                    FunctionBoundary.Kind.AsyncFunctionDeclaration, start, lineinfo, true);
         } finally {
             restoreContext();
         }
@@ -4592,6 +5242,8 @@ public final class Parser {
      * @return the parsed async function expression
      */
     private AsyncFunctionExpression asyncFunctionExpression() {
+        int start = ts.position();
+        long lineinfo = ts.lineinfo();
         long begin = ts.beginPosition();
         consume(Token.ASYNC);
         if (!noLineTerminator()) {
@@ -4635,7 +5287,8 @@ public final class Parser {
 
             asyncFunction_EarlyErrors(function);
 
-            return inheritStrictness(function);
+            return preParsed(inheritStrictness(function),
+                    FunctionBoundary.Kind.AsyncFunctionExpression, start, lineinfo, true);
         } finally {
             restoreContext();
             if (hasName) {
@@ -4680,6 +5333,8 @@ public final class Parser {
      * @return the parsed async arrow function
      */
     private AsyncArrowFunction asyncArrowFunction(boolean allowIn) {
+        int start = ts.position();
+        long lineinfo = ts.lineinfo();
         newContext(ContextKind.AsyncArrowFunction);
         try {
             long begin = ts.beginPosition();
@@ -4728,7 +5383,8 @@ public final class Parser {
 
                 asyncArrowFunction_EarlyErrors(function);
 
-                return inheritStrictness(function);
+                return preParsed(inheritStrictness(function),
+                        FunctionBoundary.Kind.AsyncArrowFunction, start, lineinfo, allowIn);
             } else {
                 int startBody = ts.position();
                 Expression expression = arrowFunctionExpressionBody(parameters, allowIn);
@@ -4744,7 +5400,8 @@ public final class Parser {
 
                 asyncArrowFunction_EarlyErrors(function);
 
-                return inheritStrictness(function);
+                return preParsed(inheritStrictness(function),
+                        FunctionBoundary.Kind.AsyncArrowFunction, start, lineinfo, allowIn);
             }
         } finally {
             restoreContext();
@@ -4780,6 +5437,8 @@ public final class Parser {
      * @return the parsed async method
      */
     private MethodDefinition asyncMethod(MethodAllocation allocation, List<Expression> decorators) {
+        int start = ts.position();
+        long lineinfo = ts.lineinfo();
         long begin = ts.beginPosition();
 
         consume(Token.ASYNC);
@@ -4816,7 +5475,8 @@ public final class Parser {
 
             methodDefinition_EarlyErrors(method);
 
-            return inheritStrictness(method);
+            return preParsed(inheritStrictness(method),
+                    FunctionBoundary.Kind.Method, start, lineinfo, true);
         } finally {
             restoreContext();
         }
@@ -6121,6 +6781,7 @@ public final class Parser {
         if (noLineTerminator()
                 && !(token() == Token.SEMI || token() == Token.RC || token() == Token.EOF)) {
             expr = expression(true);
+            tailCallCandidate(expr);
         }
         semicolon();
         return new ReturnStatement(begin, ts.endPosition(), expr);
@@ -7538,6 +8199,8 @@ public final class Parser {
     private PropertyDefinition propertyDefinition() {
         long begin = ts.beginPosition();
         if (token() == Token.LB) {
+            int start = ts.position();
+            long lineinfo = ts.lineinfo();
             // either `PropertyName : AssignmentExpression` or MethodDefinition (normal)
             ComputedPropertyName propertyName = computedPropertyName();
             if (token() == Token.COLON) {
@@ -7549,7 +8212,8 @@ public final class Parser {
                 return new PropertyValueDefinition(begin, ts.endPosition(), propertyName,
                         propertyValue);
             }
-            return normalMethod(MethodAllocation.Object, false, NO_DECORATORS, begin, propertyName);
+            return normalMethod(MethodAllocation.Object, false, NO_DECORATORS, begin, propertyName,
+                    start, lineinfo);
         }
         if (token() == Token.TRIPLE_DOT
                 && (isEnabled(CompatibilityOption.ObjectSpreadInitializer) || isEnabled(CompatibilityOption.ObjectRestDestructuring))) {
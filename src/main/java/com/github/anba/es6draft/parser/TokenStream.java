@@ -32,6 +32,10 @@ final class TokenStream {
     private int position;
     /** start position of next token, includes leading whitespace and comments */
     private int nextPosition;
+    /** line information at the start position of current token */
+    private long positionLineinfo;
+    /** line information at the start position of next token */
+    private long nextPositionLineinfo;
 
     // token data
     /** current token in stream */
@@ -158,13 +162,20 @@ final class TokenStream {
     }
 
     /**
-     * Returns the encoded line information, needed to reset the token stream.
+     * Returns the encoded line information at the start position of the current token, needed to
+     * reset the token stream.
      * 
-     * @return the current line information
+     * @return the line information of the current token
+     * @see #position()
      * @see #reset(long, long)
      */
     public long lineinfo() {
-        return ((long) line << 32) | linestart;
+        return positionLineinfo;
+    }
+
+    private long currentLineinfo() {
+        // The line start is negative if the input starts in the middle of a line.
+        return ((long) line << 32) | (linestart & 0xFFFFFFFFL);
     }
 
     /**
@@ -228,9 +239,11 @@ final class TokenStream {
         this.position = input.position();
         this.line = line;
         this.linestart = input.position();
+        this.positionLineinfo = currentLineinfo();
         this.current = scanTokenNoComment();
         this.sourcePosition = nextSourcePosition;
         this.nextPosition = input.position();
+        this.nextPositionLineinfo = currentLineinfo();
         this.next = null;
         return this;
     }
@@ -241,24 +254,26 @@ final class TokenStream {
      * @param position
      *            the new position
      * @param lineinfo
-     *            the new line information
+     *            the line information at the new position
      * @see #position()
      * @see #lineinfo()
      */
     public void reset(long position, long lineinfo) {
         // reset character stream
         input.reset((int) position);
+        // reset line state first, so the current token receives the correct source position
+        this.line = (int) (lineinfo >>> 32);
+        this.linestart = (int) lineinfo;
         // reset internal state
         this.hasLineTerminator = false;
         this.hasCurrentLineTerminator = true;
         this.position = input.position();
+        this.positionLineinfo = lineinfo;
         this.current = scanTokenNoComment();
         this.sourcePosition = nextSourcePosition;
         this.nextPosition = input.position();
+        this.nextPositionLineinfo = currentLineinfo();
         this.next = null;
-        // reset line state last, effectively ignoring any changes from scanTokenNoComment()
-        this.line = (int) (lineinfo >>> 32);
-        this.linestart = (int) lineinfo;
     }
 
     /**
@@ -353,15 +368,18 @@ final class TokenStream {
         if (next == null) {
             hasLineTerminator = false;
             nextPosition = input.position();
+            nextPositionLineinfo = currentLineinfo();
             next = scanTokenNoComment();
         }
         current = next;
         sourcePosition = nextSourcePosition;
         position = nextPosition;
+        positionLineinfo = nextPositionLineinfo;
         hasCurrentLineTerminator = hasLineTerminator;
         string = null;
         next = null;
         nextPosition = input.position();
+        nextPositionLineinfo = currentLineinfo();
         hasLineTerminator = false;
         return current;
     }
@@ -398,6 +416,7 @@ final class TokenStream {
             }
             hasLineTerminator = false;
             nextPosition = input.position();
+            nextPositionLineinfo = currentLineinfo();
             next = scanTokenNoComment();
         }
         return next;
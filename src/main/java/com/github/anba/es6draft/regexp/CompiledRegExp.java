@@ -0,0 +1,34 @@
+/**
+ * Copyright (c) 2012-2015 André Bargull
+ * Alle Rechte vorbehalten / All Rights Reserved.  Use is subject to license terms.
+ *
+ * <https://github.com/anba/es6draft>
+ */
+package com.github.anba.es6draft.regexp;
+
+/**
+ * Base class for {@link NativeRegExpMatcher} programs compiled to bytecode.
+ * 
+ * @see NativeRegExpCodeGenerator
+ */
+public abstract class CompiledRegExp {
+    protected CompiledRegExp() {
+    }
+
+    /**
+     * Executes the program starting at {@code pc}.
+     * 
+     * @param state
+     *            the match state
+     * @param string
+     *            the input string
+     * @param pc
+     *            the instruction index
+     * @param index
+     *            the string index
+     * @param base
+     *            the backtrack stack base
+     * @return the end index of the match or {@code -1} on failure
+     */
+    public abstract int execute(NativeMatchState state, String string, int pc, int index, int base);
+}
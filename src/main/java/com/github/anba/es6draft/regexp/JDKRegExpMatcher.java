@@ -43,10 +43,15 @@ final class JDKRegExpMatcher implements RegExpMatcher {
         return new JDKMatchState(getPattern().matcher(s), negativeLAGroups);
     }
 
+    @Override
+    public String getLiteral() {
+        return null;
+    }
+
     @Override
     public JDKRegExpMatcher clone() {
         JDKRegExpMatcher clone = new JDKRegExpMatcher(regex, flags, negativeLAGroups);
-        clone.pattern = pattern;
+        clone.pattern = getPattern();
         return clone;
     }
 
@@ -83,10 +83,15 @@ final class JoniRegExpMatcher implements RegExpMatcher {
         return new JoniMatchState(enc, matcher, s, negativeLAGroups);
     }
 
+    @Override
+    public String getLiteral() {
+        return null;
+    }
+
     @Override
     public JoniRegExpMatcher clone() {
         JoniRegExpMatcher clone = new JoniRegExpMatcher(regex, flags, negativeLAGroups);
-        clone.pattern = pattern;
+        clone.pattern = getPattern();
         return clone;
     }
 
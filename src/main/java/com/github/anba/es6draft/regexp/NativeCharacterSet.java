@@ -0,0 +1,292 @@
+/**
+ * Copyright (c) 2012-2015 André Bargull
+ * Alle Rechte vorbehalten / All Rights Reserved.  Use is subject to license terms.
+ *
+ * <https://github.com/anba/es6draft>
+ */
+package com.github.anba.es6draft.regexp;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Locale;
+
+/**
+ * Character set for {@link NativeRegExpMatcher}, stored as sorted and non-overlapping code point
+ * ranges.
+ */
+final class NativeCharacterSet {
+    private static final int MAX_CODE_POINT = Character.MAX_CODE_POINT;
+    private static final int LINEAR_SEARCH_LIMIT = 8;
+
+    // Sorted, non-overlapping and non-adjacent inclusive ranges: [from0, to0, from1, to1, ...].
+    private final int[] ranges;
+    private final boolean negate;
+    // Canonicalized members for case-insensitive character sets.
+    private final BitSet canonicalized;
+
+    private NativeCharacterSet(int[] ranges, boolean negate, boolean ignoreCase) {
+        this.ranges = ranges;
+        this.negate = negate;
+        this.canonicalized = ignoreCase ? canonicalize(ranges) : null;
+    }
+
+    /**
+     * Creates a new character set.
+     *
+     * @param builder
+     *            the character set builder
+     * @param negate
+     *            {@code true} if the character set is negated
+     * @param ignoreCase
+     *            {@code true} if characters are compared case-insensitively
+     * @return the new character set
+     */
+    static NativeCharacterSet create(Builder builder, boolean negate, boolean ignoreCase) {
+        return new NativeCharacterSet(builder.toRanges(), negate, ignoreCase);
+    }
+
+    /**
+     * Returns {@code true} if the code point is matched by this character set.
+     *
+     * @param codePoint
+     *            the code point
+     * @return {@code true} if the code point is matched
+     */
+    boolean matches(int codePoint) {
+        if (canonicalized != null) {
+            // Case-insensitive sets are only used when matching code units.
+            assert codePoint <= 0xFFFF;
+            return canonicalized.get(Canonicalize((char) codePoint)) != negate;
+        }
+        return contains(ranges, codePoint) != negate;
+    }
+
+    /**
+     * Returns the code point ranges of this character set.
+     *
+     * @return the code point ranges
+     */
+    int[] ranges() {
+        return ranges;
+    }
+
+    /**
+     * Returns {@code true} if this character set is negated.
+     *
+     * @return {@code true} if negated
+     */
+    boolean isNegated() {
+        return negate;
+    }
+
+    /**
+     * Returns {@code true} if this character set compares characters case-insensitively.
+     *
+     * @return {@code true} if case-insensitive
+     */
+    boolean isIgnoreCase() {
+        return canonicalized != null;
+    }
+
+    private static boolean contains(int[] ranges, int codePoint) {
+        if (ranges.length <= LINEAR_SEARCH_LIMIT) {
+            for (int i = 0; i < ranges.length; i += 2) {
+                if (codePoint < ranges[i]) {
+                    return false;
+                }
+                if (codePoint <= ranges[i + 1]) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        int lo = 0, hi = (ranges.length >> 1) - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            if (codePoint < ranges[mid << 1]) {
+                hi = mid - 1;
+            } else if (codePoint > ranges[(mid << 1) + 1]) {
+                lo = mid + 1;
+            } else {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static BitSet canonicalize(int[] ranges) {
+        BitSet set = new BitSet(0x10000);
+        for (int i = 0; i < ranges.length; i += 2) {
+            for (int c = ranges[i], to = Math.min(ranges[i + 1], 0xFFFF); c <= to; ++c) {
+                set.set(Canonicalize((char) c));
+            }
+        }
+        return set;
+    }
+
+    /**
+     * 21.2.2.8.2 Runtime Semantics: Canonicalize ( ch )
+     *
+     * @param ch
+     *            the character
+     * @return the canonicalized character
+     */
+    static char Canonicalize(char ch) {
+        return CanonicalizeTable.TABLE[ch];
+    }
+
+    private static final class CanonicalizeTable {
+        static final char[] TABLE = new char[0x10000];
+        static {
+            for (int c = 0; c <= 0xFFFF; ++c) {
+                char ch = (char) c;
+                // Characters whose uppercase form is not a single code unit are not mapped.
+                String u = String.valueOf(ch).toUpperCase(Locale.ROOT);
+                char cu = u.length() == 1 ? u.charAt(0) : ch;
+                TABLE[c] = (ch >= 128 && cu < 128) ? ch : cu;
+            }
+        }
+    }
+
+    /**
+     * Returns {@code true} if {@code c} is a line terminator character.
+     *
+     * @param c
+     *            the code point
+     * @return {@code true} if {@code c} is a line terminator
+     */
+    static boolean isLineTerminator(int c) {
+        return c == '\n' || c == '\r' || c == '\u2028' || c == '\u2029';
+    }
+
+    /**
+     * Returns {@code true} if {@code c} is a word character.
+     *
+     * @param c
+     *            the character
+     * @return {@code true} if {@code c} is a word character
+     */
+    static boolean isWordChar(char c) {
+        return ('a' <= c && c <= 'z') || ('A' <= c && c <= 'Z') || ('0' <= c && c <= '9')
+                || c == '_';
+    }
+
+    /**
+     * Builder for code point ranges.
+     */
+    static final class Builder {
+        private int[] ranges = new int[8];
+        private int size = 0;
+
+        /**
+         * Adds a single code point.
+         *
+         * @param codePoint
+         *            the code point
+         * @return this builder
+         */
+        Builder add(int codePoint) {
+            return add(codePoint, codePoint);
+        }
+
+        /**
+         * Adds the code point range [from, to].
+         *
+         * @param from
+         *            the first code point
+         * @param to
+         *            the last code point
+         * @return this builder
+         */
+        Builder add(int from, int to) {
+            assert 0 <= from && from <= to && to <= MAX_CODE_POINT;
+            if (size == ranges.length) {
+                ranges = Arrays.copyOf(ranges, size << 1);
+            }
+            ranges[size++] = from;
+            ranges[size++] = to;
+            return this;
+        }
+
+        /**
+         * Adds the character class escape {@code \d, \D, \s, \S, \w, \W}.
+         *
+         * @param c
+         *            the character class escape letter
+         * @return this builder
+         */
+        Builder addClassEscape(char c) {
+            int[] escape;
+            switch (c) {
+            case 'd':
+            case 'D':
+                escape = DIGIT;
+                break;
+            case 's':
+            case 'S':
+                escape = WhiteSpace.RANGES;
+                break;
+            case 'w':
+            case 'W':
+                escape = WORD;
+                break;
+            default:
+                throw new AssertionError();
+            }
+            if (Character.isLowerCase(c)) {
+                for (int i = 0; i < escape.length; i += 2) {
+                    add(escape[i], escape[i + 1]);
+                }
+            } else {
+                int from = 0;
+                for (int i = 0; i < escape.length; i += 2) {
+                    if (from < escape[i]) {
+                        add(from, escape[i] - 1);
+                    }
+                    from = escape[i + 1] + 1;
+                }
+                add(from, MAX_CODE_POINT);
+            }
+            return this;
+        }
+
+        int[] toRanges() {
+            int count = size >> 1;
+            long[] sorted = new long[count];
+            for (int i = 0; i < count; ++i) {
+                sorted[i] = ((long) ranges[i << 1] << 32) | ranges[(i << 1) + 1];
+            }
+            Arrays.sort(sorted);
+            int[] merged = new int[size];
+            int n = 0;
+            for (long range : sorted) {
+                int from = (int) (range >>> 32), to = (int) range;
+                if (n > 0 && from <= merged[n - 1] + 1) {
+                    merged[n - 1] = Math.max(merged[n - 1], to);
+                } else {
+                    merged[n++] = from;
+                    merged[n++] = to;
+                }
+            }
+            return Arrays.copyOf(merged, n);
+        }
+    }
+
+    private static final int[] DIGIT = { '0', '9' };
+    private static final int[] WORD = { '0', '9', 'A', 'Z', '_', '_', 'a', 'z' };
+
+    private static final class WhiteSpace {
+        // WhiteSpace and LineTerminator characters
+        static final int[] RANGES;
+        static {
+            Builder builder = new Builder().add('\t', '\r').add(' ').add('\u00A0').add('\uFEFF')
+                    .add('\u2028', '\u2029');
+            for (int c = 0; c <= 0xFFFF; ++c) {
+                if (Character.getType(c) == Character.SPACE_SEPARATOR) {
+                    builder.add(c);
+                }
+            }
+            RANGES = builder.toRanges();
+        }
+    }
+}
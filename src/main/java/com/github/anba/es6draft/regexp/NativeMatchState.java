@@ -0,0 +1,756 @@
+/**
+ * Copyright (c) 2012-2015 André Bargull
+ * Alle Rechte vorbehalten / All Rights Reserved.  Use is subject to license terms.
+ *
+ * <https://github.com/anba/es6draft>
+ */
+package com.github.anba.es6draft.regexp;
+
+import static com.github.anba.es6draft.regexp.NativeCharacterSet.Canonicalize;
+import static com.github.anba.es6draft.regexp.NativeCharacterSet.isLineTerminator;
+import static com.github.anba.es6draft.regexp.NativeCharacterSet.isWordChar;
+import static com.github.anba.es6draft.regexp.NativeRegExpMatcher.*;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.regex.MatchResult;
+
+/**
+ * {@link MatchState} implementation for {@link NativeRegExpMatcher}.
+ * <p>
+ * Backtracking uses an explicit stack instead of recursion, only lookahead assertions recurse.
+ * Register changes are recorded on the backtrack stack and undone when backtracking. The public
+ * methods in the "backtracking machine" section are also called from {@link CompiledRegExp}
+ * programs.
+ */
+public final class NativeMatchState implements MatchState, IterableMatchResult {
+    private static final int UNDO = 0, CHOICE = 1, REPEAT_ENTRY = 2;
+    private static final int INITIAL_STACK_SIZE = 32;
+
+    private final NativeRegExpMatcher program;
+    private final String string;
+    private final int length;
+    // Match result: start and end index for each group
+    private int[] groups;
+    private int begin = -1, end = 0;
+
+    // Registers: group start/end, pending group start, loop counter and loop start.
+    private int[] registers;
+    private int[] stack;
+    private int sp;
+    // Index of the last backtrack target
+    private int backtrackIndex;
+    private CompiledRegExp compiled;
+
+    NativeMatchState(NativeRegExpMatcher program, String string) {
+        this.program = program;
+        this.string = string;
+        this.length = string.length();
+    }
+
+    private NativeMatchState(NativeRegExpMatcher program, String string, int[] groups, int begin,
+            int end) {
+        this.program = program;
+        this.string = string;
+        this.length = string.length();
+        this.groups = groups;
+        this.begin = begin;
+        this.end = end;
+    }
+
+    private void ensureResult() {
+        if (begin < 0)
+            throw new IllegalStateException("No match!");
+    }
+
+    private void ensureValidIndex(int index) {
+        if (index < 0 || index > length)
+            throw new IndexOutOfBoundsException("Invalid index: " + index);
+    }
+
+    private void ensureValidGroup(int group) {
+        if (group < 0 || group > groupCount())
+            throw new IndexOutOfBoundsException("Invalid group: " + group);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s: [string=%s, begin=%d, end=%d]", getClass().getSimpleName(),
+                string, begin, end);
+    }
+
+    @Override
+    public Iterator<String> iterator() {
+        ensureResult();
+        return new Iterator<String>() {
+            private int group = 1;
+
+            @Override
+            public boolean hasNext() {
+                return group <= groupCount();
+            }
+
+            @Override
+            public String next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return group(group++);
+            }
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+
+    @Override
+    public MatchResult toMatchResult() {
+        return new NativeMatchState(program, string, groups, begin, end);
+    }
+
+    @Override
+    public boolean find() {
+        int start = end != begin ? end : nextIndex(end);
+        if (start > length) {
+            begin = -1;
+            return false;
+        }
+        return search(start);
+    }
+
+    @Override
+    public boolean find(int start) {
+        ensureValidIndex(start);
+        return search(start);
+    }
+
+    @Override
+    public boolean matches(int start) {
+        ensureValidIndex(start);
+        initialize();
+        return update(start, execute(0, start, 0));
+    }
+
+    @Override
+    public int start() {
+        ensureResult();
+        return begin;
+    }
+
+    @Override
+    public int start(int group) {
+        ensureResult();
+        ensureValidGroup(group);
+        return group == 0 ? begin : groups[group << 1];
+    }
+
+    @Override
+    public int end() {
+        ensureResult();
+        return end;
+    }
+
+    @Override
+    public int end(int group) {
+        ensureResult();
+        ensureValidGroup(group);
+        return group == 0 ? end : groups[(group << 1) + 1];
+    }
+
+    @Override
+    public String group() {
+        return group(0);
+    }
+
+    @Override
+    public String group(int group) {
+        int start = start(group), end = end(group);
+        if (start == -1 || end == -1) {
+            return null;
+        }
+        return string.substring(start, end);
+    }
+
+    @Override
+    public int groupCount() {
+        return program.groupCount;
+    }
+
+    /* matcher */
+
+    private int nextIndex(int index) {
+        if (program.unicode && index + 1 < length && Character.isHighSurrogate(string.charAt(index))
+                && Character.isLowSurrogate(string.charAt(index + 1))) {
+            return index + 2;
+        }
+        return index + 1;
+    }
+
+    private void initialize() {
+        int groupRegisters = (program.groupCount + 1) * 3;
+        if (registers == null) {
+            registers = new int[program.registerCount()];
+            stack = new int[INITIAL_STACK_SIZE];
+        }
+        Arrays.fill(registers, 0, groupRegisters, -1);
+        sp = 0;
+        compiled = program.compiled();
+    }
+
+    private boolean search(int start) {
+        initialize();
+        int firstChar = program.firstChar;
+        for (int index = start; index <= length; index = nextIndex(index)) {
+            if (firstChar >= 0) {
+                index = string.indexOf(firstChar, index);
+                if (index < 0) {
+                    break;
+                }
+            }
+            int result = execute(0, index, 0);
+            if (result >= 0) {
+                return update(index, result);
+            }
+        }
+        return update(start, -1);
+    }
+
+    private boolean update(int start, int result) {
+        if (result < 0) {
+            begin = -1;
+            end = start;
+            groups = null;
+            return false;
+        }
+        int groupCount = program.groupCount;
+        int[] groups = new int[(groupCount + 1) << 1];
+        System.arraycopy(registers, 0, groups, 0, groups.length);
+        groups[0] = start;
+        groups[1] = result;
+        this.groups = groups;
+        this.begin = start;
+        this.end = result;
+        return true;
+    }
+
+    /* backtracking machine */
+
+    /**
+     * Returns the registers array.
+     *
+     * @return the registers
+     */
+    public int[] registers() {
+        return registers;
+    }
+
+    /**
+     * Returns the current backtrack stack pointer.
+     *
+     * @return the stack pointer
+     */
+    public int stackPointer() {
+        return sp;
+    }
+
+    private void ensureStack(int n) {
+        if (sp + n > stack.length) {
+            stack = Arrays.copyOf(stack, Math.max(stack.length << 1, sp + n));
+        }
+    }
+
+    /**
+     * Sets {@code register} to {@code value} and records the previous value on the backtrack stack.
+     *
+     * @param register
+     *            the register
+     * @param value
+     *            the new register value
+     */
+    public void setRegister(int register, int value) {
+        int[] registers = this.registers;
+        if (registers[register] != value) {
+            ensureStack(3);
+            int[] stack = this.stack;
+            stack[sp++] = registers[register];
+            stack[sp++] = register;
+            stack[sp++] = UNDO;
+            registers[register] = value;
+        }
+    }
+
+    /**
+     * Pushes a backtrack entry to resume at {@code pc} and {@code index}.
+     *
+     * @param pc
+     *            the instruction index
+     * @param index
+     *            the string index
+     */
+    public void pushChoice(int pc, int index) {
+        ensureStack(3);
+        int[] stack = this.stack;
+        stack[sp++] = index;
+        stack[sp++] = pc;
+        stack[sp++] = CHOICE;
+    }
+
+    /**
+     * Pushes a backtrack entry for the {@link NativeRegExpMatcher#REPEAT} instruction at {@code pc}.
+     *
+     * @param pc
+     *            the instruction index
+     * @param count
+     *            the current repetition count
+     * @param index
+     *            the current string index
+     * @param startIndex
+     *            the string index before the first repetition
+     */
+    public void pushRepeat(int pc, int count, int index, int startIndex) {
+        ensureStack(5);
+        int[] stack = this.stack;
+        stack[sp++] = startIndex;
+        stack[sp++] = index;
+        stack[sp++] = count;
+        stack[sp++] = pc;
+        stack[sp++] = REPEAT_ENTRY;
+    }
+
+    /**
+     * Undoes all register changes above {@code base} and removes the stack entries.
+     *
+     * @param base
+     *            the stack base
+     */
+    public void unwind(int base) {
+        int[] stack = this.stack, registers = this.registers;
+        while (sp > base) {
+            int tag = stack[--sp];
+            if (tag == UNDO) {
+                int register = stack[--sp];
+                registers[register] = stack[--sp];
+            } else if (tag == CHOICE) {
+                sp -= 2;
+            } else {
+                sp -= 4;
+            }
+        }
+    }
+
+    /**
+     * Removes all backtracking entries above {@code base}, but keeps the register undo entries.
+     *
+     * @param base
+     *            the stack base
+     */
+    public void commit(int base) {
+        int[] stack = this.stack;
+        int top = sp, count = 0;
+        for (int i = top; i > base;) {
+            int tag = stack[i - 1];
+            if (tag == UNDO) {
+                count += 1;
+                i -= 3;
+            } else {
+                i -= tag == CHOICE ? 3 : 5;
+            }
+        }
+        int[] undo = new int[count * 3];
+        for (int i = top, j = undo.length; i > base;) {
+            int tag = stack[i - 1];
+            if (tag == UNDO) {
+                undo[--j] = UNDO;
+                undo[--j] = stack[i - 2];
+                undo[--j] = stack[i - 3];
+                i -= 3;
+            } else {
+                i -= tag == CHOICE ? 3 : 5;
+            }
+        }
+        System.arraycopy(undo, 0, stack, base, undo.length);
+        sp = base + undo.length;
+    }
+
+    private int codePointAt(int index) {
+        char c = string.charAt(index);
+        if (Character.isHighSurrogate(c) && index + 1 < length) {
+            char d = string.charAt(index + 1);
+            if (Character.isLowSurrogate(d)) {
+                return Character.toCodePoint(c, d);
+            }
+        }
+        return c;
+    }
+
+    /**
+     * Matches the single character atom at {@code pc}.
+     *
+     * @param pc
+     *            the instruction index
+     * @param index
+     *            the string index
+     * @return the index after the matched character or {@code -1} on failure
+     */
+    public int matchCharacter(int pc, int index) {
+        if (index >= length) {
+            return -1;
+        }
+        int[] code = program.code;
+        switch (code[pc]) {
+        case CHAR:
+            return string.charAt(index) == code[pc + 1] ? index + 1 : -1;
+        case CHAR_IGNORE_CASE:
+            return Canonicalize(string.charAt(index)) == code[pc + 1] ? index + 1 : -1;
+        case CODE_POINT: {
+            int cp = codePointAt(index);
+            return cp == code[pc + 1] ? index + Character.charCount(cp) : -1;
+        }
+        case ANY: {
+            if (program.unicode) {
+                int cp = codePointAt(index);
+                return !isLineTerminator(cp) ? index + Character.charCount(cp) : -1;
+            }
+            return !isLineTerminator(string.charAt(index)) ? index + 1 : -1;
+        }
+        case CLASS: {
+            NativeCharacterSet set = program.sets[code[pc + 1]];
+            if (program.unicode) {
+                int cp = codePointAt(index);
+                return set.matches(cp) ? index + Character.charCount(cp) : -1;
+            }
+            return set.matches(string.charAt(index)) ? index + 1 : -1;
+        }
+        default:
+            throw new AssertionError();
+        }
+    }
+
+    private int previousIndex(int index, int startIndex) {
+        if (program.unicode && index - 2 >= startIndex
+                && Character.isLowSurrogate(string.charAt(index - 1))
+                && Character.isHighSurrogate(string.charAt(index - 2))) {
+            return index - 2;
+        }
+        return index - 1;
+    }
+
+    private boolean isWordCharAt(int index) {
+        return 0 <= index && index < length && isWordChar(string.charAt(index));
+    }
+
+    /**
+     * Returns {@code true} if {@code index} is at the start of a line.
+     *
+     * @param index
+     *            the string index
+     * @return {@code true} if {@code index} is at the start of a line
+     */
+    public boolean isLineStart(int index) {
+        return index == 0 || (program.multiline && isLineTerminator(string.charAt(index - 1)));
+    }
+
+    /**
+     * Returns {@code true} if {@code index} is at the end of a line.
+     *
+     * @param index
+     *            the string index
+     * @return {@code true} if {@code index} is at the end of a line
+     */
+    public boolean isLineEnd(int index) {
+        return index == length || (program.multiline && isLineTerminator(string.charAt(index)));
+    }
+
+    /**
+     * Returns {@code true} if {@code index} is at a word boundary.
+     *
+     * @param index
+     *            the string index
+     * @return {@code true} if {@code index} is at a word boundary
+     */
+    public boolean isWordBoundary(int index) {
+        return isWordCharAt(index - 1) != isWordCharAt(index);
+    }
+
+    /**
+     * Matches the back reference to {@code group}.
+     *
+     * @param group
+     *            the group number
+     * @param index
+     *            the string index
+     * @param ignoreCase
+     *            {@code true} if characters are compared case-insensitively
+     * @return the index after the back reference or {@code -1} on failure
+     */
+    public int matchBackReference(int group, int index, boolean ignoreCase) {
+        int start = registers[program.startRegister(group)];
+        int end = registers[program.endRegister(group)];
+        if (start < 0 || end < 0) {
+            return index;
+        }
+        int len = end - start;
+        if (index + len > length) {
+            return -1;
+        }
+        String string = this.string;
+        for (int i = 0; i < len; ++i) {
+            char c = string.charAt(start + i), d = string.charAt(index + i);
+            if (c != d && !(ignoreCase && Canonicalize(c) == Canonicalize(d))) {
+                return -1;
+            }
+        }
+        if (program.unicode && len > 0 && index + len < length
+                && Character.isHighSurrogate(string.charAt(index + len - 1))
+                && Character.isLowSurrogate(string.charAt(index + len))) {
+            // Back references must not end in the middle of a surrogate pair.
+            return -1;
+        }
+        return index + len;
+    }
+
+    /**
+     * Pops entries from the backtrack stack until a backtrack target is found. The string index of
+     * the target is available through {@link #backtrackIndex()}.
+     *
+     * @param base
+     *            the stack base
+     * @return the instruction index of the backtrack target or {@code -1} if the stack is empty
+     */
+    public int backtrack(int base) {
+        final int[] code = program.code;
+        final int[] registers = this.registers;
+        while (sp > base) {
+            int[] stack = this.stack;
+            switch (stack[--sp]) {
+            case UNDO: {
+                int register = stack[--sp];
+                registers[register] = stack[--sp];
+                continue;
+            }
+            case CHOICE: {
+                int pc = stack[--sp];
+                backtrackIndex = stack[--sp];
+                return pc;
+            }
+            case REPEAT_ENTRY: {
+                int repeat = stack[--sp];
+                int count = stack[--sp];
+                int current = stack[--sp];
+                int start = stack[--sp];
+                int min = code[repeat + 1], max = code[repeat + 2];
+                if (code[repeat + 3] != 0) {
+                    // greedy: give back one character
+                    current = previousIndex(current, start);
+                    count -= 1;
+                    if (count > min) {
+                        pushRepeat(repeat, count, current, start);
+                    }
+                } else {
+                    // lazy: consume one more character
+                    int n = matchCharacter(repeat + REPEAT_LENGTH, current);
+                    if (n < 0) {
+                        continue;
+                    }
+                    current = n;
+                    count += 1;
+                    if (count < max) {
+                        pushRepeat(repeat, count, current, start);
+                    }
+                }
+                backtrackIndex = current;
+                return code[repeat + 4];
+            }
+            default:
+                throw new AssertionError();
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the string index of the last backtrack target.
+     *
+     * @return the string index
+     */
+    public int backtrackIndex() {
+        return backtrackIndex;
+    }
+
+    /**
+     * Executes the program starting at {@code pc}.
+     *
+     * @return the end index of the match or {@code -1} on failure
+     */
+    private int execute(int pc, int index, int base) {
+        if (compiled != null) {
+            return compiled.execute(this, string, pc, index, base);
+        }
+        return interpret(pc, index, base);
+    }
+
+    private int interpret(int pc, int index, int base) {
+        final int[] code = program.code;
+        final int[] registers = this.registers;
+        for (;;) {
+            int next;
+            switch (code[pc]) {
+            case CHAR:
+            case CHAR_IGNORE_CASE:
+            case CODE_POINT:
+            case CLASS:
+                if ((next = matchCharacter(pc, index)) >= 0) {
+                    index = next;
+                    pc += 2;
+                    continue;
+                }
+                break;
+            case ANY:
+                if ((next = matchCharacter(pc, index)) >= 0) {
+                    index = next;
+                    pc += 1;
+                    continue;
+                }
+                break;
+            case LINE_START:
+                if (isLineStart(index)) {
+                    pc += 1;
+                    continue;
+                }
+                break;
+            case LINE_END:
+                if (isLineEnd(index)) {
+                    pc += 1;
+                    continue;
+                }
+                break;
+            case WORD_BOUNDARY:
+            case NOT_WORD_BOUNDARY:
+                if (isWordBoundary(index) == (code[pc] == WORD_BOUNDARY)) {
+                    pc += 1;
+                    continue;
+                }
+                break;
+            case BACK_REFERENCE:
+            case BACK_REFERENCE_IGNORE_CASE:
+                if ((next = matchBackReference(code[pc + 1], index,
+                        code[pc] == BACK_REFERENCE_IGNORE_CASE)) >= 0) {
+                    index = next;
+                    pc += 2;
+                    continue;
+                }
+                break;
+            case GROUP_START:
+                setRegister(program.pendingRegister(code[pc + 1]), index);
+                pc += 2;
+                continue;
+            case GROUP_END: {
+                int group = code[pc + 1];
+                setRegister(program.startRegister(group),
+                        registers[program.pendingRegister(group)]);
+                setRegister(program.endRegister(group), index);
+                pc += 2;
+                continue;
+            }
+            case SPLIT:
+                pushChoice(code[pc + 1], index);
+                pc += 2;
+                continue;
+            case JUMP:
+                pc = code[pc + 1];
+                continue;
+            case LOOP_INIT:
+                setRegister(program.counterRegister(code[pc + 1]), 0);
+                pc += 2;
+                continue;
+            case LOOP_HEAD: {
+                int count = registers[program.counterRegister(code[pc + 1])];
+                int min = code[pc + 2], max = code[pc + 3];
+                boolean greedy = code[pc + 4] != 0;
+                int exit = code[pc + 5], enter = pc + LOOP_HEAD_LENGTH;
+                if (count < min) {
+                    pc = enter;
+                } else if (max != INFINITY && count >= max) {
+                    pc = exit;
+                } else if (greedy) {
+                    pushChoice(exit, index);
+                    pc = enter;
+                } else {
+                    pushChoice(enter, index);
+                    pc = exit;
+                }
+                continue;
+            }
+            case LOOP_ENTER: {
+                setRegister(program.loopStartRegister(code[pc + 1]), index);
+                for (int group = code[pc + 2], last = group + code[pc + 3]; group < last; ++group) {
+                    setRegister(program.startRegister(group), -1);
+                    setRegister(program.endRegister(group), -1);
+                }
+                pc += 4;
+                continue;
+            }
+            case LOOP_TAIL: {
+                int loop = code[pc + 1];
+                int count = registers[program.counterRegister(loop)];
+                if (count >= code[pc + 2] && index == registers[program.loopStartRegister(loop)]) {
+                    // Empty match in optional iteration.
+                    break;
+                }
+                setRegister(program.counterRegister(loop), count + 1);
+                pc = code[pc + 3];
+                continue;
+            }
+            case REPEAT: {
+                int min = code[pc + 1], max = code[pc + 2];
+                boolean greedy = code[pc + 3] != 0;
+                int atom = pc + REPEAT_LENGTH, count = 0, start = index;
+                int limit = greedy ? max : min;
+                while (count < limit && (next = matchCharacter(atom, index)) >= 0) {
+                    index = next;
+                    count += 1;
+                }
+                if (count < min) {
+                    break;
+                }
+                if (greedy ? count > min : count < max) {
+                    pushRepeat(pc, count, index, start);
+                }
+                pc = code[pc + 4];
+                continue;
+            }
+            case LOOKAHEAD: {
+                boolean negative = code[pc + 1] != 0;
+                int savedSp = sp;
+                int r = interpret(pc + LOOKAHEAD_LENGTH, index, savedSp);
+                if (negative) {
+                    if (r >= 0) {
+                        unwind(savedSp);
+                        break;
+                    }
+                } else {
+                    if (r < 0) {
+                        break;
+                    }
+                    commit(savedSp);
+                }
+                pc = code[pc + 2];
+                continue;
+            }
+            case SUCCEED:
+                return index;
+            default:
+                throw new AssertionError();
+            }
+
+            // backtrack
+            if ((pc = backtrack(base)) < 0) {
+                return -1;
+            }
+            index = backtrackIndex;
+        }
+    }
+}
@@ -0,0 +1,676 @@
+/**
+ * Copyright (c) 2012-2015 André Bargull
+ * Alle Rechte vorbehalten / All Rights Reserved.  Use is subject to license terms.
+ *
+ * <https://github.com/anba/es6draft>
+ */
+package com.github.anba.es6draft.regexp;
+
+import static com.github.anba.es6draft.regexp.NativeRegExpMatcher.*;
+
+import java.lang.reflect.Modifier;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.github.anba.es6draft.compiler.assembler.ClassSignature;
+import com.github.anba.es6draft.compiler.assembler.Code;
+import com.github.anba.es6draft.compiler.assembler.Code.ClassCode;
+import com.github.anba.es6draft.compiler.assembler.Code.MethodCode;
+import com.github.anba.es6draft.compiler.assembler.EmptyStack;
+import com.github.anba.es6draft.compiler.assembler.InstructionAssembler;
+import com.github.anba.es6draft.compiler.assembler.Jump;
+import com.github.anba.es6draft.compiler.assembler.MethodName;
+import com.github.anba.es6draft.compiler.assembler.MethodTypeDescriptor;
+import com.github.anba.es6draft.compiler.assembler.SourceInfo;
+import com.github.anba.es6draft.compiler.assembler.Stack;
+import com.github.anba.es6draft.compiler.assembler.Type;
+import com.github.anba.es6draft.compiler.assembler.Variable;
+import com.github.anba.es6draft.compiler.assembler.Variables;
+
+/**
+ * Compiles {@link NativeRegExpMatcher} programs to bytecode.
+ * <p>
+ * Each instruction is translated to a labelled bytecode sequence with its operands inlined as
+ * constants. Backtracking, register updates and lookahead assertions use the same
+ * {@link NativeMatchState} methods as the interpreter, backtrack targets are resumed through a
+ * {@code lookupswitch} over the instruction index.
+ */
+final class NativeRegExpCodeGenerator {
+    private static final String CLASS_NAME = "#RegExp";
+    /** Larger programs are not compiled */
+    private static final int MAX_CODE_LENGTH = 0x800;
+    /** Maximum number of ranges for inlined character set tests */
+    private static final int MAX_INLINE_RANGES = 8;
+
+    private static final class Types {
+        static final Type AssertionError = Type.of(AssertionError.class);
+        static final Type CompiledRegExp = Type.of(CompiledRegExp.class);
+        static final Type NativeMatchState = Type.of(NativeMatchState.class);
+        static final Type String = Type.of(String.class);
+    }
+
+    private static final class Methods {
+        static final MethodName AssertionError_init = MethodName.findConstructor(
+                Types.AssertionError, Type.methodType(Type.VOID_TYPE));
+
+        static final MethodName CompiledRegExp_init = MethodName.findConstructor(
+                Types.CompiledRegExp, Type.methodType(Type.VOID_TYPE));
+
+        static final MethodName CompiledRegExp_execute = MethodName.findVirtual(
+                Types.CompiledRegExp, "execute", Type.methodType(Type.INT_TYPE,
+                        Types.NativeMatchState, Types.String, Type.INT_TYPE, Type.INT_TYPE,
+                        Type.INT_TYPE));
+
+        static final MethodName String_charAt = MethodName.findVirtual(Types.String, "charAt",
+                Type.methodType(Type.CHAR_TYPE, Type.INT_TYPE));
+
+        static final MethodName String_length = MethodName.findVirtual(Types.String, "length",
+                Type.methodType(Type.INT_TYPE));
+
+        static final MethodName NativeMatchState_backtrack = MethodName.findVirtual(
+                Types.NativeMatchState, "backtrack", Type.methodType(Type.INT_TYPE, Type.INT_TYPE));
+
+        static final MethodName NativeMatchState_backtrackIndex = MethodName.findVirtual(
+                Types.NativeMatchState, "backtrackIndex", Type.methodType(Type.INT_TYPE));
+
+        static final MethodName NativeMatchState_commit = MethodName.findVirtual(
+                Types.NativeMatchState, "commit", Type.methodType(Type.VOID_TYPE, Type.INT_TYPE));
+
+        static final MethodName NativeMatchState_isLineEnd = MethodName.findVirtual(
+                Types.NativeMatchState, "isLineEnd",
+                Type.methodType(Type.BOOLEAN_TYPE, Type.INT_TYPE));
+
+        static final MethodName NativeMatchState_isLineStart = MethodName.findVirtual(
+                Types.NativeMatchState, "isLineStart",
+                Type.methodType(Type.BOOLEAN_TYPE, Type.INT_TYPE));
+
+        static final MethodName NativeMatchState_isWordBoundary = MethodName.findVirtual(
+                Types.NativeMatchState, "isWordBoundary",
+                Type.methodType(Type.BOOLEAN_TYPE, Type.INT_TYPE));
+
+        static final MethodName NativeMatchState_matchBackReference = MethodName.findVirtual(
+                Types.NativeMatchState, "matchBackReference", Type.methodType(Type.INT_TYPE,
+                        Type.INT_TYPE, Type.INT_TYPE, Type.BOOLEAN_TYPE));
+
+        static final MethodName NativeMatchState_matchCharacter = MethodName.findVirtual(
+                Types.NativeMatchState, "matchCharacter",
+                Type.methodType(Type.INT_TYPE, Type.INT_TYPE, Type.INT_TYPE));
+
+        static final MethodName NativeMatchState_pushChoice = MethodName.findVirtual(
+                Types.NativeMatchState, "pushChoice",
+                Type.methodType(Type.VOID_TYPE, Type.INT_TYPE, Type.INT_TYPE));
+
+        static final MethodName NativeMatchState_pushRepeat = MethodName.findVirtual(
+                Types.NativeMatchState, "pushRepeat", Type.methodType(Type.VOID_TYPE,
+                        Type.INT_TYPE, Type.INT_TYPE, Type.INT_TYPE, Type.INT_TYPE));
+
+        static final MethodName NativeMatchState_registers = MethodName.findVirtual(
+                Types.NativeMatchState, "registers", Type.methodType(Type.of(int[].class)));
+
+        static final MethodName NativeMatchState_setRegister = MethodName.findVirtual(
+                Types.NativeMatchState, "setRegister",
+                Type.methodType(Type.VOID_TYPE, Type.INT_TYPE, Type.INT_TYPE));
+
+        static final MethodName NativeMatchState_stackPointer = MethodName.findVirtual(
+                Types.NativeMatchState, "stackPointer", Type.methodType(Type.INT_TYPE));
+
+        static final MethodName NativeMatchState_unwind = MethodName.findVirtual(
+                Types.NativeMatchState, "unwind", Type.methodType(Type.VOID_TYPE, Type.INT_TYPE));
+    }
+
+    private static final class RegExpAssembler extends InstructionAssembler {
+        RegExpAssembler(MethodCode method) {
+            super(method);
+        }
+
+        @Override
+        protected Stack createStack(Variables variables) {
+            // Instructions are also entered through the dispatch switch, the operand stack is
+            // always empty at instruction boundaries.
+            return new EmptyStack(variables);
+        }
+    }
+
+    private static final class RegExpSourceInfo implements SourceInfo {
+        @Override
+        public String getFileName() {
+            return "<regexp>";
+        }
+
+        @Override
+        public String getSourceMap() {
+            return null;
+        }
+    }
+
+    private static final class RegExpClassLoader extends ClassLoader {
+        RegExpClassLoader() {
+            super(CompiledRegExp.class.getClassLoader());
+        }
+
+        Class<?> defineClass(String className, byte[] bytes) {
+            return defineClass(className, bytes, 0, bytes.length);
+        }
+    }
+
+    private final NativeRegExpMatcher program;
+    private final int[] code;
+    private final Jump[] labels;
+    private final Jump backtrack = new Jump();
+    private RegExpAssembler asm;
+    private Variable<NativeMatchState> state;
+    private Variable<String> string;
+    private Variable<Integer> instruction, index, base;
+    private Variable<Integer> length, next, count, start, savedSp, c;
+    private Variable<int[]> registers;
+
+    private NativeRegExpCodeGenerator(NativeRegExpMatcher program) {
+        this.program = program;
+        this.code = program.code;
+        this.labels = new Jump[code.length];
+    }
+
+    /**
+     * Compiles the program to bytecode.
+     *
+     * @param program
+     *            the regular expression program
+     * @return the compiled program or {@code null} if the program cannot be compiled
+     */
+    static CompiledRegExp compile(NativeRegExpMatcher program) {
+        if (program.code.length > MAX_CODE_LENGTH) {
+            return null;
+        }
+        LinkedHashMap<String, byte[]> classes = new LinkedHashMap<>();
+        try {
+            Code code = new NativeRegExpCodeGenerator(program).generate();
+            for (ClassCode classCode : code.getClasses()) {
+                classes.put(classCode.className, classCode.toByteArray());
+            }
+        } catch (RuntimeException e) {
+            if (!isCodeTooLarge(e)) {
+                throw e;
+            }
+            // Generated method too large, continue interpreting the program.
+            return null;
+        }
+        RegExpClassLoader loader = new RegExpClassLoader();
+        for (Map.Entry<String, byte[]> entry : classes.entrySet()) {
+            loader.defineClass(Type.className(entry.getKey()), entry.getValue());
+        }
+        try {
+            Class<?> c = loader.loadClass(Type.className(CLASS_NAME));
+            return (CompiledRegExp) c.newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * ASM reports size limit violations as plain {@link RuntimeException}s.
+     */
+    private static boolean isCodeTooLarge(RuntimeException e) {
+        return e.getClass() == RuntimeException.class && e.getMessage() != null
+                && e.getMessage().endsWith("too large!");
+    }
+
+    private Code generate() {
+        Code bytecode = new Code(Modifier.PUBLIC | Modifier.FINAL, CLASS_NAME, ClassSignature.NONE,
+                Types.CompiledRegExp, Collections.<Type> emptyList(), new RegExpSourceInfo());
+        generateConstructor(bytecode);
+        generateExecute(bytecode);
+        return bytecode;
+    }
+
+    private void generateConstructor(Code bytecode) {
+        InstructionAssembler asm = new RegExpAssembler(bytecode.newConstructor(Modifier.PUBLIC,
+                Type.methodType(Type.VOID_TYPE)));
+        asm.begin();
+        asm.loadThis();
+        asm.invoke(Methods.CompiledRegExp_init);
+        asm._return();
+        asm.end();
+    }
+
+    private void generateExecute(Code bytecode) {
+        MethodTypeDescriptor desc = Methods.CompiledRegExp_execute.descriptor;
+        asm = new RegExpAssembler(bytecode.newMethod(Modifier.PUBLIC | Modifier.FINAL, "execute",
+                desc));
+        asm.begin();
+        state = asm.getParameter(0, NativeMatchState.class);
+        string = asm.getParameter(1, String.class);
+        instruction = asm.getParameter(2, int.class);
+        index = asm.getParameter(3, int.class);
+        base = asm.getParameter(4, int.class);
+        length = asm.newVariable("length", int.class);
+        registers = asm.newVariable("registers", int[].class);
+        next = asm.newVariable("next", int.class);
+        count = asm.newVariable("count", int.class);
+        start = asm.newVariable("start", int.class);
+        savedSp = asm.newVariable("savedSp", int.class);
+        c = asm.newVariable("c", int.class);
+
+        asm.load(string);
+        asm.invoke(Methods.String_length);
+        asm.store(length);
+        asm.load(state);
+        asm.invoke(Methods.NativeMatchState_registers);
+        asm.store(registers);
+
+        for (int pc = 0; pc < code.length; pc += program.instructionLength(pc)) {
+            labels[pc] = new Jump();
+        }
+
+        // Dispatch to the entry point or backtrack target.
+        Jump dispatch = new Jump(), fail = new Jump(), invalid = new Jump();
+        asm.mark(dispatch);
+        BitSet entries = entryPoints();
+        int[] keys = new int[entries.cardinality()];
+        Jump[] targets = new Jump[keys.length];
+        for (int i = 0, pc = entries.nextSetBit(0); pc >= 0; pc = entries.nextSetBit(pc + 1)) {
+            keys[i] = pc;
+            targets[i++] = labels[pc];
+        }
+        asm.load(instruction);
+        asm.lookupswitch(invalid, keys, targets);
+
+        asm.mark(backtrack);
+        asm.load(state);
+        asm.load(base);
+        asm.invoke(Methods.NativeMatchState_backtrack);
+        asm.dup();
+        asm.store(instruction);
+        asm.iflt(fail);
+        asm.load(state);
+        asm.invoke(Methods.NativeMatchState_backtrackIndex);
+        asm.store(index);
+        asm.goTo(dispatch);
+
+        asm.mark(fail);
+        asm.iconst(-1);
+        asm._return();
+
+        asm.mark(invalid);
+        asm.anew(Types.AssertionError, Methods.AssertionError_init);
+        asm.athrow();
+
+        for (int pc = 0; pc < code.length; pc += program.instructionLength(pc)) {
+            asm.mark(labels[pc]);
+            instruction(pc);
+        }
+        asm.end();
+    }
+
+    /**
+     * Returns the instructions which are entered through the dispatch switch, i.e. the program
+     * start, lookahead bodies and backtrack targets.
+     */
+    private BitSet entryPoints() {
+        BitSet entries = new BitSet(code.length);
+        entries.set(0);
+        for (int pc = 0; pc < code.length; pc += program.instructionLength(pc)) {
+            switch (code[pc]) {
+            case SPLIT:
+                entries.set(code[pc + 1]);
+                break;
+            case LOOP_HEAD:
+                entries.set(pc + LOOP_HEAD_LENGTH);
+                entries.set(code[pc + 5]);
+                break;
+            case REPEAT:
+                entries.set(code[pc + 4]);
+                break;
+            case LOOKAHEAD:
+                entries.set(pc + LOOKAHEAD_LENGTH);
+                break;
+            default:
+            }
+        }
+        return entries;
+    }
+
+    private void instruction(int pc) {
+        switch (code[pc]) {
+        case CHAR:
+        case CHAR_IGNORE_CASE:
+        case CODE_POINT:
+        case ANY:
+        case CLASS:
+            character(pc, backtrack);
+            return;
+        case LINE_START:
+            if (program.multiline) {
+                assertion(Methods.NativeMatchState_isLineStart, true);
+            } else {
+                asm.load(index);
+                asm.ifne(backtrack);
+            }
+            return;
+        case LINE_END:
+            if (program.multiline) {
+                assertion(Methods.NativeMatchState_isLineEnd, true);
+            } else {
+                asm.load(index);
+                asm.load(length);
+                asm.ificmpne(backtrack);
+            }
+            return;
+        case WORD_BOUNDARY:
+            assertion(Methods.NativeMatchState_isWordBoundary, true);
+            return;
+        case NOT_WORD_BOUNDARY:
+            assertion(Methods.NativeMatchState_isWordBoundary, false);
+            return;
+        case BACK_REFERENCE:
+        case BACK_REFERENCE_IGNORE_CASE:
+            asm.load(state);
+            asm.iconst(code[pc + 1]);
+            asm.load(index);
+            asm.iconst(code[pc] == BACK_REFERENCE_IGNORE_CASE);
+            asm.invoke(Methods.NativeMatchState_matchBackReference);
+            asm.dup();
+            asm.store(index);
+            asm.iflt(backtrack);
+            return;
+        case GROUP_START:
+            setRegister(program.pendingRegister(code[pc + 1]), index);
+            return;
+        case GROUP_END: {
+            int group = code[pc + 1];
+            asm.load(state);
+            asm.iconst(program.startRegister(group));
+            asm.load(registers);
+            asm.iconst(program.pendingRegister(group));
+            asm.iaload();
+            asm.invoke(Methods.NativeMatchState_setRegister);
+            setRegister(program.endRegister(group), index);
+            return;
+        }
+        case SPLIT:
+            pushChoice(code[pc + 1]);
+            return;
+        case JUMP:
+            asm.goTo(labels[code[pc + 1]]);
+            return;
+        case LOOP_INIT:
+            asm.load(state);
+            asm.iconst(program.counterRegister(code[pc + 1]));
+            asm.iconst(0);
+            asm.invoke(Methods.NativeMatchState_setRegister);
+            return;
+        case LOOP_HEAD:
+            loopHead(pc);
+            return;
+        case LOOP_ENTER:
+            setRegister(program.loopStartRegister(code[pc + 1]), index);
+            for (int group = code[pc + 2], last = group + code[pc + 3]; group < last; ++group) {
+                setRegister(program.startRegister(group), -1);
+                setRegister(program.endRegister(group), -1);
+            }
+            return;
+        case LOOP_TAIL:
+            loopTail(pc);
+            return;
+        case REPEAT:
+            repeat(pc);
+            return;
+        case LOOKAHEAD:
+            lookahead(pc);
+            return;
+        case SUCCEED:
+            asm.load(index);
+            asm._return();
+            return;
+        default:
+            throw new AssertionError();
+        }
+    }
+
+    /**
+     * Matches the character atom at {@code atom} and advances the string index, jumps to
+     * {@code fail} without changing the string index if the atom does not match.
+     */
+    private void character(int atom, Jump fail) {
+        switch (code[atom]) {
+        case CHAR:
+            asm.load(index);
+            asm.load(length);
+            asm.ificmpge(fail);
+            asm.load(string);
+            asm.load(index);
+            asm.invoke(Methods.String_charAt);
+            asm.iconst(code[atom + 1]);
+            asm.ificmpne(fail);
+            asm.iinc(index, 1);
+            return;
+        case ANY:
+            if (!program.unicode) {
+                loadCharacter(fail);
+                for (char terminator : new char[] { '\n', '\r', '\u2028', '\u2029' }) {
+                    asm.load(c);
+                    asm.iconst(terminator);
+                    asm.ificmpeq(fail);
+                }
+                asm.iinc(index, 1);
+                return;
+            }
+            break;
+        case CLASS: {
+            NativeCharacterSet set = program.sets[code[atom + 1]];
+            int[] ranges = set.ranges();
+            if (!program.unicode && !set.isIgnoreCase()
+                    && ranges.length <= MAX_INLINE_RANGES * 2) {
+                characterSet(ranges, set.isNegated(), fail);
+                return;
+            }
+            break;
+        }
+        default:
+        }
+        asm.load(state);
+        asm.iconst(atom);
+        asm.load(index);
+        asm.invoke(Methods.NativeMatchState_matchCharacter);
+        asm.dup();
+        asm.store(next);
+        asm.iflt(fail);
+        asm.load(next);
+        asm.store(index);
+    }
+
+    private void loadCharacter(Jump fail) {
+        asm.load(index);
+        asm.load(length);
+        asm.ificmpge(fail);
+        asm.load(string);
+        asm.load(index);
+        asm.invoke(Methods.String_charAt);
+        asm.store(c);
+    }
+
+    private void characterSet(int[] ranges, boolean negate, Jump fail) {
+        loadCharacter(fail);
+        Jump match = negate ? fail : new Jump();
+        Jump noMatch = negate ? new Jump() : fail;
+        for (int i = 0; i < ranges.length && ranges[i] <= 0xFFFF; i += 2) {
+            int from = ranges[i], to = Math.min(ranges[i + 1], 0xFFFF);
+            asm.load(c);
+            asm.iconst(from);
+            asm.ificmplt(noMatch);
+            asm.load(c);
+            asm.iconst(to);
+            asm.ificmple(match);
+        }
+        asm.goTo(noMatch);
+        asm.mark(negate ? noMatch : match);
+        asm.iinc(index, 1);
+    }
+
+    private void assertion(MethodName method, boolean expected) {
+        asm.load(state);
+        asm.load(index);
+        asm.invoke(method);
+        if (expected) {
+            asm.ifeq(backtrack);
+        } else {
+            asm.ifne(backtrack);
+        }
+    }
+
+    private void setRegister(int register, Variable<Integer> value) {
+        asm.load(state);
+        asm.iconst(register);
+        asm.load(value);
+        asm.invoke(Methods.NativeMatchState_setRegister);
+    }
+
+    private void setRegister(int register, int value) {
+        asm.load(state);
+        asm.iconst(register);
+        asm.iconst(value);
+        asm.invoke(Methods.NativeMatchState_setRegister);
+    }
+
+    private void pushChoice(int target) {
+        asm.load(state);
+        asm.iconst(target);
+        asm.load(index);
+        asm.invoke(Methods.NativeMatchState_pushChoice);
+    }
+
+    private void loadRegister(int register) {
+        asm.load(registers);
+        asm.iconst(register);
+        asm.iaload();
+    }
+
+    private void loopHead(int pc) {
+        int min = code[pc + 2], max = code[pc + 3];
+        boolean greedy = code[pc + 4] != 0;
+        int exit = code[pc + 5], enter = pc + LOOP_HEAD_LENGTH;
+        loadRegister(program.counterRegister(code[pc + 1]));
+        asm.store(count);
+        if (min > 0) {
+            asm.load(count);
+            asm.iconst(min);
+            asm.ificmplt(labels[enter]);
+        }
+        if (max != INFINITY) {
+            asm.load(count);
+            asm.iconst(max);
+            asm.ificmpge(labels[exit]);
+        }
+        if (greedy) {
+            pushChoice(exit);
+            // fall through to the loop body
+        } else {
+            pushChoice(enter);
+            asm.goTo(labels[exit]);
+        }
+    }
+
+    private void loopTail(int pc) {
+        int loop = code[pc + 1], min = code[pc + 2], head = code[pc + 3];
+        loadRegister(program.counterRegister(loop));
+        asm.store(count);
+        Jump nonEmpty = new Jump();
+        if (min > 0) {
+            asm.load(count);
+            asm.iconst(min);
+            asm.ificmplt(nonEmpty);
+        }
+        // Empty match in optional iteration.
+        asm.load(index);
+        loadRegister(program.loopStartRegister(loop));
+        asm.ificmpeq(backtrack);
+        asm.mark(nonEmpty);
+        asm.load(state);
+        asm.iconst(program.counterRegister(loop));
+        asm.load(count);
+        asm.iconst(1);
+        asm.iadd();
+        asm.invoke(Methods.NativeMatchState_setRegister);
+        asm.goTo(labels[head]);
+    }
+
+    private void repeat(int pc) {
+        int min = code[pc + 1], max = code[pc + 2];
+        boolean greedy = code[pc + 3] != 0;
+        int atom = pc + REPEAT_LENGTH;
+        int limit = greedy ? max : min;
+        assert code[pc + 4] == pc + program.instructionLength(pc);
+
+        asm.iconst(0);
+        asm.store(count);
+        asm.load(index);
+        asm.store(start);
+        Jump done = new Jump();
+        if (limit > 0) {
+            Jump loop = new Jump();
+            asm.mark(loop);
+            if (limit != INFINITY) {
+                asm.load(count);
+                asm.iconst(limit);
+                asm.ificmpge(done);
+            }
+            character(atom, done);
+            asm.iinc(count, 1);
+            asm.goTo(loop);
+        }
+        asm.mark(done);
+        if (min > 0) {
+            asm.load(count);
+            asm.iconst(min);
+            asm.ificmplt(backtrack);
+        }
+        if (min != max) {
+            // Greedy repetitions can give back characters, lazy repetitions can consume more.
+            Jump noChoice = new Jump();
+            asm.load(count);
+            asm.iconst(greedy ? min : max);
+            if (greedy) {
+                asm.ificmple(noChoice);
+            } else {
+                asm.ificmpge(noChoice);
+            }
+            asm.load(state);
+            asm.iconst(pc);
+            asm.load(count);
+            asm.load(index);
+            asm.load(start);
+            asm.invoke(Methods.NativeMatchState_pushRepeat);
+            asm.mark(noChoice);
+        }
+        // fall through to the next instruction
+    }
+
+    private void lookahead(int pc) {
+        boolean negative = code[pc + 1] != 0;
+        Jump next = labels[code[pc + 2]];
+        asm.load(state);
+        asm.invoke(Methods.NativeMatchState_stackPointer);
+        asm.store(savedSp);
+        asm.loadThis();
+        asm.load(state);
+        asm.load(string);
+        asm.iconst(pc + LOOKAHEAD_LENGTH);
+        asm.load(index);
+        asm.load(savedSp);
+        asm.invoke(Methods.CompiledRegExp_execute);
+        if (negative) {
+            asm.iflt(next);
+            asm.load(state);
+            asm.load(savedSp);
+            asm.invoke(Methods.NativeMatchState_unwind);
+            asm.goTo(backtrack);
+        } else {
+            asm.iflt(backtrack);
+            asm.load(state);
+            asm.load(savedSp);
+            asm.invoke(Methods.NativeMatchState_commit);
+            asm.goTo(next);
+        }
+    }
+}
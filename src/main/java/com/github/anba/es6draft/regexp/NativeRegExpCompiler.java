@@ -0,0 +1,552 @@
+/**
+ * Copyright (c) 2012-2015 André Bargull
+ * Alle Rechte vorbehalten / All Rights Reserved.  Use is subject to license terms.
+ *
+ * <https://github.com/anba/es6draft>
+ */
+package com.github.anba.es6draft.regexp;
+
+import static com.github.anba.es6draft.regexp.NativeRegExpMatcher.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.regex.Pattern;
+
+/**
+ * Compiles regular expression patterns for {@link NativeRegExpMatcher}.
+ * <p>
+ * The compiler does not parse the pattern source itself, instead {@link RegExpParser} reports the
+ * pattern's terms while it validates the pattern. Escape sequences and Annex B extensions are
+ * therefore already resolved to their character values. Case-insensitive unicode patterns,
+ * quantified assertions and deeply nested patterns are not supported, {@link #compile()} returns
+ * {@code null} for those patterns.
+ */
+final class NativeRegExpCompiler {
+    private static final int DEPTH_LIMIT = 256;
+
+    /**
+     * Group types reported by {@link RegExpParser}.
+     */
+    enum GroupType {
+        Capturing, NonCapturing, PositiveLookahead, NegativeLookahead
+    }
+
+    private static abstract class Node {
+    }
+
+    private static final class Alternative extends Node {
+        final ArrayList<Node> terms;
+
+        Alternative(ArrayList<Node> terms) {
+            this.terms = terms;
+        }
+    }
+
+    private static final class Disjunction extends Node {
+        final ArrayList<Node> alternatives;
+
+        Disjunction(ArrayList<Node> alternatives) {
+            this.alternatives = alternatives;
+        }
+    }
+
+    private static final class CharacterNode extends Node {
+        final int codePoint;
+
+        CharacterNode(int codePoint) {
+            this.codePoint = codePoint;
+        }
+    }
+
+    private static final class ClassNode extends Node {
+        final NativeCharacterSet set;
+
+        ClassNode(NativeCharacterSet set) {
+            this.set = set;
+        }
+    }
+
+    private static final class AnyNode extends Node {
+    }
+
+    private static final class AssertionNode extends Node {
+        final int op;
+
+        AssertionNode(int op) {
+            this.op = op;
+        }
+    }
+
+    private static final class BackReferenceNode extends Node {
+        final int group;
+
+        BackReferenceNode(int group) {
+            this.group = group;
+        }
+    }
+
+    private static final class GroupNode extends Node {
+        final Node body;
+        final int group;
+
+        GroupNode(Node body, int group) {
+            this.body = body;
+            this.group = group;
+        }
+    }
+
+    private static final class LookaheadNode extends Node {
+        final Node body;
+        final boolean negative;
+
+        LookaheadNode(Node body, boolean negative) {
+            this.body = body;
+            this.negative = negative;
+        }
+    }
+
+    private static final class QuantifierNode extends Node {
+        final Node atom;
+        final int min, max;
+        final boolean greedy;
+        final int firstGroup, groupCount;
+
+        QuantifierNode(Node atom, int min, int max, boolean greedy, int firstGroup, int groupCount) {
+            this.atom = atom;
+            this.min = min;
+            this.max = max;
+            this.greedy = greedy;
+            this.firstGroup = firstGroup;
+            this.groupCount = groupCount;
+        }
+    }
+
+    /**
+     * Disjunction of the pattern or of a group which is currently parsed.
+     */
+    private static final class Frame {
+        final Frame parent;
+        final GroupType type;
+        final int group;
+        // First capturing group within the group.
+        final int firstGroup;
+        final ArrayList<Node> alternatives = new ArrayList<>();
+        ArrayList<Node> terms = new ArrayList<>();
+        // First capturing group of the last term.
+        int termFirstGroup;
+        // Whether or not the last term can be quantified.
+        boolean quantifiable;
+
+        Frame(Frame parent, GroupType type, int group, int firstGroup) {
+            this.parent = parent;
+            this.type = type;
+            this.group = group;
+            this.firstGroup = firstGroup;
+        }
+
+        void addTerm(Node term, int firstGroup, boolean quantifiable) {
+            terms.add(term);
+            this.termFirstGroup = firstGroup;
+            this.quantifiable = quantifiable;
+        }
+
+        Node toNode() {
+            alternatives.add(toAlternative(terms));
+            if (alternatives.size() == 1) {
+                return alternatives.get(0);
+            }
+            return new Disjunction(alternatives);
+        }
+
+        private static Node toAlternative(ArrayList<Node> terms) {
+            return terms.size() == 1 ? terms.get(0) : new Alternative(terms);
+        }
+    }
+
+    private final String source;
+    private final int flags;
+    private final boolean ignoreCase;
+    private final boolean multiline;
+    private final boolean unicode;
+    private boolean supported;
+    private Frame frame;
+    private int depth;
+    private int groupIndex;
+
+    // Code generation state
+    private int[] code = new int[32];
+    private int codeSize = 0;
+    private final ArrayList<NativeCharacterSet> sets = new ArrayList<>();
+    private int loopCount = 0;
+
+    /**
+     * Constructs a new compiler.
+     *
+     * @param source
+     *            the regular expression pattern
+     * @param flags
+     *            the pattern flags
+     * @param enabled
+     *            {@code false} if no program should be compiled for the pattern
+     */
+    NativeRegExpCompiler(String source, int flags, boolean enabled) {
+        this.source = source;
+        this.flags = flags;
+        this.ignoreCase = (flags & Pattern.CASE_INSENSITIVE) != 0;
+        this.multiline = (flags & Pattern.MULTILINE) != 0;
+        this.unicode = (flags & Pattern.UNICODE_CASE) != 0;
+        // Simple case folding is not implemented.
+        this.supported = enabled && !(ignoreCase && unicode);
+        reset();
+    }
+
+    /**
+     * Returns {@code true} if the pattern can still be compiled.
+     *
+     * @return {@code true} if the pattern is supported
+     */
+    boolean isSupported() {
+        return supported;
+    }
+
+    /**
+     * Discards all reported terms, called when the parser restarts.
+     */
+    void reset() {
+        if (supported) {
+            frame = new Frame(null, GroupType.NonCapturing, 0, 1);
+            depth = 0;
+            groupIndex = 0;
+        }
+    }
+
+    private void unsupported() {
+        supported = false;
+        frame = null;
+    }
+
+    /**
+     * Starts a new alternative in the current disjunction.
+     */
+    void alternative() {
+        if (supported) {
+            frame.alternatives.add(Frame.toAlternative(frame.terms));
+            frame.terms = new ArrayList<>();
+        }
+    }
+
+    /**
+     * Adds an assertion.
+     *
+     * @param op
+     *            the assertion instruction
+     */
+    void assertion(int op) {
+        if (supported) {
+            frame.addTerm(new AssertionNode(op), groupIndex + 1, false);
+        }
+    }
+
+    /**
+     * Adds a single character.
+     *
+     * @param codePoint
+     *            the character value
+     */
+    void character(int codePoint) {
+        if (supported) {
+            frame.addTerm(new CharacterNode(codePoint), groupIndex + 1, true);
+        }
+    }
+
+    /**
+     * Adds the {@code .} atom.
+     */
+    void any() {
+        if (supported) {
+            frame.addTerm(new AnyNode(), groupIndex + 1, true);
+        }
+    }
+
+    /**
+     * Adds a character class.
+     *
+     * @param builder
+     *            the character class members
+     * @param negate
+     *            {@code true} if the character class is negated
+     */
+    void characterClass(NativeCharacterSet.Builder builder, boolean negate) {
+        if (supported) {
+            NativeCharacterSet set = NativeCharacterSet.create(builder, negate, ignoreCase);
+            frame.addTerm(new ClassNode(set), groupIndex + 1, true);
+        }
+    }
+
+    /**
+     * Adds the character class escape {@code \d, \D, \s, \S, \w, \W}.
+     *
+     * @param c
+     *            the character class escape letter
+     */
+    void characterClassEscape(char c) {
+        if (supported) {
+            characterClass(new NativeCharacterSet.Builder().addClassEscape(c), false);
+        }
+    }
+
+    /**
+     * Adds a back reference to a capturing group which precedes the back reference.
+     *
+     * @param group
+     *            the group number
+     */
+    void backReference(int group) {
+        if (supported) {
+            assert 0 < group && group <= groupIndex;
+            frame.addTerm(new BackReferenceNode(group), groupIndex + 1, true);
+        }
+    }
+
+    /**
+     * Adds an empty term, used for back references which always match the empty string.
+     */
+    void empty() {
+        if (supported) {
+            frame.addTerm(new Alternative(new ArrayList<Node>()), groupIndex + 1, true);
+        }
+    }
+
+    /**
+     * Starts a new group.
+     *
+     * @param type
+     *            the group type
+     */
+    void startGroup(GroupType type) {
+        if (supported) {
+            if (++depth > DEPTH_LIMIT) {
+                unsupported();
+                return;
+            }
+            int firstGroup = groupIndex + 1;
+            int group = type == GroupType.Capturing ? ++groupIndex : 0;
+            frame = new Frame(frame, type, group, firstGroup);
+        }
+    }
+
+    /**
+     * Ends the current group.
+     */
+    void endGroup() {
+        if (supported) {
+            Frame groupFrame = frame;
+            Node body = groupFrame.toNode();
+            frame = groupFrame.parent;
+            depth -= 1;
+            int firstGroup = groupFrame.firstGroup;
+            switch (groupFrame.type) {
+            case Capturing:
+                frame.addTerm(new GroupNode(body, groupFrame.group), firstGroup, true);
+                break;
+            case NonCapturing:
+                frame.addTerm(body, firstGroup, true);
+                break;
+            case PositiveLookahead:
+            case NegativeLookahead:
+                boolean negative = groupFrame.type == GroupType.NegativeLookahead;
+                frame.addTerm(new LookaheadNode(body, negative), firstGroup, false);
+                break;
+            default:
+                throw new AssertionError();
+            }
+        }
+    }
+
+    /**
+     * Applies a quantifier to the last term.
+     *
+     * @param min
+     *            the minimum number of repetitions
+     * @param max
+     *            the maximum number of repetitions or {@code -1} if unbounded
+     * @param greedy
+     *            {@code true} if the quantifier is greedy
+     */
+    void quantifier(long min, long max, boolean greedy) {
+        if (supported) {
+            if (frame.terms.isEmpty() || !frame.quantifiable) {
+                // Annex B: QuantifiableAssertion, or the parser reports a syntax error
+                unsupported();
+                return;
+            }
+            ArrayList<Node> terms = frame.terms;
+            Node atom = terms.remove(terms.size() - 1);
+            int firstGroup = frame.termFirstGroup;
+            int imin = (int) Math.min(min, INFINITY);
+            int imax = max < 0 ? INFINITY : (int) Math.min(max, INFINITY);
+            terms.add(new QuantifierNode(atom, imin, imax, greedy, firstGroup, groupIndex
+                    - firstGroup + 1));
+            frame.quantifiable = false;
+        }
+    }
+
+    /**
+     * Compiles the reported pattern or returns {@code null} if the pattern is not supported.
+     *
+     * @return the compiled matcher or {@code null} if the pattern is not supported
+     */
+    NativeRegExpMatcher compile() {
+        if (!supported) {
+            return null;
+        }
+        assert frame.parent == null && depth == 0;
+        return generate(frame.toNode());
+    }
+
+    /* code generation */
+
+    private NativeRegExpMatcher generate(Node node) {
+        emit(node);
+        emit(SUCCEED);
+        return new NativeRegExpMatcher(source, flags, Arrays.copyOf(code, codeSize),
+                sets.toArray(new NativeCharacterSet[sets.size()]), groupIndex, loopCount, unicode,
+                multiline, firstChar(node));
+    }
+
+    private void emit(int op) {
+        if (codeSize == code.length) {
+            code = Arrays.copyOf(code, codeSize << 1);
+        }
+        code[codeSize++] = op;
+    }
+
+    private void emit(int op, int operand) {
+        emit(op);
+        emit(operand);
+    }
+
+    private void emit(Node node) {
+        if (node instanceof Alternative) {
+            for (Node term : ((Alternative) node).terms) {
+                emit(term);
+            }
+        } else if (node instanceof Disjunction) {
+            ArrayList<Node> alternatives = ((Disjunction) node).alternatives;
+            int[] jumps = new int[alternatives.size() - 1];
+            for (int i = 0; i < jumps.length; ++i) {
+                int split = codeSize;
+                emit(SPLIT, 0);
+                emit(alternatives.get(i));
+                jumps[i] = codeSize;
+                emit(JUMP, 0);
+                code[split + 1] = codeSize;
+            }
+            emit(alternatives.get(jumps.length));
+            for (int jump : jumps) {
+                code[jump + 1] = codeSize;
+            }
+        } else if (node instanceof CharacterNode) {
+            int c = ((CharacterNode) node).codePoint;
+            if (unicode && (c > 0xFFFF || Character.isSurrogate((char) c))) {
+                emit(CODE_POINT, c);
+            } else if (ignoreCase) {
+                emit(CHAR_IGNORE_CASE, NativeCharacterSet.Canonicalize((char) c));
+            } else {
+                emit(CHAR, c);
+            }
+        } else if (node instanceof ClassNode) {
+            emit(CLASS, sets.size());
+            sets.add(((ClassNode) node).set);
+        } else if (node instanceof AnyNode) {
+            emit(ANY);
+        } else if (node instanceof AssertionNode) {
+            emit(((AssertionNode) node).op);
+        } else if (node instanceof BackReferenceNode) {
+            emit(ignoreCase ? BACK_REFERENCE_IGNORE_CASE : BACK_REFERENCE,
+                    ((BackReferenceNode) node).group);
+        } else if (node instanceof GroupNode) {
+            GroupNode group = (GroupNode) node;
+            emit(GROUP_START, group.group);
+            emit(group.body);
+            emit(GROUP_END, group.group);
+        } else if (node instanceof LookaheadNode) {
+            LookaheadNode lookahead = (LookaheadNode) node;
+            int start = codeSize;
+            emit(LOOKAHEAD);
+            emit(lookahead.negative ? 1 : 0);
+            emit(0);
+            emit(lookahead.body);
+            emit(SUCCEED);
+            code[start + 2] = codeSize;
+        } else if (node instanceof QuantifierNode) {
+            emitQuantifier((QuantifierNode) node);
+        } else {
+            throw new AssertionError();
+        }
+    }
+
+    private void emitQuantifier(QuantifierNode quantifier) {
+        int min = quantifier.min, max = quantifier.max;
+        if (max == 0) {
+            return;
+        }
+        if (min == 1 && max == 1) {
+            emit(quantifier.atom);
+            return;
+        }
+        if (isCharacterAtom(quantifier.atom)) {
+            int start = codeSize;
+            emit(REPEAT);
+            emit(min);
+            emit(max);
+            emit(quantifier.greedy ? 1 : 0);
+            emit(0);
+            emit(quantifier.atom);
+            code[start + 4] = codeSize;
+            return;
+        }
+        int loop = loopCount++;
+        emit(LOOP_INIT, loop);
+        int head = codeSize;
+        emit(LOOP_HEAD, loop);
+        emit(min);
+        emit(max);
+        emit(quantifier.greedy ? 1 : 0);
+        emit(0);
+        emit(LOOP_ENTER, loop);
+        emit(quantifier.firstGroup);
+        emit(quantifier.groupCount);
+        emit(quantifier.atom);
+        emit(LOOP_TAIL, loop);
+        emit(min);
+        emit(head);
+        code[head + 5] = codeSize;
+    }
+
+    private static boolean isCharacterAtom(Node node) {
+        return node instanceof CharacterNode || node instanceof ClassNode
+                || node instanceof AnyNode;
+    }
+
+    private int firstChar(Node node) {
+        if (node instanceof Alternative) {
+            ArrayList<Node> terms = ((Alternative) node).terms;
+            return terms.isEmpty() ? -1 : firstChar(terms.get(0));
+        }
+        if (node instanceof CharacterNode) {
+            int c = ((CharacterNode) node).codePoint;
+            if (ignoreCase || c > 0xFFFF || Character.isSurrogate((char) c)) {
+                return -1;
+            }
+            return c;
+        }
+        if (node instanceof GroupNode) {
+            return firstChar(((GroupNode) node).body);
+        }
+        if (node instanceof QuantifierNode && ((QuantifierNode) node).min > 0) {
+            return firstChar(((QuantifierNode) node).atom);
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,236 @@
+/**
+ * Copyright (c) 2012-2015 André Bargull
+ * Alle Rechte vorbehalten / All Rights Reserved.  Use is subject to license terms.
+ *
+ * <https://github.com/anba/es6draft>
+ */
+package com.github.anba.es6draft.regexp;
+
+import java.util.regex.Pattern;
+
+/**
+ * {@link RegExpMatcher} implementation which matches directly on {@code char} sequences.
+ * <p>
+ * The pattern is compiled by {@link NativeRegExpCompiler} into a small instruction set which is
+ * executed by the backtracking interpreter in {@link NativeMatchState}. Frequently executed
+ * programs are compiled to bytecode by {@link NativeRegExpCodeGenerator}.
+ */
+final class NativeRegExpMatcher implements RegExpMatcher {
+    /* Single character atoms: [op, operand] or [op] */
+    static final int CHAR = 0;
+    static final int CHAR_IGNORE_CASE = 1;
+    static final int CODE_POINT = 2;
+    static final int ANY = 3;
+    static final int CLASS = 4;
+    /* Assertions: [op] */
+    static final int LINE_START = 5;
+    static final int LINE_END = 6;
+    static final int WORD_BOUNDARY = 7;
+    static final int NOT_WORD_BOUNDARY = 8;
+    /* [op, group] */
+    static final int BACK_REFERENCE = 9;
+    static final int BACK_REFERENCE_IGNORE_CASE = 10;
+    static final int GROUP_START = 11;
+    static final int GROUP_END = 12;
+    /* [op, target] */
+    static final int SPLIT = 13;
+    static final int JUMP = 14;
+    /* [op, loop] */
+    static final int LOOP_INIT = 15;
+    /* [op, loop, min, max, greedy, exit] */
+    static final int LOOP_HEAD = 16;
+    /* [op, loop, firstGroup, groupCount] */
+    static final int LOOP_ENTER = 17;
+    /* [op, loop, min, head] */
+    static final int LOOP_TAIL = 18;
+    /* [op, min, max, greedy, next] followed by a single character atom */
+    static final int REPEAT = 19;
+    /* [op, negative, next] followed by the lookahead body */
+    static final int LOOKAHEAD = 20;
+    /* [op] */
+    static final int SUCCEED = 21;
+
+    static final int LOOP_HEAD_LENGTH = 6;
+    static final int REPEAT_LENGTH = 5;
+    static final int LOOKAHEAD_LENGTH = 3;
+    static final int INFINITY = Integer.MAX_VALUE;
+
+    /** Number of executions before the program is compiled to bytecode */
+    private static final int COMPILE_THRESHOLD = 1000;
+
+    private final String regex;
+    private final int flags;
+    final int[] code;
+    final NativeCharacterSet[] sets;
+    final int groupCount;
+    final int loopCount;
+    final boolean unicode;
+    final boolean multiline;
+    // First character of every match or -1 if not known.
+    final int firstChar;
+    private final String literal;
+    // Not synchronized, shared matchers may lose updates, but the counter keeps running until the
+    // compilation was attempted.
+    private int executions;
+    private volatile boolean compileAttempted;
+    private volatile CompiledRegExp compiled;
+
+    NativeRegExpMatcher(String regex, int flags, int[] code, NativeCharacterSet[] sets,
+            int groupCount, int loopCount, boolean unicode, boolean multiline, int firstChar) {
+        this.regex = regex;
+        this.flags = flags;
+        this.code = code;
+        this.sets = sets;
+        this.groupCount = groupCount;
+        this.loopCount = loopCount;
+        this.unicode = unicode;
+        this.multiline = multiline;
+        this.firstChar = firstChar;
+        this.literal = literal(code, groupCount);
+    }
+
+    private static String literal(int[] code, int groupCount) {
+        if (groupCount != 0 || code.length < 3 || (code.length & 1) == 0) {
+            return null;
+        }
+        int length = code.length >> 1;
+        char[] chars = new char[length];
+        for (int i = 0; i < length; ++i) {
+            if (code[i << 1] != CHAR) {
+                return null;
+            }
+            chars[i] = (char) code[(i << 1) + 1];
+        }
+        assert code[code.length - 1] == SUCCEED;
+        return new String(chars);
+    }
+
+    /**
+     * Returns the bytecode compiled program or {@code null} if the program is still interpreted.
+     * The program is compiled when it was executed {@link #COMPILE_THRESHOLD} times. Compilation is
+     * attempted only once, programs which cannot be compiled stay interpreted.
+     *
+     * @return the compiled program or {@code null}
+     */
+    CompiledRegExp compiled() {
+        CompiledRegExp compiled = this.compiled;
+        if (compiled == null && !compileAttempted && ++executions >= COMPILE_THRESHOLD) {
+            compiled = compile();
+        }
+        return compiled;
+    }
+
+    private synchronized CompiledRegExp compile() {
+        if (!compileAttempted) {
+            // Mark the attempt first, a failed compilation must not be retried.
+            compileAttempted = true;
+            compiled = NativeRegExpCodeGenerator.compile(this);
+        }
+        return compiled;
+    }
+
+    int startRegister(int group) {
+        return group << 1;
+    }
+
+    int endRegister(int group) {
+        return (group << 1) + 1;
+    }
+
+    int pendingRegister(int group) {
+        return ((groupCount + 1) << 1) + group;
+    }
+
+    int counterRegister(int loop) {
+        return (groupCount + 1) * 3 + (loop << 1);
+    }
+
+    int loopStartRegister(int loop) {
+        return (groupCount + 1) * 3 + (loop << 1) + 1;
+    }
+
+    int registerCount() {
+        return (groupCount + 1) * 3 + loopCount * 2;
+    }
+
+    /**
+     * Returns the length of the instruction at {@code pc}. {@link #REPEAT} instructions include
+     * their character atom.
+     *
+     * @param pc
+     *            the instruction index
+     * @return the instruction length
+     */
+    int instructionLength(int pc) {
+        switch (code[pc]) {
+        case ANY:
+        case LINE_START:
+        case LINE_END:
+        case WORD_BOUNDARY:
+        case NOT_WORD_BOUNDARY:
+        case SUCCEED:
+            return 1;
+        case CHAR:
+        case CHAR_IGNORE_CASE:
+        case CODE_POINT:
+        case CLASS:
+        case BACK_REFERENCE:
+        case BACK_REFERENCE_IGNORE_CASE:
+        case GROUP_START:
+        case GROUP_END:
+        case SPLIT:
+        case JUMP:
+        case LOOP_INIT:
+            return 2;
+        case LOOKAHEAD:
+            return LOOKAHEAD_LENGTH;
+        case LOOP_ENTER:
+        case LOOP_TAIL:
+            return 4;
+        case LOOP_HEAD:
+            return LOOP_HEAD_LENGTH;
+        case REPEAT:
+            return REPEAT_LENGTH + instructionLength(pc + REPEAT_LENGTH);
+        default:
+            throw new AssertionError();
+        }
+    }
+
+    @Override
+    public String getLiteral() {
+        return literal;
+    }
+
+    @Override
+    public NativeMatchState matcher(String s) {
+        return new NativeMatchState(this, s);
+    }
+
+    @Override
+    public NativeMatchState matcher(CharSequence s) {
+        // Flattened strings are cached by ConsString.
+        return new NativeMatchState(this, s.toString());
+    }
+
+    @Override
+    public NativeRegExpMatcher clone() {
+        // Programs are immutable and the match state is kept in NativeMatchState, so instances can
+        // be shared. Sharing also shares the execution count and the compiled program.
+        return this;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder(3);
+        if ((flags & Pattern.CASE_INSENSITIVE) != 0) {
+            sb.append('i');
+        }
+        if ((flags & Pattern.MULTILINE) != 0) {
+            sb.append('m');
+        }
+        if ((flags & Pattern.UNICODE_CASE) != 0) {
+            sb.append('u');
+        }
+        return String.format("regex=%s, flags=%s", regex, sb);
+    }
+}
@@ -0,0 +1,191 @@
+/**
+ * Copyright (c) 2012-2015 André Bargull
+ * Alle Rechte vorbehalten / All Rights Reserved.  Use is subject to license terms.
+ *
+ * <https://github.com/anba/es6draft>
+ */
+package com.github.anba.es6draft.regexp;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.github.anba.es6draft.parser.ParserException;
+
+/**
+ * Bounded cache for parsed regular expression patterns.
+ * <p>
+ * The default cache is shared by all realms. Cached matchers are never handed out directly,
+ * callers receive a clone which shares the compiled pattern with the cache entry.
+ */
+public final class RegExpCache {
+    private static final int DEFAULT_MAX_SIZE = 256;
+    private static final int DEFAULT_INITIAL_CAPACITY = 16;
+    private static final float DEFAULT_LOAD_FACTOR = .75f;
+    private static final RegExpCache DEFAULT = new RegExpCache();
+
+    private final Map<CacheKey, RegExpMatcher> cache;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    @SuppressWarnings("serial")
+    private static final class Cache extends LinkedHashMap<CacheKey, RegExpMatcher> {
+        private final int maxSize;
+
+        Cache(int maxSize, int initialCapacity, float loadFactor) {
+            super(initialCapacity, loadFactor, true);
+            this.maxSize = maxSize;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<CacheKey, RegExpMatcher> eldest) {
+            return size() > maxSize;
+        }
+    }
+
+    private static final class CacheKey {
+        private final String pattern;
+        private final String flags;
+        private final boolean webRegExp;
+        private final RegExpParser.Engine engine;
+
+        CacheKey(String pattern, String flags, boolean webRegExp, RegExpParser.Engine engine) {
+            this.pattern = pattern;
+            this.flags = flags;
+            this.webRegExp = webRegExp;
+            this.engine = engine;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (obj == null || obj.getClass() != CacheKey.class) {
+                return false;
+            }
+            CacheKey other = (CacheKey) obj;
+            return webRegExp == other.webRegExp && engine == other.engine
+                    && pattern.equals(other.pattern) && flags.equals(other.flags);
+        }
+
+        @Override
+        public int hashCode() {
+            final int prime = 31;
+            int result = 1;
+            result = prime * result + pattern.hashCode();
+            result = prime * result + flags.hashCode();
+            result = prime * result + (webRegExp ? 1231 : 1237);
+            result = prime * result + engine.hashCode();
+            return result;
+        }
+    }
+
+    /**
+     * Constructs a new {@link RegExpCache} object.
+     */
+    public RegExpCache() {
+        this(DEFAULT_MAX_SIZE);
+    }
+
+    /**
+     * Constructs a new {@link RegExpCache} object.
+     *
+     * @param maxSize
+     *            the maximum size
+     */
+    public RegExpCache(int maxSize) {
+        this.cache = Collections.synchronizedMap(new Cache(maxSize, DEFAULT_INITIAL_CAPACITY,
+                DEFAULT_LOAD_FACTOR));
+    }
+
+    /**
+     * Returns the default cache instance.
+     *
+     * @return the default cache
+     */
+    public static RegExpCache getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * Returns the number of cache hits.
+     *
+     * @return the number of cache hits
+     */
+    public long getHits() {
+        return hits.get();
+    }
+
+    /**
+     * Returns the number of cache misses.
+     *
+     * @return the number of cache misses
+     */
+    public long getMisses() {
+        return misses.get();
+    }
+
+    /**
+     * Returns the number of cached patterns.
+     *
+     * @return the number of cached patterns
+     */
+    public int size() {
+        return cache.size();
+    }
+
+    /**
+     * Removes all cached patterns.
+     */
+    public void clear() {
+        cache.clear();
+    }
+
+    /**
+     * Parses the regular expression pattern or returns the cached result. Patterns with syntax
+     * errors are not cached.
+     *
+     * @param pattern
+     *            the regular expression pattern
+     * @param flags
+     *            the regular expression flags
+     * @param sourceFile
+     *            the source file name
+     * @param sourceLine
+     *            the source line
+     * @param sourceColumn
+     *            the source column
+     * @param webRegExp
+     *            {@code true} if the web-compatibility extensions are enabled
+     * @param engine
+     *            the regular expression engine
+     * @return the regular expression matcher
+     * @throws ParserException
+     *             if the pattern or flags contain any syntax errors
+     * @see RegExpParser#parse(String, String, String, int, int, boolean, RegExpParser.Engine)
+     */
+    public RegExpMatcher get(String pattern, String flags, String sourceFile, int sourceLine,
+            int sourceColumn, boolean webRegExp, RegExpParser.Engine engine)
+            throws ParserException {
+        CacheKey cacheKey = new CacheKey(pattern, flags, webRegExp, engine);
+        RegExpMatcher matcher = cache.get(cacheKey);
+        if (matcher != null) {
+            hits.incrementAndGet();
+            return copy(matcher);
+        }
+        misses.incrementAndGet();
+        matcher = RegExpParser.parse(pattern, flags, sourceFile, sourceLine, sourceColumn,
+                webRegExp, engine);
+        // Cloning compiles the pattern, so the entry is complete before it is published.
+        RegExpMatcher result = copy(matcher);
+        cache.put(cacheKey, matcher);
+        return result;
+    }
+
+    private static RegExpMatcher copy(RegExpMatcher matcher) {
+        try {
+            return matcher.clone();
+        } catch (CloneNotSupportedException e) {
+            throw new AssertionError(e);
+        }
+    }
+}
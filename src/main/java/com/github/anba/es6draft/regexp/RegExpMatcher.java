@@ -28,6 +28,14 @@ public interface RegExpMatcher extends Cloneable {
      */
     MatchState matcher(CharSequence input);
 
+    /**
+     * Returns the matched string if the pattern only consists of plain characters and therefore
+     * can be matched by a simple substring search, otherwise returns {@code null}.
+     * 
+     * @return the literal string or {@code null}
+     */
+    String getLiteral();
+
     /**
      * Returns a clone of this {@link RegExpMatcher} object.
      * 
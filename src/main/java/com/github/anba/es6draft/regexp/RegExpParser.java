@@ -16,6 +16,7 @@ import org.joni.Config;
 
 import com.github.anba.es6draft.parser.ParserException;
 import com.github.anba.es6draft.parser.ParserException.ExceptionType;
+import com.github.anba.es6draft.regexp.NativeRegExpCompiler.GroupType;
 import com.github.anba.es6draft.runtime.internal.CompatibilityOption;
 import com.github.anba.es6draft.runtime.internal.Messages;
 
@@ -28,8 +29,6 @@ import com.github.anba.es6draft.runtime.internal.Messages;
  * </ul>
  */
 public final class RegExpParser {
-    // TODO: Remove JDK mode.
-    private static final boolean USE_JONI = true;
     private static final int BACKREF_LIMIT = 0xFFFF;
     private static final int DEPTH_LIMIT = 0xFFFF;
     private static final char[] HEXDIGITS = { '0', '1', '2', '3', '4', '5', '6', '7', '8', '9',
@@ -63,14 +62,36 @@ public final class RegExpParser {
     private final boolean webRegExp;
     private final boolean joni;
     private final StringBuilder out;
+    private final NativeRegExpCompiler nativeCompiler;
 
     private int pos = 0;
 
     // map of groups created within negative lookahead
     private final BitSet negativeLAGroups = new BitSet();
 
+    /**
+     * Regular expression engines.
+     */
+    public enum Engine {
+        /**
+         * Patterns are matched by {@link NativeRegExpMatcher}, unsupported patterns are matched by
+         * Joni.
+         */
+        Native,
+
+        /**
+         * Patterns are matched by Joni.
+         */
+        Joni,
+
+        /**
+         * Patterns are matched by {@link java.util.regex.Pattern}.
+         */
+        JDK
+    }
+
     private RegExpParser(String source, String flags, String sourceFile, int sourceLine,
-            int sourceColumn, boolean webRegExp) {
+            int sourceColumn, boolean webRegExp, Engine engine) {
         this.source = source;
         this.length = source.length();
         this.sourceFile = sourceFile;
@@ -79,16 +100,22 @@ public final class RegExpParser {
         // Call after source information was set
         this.flags = toFlags(flags);
         this.webRegExp = webRegExp;
-        this.joni = USE_JONI;
+        this.joni = engine != Engine.JDK;
         this.out = new StringBuilder(length);
+        this.nativeCompiler = new NativeRegExpCompiler(source, this.flags, engine == Engine.Native);
     }
 
     public static RegExpMatcher parse(String pattern, String flags, String sourceFile,
-            int sourceLine, int sourceColumn, boolean webRegExp) throws ParserException {
+            int sourceLine, int sourceColumn, boolean webRegExp, Engine engine)
+            throws ParserException {
         RegExpParser parser = new RegExpParser(pattern, flags, sourceFile, sourceLine,
-                sourceColumn, webRegExp);
+                sourceColumn, webRegExp, engine);
         parser.pattern();
 
+        NativeRegExpMatcher matcher = parser.nativeCompiler.compile();
+        if (matcher != null) {
+            return matcher;
+        }
         if (parser.useJoniRegExp()) {
             return new JoniRegExpMatcher(parser.out.toString(), parser.flags,
                     parser.negativeLAGroups);
@@ -99,7 +126,7 @@ public final class RegExpParser {
     public static void syntaxParse(String pattern, String flags, String sourceFile, int sourceLine,
             int sourceColumn, boolean webRegExp) throws ParserException {
         RegExpParser parser = new RegExpParser(pattern, flags, sourceFile, sourceLine,
-                sourceColumn, webRegExp);
+                sourceColumn, webRegExp, Engine.Joni);
         parser.pattern();
     }
 
@@ -508,6 +535,7 @@ public final class RegExpParser {
 
         final StringBuilder out = this.out;
         final int startLength = out.length();
+        final NativeCharacterSet.Builder nativeClass = new NativeCharacterSet.Builder();
         int rangeStartCV = 0, rangeStartPos = 0;
         boolean inrange = false;
         boolean asciiI = false, iWithDot = false, dotlessI = false;
@@ -552,6 +580,7 @@ public final class RegExpParser {
                         }
                     }
                 }
+                nativeCompiler.characterClass(nativeClass, negation);
                 return;
             case '\\': {
                 switch (peek(0)) {
@@ -570,9 +599,11 @@ public final class RegExpParser {
                         assert out.charAt(out.length() - 1) == '-';
                         out.setCharAt(out.length() - 1, '\\');
                         out.append('-');
+                        nativeClass.add(rangeStartCV).add('-');
                         inrange = false;
                     }
                     char classEscape = get();
+                    nativeClass.addClassEscape(classEscape);
                     if ((!web || unicode) && peek(0) == '-' && peek(1) != ']') {
                         throw error(Messages.Key.RegExpInvalidCharacterRange);
                     }
@@ -784,6 +815,7 @@ public final class RegExpParser {
                 if (cv < rangeStartCV) {
                     throw error(Messages.Key.RegExpInvalidCharacterRange);
                 }
+                nativeClass.add(rangeStartCV, cv);
                 if ((rangeStartCV > 0x7f || cv > 0x7f) && ignoreCase && !unicode) {
                     // replace content in output with case insensitive range
                     out.setLength(rangeStartPos);
@@ -811,6 +843,7 @@ public final class RegExpParser {
                 rangeStartPos = outStart;
             } else {
                 // no range
+                nativeClass.add(cv);
             }
             continue charclass;
         }
@@ -960,6 +993,7 @@ public final class RegExpParser {
         final boolean unicode = isUnicode();
         final boolean web = isWebRegularExpression();
         final StringBuilder out = this.out;
+        final NativeRegExpCompiler nativeCompiler = this.nativeCompiler;
 
         // map of valid groups
         BitSet validGroups = new BitSet();
@@ -992,6 +1026,7 @@ public final class RegExpParser {
                     out.setLength(0);
                     pos = 0;
                     negativeLAGroups.clear();
+                    nativeCompiler.reset();
                     // remember correct back reference limit
                     backreflimit = groups;
                     assert backreflimit != BACKREF_LIMIT;
@@ -1019,6 +1054,7 @@ public final class RegExpParser {
             case '|':
                 /* Disjunction */
                 out.append((char) c);
+                nativeCompiler.alternative();
                 continue term;
 
             case '^':
@@ -1028,6 +1064,7 @@ public final class RegExpParser {
                 } else {
                     out.append("\\A");
                 }
+                nativeCompiler.assertion(NativeRegExpMatcher.LINE_START);
                 continue term;
 
             case '$':
@@ -1037,6 +1074,7 @@ public final class RegExpParser {
                 } else {
                     out.append("\\z");
                 }
+                nativeCompiler.assertion(NativeRegExpMatcher.LINE_END);
                 continue term;
 
             case '\\': {
@@ -1045,6 +1083,8 @@ public final class RegExpParser {
                 case 'b':
                 case 'B':
                     // Assertion
+                    nativeCompiler.assertion(peek(0) == 'b' ? NativeRegExpMatcher.WORD_BOUNDARY
+                            : NativeRegExpMatcher.NOT_WORD_BOUNDARY);
                     if (unicode && disableUnicodeInAssertion()) {
                         // Disable unicode - does not fix all spec violations, but it's better than
                         // nothing.
@@ -1058,22 +1098,26 @@ public final class RegExpParser {
                 case 'r':
                 case 't':
                     // CharacterEscape :: ControlEscape
+                    nativeCompiler.character(toControlEscape(peek(0)));
                     out.append('\\').append(get());
                     break atom;
                 case 'v':
                     // CharacterEscape :: ControlEscape
                     mustMatch('v');
                     out.append('\u000B');
+                    nativeCompiler.character(0x0B);
                     break atom;
                 case 'c': {
                     // CharacterEscape :: c ControlLetter
                     if (isASCIIAlpha(peek(1))) {
+                        nativeCompiler.character(peek(1) & 0x1F);
                         out.append('\\').append(get()).append(toControlLetter(get()));
                     } else if (!web || unicode) {
                         throw error(Messages.Key.RegExpInvalidEscape, +2, peek(1));
                     } else {
                         // convert invalid ControlLetter to \
                         out.append("\\\\");
+                        nativeCompiler.character('\\');
                     }
                     break atom;
                 }
@@ -1083,11 +1127,13 @@ public final class RegExpParser {
                     int x = readHexEscapeSequence();
                     if (x >= 0x00 && x <= 0xff) {
                         appendHexEscapeSequence(x, false);
+                        nativeCompiler.character(x);
                     } else if (!web || unicode) {
                         throw error(Messages.Key.RegExpInvalidEscape, "x");
                     } else {
                         // invalid hex escape sequence, use "x"
                         out.append('x');
+                        nativeCompiler.character('x');
                     }
                     break atom;
                 }
@@ -1097,15 +1143,18 @@ public final class RegExpParser {
                     if (unicode && match('{')) {
                         int u = readExtendedUnicodeEscapeSequence();
                         appendExtendedUnicodeEscapeSequence(u, false);
+                        nativeCompiler.character(u);
                     } else {
                         int u = readUnicodeEscapeSequence();
                         if (u >= 0) {
                             appendUnicodeEscapeSequence(u, false);
+                            nativeCompiler.character(u);
                         } else if (!web || unicode) {
                             throw error(Messages.Key.RegExpInvalidEscape, "u");
                         } else {
                             // invalid unicode escape sequence, use "u"
                             out.append('u');
+                            nativeCompiler.character('u');
                         }
                     }
                     break atom;
@@ -1118,16 +1167,20 @@ public final class RegExpParser {
                 case 's':
                 case 'S':
                     // CharacterClassEscape
+                    nativeCompiler.characterClassEscape(peek(0));
                     appendCharacterClassEscape(get(), false, false);
                     break atom;
 
-                case '0':
+                case '0': {
                     // "\0" or octal sequence
                     if ((!web || unicode) && isDecimalDigit(peek(1))) {
                         throw error(Messages.Key.RegExpInvalidEscape, +2, peek(1));
                     }
-                    appendOctalEscapeSequence(readOctalEscapeSequence(), false);
+                    int num = readOctalEscapeSequence();
+                    appendOctalEscapeSequence(num, false);
+                    nativeCompiler.character(num);
                     break atom;
+                }
 
                 case '1':
                 case '2':
@@ -1149,7 +1202,9 @@ public final class RegExpParser {
                         }
                         if (peek(0) < '8') {
                             // case 1: octal escape sequence
-                            appendOctalEscapeSequence(readOctalEscapeSequence(), false);
+                            int octal = readOctalEscapeSequence();
+                            appendOctalEscapeSequence(octal, false);
+                            nativeCompiler.character(octal);
                         } else {
                             // case 2 (\8 or \9): invalid octal escape sequence
                             if (INVALID_OCTAL_WITH_BACKSLASH) {
@@ -1162,10 +1217,12 @@ public final class RegExpParser {
                         }
                         if (num <= groups && validGroups.get(num)) {
                             appendBackReference(num);
+                            nativeCompiler.backReference(num);
                         } else {
                             // omit forward reference or backward reference into capturing group
                             // from negative lookahead
                             out.append("(?:)");
+                            nativeCompiler.empty();
                         }
                     }
                     break atom;
@@ -1182,6 +1239,7 @@ public final class RegExpParser {
                                 new String(Character.toChars(d)));
                     }
                     appendIdentityEscape(d, false);
+                    nativeCompiler.character(d);
                     break atom;
                 }
                 }
@@ -1209,9 +1267,12 @@ public final class RegExpParser {
                         throw error(Messages.Key.RegExpUnexpectedCharacter, String.valueOf(d));
                     }
                     out.append("(?").append(d);
+                    nativeCompiler.startGroup(negative ? GroupType.NegativeLookahead
+                            : positive ? GroupType.PositiveLookahead : GroupType.NonCapturing);
                 } else {
                     capturing = true;
                     out.append('(');
+                    nativeCompiler.startGroup(GroupType.Capturing);
                 }
                 depth += 1;
                 if (capturing) {
@@ -1240,6 +1301,7 @@ public final class RegExpParser {
                 if (depth == 0) {
                     throw error(Messages.Key.RegExpUnmatchedCharacter, ")");
                 }
+                nativeCompiler.endGroup();
                 boolean lookaround = false;
                 if (capturingGroup.get(depth)) {
                     capturingGroup.clear(depth);
@@ -1282,6 +1344,7 @@ public final class RegExpParser {
                     out.append(']');
                 } else {
                     appendEmptyCharacterClass(negation);
+                    nativeCompiler.characterClass(new NativeCharacterSet.Builder(), negation);
                 }
                 break atom;
             }
@@ -1305,10 +1368,12 @@ public final class RegExpParser {
                     throw error(Messages.Key.RegExpUnexpectedCharacter, String.valueOf((char) c));
                 }
                 out.append('\\').append((char) c);
+                nativeCompiler.character(c);
                 break atom;
 
             case '.':
                 appendDotCharacterClass();
+                nativeCompiler.any();
                 break atom;
 
             default: {
@@ -1322,6 +1387,7 @@ public final class RegExpParser {
                 } else {
                     out.appendCodePoint(c);
                 }
+                nativeCompiler.character(c);
                 break atom;
             }
             }
@@ -1364,23 +1430,34 @@ public final class RegExpParser {
      */
     private boolean quantifier(char c) {
         StringBuilder out = this.out;
+        long min, max;
 
         // Greedy/Reluctant quantifiers
         quantifier: switch (c) {
         case '*':
+            min = 0;
+            max = -1;
+            out.append(c);
+            break quantifier;
         case '+':
+            min = 1;
+            max = -1;
+            out.append(c);
+            break quantifier;
         case '?':
+            min = 0;
+            max = 1;
             out.append(c);
             break quantifier;
         case '{': {
             int start = pos;
-            long min = decimal();
+            min = decimal();
             if (min < 0) {
                 reset(start);
                 return false;
             }
             boolean comma;
-            long max = -1;
+            max = -1;
             if ((comma = match(',')) && peek(0) != '}') {
                 max = decimal();
                 if (max < 0) {
@@ -1406,6 +1483,9 @@ public final class RegExpParser {
                 }
             }
             out.append('}');
+            if (!comma) {
+                max = min;
+            }
             break quantifier;
         }
         default:
@@ -1413,9 +1493,11 @@ public final class RegExpParser {
         }
 
         // Reluctant quantifiers
-        if (match('?')) {
+        boolean greedy = !match('?');
+        if (!greedy) {
             out.append('?');
         }
+        nativeCompiler.quantifier(min, max, greedy);
 
         return true;
     }
@@ -1872,6 +1954,21 @@ public final class RegExpParser {
         appendCodePoint(codePoint);
     }
 
+    private static char toControlEscape(char c) {
+        switch (c) {
+        case 'f':
+            return '\f';
+        case 'n':
+            return '\n';
+        case 'r':
+            return '\r';
+        case 't':
+            return '\t';
+        default:
+            throw new AssertionError();
+        }
+    }
+
     private static char toControlLetter(int c) {
         return (char) ('A' - 1 + (c & 0x1F));
     }
@@ -471,6 +471,9 @@ public final class Repl {
                 usage = "options.no_interpreter")
         boolean noInterpreter;
 
+        @Option(name = "--code-cache", metaVar = "meta.directory", usage = "options.code_cache")
+        Path codeCache;
+
         @Option(name = "--stacktrace", usage = "options.stacktrace")
         boolean stacktrace;
 
@@ -495,6 +498,19 @@ public final class Repl {
         @Option(name = "--no-tailcall", hidden = true, usage = "options.no_tailcall")
         boolean noTailCall;
 
+        @Option(name = "--lazy-compilation", hidden = true, usage = "options.lazy_compilation")
+        boolean lazyCompilation;
+
+        @Option(name = "--tiered-compilation", hidden = true,
+                usage = "options.tiered_compilation")
+        boolean tieredCompilation;
+
+        @Option(name = "--joni-regexp", hidden = true, usage = "options.joni_regexp")
+        boolean joniRegExp;
+
+        @Option(name = "--jdk-regexp", hidden = true, usage = "options.jdk_regexp")
+        boolean jdkRegExp;
+
         @Option(name = "--native-calls", hidden = true, usage = "options.native_calls")
         boolean nativeCalls;
 
@@ -801,6 +817,34 @@ public final class Repl {
         return script.evaluate(realm);
     }
 
+    /**
+     * REPL: Eval
+     * <p>
+     * Same as {@link #eval(Realm, com.github.anba.es6draft.ast.Script)}, except the source code is
+     * parsed by the script loader and compiled scripts are taken from the persistent code cache if
+     * available.
+     * 
+     * @param realm
+     *            the realm instance
+     * @param source
+     *            the script source descriptor
+     * @param sourceCode
+     *            the source code
+     * @return the evaluated script result
+     * @throws ParserException
+     *             if the source contains any syntax errors
+     */
+    private Object eval(Realm realm, Source source, String sourceCode) throws ParserException {
+        String className = "#typein_" + scriptCounter.incrementAndGet();
+        Script script;
+        if (options.noInterpreter) {
+            script = realm.getScriptLoader().compileScript(source, sourceCode, className);
+        } else {
+            script = realm.getScriptLoader().script(source, sourceCode, className);
+        }
+        return script.evaluate(realm);
+    }
+
     /**
      * REPL: Print
      * 
@@ -1027,8 +1071,16 @@ public final class Repl {
             allocator = SimpleShellGlobalObject.newGlobalObjectAllocator(console, baseDir, script,
                     scriptCache);
         }
-        ScriptLoader scriptLoader = new ScriptLoader(compatibilityOptions, parserOptions,
-                compilerOptions);
+        CodeCache codeCache = null;
+        if (options.codeCache != null) {
+            try {
+                codeCache = new CodeCache(options.codeCache);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        ScriptLoader scriptLoader = new ScriptLoader(null, compatibilityOptions, parserOptions,
+                compilerOptions, codeCache);
         ModuleLoader moduleLoader;
         switch (options.moduleLoaderMode) {
         case Default:
@@ -1143,7 +1195,7 @@ public final class Repl {
                 Source source = evalScript.getSource();
                 String sourceCode = evalScript.getSourceCode();
                 try {
-                    eval(realm, parse(realm, source, sourceCode));
+                    eval(realm, source, sourceCode);
                 } catch (ParserException e) {
                     throw new ParserExceptionWithSource(e, source, sourceCode);
                 }
@@ -1238,6 +1290,18 @@ public final class Repl {
         if (options.noTailCall) {
             compilerOptions.add(Compiler.Option.NoTailCall);
         }
+        if (options.lazyCompilation) {
+            compilerOptions.add(Compiler.Option.LazyCompilation);
+        }
+        if (options.tieredCompilation) {
+            compilerOptions.add(Compiler.Option.TieredCompilation);
+        }
+        if (options.joniRegExp) {
+            compilerOptions.add(Compiler.Option.JoniRegExp);
+        }
+        if (options.jdkRegExp) {
+            compilerOptions.add(Compiler.Option.JDKRegExp);
+        }
         return compilerOptions;
     }
 
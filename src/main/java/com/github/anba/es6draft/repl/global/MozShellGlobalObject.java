@@ -15,7 +15,6 @@ import java.io.IOException;
 import java.net.URISyntaxException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.util.ArrayList;
 import java.util.concurrent.TimeUnit;
 
 import com.github.anba.es6draft.Executable;
@@ -532,7 +531,7 @@ public class MozShellGlobalObject extends ShellGlobalObject {
      */
     @Function(name = "nondeterministicGetWeakMapKeys", arity = 1)
     public ScriptObject nondeterministicGetWeakMapKeys(ExecutionContext cx, WeakMapObject weakMap) {
-        return CreateArrayFromList(cx, new ArrayList<>(weakMap.getWeakMapData().keySet()));
+        return CreateArrayFromList(cx, weakMap.getWeakMapData().keys());
     }
 
     /**
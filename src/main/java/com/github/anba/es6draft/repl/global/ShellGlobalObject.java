@@ -377,7 +377,7 @@ public abstract class ShellGlobalObject extends GlobalObject {
         parserOptions.add(Parser.Option.NativeCall);
         parserOptions.add(Parser.Option.NativeFunction);
         return new ScriptLoader(scriptLoader.getExecutor(), scriptLoader.getOptions(),
-                parserOptions, scriptLoader.getCompilerOptions());
+                parserOptions, scriptLoader.getCompilerOptions(), scriptLoader.getCodeCache());
     }
 
     protected static final ScriptException newError(ExecutionContext cx, String message) {
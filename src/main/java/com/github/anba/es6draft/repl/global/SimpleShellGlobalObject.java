@@ -10,12 +10,16 @@ import static com.github.anba.es6draft.runtime.AbstractOperations.Get;
 import static com.github.anba.es6draft.runtime.AbstractOperations.ToBoolean;
 import static com.github.anba.es6draft.runtime.AbstractOperations.ToFlatString;
 import static com.github.anba.es6draft.runtime.AbstractOperations.ToInt32;
+import static com.github.anba.es6draft.runtime.AbstractOperations.ToInteger;
+import static com.github.anba.es6draft.runtime.internal.Errors.newRangeError;
 import static com.github.anba.es6draft.runtime.modules.ModuleSemantics.GetModuleNamespace;
 import static com.github.anba.es6draft.runtime.modules.SourceTextModuleRecord.ParseModule;
 import static com.github.anba.es6draft.runtime.objects.binary.ArrayBufferConstructor.DetachArrayBuffer;
+import static com.github.anba.es6draft.runtime.objects.binary.ArrayBufferConstructor.MapArrayBuffer;
 import static com.github.anba.es6draft.runtime.types.Undefined.UNDEFINED;
 
 import java.io.IOException;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.Objects;
@@ -34,6 +38,7 @@ import com.github.anba.es6draft.runtime.internal.Messages;
 import com.github.anba.es6draft.runtime.internal.ObjectAllocator;
 import com.github.anba.es6draft.runtime.internal.Properties.Function;
 import com.github.anba.es6draft.runtime.internal.ScriptCache;
+import com.github.anba.es6draft.runtime.internal.ScriptException;
 import com.github.anba.es6draft.runtime.internal.Source;
 import com.github.anba.es6draft.runtime.modules.MalformedNameException;
 import com.github.anba.es6draft.runtime.modules.ModuleRecord;
@@ -361,6 +366,45 @@ public class SimpleShellGlobalObject extends ShellGlobalObject {
         }
     }
 
+    /**
+     * shell-function: {@code mapFile(filename, [writable, [offset, [length]]])}
+     * 
+     * @param cx
+     *            the execution context
+     * @param filename
+     *            the file path
+     * @param writable
+     *            if {@code true} modifications are written to the file, otherwise the array
+     *            buffer is immutable
+     * @param offset
+     *            the start offset of the mapped region
+     * @param length
+     *            the length of the mapped region
+     * @return the new array buffer object
+     */
+    @Function(name = "mapFile", arity = 1)
+    public ArrayBufferObject mapFile(ExecutionContext cx, String filename, boolean writable,
+            Object offset, Object length) {
+        Path file = Paths.get(filename);
+        Path path = absolutePath(file);
+        if (!Files.exists(path)) {
+            throw new ScriptException(String.format("can't open '%s'", file.toString()));
+        }
+        long position = (long) ToInteger(cx, offset);
+        long size = -1;
+        if (!Type.isUndefined(length)) {
+            size = (long) ToInteger(cx, length);
+            if (size < 0) {
+                throw newRangeError(cx, Messages.Key.InvalidBufferSize);
+            }
+        }
+        try {
+            return MapArrayBuffer(cx, path, position, size, writable);
+        } catch (IOException e) {
+            throw newError(cx, e.getMessage());
+        }
+    }
+
     /**
      * shell-function: {@code weakMapSize(weakMap)}
      * 
@@ -718,7 +718,7 @@ public final class AbstractOperations {
             return key;
         }
         /* step 4 */
-        return ToFlatString(cx, key);
+        return cx.getRealm().getAtomTable().intern(ToFlatString(cx, key));
     }
 
     /**
@@ -0,0 +1,87 @@
+/**
+ * Copyright (c) 2012-2015 André Bargull
+ * Alle Rechte vorbehalten / All Rights Reserved.  Use is subject to license terms.
+ *
+ * <https://github.com/anba/es6draft>
+ */
+package com.github.anba.es6draft.runtime;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.github.anba.es6draft.runtime.internal.Strings;
+
+/**
+ * Atom table for property key strings.
+ * <p>
+ * Dynamically computed property keys which are used repeatedly are mapped onto the JVM string pool
+ * instance, which is also the instance of property name constants in generated code. Later property
+ * lookups with the same key then succeed with an identity comparison and reuse the cached hash code.
+ * <p>
+ * A key becomes an atom on its second use, keys seen only once, array index keys and long strings
+ * are returned unchanged and are never added to the string pool. The table is shared by all realms
+ * of a world and may be accessed concurrently. Both the table and the set of first-use keys are
+ * bounded and simply start over when their limit is reached.
+ */
+public final class AtomTable {
+    /** Longer strings are not atomized */
+    private static final int MAX_ATOM_LENGTH = 64;
+    /** Maximum number of atoms per table */
+    private static final int MAX_ATOMS = 1 << 14;
+    /** Maximum number of keys seen only once */
+    private static final int MAX_CANDIDATES = 1 << 12;
+
+    private final ConcurrentHashMap<String, String> atoms = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, String> candidates = new ConcurrentHashMap<>();
+
+    @Override
+    public String toString() {
+        return String.format("AtomTable=%s", atoms.keySet());
+    }
+
+    /**
+     * Returns the number of atoms in this table.
+     *
+     * @return the number of atoms
+     */
+    public int size() {
+        return atoms.size();
+    }
+
+    /**
+     * Returns the atom for {@code key}. Returns {@code key} if the string is not eligible for
+     * atomization or if it was not used before.
+     *
+     * @param key
+     *            the property key string
+     * @return the atom for {@code key} or {@code key} itself
+     */
+    public String intern(String key) {
+        assert key != null : "key must not be null";
+        if (key.length() > MAX_ATOM_LENGTH) {
+            return key;
+        }
+        String atom = atoms.get(key);
+        if (atom != null) {
+            return atom;
+        }
+        if (Strings.toArrayIndex(key) >= 0) {
+            return key;
+        }
+        String candidate = candidates.putIfAbsent(key, key);
+        if (candidate == null) {
+            // First use, don't create an atom yet.
+            if (candidates.size() > MAX_CANDIDATES) {
+                candidates.clear();
+            }
+            return key;
+        }
+        candidates.remove(candidate);
+        if (atoms.size() >= MAX_ATOMS) {
+            atoms.clear();
+        }
+        // Use the string pool instance to share the atom with property name constants.
+        String interned = candidate.intern();
+        atom = atoms.putIfAbsent(interned, interned);
+        return atom != null ? atom : interned;
+    }
+}
@@ -11,13 +11,14 @@ import static com.github.anba.es6draft.runtime.internal.Errors.newTypeError;
 
 import java.util.Collections;
 import java.util.Formatter;
-import java.util.HashMap;
 import java.util.Iterator;
-import java.util.Map;
+import java.util.LinkedHashSet;
 import java.util.Objects;
 import java.util.Set;
 
 import com.github.anba.es6draft.runtime.internal.Messages;
+import com.github.anba.es6draft.runtime.internal.PropertyMap;
+import com.github.anba.es6draft.runtime.internal.Shape;
 import com.github.anba.es6draft.runtime.types.Reference;
 import com.github.anba.es6draft.runtime.types.ScriptObject;
 
@@ -111,12 +112,12 @@ public class DeclarativeEnvironmentRecord implements EnvironmentRecord {
 
     private final ExecutionContext cx;
     private final boolean catchEnvironment;
-    private final HashMap<String, Binding> bindings;
+    private final PropertyMap<String, Binding> bindings;
 
     public DeclarativeEnvironmentRecord(ExecutionContext cx, boolean catchEnvironment) {
         this.cx = cx;
         this.catchEnvironment = catchEnvironment;
-        this.bindings = new HashMap<>();
+        this.bindings = new PropertyMap<>();
     }
 
     DeclarativeEnvironmentRecord(DeclarativeEnvironmentRecord source) {
@@ -125,11 +126,10 @@ public class DeclarativeEnvironmentRecord implements EnvironmentRecord {
         this.bindings = source.cloneBindings();
     }
 
-    private HashMap<String, Binding> cloneBindings() {
-        HashMap<String, Binding> newBindings = new HashMap<>();
-        for (Map.Entry<String, Binding> entry : bindings.entrySet()) {
-            String name = entry.getKey();
-            Binding binding = entry.getValue();
+    private PropertyMap<String, Binding> cloneBindings() {
+        PropertyMap<String, Binding> newBindings = new PropertyMap<>();
+        for (String name : bindings.keys()) {
+            Binding binding = bindings.get(name);
             assert binding.isInitialized() : "binding not initialized: " + name;
             newBindings.put(name, binding.clone());
         }
@@ -148,6 +148,58 @@ public class DeclarativeEnvironmentRecord implements EnvironmentRecord {
         bindings.remove(name);
     }
 
+    /**
+     * Returns the shape of the bindings or {@code null} if the bindings are not stored in shape
+     * mode.
+     * 
+     * @return the shape or {@code null}
+     */
+    public final Shape getShape() {
+        return bindings.getShape();
+    }
+
+    /**
+     * Returns the value of the binding stored in {@code slot}. Only applicable in shape mode.
+     * 
+     * @param slot
+     *            the slot index
+     * @param name
+     *            the binding name
+     * @return the binding value
+     */
+    public final Object getBindingValue(int slot, String name) {
+        Binding b = (Binding) bindings.getSlotValue(slot);
+        if (!b.isInitialized()) {
+            throw newReferenceError(cx, Messages.Key.UninitializedBinding, name);
+        }
+        return b.getValue();
+    }
+
+    /**
+     * Assigns the value of the binding stored in {@code slot}. Only applicable in shape mode.
+     * 
+     * @param slot
+     *            the slot index
+     * @param name
+     *            the binding name
+     * @param value
+     *            the new binding value
+     * @param strict
+     *            the strict mode flag
+     */
+    public final void setMutableBinding(int slot, String name, Object value, boolean strict) {
+        assert value != null;
+        Binding b = (Binding) bindings.getSlotValue(slot);
+        /* steps 3-7 */
+        if (!b.isInitialized()) {
+            throw newReferenceError(cx, Messages.Key.UninitializedBinding, name);
+        } else if (b.mutable) {
+            b.setValue(value);
+        } else if (strict || b.isStrict()) {
+            throw newTypeError(cx, Messages.Key.ImmutableBinding, name);
+        }
+    }
+
     @Override
     public String toString() {
         return String.format("%s: {%n\tbindings=%s%n}", getClass().getSimpleName(),
@@ -160,9 +212,9 @@ public class DeclarativeEnvironmentRecord implements EnvironmentRecord {
         }
         try (Formatter f = new Formatter(new StringBuilder(), null)) {
             f.format("{");
-            for (Iterator<Map.Entry<String, Binding>> iter = bindings.entrySet().iterator();;) {
-                Map.Entry<String, Binding> entry = iter.next();
-                f.format("%n\t\t%s=%s", entry.getKey(), entry.getValue());
+            for (Iterator<String> iter = bindings.keys().iterator();;) {
+                String name = iter.next();
+                f.format("%n\t\t%s=%s", name, bindings.get(name));
                 if (!iter.hasNext())
                     break;
                 f.format(",");
@@ -177,7 +229,7 @@ public class DeclarativeEnvironmentRecord implements EnvironmentRecord {
         if (bindings.isEmpty()) {
             return Collections.emptySet();
         }
-        return Collections.unmodifiableSet(bindings.keySet());
+        return Collections.unmodifiableSet(new LinkedHashSet<>(bindings.keys()));
     }
 
     @Override
@@ -9,6 +9,7 @@ package com.github.anba.es6draft.runtime;
 import com.github.anba.es6draft.Executable;
 import com.github.anba.es6draft.Module;
 import com.github.anba.es6draft.Script;
+import com.github.anba.es6draft.runtime.internal.InterpreterFrames;
 import com.github.anba.es6draft.runtime.internal.RuntimeInfo.SourceObject;
 import com.github.anba.es6draft.runtime.modules.SourceTextModuleRecord;
 import com.github.anba.es6draft.runtime.objects.async.AsyncObject;
@@ -35,6 +36,7 @@ public final class ExecutionContext {
     private final FunctionObject function;
     private GeneratorObject generator;
     private AsyncObject async;
+    private InterpreterFrames.Frame interpreterFrame;
 
     private ExecutionContext(Realm realm, LexicalEnvironment<?> varEnv,
             LexicalEnvironment<?> lexEnv, LexicalEnvironment<FunctionEnvironmentRecord> funVarEnv,
@@ -145,6 +147,26 @@ public final class ExecutionContext {
         this.async = async;
     }
 
+    /**
+     * Returns the interpreter frame of this execution context.
+     * 
+     * @return the interpreter frame or {@code null} if not evaluating an interpreted function
+     */
+    public InterpreterFrames.Frame getInterpreterFrame() {
+        return interpreterFrame;
+    }
+
+    /**
+     * Sets the interpreter frame of this execution context.
+     * 
+     * @param interpreterFrame
+     *            the interpreter frame
+     */
+    public void setInterpreterFrame(InterpreterFrames.Frame interpreterFrame) {
+        assert this.interpreterFrame == null && interpreterFrame != null;
+        this.interpreterFrame = interpreterFrame;
+    }
+
     /**
      * Returns the {@code LexicalEnvironment} component of this execution context.
      * 
@@ -474,6 +474,15 @@ public final class Realm {
         return world.getSymbolRegistry();
     }
 
+    /**
+     * Returns the atom table for property keys.
+     * 
+     * @return the atom table
+     */
+    public AtomTable getAtomTable() {
+        return world.getAtomTable();
+    }
+
     /**
      * 8.4.1 EnqueueTask ( queueName, task, arguments)
      * <p>
@@ -10,7 +10,13 @@ import java.io.IOException;
 import java.net.URISyntaxException;
 import java.util.ArrayDeque;
 import java.util.Locale;
+import java.util.Objects;
 import java.util.TimeZone;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 import com.github.anba.es6draft.compiler.CompilationException;
 import com.github.anba.es6draft.parser.ParserException;
@@ -22,6 +28,7 @@ import com.github.anba.es6draft.runtime.internal.TaskSource;
 import com.github.anba.es6draft.runtime.internal.UnhandledRejectionException;
 import com.github.anba.es6draft.runtime.modules.ModuleLoader;
 import com.github.anba.es6draft.runtime.objects.GlobalObject;
+import com.github.anba.es6draft.runtime.objects.binary.ArrayBufferAllocator;
 
 /**
  * <h1>8 Executable Code and Execution Contexts</h1>
@@ -38,6 +45,16 @@ public final class World<GLOBAL extends GlobalObject> {
     private final TimeZone timeZone;
     private final Messages messages;
     private final GlobalSymbolRegistry symbolRegistry = new GlobalSymbolRegistry();
+    private final AtomTable atomTable = new AtomTable();
+    private volatile ArrayBufferAllocator arrayBufferAllocator = ArrayBufferAllocator.HEAP;
+
+    /** Keep-alive time in seconds for the background compiler thread */
+    private static final long BACKGROUND_COMPILER_TTL = 60;
+    private final Object backgroundCompilerLock = new Object();
+    // guarded by backgroundCompilerLock
+    private ThreadPoolExecutor backgroundCompiler;
+    // guarded by backgroundCompilerLock
+    private boolean shutdown;
 
     // TODO: move to custom class
     private final ArrayDeque<Task> scriptTasks = new ArrayDeque<>();
@@ -295,6 +312,90 @@ public final class World<GLOBAL extends GlobalObject> {
         return symbolRegistry;
     }
 
+    /**
+     * Returns the atom table for property keys.
+     * 
+     * @return the atom table
+     */
+    public AtomTable getAtomTable() {
+        return atomTable;
+    }
+
+    /**
+     * Returns the allocator for array buffer data blocks.
+     * 
+     * @return the array buffer allocator
+     */
+    public ArrayBufferAllocator getArrayBufferAllocator() {
+        return arrayBufferAllocator;
+    }
+
+    /**
+     * Changes the allocator for array buffer data blocks. The default allocator uses the Java
+     * heap.
+     * 
+     * @param arrayBufferAllocator
+     *            the new array buffer allocator
+     */
+    public void setArrayBufferAllocator(ArrayBufferAllocator arrayBufferAllocator) {
+        this.arrayBufferAllocator = Objects.requireNonNull(arrayBufferAllocator);
+    }
+
+    /**
+     * Executes a compilation task on the background compiler thread of this world. The task is
+     * executed on the current thread if this world has already been shut down.
+     * 
+     * @param task
+     *            the compilation task
+     */
+    public void compileInBackground(Runnable task) {
+        ThreadPoolExecutor executor;
+        synchronized (backgroundCompilerLock) {
+            if (backgroundCompiler == null && !shutdown) {
+                backgroundCompiler = newBackgroundCompiler();
+            }
+            executor = backgroundCompiler;
+        }
+        if (executor != null) {
+            try {
+                executor.execute(task);
+                return;
+            } catch (RejectedExecutionException e) {
+                // Shut down concurrently, fall through.
+            }
+        }
+        task.run();
+    }
+
+    private static ThreadPoolExecutor newBackgroundCompiler() {
+        // Separate thread to compile hot functions. The script loader executor can't be used here,
+        // because the compiler waits for tasks which are submitted to the same executor.
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, BACKGROUND_COMPILER_TTL,
+                TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+                    @Override
+                    public Thread newThread(Runnable r) {
+                        Thread thread = new Thread(r, "es6draft-background-compiler");
+                        thread.setDaemon(true);
+                        return thread;
+                    }
+                });
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * Shuts down the background compiler of this world. Pending compilation tasks are still
+     * completed, later tasks are executed on the calling thread.
+     */
+    public void shutdown() {
+        synchronized (backgroundCompilerLock) {
+            shutdown = true;
+            if (backgroundCompiler != null) {
+                backgroundCompiler.shutdown();
+            }
+        }
+    }
+
     /**
      * Creates a new {@link Realm} object and returns its {@link GlobalObject}.
      * 
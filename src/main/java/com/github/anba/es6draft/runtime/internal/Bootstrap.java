@@ -9,6 +9,7 @@ package com.github.anba.es6draft.runtime.internal;
 import static com.github.anba.es6draft.runtime.AbstractOperations.EqualityComparison;
 import static com.github.anba.es6draft.runtime.AbstractOperations.RelationalComparison;
 import static com.github.anba.es6draft.runtime.AbstractOperations.StrictEqualityComparison;
+import static com.github.anba.es6draft.runtime.internal.Errors.newTypeError;
 import static com.github.anba.es6draft.runtime.internal.ScriptRuntime.CheckCallable;
 import static com.github.anba.es6draft.runtime.internal.ScriptRuntime.CheckConstructor;
 
@@ -25,13 +26,20 @@ import com.github.anba.es6draft.ast.BinaryExpression;
 import com.github.anba.es6draft.compiler.assembler.Handle;
 import com.github.anba.es6draft.compiler.assembler.MethodName;
 import com.github.anba.es6draft.compiler.assembler.MethodTypeDescriptor;
+import com.github.anba.es6draft.runtime.DeclarativeEnvironmentRecord;
+import com.github.anba.es6draft.runtime.EnvironmentRecord;
 import com.github.anba.es6draft.runtime.ExecutionContext;
+import com.github.anba.es6draft.runtime.LexicalEnvironment;
+import com.github.anba.es6draft.runtime.objects.binary.ElementType;
+import com.github.anba.es6draft.runtime.objects.binary.TypedArrayObject;
 import com.github.anba.es6draft.runtime.types.Constructor;
+import com.github.anba.es6draft.runtime.types.Property;
 import com.github.anba.es6draft.runtime.types.ScriptObject;
 import com.github.anba.es6draft.runtime.types.Type;
 import com.github.anba.es6draft.runtime.types.builtins.BuiltinConstructor;
 import com.github.anba.es6draft.runtime.types.builtins.BuiltinFunction;
 import com.github.anba.es6draft.runtime.types.builtins.FunctionObject;
+import com.github.anba.es6draft.runtime.types.builtins.OrdinaryObject;
 
 /**
  *
@@ -44,6 +52,12 @@ public final class Bootstrap {
         static final String CALL = "expression::call";
         static final String CONSTRUCT = "expression::construct";
         static final String SUPER = "expression::super";
+        static final String GET_PROPERTY = "expression::getProperty";
+        static final String SET_PROPERTY = "expression::setProperty";
+        static final String GET_ELEMENT = "expression::getElement";
+        static final String SET_ELEMENT = "expression::setElement";
+        static final String BINDING_VALUE = "expression::getBindingValue";
+        static final String SET_BINDING_VALUE = "expression::setBindingValue";
         static final String CONCAT = "expression::concat";
         static final String ADD = "expression::add";
         static final String EQ = "expression::equals";
@@ -70,6 +84,25 @@ public final class Bootstrap {
         static final MethodTypeDescriptor SUPER = MethodTypeDescriptor.methodType(
                 ScriptObject.class, Constructor.class, ExecutionContext.class, Constructor.class,
                 Object[].class);
+        static final MethodTypeDescriptor GET_PROPERTY = MethodTypeDescriptor.methodType(
+                Object.class, Object.class, String.class, ExecutionContext.class);
+        static final MethodTypeDescriptor SET_PROPERTY = MethodTypeDescriptor.methodType(
+                void.class, Object.class, String.class, Object.class, ExecutionContext.class,
+                boolean.class);
+        static final MethodTypeDescriptor GET_ELEMENT = MethodTypeDescriptor.methodType(
+                Object.class, Object.class, Object.class, ExecutionContext.class);
+        static final MethodTypeDescriptor GET_ELEMENT_INT = MethodTypeDescriptor.methodType(
+                Object.class, Object.class, int.class, ExecutionContext.class);
+        static final MethodTypeDescriptor SET_ELEMENT = MethodTypeDescriptor.methodType(
+                void.class, Object.class, Object.class, Object.class, ExecutionContext.class,
+                boolean.class);
+        static final MethodTypeDescriptor SET_ELEMENT_INT = MethodTypeDescriptor.methodType(
+                void.class, Object.class, int.class, Object.class, ExecutionContext.class,
+                boolean.class);
+        static final MethodTypeDescriptor BINDING_VALUE = MethodTypeDescriptor.methodType(
+                Object.class, ExecutionContext.class, String.class, boolean.class);
+        static final MethodTypeDescriptor SET_BINDING_VALUE = MethodTypeDescriptor.methodType(
+                void.class, ExecutionContext.class, Object.class, String.class, boolean.class);
     }
 
     private static final Handle BOOTSTRAP;
@@ -118,12 +151,12 @@ public final class Bootstrap {
         callGenericMH = lookup.findStatic("callGeneric", MethodType.methodType(Object.class,
                 Object.class, ExecutionContext.class, Object.class, Object[].class));
         callSetupMH = lookup.findStatic("callSetup", MethodType.methodType(MethodHandle.class,
-                MutableCallSite.class, Object.class, ExecutionContext.class, Object.class,
+                PolymorphicCallSite.class, Object.class, ExecutionContext.class, Object.class,
                 Object[].class));
     }
 
     @SuppressWarnings("unused")
-    private static MethodHandle callSetup(MutableCallSite callsite, Object function,
+    private static MethodHandle callSetup(PolymorphicCallSite callsite, Object function,
             ExecutionContext cx, Object thisValue, Object[] arguments) {
         MethodHandle target, test;
         if (function instanceof FunctionObject) {
@@ -137,7 +170,16 @@ public final class Bootstrap {
         } else {
             target = test = null;
         }
-        return setCallSiteTarget(callsite, target, test, callGenericMH);
+        return addFunctionCacheEntry(callsite, target, test, callGenericMH);
+    }
+
+    private static MethodHandle addFunctionCacheEntry(PolymorphicCallSite callsite,
+            MethodHandle target, MethodHandle test, MethodHandle generic) {
+        if (target == null) {
+            // Not a (built-in) function object, don't try to specialize this call site further.
+            return callsite.setMegamorphic(generic);
+        }
+        return addCacheEntry(callsite, target, test, generic);
     }
 
     @SuppressWarnings("unused")
@@ -192,12 +234,12 @@ public final class Bootstrap {
         constructGenericMH = lookup.findStatic("constructGeneric", MethodType.methodType(
                 ScriptObject.class, Object.class, ExecutionContext.class, Object[].class));
         constructSetupMH = lookup.findStatic("constructSetup", MethodType.methodType(
-                MethodHandle.class, MutableCallSite.class, Object.class, ExecutionContext.class,
-                Object[].class));
+                MethodHandle.class, PolymorphicCallSite.class, Object.class,
+                ExecutionContext.class, Object[].class));
     }
 
     @SuppressWarnings("unused")
-    private static MethodHandle constructSetup(MutableCallSite callsite, Object constructor,
+    private static MethodHandle constructSetup(PolymorphicCallSite callsite, Object constructor,
             ExecutionContext cx, Object[] arguments) {
         MethodHandle target, test;
         if (constructor instanceof FunctionObject && constructor instanceof Constructor) {
@@ -217,7 +259,7 @@ public final class Bootstrap {
             target = MethodHandles.permuteArguments(target, target.type().dropParameterTypes(2, 3),
                     0, 1, 0, 2);
         }
-        return setCallSiteTarget(callsite, target, test, constructGenericMH);
+        return addFunctionCacheEntry(callsite, target, test, constructGenericMH);
     }
 
     @SuppressWarnings("unused")
@@ -262,12 +304,12 @@ public final class Bootstrap {
                 ScriptObject.class, Constructor.class, ExecutionContext.class, Constructor.class,
                 Object[].class));
         superSetupMH = lookup.findStatic("superSetup", MethodType.methodType(MethodHandle.class,
-                MutableCallSite.class, Constructor.class, ExecutionContext.class,
+                PolymorphicCallSite.class, Constructor.class, ExecutionContext.class,
                 Constructor.class, Object[].class));
     }
 
     @SuppressWarnings("unused")
-    private static MethodHandle superSetup(MutableCallSite callsite, Constructor constructor,
+    private static MethodHandle superSetup(PolymorphicCallSite callsite, Constructor constructor,
             ExecutionContext cx, Constructor newTarget, Object[] arguments) {
         MethodHandle target, test;
         if (constructor instanceof FunctionObject && constructor instanceof Constructor) {
@@ -284,7 +326,7 @@ public final class Bootstrap {
         if (test != null) {
             test = test.asType(test.type().changeParameterType(0, Constructor.class));
         }
-        return setCallSiteTarget(callsite, target, test, superGenericMH);
+        return addFunctionCacheEntry(callsite, target, test, superGenericMH);
     }
 
     @SuppressWarnings("unused")
@@ -293,6 +335,1042 @@ public final class Bootstrap {
         return constructor.construct(callerContext, newTarget, arguments);
     }
 
+    /**
+     * Returns the invokedynamic instruction name for named property get expressions.
+     * 
+     * @return the invokedynamic instruction name
+     */
+    public static String getPropertyGetName() {
+        return CallNames.GET_PROPERTY;
+    }
+
+    /**
+     * Returns the method descriptor for named property get expressions.
+     * 
+     * @return the method descriptor
+     */
+    public static MethodTypeDescriptor getPropertyGetMethodDescriptor() {
+        return Descriptors.GET_PROPERTY;
+    }
+
+    /**
+     * Returns the bootstrapping handle for named property get expressions.
+     * 
+     * @return the bootstrapping handle
+     */
+    public static Handle getPropertyGetBootstrap() {
+        return BOOTSTRAP;
+    }
+
+    /**
+     * Returns the invokedynamic instruction name for named property set expressions.
+     * 
+     * @return the invokedynamic instruction name
+     */
+    public static String getPropertySetName() {
+        return CallNames.SET_PROPERTY;
+    }
+
+    /**
+     * Returns the method descriptor for named property set expressions.
+     * 
+     * @return the method descriptor
+     */
+    public static MethodTypeDescriptor getPropertySetMethodDescriptor() {
+        return Descriptors.SET_PROPERTY;
+    }
+
+    /**
+     * Returns the bootstrapping handle for named property set expressions.
+     * 
+     * @return the bootstrapping handle
+     */
+    public static Handle getPropertySetBootstrap() {
+        return BOOTSTRAP;
+    }
+
+    /**
+     * Default maximum number of guarded targets per call site.
+     */
+    private static final int DEFAULT_MAX_CACHE_ENTRIES = 4;
+
+    /**
+     * Maximum number of guarded targets per call site before the call site is switched to the
+     * megamorphic (generic) state. Can be changed with the system property
+     * {@code es6draft.inlineCacheEntries}.
+     */
+    private static final int MAX_CACHE_ENTRIES = Math.max(0,
+            Integer.getInteger("es6draft.inlineCacheEntries", DEFAULT_MAX_CACHE_ENTRIES));
+
+    /**
+     * Call site with a polymorphic inline cache.
+     */
+    private static final class PolymorphicCallSite extends MutableCallSite {
+        private int entries = 0;
+        private int relinks = 0;
+        private boolean megamorphic = false;
+
+        PolymorphicCallSite(MethodType type) {
+            super(type);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s: entries=%d, relinks=%d, megamorphic=%b", type(), entries,
+                    relinks, megamorphic);
+        }
+
+        /**
+         * Switches this call site to the megamorphic state, no further targets are added.
+         * 
+         * @param generic
+         *            the generic target
+         * @return the generic target
+         */
+        MethodHandle setMegamorphic(MethodHandle generic) {
+            megamorphic = true;
+            setTarget(generic);
+            return generic;
+        }
+    }
+
+    private static final MethodHandle getPropertySetupMH, setPropertySetupMH;
+    private static final MethodHandle getPropertyGenericMH, setPropertyGenericMH;
+    private static final MethodHandle getPropertyObjectMH, setPropertyObjectMH;
+    private static final MethodHandle checkSetPropertyMH;
+    private static final MethodHandle testClassMH, testStringValueMH, stringLengthMH;
+    private static final MethodHandle testShapeMH, getShapeSlotMH, setShapeSlotMH;
+    private static final MethodHandle testProtoShapeMH, getProtoShapeSlotMH;
+    static {
+        MethodLookup lookup = new MethodLookup(MethodHandles.lookup());
+        testClassMH = lookup.findStatic("testClass",
+                MethodType.methodType(boolean.class, Object.class, Class.class));
+        testShapeMH = lookup.findStatic("testShape",
+                MethodType.methodType(boolean.class, Object.class, Class.class, Shape.class));
+        getShapeSlotMH = lookup.findStatic("getShapeSlot", MethodType.methodType(Object.class,
+                Object.class, String.class, ExecutionContext.class, int.class));
+        testProtoShapeMH = lookup.findStatic("testProtoShape", MethodType.methodType(
+                boolean.class, Object.class, Class.class, Shape.class, OrdinaryObject.class,
+                Shape.class));
+        getProtoShapeSlotMH = lookup.findStatic("getProtoShapeSlot", MethodType.methodType(
+                Object.class, Object.class, String.class, ExecutionContext.class,
+                OrdinaryObject.class, int.class));
+        setShapeSlotMH = lookup.findStatic("setShapeSlot", MethodType.methodType(void.class,
+                Object.class, String.class, Object.class, ExecutionContext.class, boolean.class,
+                int.class));
+        testStringValueMH = lookup.findStatic("testStringValue",
+                MethodType.methodType(boolean.class, Object.class));
+        MethodHandle stringLength = lookup.findStatic("stringLength",
+                MethodType.methodType(Object.class, Object.class));
+        stringLengthMH = MethodHandles.dropArguments(stringLength, 1, String.class,
+                ExecutionContext.class);
+        getPropertyGenericMH = lookup.findStatic(ScriptRuntime.class, "getPropertyValue",
+                MethodType.methodType(Object.class, Object.class, String.class,
+                        ExecutionContext.class));
+        setPropertyGenericMH = lookup.findStatic(ScriptRuntime.class, "setPropertyValue",
+                MethodType.methodType(void.class, Object.class, String.class, Object.class,
+                        ExecutionContext.class, boolean.class));
+        getPropertyObjectMH = lookup.findVirtual(ScriptObject.class, "get", MethodType
+                .methodType(Object.class, ExecutionContext.class, String.class, Object.class));
+        setPropertyObjectMH = lookup.findVirtual(ScriptObject.class, "set", MethodType.methodType(
+                boolean.class, ExecutionContext.class, String.class, Object.class, Object.class));
+        checkSetPropertyMH = lookup.findStatic("checkSetProperty", MethodType.methodType(
+                void.class, boolean.class, String.class, ExecutionContext.class, boolean.class));
+        getPropertySetupMH = lookup.findStatic("getPropertySetup", MethodType.methodType(
+                MethodHandle.class, PolymorphicCallSite.class, Object.class, String.class,
+                ExecutionContext.class));
+        setPropertySetupMH = lookup.findStatic("setPropertySetup", MethodType.methodType(
+                MethodHandle.class, PolymorphicCallSite.class, Object.class, String.class,
+                Object.class, ExecutionContext.class, boolean.class));
+    }
+
+    @SuppressWarnings("unused")
+    private static MethodHandle getPropertySetup(PolymorphicCallSite callsite, Object base,
+            String propertyKey, ExecutionContext cx) {
+        MethodHandle target, test;
+        if (base instanceof OrdinaryObject && isShapeCacheable(base, propertyKey)) {
+            // Own data property in shape mode, access the property slot directly.
+            OrdinaryObject object = (OrdinaryObject) base;
+            Shape shape = object.getShape();
+            test = MethodHandles.insertArguments(testShapeMH, 1, base.getClass(), shape);
+            target = MethodHandles.insertArguments(getShapeSlotMH, 3,
+                    shape.indexOf(propertyKey));
+        } else if (base instanceof OrdinaryObject && isProtoShapeCacheable(base, propertyKey)) {
+            // Data property of the prototype object in shape mode, access the slot directly.
+            OrdinaryObject object = (OrdinaryObject) base;
+            OrdinaryObject proto = (OrdinaryObject) object.getPrototype();
+            Shape protoShape = proto.getShape();
+            test = MethodHandles.insertArguments(testProtoShapeMH, 1, base.getClass(),
+                    object.getShape(), proto, protoShape);
+            target = MethodHandles.insertArguments(getProtoShapeSlotMH, 3, proto,
+                    protoShape.indexOf(propertyKey));
+        } else if (base instanceof ScriptObject) {
+            Class<?> receiverClass = base.getClass();
+            test = MethodHandles.insertArguments(testClassMH, 1, receiverClass);
+            // (base, key, cx) -> base.get(cx, key, base)
+            target = getPropertyObjectMH.asType(MethodType.methodType(Object.class,
+                    receiverClass, ExecutionContext.class, String.class, receiverClass));
+            target = MethodHandles.permuteArguments(target, MethodType.methodType(Object.class,
+                    receiverClass, String.class, ExecutionContext.class), 0, 2, 1, 0);
+        } else if (Type.isString(base) && "length".equals(propertyKey)) {
+            test = testStringValueMH;
+            target = stringLengthMH;
+        } else if (!Type.isUndefinedOrNull(base)) {
+            test = MethodHandles.insertArguments(testClassMH, 1, base.getClass());
+            target = getPropertyGenericMH;
+        } else {
+            // Throws a TypeError, don't pollute the cache.
+            return getPropertyGenericMH;
+        }
+        return addCacheEntry(callsite, target, test, getPropertyGenericMH);
+    }
+
+    @SuppressWarnings("unused")
+    private static MethodHandle setPropertySetup(PolymorphicCallSite callsite, Object base,
+            String propertyKey, Object value, ExecutionContext cx, boolean strict) {
+        MethodHandle target, test;
+        if (base instanceof OrdinaryObject && isShapeStoreCacheable(base, propertyKey)) {
+            // Own writable data property in shape mode, update the property slot directly.
+            OrdinaryObject object = (OrdinaryObject) base;
+            Shape shape = object.getShape();
+            test = MethodHandles.insertArguments(testShapeMH, 1, base.getClass(), shape);
+            target = MethodHandles.insertArguments(setShapeSlotMH, 5,
+                    shape.indexOf(propertyKey));
+        } else if (base instanceof ScriptObject) {
+            Class<?> receiverClass = base.getClass();
+            test = MethodHandles.insertArguments(testClassMH, 1, receiverClass);
+            // (base, key, value, cx, strict) -> check(base.set(cx, key, value, base), ...)
+            MethodHandle set = setPropertyObjectMH.asType(MethodType.methodType(boolean.class,
+                    receiverClass, ExecutionContext.class, String.class, Object.class,
+                    receiverClass));
+            target = MethodHandles.collectArguments(checkSetPropertyMH, 0, set);
+            target = MethodHandles.permuteArguments(target, MethodType.methodType(void.class,
+                    receiverClass, String.class, Object.class, ExecutionContext.class,
+                    boolean.class), 0, 3, 1, 2, 0, 1, 3, 4);
+        } else if (!Type.isUndefinedOrNull(base)) {
+            test = MethodHandles.insertArguments(testClassMH, 1, base.getClass());
+            target = setPropertyGenericMH;
+        } else {
+            // Throws a TypeError, don't pollute the cache.
+            return setPropertyGenericMH;
+        }
+        return addCacheEntry(callsite, target, test, setPropertyGenericMH);
+    }
+
+    /**
+     * Classes which use the ordinary [[GetOwnProperty]] and [[Get]] implementation for string
+     * valued property keys.
+     */
+    private static final ClassValue<Boolean> ordinaryPropertyGet = new ClassValue<Boolean>() {
+        @Override
+        protected Boolean computeValue(Class<?> type) {
+            for (Class<?> c = type; c != OrdinaryObject.class; c = c.getSuperclass()) {
+                if (declaresMethod(c, "getProperty", ExecutionContext.class, String.class)
+                        || declaresMethod(c, "getValue", ExecutionContext.class, String.class,
+                                Object.class)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    };
+
+    /**
+     * Classes which use the ordinary [[GetPrototypeOf]] implementation.
+     */
+    private static final ClassValue<Boolean> ordinaryPrototype = new ClassValue<Boolean>() {
+        @Override
+        protected Boolean computeValue(Class<?> type) {
+            for (Class<?> c = type; c != OrdinaryObject.class; c = c.getSuperclass()) {
+                if (declaresMethod(c, "getPrototypeOf", ExecutionContext.class)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    };
+
+    /**
+     * Classes which use the ordinary [[GetOwnProperty]] and [[Set]] implementation for string
+     * valued property keys.
+     */
+    private static final ClassValue<Boolean> ordinaryPropertySet = new ClassValue<Boolean>() {
+        @Override
+        protected Boolean computeValue(Class<?> type) {
+            for (Class<?> c = type; c != OrdinaryObject.class; c = c.getSuperclass()) {
+                if (declaresMethod(c, "getProperty", ExecutionContext.class, String.class)
+                        || declaresMethod(c, "setValue", ExecutionContext.class, String.class,
+                                Object.class, Object.class)
+                        || declaresMethod(c, "setPropertyValue", ExecutionContext.class,
+                                String.class, Object.class, Property.class)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    };
+
+    private static boolean declaresMethod(Class<?> c, String name, Class<?>... parameterTypes) {
+        try {
+            c.getDeclaredMethod(name, parameterTypes);
+            return true;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+    private static boolean isShapeCacheable(Object base, String propertyKey) {
+        OrdinaryObject object = (OrdinaryObject) base;
+        Shape shape = object.getShape();
+        if (shape == null || !ordinaryPropertyGet.get(base.getClass())) {
+            return false;
+        }
+        int slot = shape.indexOf(propertyKey);
+        return slot >= 0 && OrdinaryObject.isDataSlot(shape, slot);
+    }
+
+    private static boolean isProtoShapeCacheable(Object base, String propertyKey) {
+        OrdinaryObject object = (OrdinaryObject) base;
+        Shape shape = object.getShape();
+        if (shape == null || !ordinaryPropertyGet.get(base.getClass())
+                || !ordinaryPrototype.get(base.getClass()) || shape.indexOf(propertyKey) >= 0) {
+            return false;
+        }
+        ScriptObject proto = object.getPrototype();
+        return proto instanceof OrdinaryObject && isShapeCacheable(proto, propertyKey);
+    }
+
+    private static boolean isShapeStoreCacheable(Object base, String propertyKey) {
+        OrdinaryObject object = (OrdinaryObject) base;
+        Shape shape = object.getShape();
+        if (shape == null || !ordinaryPropertySet.get(base.getClass())) {
+            return false;
+        }
+        int slot = shape.indexOf(propertyKey);
+        return slot >= 0 && OrdinaryObject.isWritableDataSlot(shape, slot);
+    }
+
+    @SuppressWarnings("unused")
+    private static boolean testShape(Object base, Class<?> receiverClass, Shape shape) {
+        return base.getClass() == receiverClass && ((OrdinaryObject) base).getShape() == shape;
+    }
+
+    @SuppressWarnings("unused")
+    private static Object getShapeSlot(Object base, String propertyKey, ExecutionContext cx,
+            int slot) {
+        // The shape test ensures the slot holds a data property.
+        return ((OrdinaryObject) base).getShapeSlotValue(slot);
+    }
+
+    @SuppressWarnings("unused")
+    private static boolean testProtoShape(Object base, Class<?> receiverClass, Shape shape,
+            OrdinaryObject proto, Shape protoShape) {
+        if (base.getClass() != receiverClass) {
+            return false;
+        }
+        OrdinaryObject object = (OrdinaryObject) base;
+        return object.getShape() == shape && object.getPrototype() == proto
+                && proto.getShape() == protoShape;
+    }
+
+    @SuppressWarnings("unused")
+    private static Object getProtoShapeSlot(Object base, String propertyKey,
+            ExecutionContext cx, OrdinaryObject proto, int slot) {
+        // The shape tests ensure the property is absent from the receiver and the prototype slot
+        // holds a data property.
+        return proto.getShapeSlotValue(slot);
+    }
+
+    @SuppressWarnings("unused")
+    private static void setShapeSlot(Object base, String propertyKey, Object value,
+            ExecutionContext cx, boolean strict, int slot) {
+        // The shape test ensures the slot holds a writable data property.
+        ((OrdinaryObject) base).setShapeSlotValue(slot, value);
+    }
+
+    @SuppressWarnings("unused")
+    private static boolean testClass(Object base, Class<?> receiverClass) {
+        return base.getClass() == receiverClass;
+    }
+
+    @SuppressWarnings("unused")
+    private static boolean testStringValue(Object base) {
+        return Type.isString(base);
+    }
+
+    @SuppressWarnings("unused")
+    private static Object stringLength(Object base) {
+        return Type.stringValue(base).length();
+    }
+
+    @SuppressWarnings("unused")
+    private static void checkSetProperty(boolean succeeded, String propertyKey,
+            ExecutionContext cx, boolean strict) {
+        if (!succeeded && strict) {
+            throw newTypeError(cx, Messages.Key.PropertyNotModifiable, propertyKey);
+        }
+    }
+
+    /**
+     * Adds a new guarded target to the polymorphic inline cache of {@code callsite}. The call site
+     * is switched to {@code generic} when the cache is full. New entries are tested first, older
+     * entries are kept as the fallback chain.
+     * 
+     * @param callsite
+     *            the call site object
+     * @param target
+     *            the new target
+     * @param test
+     *            the guard for {@code target}
+     * @param generic
+     *            the generic, megamorphic target
+     * @return the method handle to invoke for the current arguments
+     */
+    private static MethodHandle addCacheEntry(PolymorphicCallSite callsite, MethodHandle target,
+            MethodHandle test, MethodHandle generic) {
+        callsite.relinks += 1;
+        if (callsite.megamorphic || callsite.entries >= MAX_CACHE_ENTRIES) {
+            return callsite.setMegamorphic(generic);
+        }
+        target = target.asType(callsite.type());
+        MethodHandle fallback = callsite.getTarget();
+        callsite.setTarget(MethodHandles.guardWithTest(test, target, fallback));
+        callsite.entries += 1;
+        return target;
+    }
+
+    /**
+     * Returns the invokedynamic instruction name for element get expressions.
+     * 
+     * @return the invokedynamic instruction name
+     */
+    public static String getElementGetName() {
+        return CallNames.GET_ELEMENT;
+    }
+
+    /**
+     * Returns the method descriptor for element get expressions.
+     * 
+     * @param intKey
+     *            {@code true} if the element key is an int value
+     * @return the method descriptor
+     */
+    public static MethodTypeDescriptor getElementGetMethodDescriptor(boolean intKey) {
+        return intKey ? Descriptors.GET_ELEMENT_INT : Descriptors.GET_ELEMENT;
+    }
+
+    /**
+     * Returns the bootstrapping handle for element get expressions.
+     * 
+     * @return the bootstrapping handle
+     */
+    public static Handle getElementGetBootstrap() {
+        return BOOTSTRAP;
+    }
+
+    /**
+     * Returns the invokedynamic instruction name for element set expressions.
+     * 
+     * @return the invokedynamic instruction name
+     */
+    public static String getElementSetName() {
+        return CallNames.SET_ELEMENT;
+    }
+
+    /**
+     * Returns the method descriptor for element set expressions.
+     * 
+     * @param intKey
+     *            {@code true} if the element key is an int value
+     * @return the method descriptor
+     */
+    public static MethodTypeDescriptor getElementSetMethodDescriptor(boolean intKey) {
+        return intKey ? Descriptors.SET_ELEMENT_INT : Descriptors.SET_ELEMENT;
+    }
+
+    /**
+     * Returns the bootstrapping handle for element set expressions.
+     * 
+     * @return the bootstrapping handle
+     */
+    public static Handle getElementSetBootstrap() {
+        return BOOTSTRAP;
+    }
+
+    private static final MethodHandle getElementSetupMH, getElementIntSetupMH;
+    private static final MethodHandle setElementSetupMH, setElementIntSetupMH;
+    private static final MethodHandle getElementGenericMH, getElementIntGenericMH;
+    private static final MethodHandle setElementGenericMH, setElementIntGenericMH;
+    private static final MethodHandle testTypedArrayMH, testIndexKeyMH, indexKeyMH;
+    private static final MethodHandle[] typedArrayGetMH, typedArraySetMH;
+    static {
+        MethodLookup lookup = new MethodLookup(MethodHandles.lookup());
+        getElementGenericMH = lookup.findStatic(ScriptRuntime.class, "getElementValue",
+                MethodType.methodType(Object.class, Object.class, Object.class,
+                        ExecutionContext.class));
+        getElementIntGenericMH = lookup.findStatic(ScriptRuntime.class, "getPropertyValue",
+                MethodType.methodType(Object.class, Object.class, int.class,
+                        ExecutionContext.class));
+        setElementGenericMH = lookup.findStatic(ScriptRuntime.class, "setElementValue",
+                MethodType.methodType(void.class, Object.class, Object.class, Object.class,
+                        ExecutionContext.class, boolean.class));
+        setElementIntGenericMH = lookup.findStatic(ScriptRuntime.class, "setPropertyValue",
+                MethodType.methodType(void.class, Object.class, int.class, Object.class,
+                        ExecutionContext.class, boolean.class));
+        testTypedArrayMH = lookup.findStatic("testTypedArray",
+                MethodType.methodType(boolean.class, Object.class, ElementType.class));
+        testIndexKeyMH = MethodHandles.dropArguments(lookup.findStatic("testIndexKey",
+                MethodType.methodType(boolean.class, Object.class)), 0, Object.class);
+        indexKeyMH = lookup.findStatic("indexKey",
+                MethodType.methodType(int.class, Object.class));
+
+        MethodType getType = MethodType.methodType(Object.class, Object.class, int.class,
+                ExecutionContext.class);
+        MethodType setType = MethodType.methodType(void.class, Object.class, int.class,
+                Object.class, ExecutionContext.class, boolean.class);
+        MethodHandle setInt8 = lookup.findStatic("setInt8Element", setType);
+        MethodHandle setInt16 = lookup.findStatic("setInt16Element", setType);
+        MethodHandle setInt32 = lookup.findStatic("setInt32Element", setType);
+        typedArrayGetMH = new MethodHandle[ElementType.values().length];
+        typedArraySetMH = new MethodHandle[ElementType.values().length];
+        for (ElementType type : ElementType.values()) {
+            MethodHandle get, set;
+            switch (type) {
+            case Int8:
+                get = lookup.findStatic("getInt8Element", getType);
+                set = setInt8;
+                break;
+            case Uint8:
+                get = lookup.findStatic("getUint8Element", getType);
+                set = setInt8;
+                break;
+            case Uint8C:
+                get = lookup.findStatic("getUint8Element", getType);
+                set = lookup.findStatic("setUint8ClampedElement", setType);
+                break;
+            case Int16:
+                get = lookup.findStatic("getInt16Element", getType);
+                set = setInt16;
+                break;
+            case Uint16:
+                get = lookup.findStatic("getUint16Element", getType);
+                set = setInt16;
+                break;
+            case Int32:
+                get = lookup.findStatic("getInt32Element", getType);
+                set = setInt32;
+                break;
+            case Uint32:
+                get = lookup.findStatic("getUint32Element", getType);
+                set = setInt32;
+                break;
+            case Float32:
+                get = lookup.findStatic("getFloat32Element", getType);
+                set = lookup.findStatic("setFloat32Element", setType);
+                break;
+            case Float64:
+                get = lookup.findStatic("getFloat64Element", getType);
+                set = lookup.findStatic("setFloat64Element", setType);
+                break;
+            default:
+                throw new AssertionError();
+            }
+            typedArrayGetMH[type.ordinal()] = get;
+            typedArraySetMH[type.ordinal()] = set;
+        }
+
+        getElementSetupMH = lookup.findStatic("getElementSetup", MethodType.methodType(
+                MethodHandle.class, PolymorphicCallSite.class, Object.class, Object.class,
+                ExecutionContext.class));
+        getElementIntSetupMH = lookup.findStatic("getElementSetup", MethodType.methodType(
+                MethodHandle.class, PolymorphicCallSite.class, Object.class, int.class,
+                ExecutionContext.class));
+        setElementSetupMH = lookup.findStatic("setElementSetup", MethodType.methodType(
+                MethodHandle.class, PolymorphicCallSite.class, Object.class, Object.class,
+                Object.class, ExecutionContext.class, boolean.class));
+        setElementIntSetupMH = lookup.findStatic("setElementSetup", MethodType.methodType(
+                MethodHandle.class, PolymorphicCallSite.class, Object.class, int.class,
+                Object.class, ExecutionContext.class, boolean.class));
+    }
+
+    @SuppressWarnings("unused")
+    private static MethodHandle getElementSetup(PolymorphicCallSite callsite, Object base,
+            Object key, ExecutionContext cx) {
+        MethodHandle target, test;
+        if (base instanceof TypedArrayObject) {
+            // Integer index keys access the typed array directly, all other keys use the
+            // generic path.
+            ElementType type = ((TypedArrayObject) base).getElementType();
+            test = MethodHandles.insertArguments(testTypedArrayMH, 1, type);
+            MethodHandle get = MethodHandles.filterArguments(typedArrayGetMH[type.ordinal()], 1,
+                    indexKeyMH);
+            target = MethodHandles.guardWithTest(testIndexKeyMH, get, getElementGenericMH);
+        } else if (!Type.isUndefinedOrNull(base)) {
+            test = MethodHandles.insertArguments(testClassMH, 1, base.getClass());
+            target = getElementGenericMH;
+        } else {
+            // Throws a TypeError, don't pollute the cache.
+            return getElementGenericMH;
+        }
+        return addCacheEntry(callsite, target, test, getElementGenericMH);
+    }
+
+    @SuppressWarnings("unused")
+    private static MethodHandle getElementSetup(PolymorphicCallSite callsite, Object base,
+            int index, ExecutionContext cx) {
+        MethodHandle target, test;
+        if (base instanceof TypedArrayObject) {
+            ElementType type = ((TypedArrayObject) base).getElementType();
+            test = MethodHandles.insertArguments(testTypedArrayMH, 1, type);
+            target = typedArrayGetMH[type.ordinal()];
+        } else if (!Type.isUndefinedOrNull(base)) {
+            test = MethodHandles.insertArguments(testClassMH, 1, base.getClass());
+            target = getElementIntGenericMH;
+        } else {
+            // Throws a TypeError, don't pollute the cache.
+            return getElementIntGenericMH;
+        }
+        return addCacheEntry(callsite, target, test, getElementIntGenericMH);
+    }
+
+    @SuppressWarnings("unused")
+    private static MethodHandle setElementSetup(PolymorphicCallSite callsite, Object base,
+            Object key, Object value, ExecutionContext cx, boolean strict) {
+        MethodHandle target, test;
+        if (base instanceof TypedArrayObject) {
+            // Integer index keys access the typed array directly, all other keys use the
+            // generic path.
+            ElementType type = ((TypedArrayObject) base).getElementType();
+            test = MethodHandles.insertArguments(testTypedArrayMH, 1, type);
+            MethodHandle set = MethodHandles.filterArguments(typedArraySetMH[type.ordinal()], 1,
+                    indexKeyMH);
+            target = MethodHandles.guardWithTest(testIndexKeyMH, set, setElementGenericMH);
+        } else if (!Type.isUndefinedOrNull(base)) {
+            test = MethodHandles.insertArguments(testClassMH, 1, base.getClass());
+            target = setElementGenericMH;
+        } else {
+            // Throws a TypeError, don't pollute the cache.
+            return setElementGenericMH;
+        }
+        return addCacheEntry(callsite, target, test, setElementGenericMH);
+    }
+
+    @SuppressWarnings("unused")
+    private static MethodHandle setElementSetup(PolymorphicCallSite callsite, Object base,
+            int index, Object value, ExecutionContext cx, boolean strict) {
+        MethodHandle target, test;
+        if (base instanceof TypedArrayObject) {
+            ElementType type = ((TypedArrayObject) base).getElementType();
+            test = MethodHandles.insertArguments(testTypedArrayMH, 1, type);
+            target = typedArraySetMH[type.ordinal()];
+        } else if (!Type.isUndefinedOrNull(base)) {
+            test = MethodHandles.insertArguments(testClassMH, 1, base.getClass());
+            target = setElementIntGenericMH;
+        } else {
+            // Throws a TypeError, don't pollute the cache.
+            return setElementIntGenericMH;
+        }
+        return addCacheEntry(callsite, target, test, setElementIntGenericMH);
+    }
+
+    @SuppressWarnings("unused")
+    private static boolean testTypedArray(Object base, ElementType type) {
+        return base instanceof TypedArrayObject
+                && ((TypedArrayObject) base).getElementType() == type;
+    }
+
+    @SuppressWarnings("unused")
+    private static boolean testIndexKey(Object key) {
+        if (key instanceof Integer) {
+            return true;
+        }
+        if (key instanceof Long) {
+            long index = (Long) key;
+            return index == (int) index;
+        }
+        if (key instanceof Double) {
+            double index = (Double) key;
+            return index == (int) index;
+        }
+        return false;
+    }
+
+    @SuppressWarnings("unused")
+    private static int indexKey(Object key) {
+        return ((Number) key).intValue();
+    }
+
+    @SuppressWarnings("unused")
+    private static Object getInt8Element(Object base, int index, ExecutionContext cx) {
+        TypedArrayObject array = (TypedArrayObject) base;
+        int byteIndex = array.elementByteIndex(index);
+        if (byteIndex < 0) {
+            return ScriptRuntime.getPropertyValue(base, index, cx);
+        }
+        return Integers.valueOf(array.elementData().get(byteIndex));
+    }
+
+    @SuppressWarnings("unused")
+    private static Object getUint8Element(Object base, int index, ExecutionContext cx) {
+        TypedArrayObject array = (TypedArrayObject) base;
+        int byteIndex = array.elementByteIndex(index);
+        if (byteIndex < 0) {
+            return ScriptRuntime.getPropertyValue(base, index, cx);
+        }
+        return Integers.valueOf(array.elementData().get(byteIndex) & 0xff);
+    }
+
+    @SuppressWarnings("unused")
+    private static Object getInt16Element(Object base, int index, ExecutionContext cx) {
+        TypedArrayObject array = (TypedArrayObject) base;
+        int byteIndex = array.elementByteIndex(index);
+        if (byteIndex < 0) {
+            return ScriptRuntime.getPropertyValue(base, index, cx);
+        }
+        return Integers.valueOf(array.elementData().getShort(byteIndex));
+    }
+
+    @SuppressWarnings("unused")
+    private static Object getUint16Element(Object base, int index, ExecutionContext cx) {
+        TypedArrayObject array = (TypedArrayObject) base;
+        int byteIndex = array.elementByteIndex(index);
+        if (byteIndex < 0) {
+            return ScriptRuntime.getPropertyValue(base, index, cx);
+        }
+        return Integers.valueOf(array.elementData().getShort(byteIndex) & 0xffff);
+    }
+
+    @SuppressWarnings("unused")
+    private static Object getInt32Element(Object base, int index, ExecutionContext cx) {
+        TypedArrayObject array = (TypedArrayObject) base;
+        int byteIndex = array.elementByteIndex(index);
+        if (byteIndex < 0) {
+            return ScriptRuntime.getPropertyValue(base, index, cx);
+        }
+        return Integers.valueOf(array.elementData().getInt(byteIndex));
+    }
+
+    @SuppressWarnings("unused")
+    private static Object getUint32Element(Object base, int index, ExecutionContext cx) {
+        TypedArrayObject array = (TypedArrayObject) base;
+        int byteIndex = array.elementByteIndex(index);
+        if (byteIndex < 0) {
+            return ScriptRuntime.getPropertyValue(base, index, cx);
+        }
+        int value = array.elementData().getInt(byteIndex);
+        if (value >= 0) {
+            // Values in the int32 range use the int32 fast paths in generated code.
+            return Integers.valueOf(value);
+        }
+        return (double) (value & 0xffffffffL);
+    }
+
+    @SuppressWarnings("unused")
+    private static Object getFloat32Element(Object base, int index, ExecutionContext cx) {
+        TypedArrayObject array = (TypedArrayObject) base;
+        int byteIndex = array.elementByteIndex(index);
+        if (byteIndex < 0) {
+            return ScriptRuntime.getPropertyValue(base, index, cx);
+        }
+        double value = array.elementData().getFloat(byteIndex);
+        return Double.isNaN(value) ? Double.NaN : value;
+    }
+
+    @SuppressWarnings("unused")
+    private static Object getFloat64Element(Object base, int index, ExecutionContext cx) {
+        TypedArrayObject array = (TypedArrayObject) base;
+        int byteIndex = array.elementByteIndex(index);
+        if (byteIndex < 0) {
+            return ScriptRuntime.getPropertyValue(base, index, cx);
+        }
+        double value = array.elementData().getDouble(byteIndex);
+        return Double.isNaN(value) ? Double.NaN : value;
+    }
+
+    private static int toInt32(Object value) {
+        if (value instanceof Integer) {
+            return (Integer) value;
+        }
+        return ElementType.ToInt32(Type.numberValue(value));
+    }
+
+    // Non-number values are passed to the generic path, ToNumber() is observable and must be
+    // called before the buffer is checked for detachment. Stores into immutable buffers are
+    // rejected on the generic path, too.
+
+    @SuppressWarnings("unused")
+    private static void setInt8Element(Object base, int index, Object value, ExecutionContext cx,
+            boolean strict) {
+        TypedArrayObject array = (TypedArrayObject) base;
+        int byteIndex = array.writableElementByteIndex(index);
+        if (byteIndex < 0 || !Type.isNumber(value)) {
+            ScriptRuntime.setPropertyValue(base, index, value, cx, strict);
+            return;
+        }
+        array.elementData().put(byteIndex, (byte) toInt32(value));
+    }
+
+    @SuppressWarnings("unused")
+    private static void setUint8ClampedElement(Object base, int index, Object value,
+            ExecutionContext cx, boolean strict) {
+        TypedArrayObject array = (TypedArrayObject) base;
+        int byteIndex = array.writableElementByteIndex(index);
+        if (byteIndex < 0 || !Type.isNumber(value)) {
+            ScriptRuntime.setPropertyValue(base, index, value, cx, strict);
+            return;
+        }
+        byte clamped;
+        if (value instanceof Integer) {
+            int v = (Integer) value;
+            clamped = (byte) (v >= 0 ? v <= 255 ? v : 255 : 0);
+        } else {
+            clamped = ElementType.ToUint8Clamp(Type.numberValue(value));
+        }
+        array.elementData().put(byteIndex, clamped);
+    }
+
+    @SuppressWarnings("unused")
+    private static void setInt16Element(Object base, int index, Object value,
+            ExecutionContext cx, boolean strict) {
+        TypedArrayObject array = (TypedArrayObject) base;
+        int byteIndex = array.writableElementByteIndex(index);
+        if (byteIndex < 0 || !Type.isNumber(value)) {
+            ScriptRuntime.setPropertyValue(base, index, value, cx, strict);
+            return;
+        }
+        array.elementData().putShort(byteIndex, (short) toInt32(value));
+    }
+
+    @SuppressWarnings("unused")
+    private static void setInt32Element(Object base, int index, Object value,
+            ExecutionContext cx, boolean strict) {
+        TypedArrayObject array = (TypedArrayObject) base;
+        int byteIndex = array.writableElementByteIndex(index);
+        if (byteIndex < 0 || !Type.isNumber(value)) {
+            ScriptRuntime.setPropertyValue(base, index, value, cx, strict);
+            return;
+        }
+        array.elementData().putInt(byteIndex, toInt32(value));
+    }
+
+    @SuppressWarnings("unused")
+    private static void setFloat32Element(Object base, int index, Object value,
+            ExecutionContext cx, boolean strict) {
+        TypedArrayObject array = (TypedArrayObject) base;
+        int byteIndex = array.writableElementByteIndex(index);
+        if (byteIndex < 0 || !Type.isNumber(value)) {
+            ScriptRuntime.setPropertyValue(base, index, value, cx, strict);
+            return;
+        }
+        array.elementData().putFloat(byteIndex, (float) Type.numberValue(value));
+    }
+
+    @SuppressWarnings("unused")
+    private static void setFloat64Element(Object base, int index, Object value,
+            ExecutionContext cx, boolean strict) {
+        TypedArrayObject array = (TypedArrayObject) base;
+        int byteIndex = array.writableElementByteIndex(index);
+        if (byteIndex < 0 || !Type.isNumber(value)) {
+            ScriptRuntime.setPropertyValue(base, index, value, cx, strict);
+            return;
+        }
+        array.elementData().putDouble(byteIndex, Type.numberValue(value));
+    }
+
+    /**
+     * Returns the invokedynamic instruction name for identifier value expressions.
+     * 
+     * @return the invokedynamic instruction name
+     */
+    public static String getBindingValueName() {
+        return CallNames.BINDING_VALUE;
+    }
+
+    /**
+     * Returns the method descriptor for identifier value expressions.
+     * 
+     * @return the method descriptor
+     */
+    public static MethodTypeDescriptor getBindingValueMethodDescriptor() {
+        return Descriptors.BINDING_VALUE;
+    }
+
+    /**
+     * Returns the bootstrapping handle for identifier value expressions.
+     * 
+     * @return the bootstrapping handle
+     */
+    public static Handle getBindingValueBootstrap() {
+        return BOOTSTRAP;
+    }
+
+    /**
+     * Returns the invokedynamic instruction name for identifier assignment expressions.
+     * 
+     * @return the invokedynamic instruction name
+     */
+    public static String getSetBindingValueName() {
+        return CallNames.SET_BINDING_VALUE;
+    }
+
+    /**
+     * Returns the method descriptor for identifier assignment expressions.
+     * 
+     * @return the method descriptor
+     */
+    public static MethodTypeDescriptor getSetBindingValueMethodDescriptor() {
+        return Descriptors.SET_BINDING_VALUE;
+    }
+
+    /**
+     * Returns the bootstrapping handle for identifier assignment expressions.
+     * 
+     * @return the bootstrapping handle
+     */
+    public static Handle getSetBindingValueBootstrap() {
+        return BOOTSTRAP;
+    }
+
+    /**
+     * Maximum number of environments between the current lexical environment and the environment
+     * which holds the binding.
+     */
+    private static final int MAX_BINDING_DEPTH = 16;
+
+    private static final MethodHandle bindingValueSetupMH, bindingValueGenericMH;
+    private static final MethodHandle setBindingValueSetupMH, setBindingValueGenericMH;
+    private static final MethodHandle resolveEnvironmentMH, testEnvironmentMH;
+    private static final MethodHandle getBindingSlotValueMH, setBindingSlotValueMH;
+    static {
+        MethodLookup lookup = new MethodLookup(MethodHandles.lookup());
+        bindingValueGenericMH = lookup.findVirtual(ExecutionContext.class, "resolveBindingValue",
+                MethodType.methodType(Object.class, String.class, boolean.class));
+        setBindingValueGenericMH = lookup.findStatic("setBindingValueGeneric", MethodType
+                .methodType(void.class, ExecutionContext.class, Object.class, String.class,
+                        boolean.class));
+        resolveEnvironmentMH = lookup.findStatic("resolveEnvironment", MethodType.methodType(
+                DeclarativeEnvironmentRecord.class, ExecutionContext.class, String.class,
+                boolean.class, Shape[].class));
+        testEnvironmentMH = lookup.findStatic("testEnvironment", MethodType.methodType(
+                boolean.class, DeclarativeEnvironmentRecord.class));
+        getBindingSlotValueMH = lookup.findStatic("getBindingSlotValue", MethodType.methodType(
+                Object.class, DeclarativeEnvironmentRecord.class, ExecutionContext.class,
+                String.class, boolean.class, int.class));
+        setBindingSlotValueMH = lookup.findStatic("setBindingSlotValue", MethodType.methodType(
+                void.class, DeclarativeEnvironmentRecord.class, ExecutionContext.class,
+                Object.class, String.class, boolean.class, int.class));
+        bindingValueSetupMH = lookup.findStatic("bindingValueSetup", MethodType.methodType(
+                MethodHandle.class, PolymorphicCallSite.class, ExecutionContext.class,
+                String.class, boolean.class));
+        setBindingValueSetupMH = lookup.findStatic("setBindingValueSetup", MethodType
+                .methodType(MethodHandle.class, PolymorphicCallSite.class,
+                        ExecutionContext.class, Object.class, String.class, boolean.class));
+    }
+
+    @SuppressWarnings("unused")
+    private static MethodHandle bindingValueSetup(PolymorphicCallSite callsite,
+            ExecutionContext cx, String name, boolean strict) {
+        return bindingSetup(callsite, cx, name, getBindingSlotValueMH, bindingValueGenericMH);
+    }
+
+    @SuppressWarnings("unused")
+    private static MethodHandle setBindingValueSetup(PolymorphicCallSite callsite,
+            ExecutionContext cx, Object value, String name, boolean strict) {
+        return bindingSetup(callsite, cx, name, setBindingSlotValueMH, setBindingValueGenericMH);
+    }
+
+    private static MethodHandle bindingSetup(PolymorphicCallSite callsite, ExecutionContext cx,
+            String name, MethodHandle slotAccess, MethodHandle generic) {
+        // Record the shapes of all environments up to the environment which holds the binding.
+        // The binding is then accessed through (depth, slot) as long as the shapes are unchanged.
+        Shape[] shapes = new Shape[MAX_BINDING_DEPTH];
+        LexicalEnvironment<?> env = cx.getLexicalEnvironment();
+        for (int depth = 0; depth < MAX_BINDING_DEPTH && env != null; ++depth) {
+            EnvironmentRecord envRec = env.getEnvRec();
+            if (!(envRec instanceof DeclarativeEnvironmentRecord)) {
+                break;
+            }
+            Shape shape = ((DeclarativeEnvironmentRecord) envRec).getShape();
+            if (shape == null) {
+                break;
+            }
+            shapes[depth] = shape;
+            int slot = shape.indexOf(name);
+            if (slot >= 0) {
+                MethodHandle resolve = MethodHandles.insertArguments(resolveEnvironmentMH, 3,
+                        (Object) Arrays.copyOf(shapes, depth + 1));
+                MethodType type = callsite.type();
+                if (type.parameterCount() > 3) {
+                    // Store: (cx, value, name, strict)
+                    resolve = MethodHandles.dropArguments(resolve, 1, Object.class);
+                }
+                MethodHandle target = MethodHandles.insertArguments(slotAccess,
+                        type.parameterCount() + 1, slot);
+                return addBindingCacheEntry(callsite, resolve, target, generic);
+            }
+            env = env.getOuter();
+        }
+        // Binding not reachable through declarative environments, switch to generic lookup.
+        return callsite.setMegamorphic(generic);
+    }
+
+    private static MethodHandle addBindingCacheEntry(PolymorphicCallSite callsite,
+            MethodHandle resolve, MethodHandle target, MethodHandle generic) {
+        callsite.relinks += 1;
+        if (callsite.megamorphic || callsite.entries >= MAX_CACHE_ENTRIES) {
+            return callsite.setMegamorphic(generic);
+        }
+        // The shape test resolves the environment record, so the environments are only traversed
+        // once: (cx, [value,] name, strict) -> (envRec, cx, [value,] name, strict) -> [value]
+        MethodHandle fallback = MethodHandles.dropArguments(callsite.getTarget(), 0,
+                DeclarativeEnvironmentRecord.class);
+        MethodHandle guarded = MethodHandles.guardWithTest(testEnvironmentMH, target, fallback);
+        MethodHandle entry = MethodHandles.foldArguments(guarded, resolve);
+        callsite.setTarget(entry);
+        callsite.entries += 1;
+        return entry;
+    }
+
+    @SuppressWarnings("unused")
+    private static DeclarativeEnvironmentRecord resolveEnvironment(ExecutionContext cx,
+            String name, boolean strict, Shape[] shapes) {
+        LexicalEnvironment<?> env = cx.getLexicalEnvironment();
+        for (int i = 0;; ++i) {
+            EnvironmentRecord envRec = env.getEnvRec();
+            if (!(envRec instanceof DeclarativeEnvironmentRecord)
+                    || ((DeclarativeEnvironmentRecord) envRec).getShape() != shapes[i]) {
+                return null;
+            }
+            if (i + 1 == shapes.length) {
+                return (DeclarativeEnvironmentRecord) envRec;
+            }
+            env = env.getOuter();
+        }
+    }
+
+    @SuppressWarnings("unused")
+    private static boolean testEnvironment(DeclarativeEnvironmentRecord envRec) {
+        return envRec != null;
+    }
+
+    @SuppressWarnings("unused")
+    private static Object getBindingSlotValue(DeclarativeEnvironmentRecord envRec,
+            ExecutionContext cx, String name, boolean strict, int slot) {
+        return envRec.getBindingValue(slot, name);
+    }
+
+    @SuppressWarnings("unused")
+    private static void setBindingSlotValue(DeclarativeEnvironmentRecord envRec,
+            ExecutionContext cx, Object value, String name, boolean strict, int slot) {
+        envRec.setMutableBinding(slot, name, value, strict);
+    }
+
+    @SuppressWarnings("unused")
+    private static void setBindingValueGeneric(ExecutionContext cx, Object value, String name,
+            boolean strict) {
+        cx.resolveBinding(name, strict).putValue(value, cx);
+    }
+
     /**
      * Returns the invokedynamic instruction name for concat expressions.
      * 
@@ -898,19 +1976,22 @@ public final class Bootstrap {
     }
 
     private static final MethodHandle addSetupMH, relCmpSetupMH, eqCmpSetupMH, strictEqCmpSetupMH;
-    private static final MethodHandle addStringMH, addNumberMH, addGenericMH;
-    private static final MethodHandle relCmpStringMH, relCmpNumberMH, relCmpGenericMH;
+    private static final MethodHandle addStringMH, addIntegerMH, addNumberMH, addGenericMH;
+    private static final MethodHandle relCmpStringMH, relCmpIntegerMH, relCmpNumberMH,
+            relCmpGenericMH;
     private static final MethodHandle lessThanMH, greaterThanMH, lessThanEqualsMH,
             greaterThanEqualsMH;
     private static final MethodHandle eqCmpStringMH, eqCmpNumberMH, eqCmpBooleanMH, eqCmpGenericMH;
     private static final MethodHandle strictEqCmpStringMH, strictEqCmpNumberMH,
             strictEqCmpBooleanMH, strictEqCmpGenericMH;
-    private static final MethodHandle testStringMH, testNumberMH, testBooleanMH;
+    private static final MethodHandle testStringMH, testIntegerMH, testNumberMH, testBooleanMH;
 
     static {
         MethodLookup lookup = new MethodLookup(MethodHandles.lookup());
         testStringMH = lookup.findStatic("testString",
                 MethodType.methodType(boolean.class, Object.class, Object.class));
+        testIntegerMH = lookup.findStatic("testInteger",
+                MethodType.methodType(boolean.class, Object.class, Object.class));
         testNumberMH = lookup.findStatic("testNumber",
                 MethodType.methodType(boolean.class, Object.class, Object.class));
         testBooleanMH = lookup.findStatic("testBoolean",
@@ -918,6 +1999,9 @@ public final class Bootstrap {
 
         addStringMH = lookup.findStatic("addString", MethodType.methodType(CharSequence.class,
                 CharSequence.class, CharSequence.class, ExecutionContext.class));
+        MethodHandle addInteger = lookup.findStatic("addInteger",
+                MethodType.methodType(Number.class, Integer.class, Integer.class));
+        addIntegerMH = MethodHandles.dropArguments(addInteger, 2, ExecutionContext.class);
         MethodHandle addNumber = lookup.findStatic("addNumber",
                 MethodType.methodType(Double.class, Number.class, Number.class));
         addNumberMH = MethodHandles.dropArguments(addNumber, 2, ExecutionContext.class);
@@ -927,6 +2011,9 @@ public final class Bootstrap {
         MethodHandle relCmpString = lookup.findStatic("relCmpString",
                 MethodType.methodType(int.class, CharSequence.class, CharSequence.class));
         relCmpStringMH = MethodHandles.dropArguments(relCmpString, 2, ExecutionContext.class);
+        MethodHandle relCmpInteger = lookup.findStatic("relCmpInteger",
+                MethodType.methodType(int.class, Integer.class, Integer.class));
+        relCmpIntegerMH = MethodHandles.dropArguments(relCmpInteger, 2, ExecutionContext.class);
         MethodHandle relCmpNumber = lookup.findStatic("relCmpNumber",
                 MethodType.methodType(int.class, Number.class, Number.class));
         relCmpNumberMH = MethodHandles.dropArguments(relCmpNumber, 2, ExecutionContext.class);
@@ -961,9 +2048,9 @@ public final class Bootstrap {
                 MethodType.methodType(boolean.class, Object.class, Object.class));
 
         addSetupMH = lookup.findStatic("addSetup", MethodType.methodType(MethodHandle.class,
-                MutableCallSite.class, Object.class, Object.class, ExecutionContext.class));
+                PolymorphicCallSite.class, Object.class, Object.class, ExecutionContext.class));
         relCmpSetupMH = lookup.findStatic("relCmpSetup", MethodType.methodType(MethodHandle.class,
-                MutableCallSite.class, RelationalOperator.class, Object.class, Object.class,
+                PolymorphicCallSite.class, RelationalOperator.class, Object.class, Object.class,
                 ExecutionContext.class));
         eqCmpSetupMH = lookup.findStatic("eqCmpSetup", MethodType.methodType(MethodHandle.class,
                 MutableCallSite.class, Object.class, Object.class, ExecutionContext.class));
@@ -976,6 +2063,16 @@ public final class Bootstrap {
         return ScriptRuntime.add(arg1, arg2, cx);
     }
 
+    @SuppressWarnings("unused")
+    private static Number addInteger(Integer arg1, Integer arg2) {
+        long result = (long) arg1.intValue() + (long) arg2.intValue();
+        if (result == (int) result) {
+            return Integers.valueOf((int) result);
+        }
+        // Overflow, continue with double values.
+        return Double.valueOf(result);
+    }
+
     @SuppressWarnings("unused")
     private static Double addNumber(Number arg1, Number arg2) {
         return arg1.doubleValue() + arg2.doubleValue();
@@ -992,6 +2089,11 @@ public final class Bootstrap {
         return c < 0 ? 1 : 0;
     }
 
+    @SuppressWarnings("unused")
+    private static int relCmpInteger(Integer arg1, Integer arg2) {
+        return arg1.intValue() < arg2.intValue() ? 1 : 0;
+    }
+
     @SuppressWarnings("unused")
     private static int relCmpNumber(Number arg1, Number arg2) {
         double nx = arg1.doubleValue();
@@ -1073,6 +2175,10 @@ public final class Bootstrap {
         return Type.isString(arg1) && Type.isString(arg2);
     }
 
+    private static boolean testInteger(Object arg1, Object arg2) {
+        return arg1 instanceof Integer && arg2 instanceof Integer;
+    }
+
     private static boolean testNumber(Object arg1, Object arg2) {
         return Type.isNumber(arg1) && Type.isNumber(arg2);
     }
@@ -1108,8 +2214,13 @@ public final class Bootstrap {
     }
 
     @SuppressWarnings("unused")
-    private static MethodHandle addSetup(MutableCallSite callsite, Object arg1, Object arg2,
+    private static MethodHandle addSetup(PolymorphicCallSite callsite, Object arg1, Object arg2,
             ExecutionContext cx) {
+        // Speculate on int32 operands first, the int32 entry is followed by a number entry when
+        // the speculation fails.
+        if (testInteger(arg1, arg2)) {
+            return addCacheEntry(callsite, addIntegerMH, testIntegerMH, addGenericMH);
+        }
         Type type = getType(arg1, arg2);
         MethodHandle target;
         if (type == Type.String) {
@@ -1117,14 +2228,20 @@ public final class Bootstrap {
         } else if (type == Type.Number) {
             target = addNumberMH;
         } else {
-            target = null;
+            return callsite.setMegamorphic(addGenericMH);
         }
-        return setCallSiteTarget(callsite, target, getTestFor(type), addGenericMH);
+        return addCacheEntry(callsite, target, getTestFor(type), addGenericMH);
     }
 
     @SuppressWarnings("unused")
-    private static MethodHandle relCmpSetup(MutableCallSite callsite, RelationalOperator op,
+    private static MethodHandle relCmpSetup(PolymorphicCallSite callsite, RelationalOperator op,
             Object arg1, Object arg2, ExecutionContext cx) {
+        MethodHandle generic = filterReturnValue(
+                MethodHandles.insertArguments(relCmpGenericMH, 2, op), op);
+        if (testInteger(arg1, arg2)) {
+            return addCacheEntry(callsite, filterReturnValue(relCmpIntegerMH, op), testIntegerMH,
+                    generic);
+        }
         Type type = getType(arg1, arg2);
         MethodHandle target;
         if (type == Type.String) {
@@ -1132,10 +2249,9 @@ public final class Bootstrap {
         } else if (type == Type.Number) {
             target = filterReturnValue(relCmpNumberMH, op);
         } else {
-            target = null;
+            return callsite.setMegamorphic(generic);
         }
-        return setCallSiteTarget(callsite, target, getTestFor(type),
-                filterReturnValue(MethodHandles.insertArguments(relCmpGenericMH, 2, op), op));
+        return addCacheEntry(callsite, target, getTestFor(type), generic);
     }
 
     private static MethodHandle filterReturnValue(MethodHandle mh, RelationalOperator op) {
@@ -1239,7 +2355,12 @@ public final class Bootstrap {
     private static final ConstantCallSite stackOverFlow_Call;
     private static final ConstantCallSite stackOverFlow_Construct;
     private static final ConstantCallSite stackOverFlow_Super;
+    private static final ConstantCallSite stackOverFlow_GetProperty;
+    private static final ConstantCallSite stackOverFlow_SetProperty;
+    private static final ConstantCallSite stackOverFlow_BindingValue;
+    private static final ConstantCallSite stackOverFlow_SetBindingValue;
     private static final MethodHandle stackOverFlow_Concat;
+    private static final MethodHandle stackOverFlow_Element;
     static {
         MethodLookup lookup = new MethodLookup(MethodHandles.lookup());
         stackOverFlow_Add = new ConstantCallSite(lookup.findStatic("stackOverFlow_Add", MethodType
@@ -1259,8 +2380,22 @@ public final class Bootstrap {
         stackOverFlow_Super = new ConstantCallSite(lookup.findStatic("stackOverFlow_Super",
                 MethodType.methodType(ScriptObject.class, Constructor.class,
                         ExecutionContext.class, Constructor.class, Object[].class)));
+        stackOverFlow_GetProperty = new ConstantCallSite(lookup.findStatic(
+                "stackOverFlow_GetProperty", MethodType.methodType(Object.class, Object.class,
+                        String.class, ExecutionContext.class)));
+        stackOverFlow_SetProperty = new ConstantCallSite(lookup.findStatic(
+                "stackOverFlow_SetProperty", MethodType.methodType(void.class, Object.class,
+                        String.class, Object.class, ExecutionContext.class, boolean.class)));
+        stackOverFlow_BindingValue = new ConstantCallSite(lookup.findStatic(
+                "stackOverFlow_BindingValue", MethodType.methodType(Object.class,
+                        ExecutionContext.class, String.class, boolean.class)));
+        stackOverFlow_SetBindingValue = new ConstantCallSite(lookup.findStatic(
+                "stackOverFlow_SetBindingValue", MethodType.methodType(void.class,
+                        ExecutionContext.class, Object.class, String.class, boolean.class)));
         stackOverFlow_Concat = lookup.findStatic("stackOverFlow_Concat",
                 MethodType.methodType(CharSequence.class));
+        stackOverFlow_Element = lookup.findStatic("stackOverFlow_Element",
+                MethodType.methodType(Object.class));
     }
 
     @SuppressWarnings("unused")
@@ -1301,11 +2436,40 @@ public final class Bootstrap {
         throw new StackOverflowError("bootstrap stack overflow");
     }
 
+    @SuppressWarnings("unused")
+    private static Object stackOverFlow_GetProperty(Object base, String propertyKey,
+            ExecutionContext cx) {
+        throw new StackOverflowError("bootstrap stack overflow");
+    }
+
+    @SuppressWarnings("unused")
+    private static void stackOverFlow_SetProperty(Object base, String propertyKey, Object value,
+            ExecutionContext cx, boolean strict) {
+        throw new StackOverflowError("bootstrap stack overflow");
+    }
+
+    @SuppressWarnings("unused")
+    private static Object stackOverFlow_BindingValue(ExecutionContext cx, String name,
+            boolean strict) {
+        throw new StackOverflowError("bootstrap stack overflow");
+    }
+
+    @SuppressWarnings("unused")
+    private static void stackOverFlow_SetBindingValue(ExecutionContext cx, Object value,
+            String name, boolean strict) {
+        throw new StackOverflowError("bootstrap stack overflow");
+    }
+
     @SuppressWarnings("unused")
     private static CharSequence stackOverFlow_Concat() {
         throw new StackOverflowError("bootstrap stack overflow");
     }
 
+    @SuppressWarnings("unused")
+    private static Object stackOverFlow_Element() {
+        throw new StackOverflowError("bootstrap stack overflow");
+    }
+
     /**
      * The invokedynamic bootstrapping method.
      * 
@@ -1323,7 +2487,27 @@ public final class Bootstrap {
         // System.out.printf("name: %s\n", name);
         // System.out.printf("type: %s\n", type);
         try {
-            MutableCallSite callsite = new MutableCallSite(type);
+            MutableCallSite callsite;
+            switch (name) {
+            case CallNames.CALL:
+            case CallNames.CONSTRUCT:
+            case CallNames.SUPER:
+            case CallNames.ADD:
+            case CallNames.LT:
+            case CallNames.GT:
+            case CallNames.LE:
+            case CallNames.GE:
+            case CallNames.GET_PROPERTY:
+            case CallNames.SET_PROPERTY:
+            case CallNames.GET_ELEMENT:
+            case CallNames.SET_ELEMENT:
+            case CallNames.BINDING_VALUE:
+            case CallNames.SET_BINDING_VALUE:
+                callsite = new PolymorphicCallSite(type);
+                break;
+            default:
+                callsite = new MutableCallSite(type);
+            }
 
             MethodHandle setup;
             switch (name) {
@@ -1336,6 +2520,26 @@ public final class Bootstrap {
             case CallNames.SUPER:
                 setup = MethodHandles.insertArguments(superSetupMH, 0, callsite);
                 break;
+            case CallNames.GET_PROPERTY:
+                setup = MethodHandles.insertArguments(getPropertySetupMH, 0, callsite);
+                break;
+            case CallNames.SET_PROPERTY:
+                setup = MethodHandles.insertArguments(setPropertySetupMH, 0, callsite);
+                break;
+            case CallNames.GET_ELEMENT:
+                setup = MethodHandles.insertArguments(type.parameterType(1) == int.class
+                        ? getElementIntSetupMH : getElementSetupMH, 0, callsite);
+                break;
+            case CallNames.SET_ELEMENT:
+                setup = MethodHandles.insertArguments(type.parameterType(1) == int.class
+                        ? setElementIntSetupMH : setElementSetupMH, 0, callsite);
+                break;
+            case CallNames.BINDING_VALUE:
+                setup = MethodHandles.insertArguments(bindingValueSetupMH, 0, callsite);
+                break;
+            case CallNames.SET_BINDING_VALUE:
+                setup = MethodHandles.insertArguments(setBindingValueSetupMH, 0, callsite);
+                break;
             case CallNames.ADD:
                 setup = MethodHandles.insertArguments(addSetupMH, 0, callsite);
                 break;
@@ -1378,6 +2582,19 @@ public final class Bootstrap {
                 return stackOverFlow_Construct;
             case CallNames.SUPER:
                 return stackOverFlow_Super;
+            case CallNames.GET_PROPERTY:
+                return stackOverFlow_GetProperty;
+            case CallNames.SET_PROPERTY:
+                return stackOverFlow_SetProperty;
+            case CallNames.GET_ELEMENT:
+            case CallNames.SET_ELEMENT:
+                return new ConstantCallSite(MethodHandles.dropArguments(
+                        stackOverFlow_Element.asType(MethodType.methodType(type.returnType())), 0,
+                        type.parameterArray()));
+            case CallNames.BINDING_VALUE:
+                return stackOverFlow_BindingValue;
+            case CallNames.SET_BINDING_VALUE:
+                return stackOverFlow_SetBindingValue;
             case CallNames.CONCAT:
                 return new ConstantCallSite(MethodHandles.dropArguments(stackOverFlow_Concat, 0,
                         type.parameterArray()));
@@ -0,0 +1,280 @@
+/**
+ * Copyright (c) 2012-2015 André Bargull
+ * Alle Rechte vorbehalten / All Rights Reserved.  Use is subject to license terms.
+ *
+ * <https://github.com/anba/es6draft>
+ */
+package com.github.anba.es6draft.runtime.internal;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.CodeSource;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import com.github.anba.es6draft.compiler.Compiler;
+import com.github.anba.es6draft.parser.Parser;
+
+/**
+ * Persistent cache for the class files of compiled scripts.
+ * <p>
+ * Cache entries are stored as separate files in the cache directory. The entry key is a hash over
+ * the engine build, the source information, the compatibility, parser and compiler options and
+ * the source code, so stale entries are never reused.
+ */
+public final class CodeCache {
+    private static final int MAGIC = 0x45533644; // 'ES6D'
+    private static final int FORMAT_VERSION = 1;
+    private static final String FILE_SUFFIX = ".classes";
+
+    private final Path directory;
+
+    /**
+     * An entry of the code cache.
+     */
+    public static final class Entry {
+        private final String className;
+        private final Map<String, byte[]> classes;
+
+        Entry(String className, Map<String, byte[]> classes) {
+            this.className = className;
+            this.classes = classes;
+        }
+
+        /**
+         * Returns the internal name of the main class.
+         *
+         * @return the main class name
+         */
+        public String getClassName() {
+            return className;
+        }
+
+        /**
+         * Returns the class files keyed by their internal class names.
+         *
+         * @return the class files
+         */
+        public Map<String, byte[]> getClasses() {
+            return classes;
+        }
+    }
+
+    /**
+     * Constructs a new code cache which stores its entries in {@code directory}.
+     *
+     * @param directory
+     *            the cache directory
+     * @throws IOException
+     *             if the cache directory could not be created
+     */
+    public CodeCache(Path directory) throws IOException {
+        this.directory = Files.createDirectories(directory.toAbsolutePath());
+    }
+
+    /**
+     * Returns the cache directory.
+     *
+     * @return the cache directory
+     */
+    public Path getDirectory() {
+        return directory;
+    }
+
+    private static final class BuildHash {
+        static final String VALUE = buildHash();
+    }
+
+    /**
+     * Returns a hash over the class files of the engine. The version resource is not updated for
+     * development builds, so it cannot be used to tell apart two builds. If the class files are not
+     * accessible, a random value is returned which disables reusing entries from other processes.
+     * 
+     * @return the build hash
+     */
+    private static String buildHash() {
+        MessageDigest digest = newDigest();
+        try {
+            CodeSource codeSource = CodeCache.class.getProtectionDomain().getCodeSource();
+            if (codeSource == null || codeSource.getLocation() == null) {
+                return UUID.randomUUID().toString();
+            }
+            final Path location = Paths.get(codeSource.getLocation().toURI());
+            if (Files.isDirectory(location)) {
+                final ArrayList<Path> files = new ArrayList<>();
+                Files.walkFileTree(location, new SimpleFileVisitor<Path>() {
+                    @Override
+                    public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                        if (file.getFileName().toString().endsWith(".class")) {
+                            files.add(file);
+                        }
+                        return FileVisitResult.CONTINUE;
+                    }
+                });
+                Collections.sort(files);
+                for (Path file : files) {
+                    digest.update(location.relativize(file).toString()
+                            .getBytes(StandardCharsets.UTF_8));
+                    update(digest, file);
+                }
+            } else {
+                update(digest, location);
+            }
+        } catch (IOException | URISyntaxException | RuntimeException e) {
+            return UUID.randomUUID().toString();
+        }
+        return toHexString(digest.digest());
+    }
+
+    private static void update(MessageDigest digest, Path file) throws IOException {
+        byte[] buffer = new byte[8192];
+        try (InputStream in = Files.newInputStream(file)) {
+            for (int n; (n = in.read(buffer)) != -1;) {
+                digest.update(buffer, 0, n);
+            }
+        }
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String toHexString(byte[] hash) {
+        StringBuilder sb = new StringBuilder(hash.length * 2);
+        for (byte b : hash) {
+            sb.append(Character.forDigit((b >> 4) & 0xf, 16));
+            sb.append(Character.forDigit(b & 0xf, 16));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Computes the cache key for a script.
+     *
+     * @param source
+     *            the script source information
+     * @param sourceCode
+     *            the source code
+     * @param options
+     *            the compatibility options
+     * @param parserOptions
+     *            the parser options
+     * @param compilerOptions
+     *            the compiler options
+     * @return the cache key
+     */
+    public String key(Source source, String sourceCode, Set<CompatibilityOption> options,
+            Set<Parser.Option> parserOptions, Set<Compiler.Option> compilerOptions) {
+        MessageDigest digest = newDigest();
+        StringBuilder header = new StringBuilder();
+        header.append(FORMAT_VERSION).append('\0').append(BuildHash.VALUE).append('\0');
+        header.append(source.getName()).append('\0').append(source.getFileString()).append('\0');
+        header.append(source.getLine()).append('\0');
+        header.append(options).append('\0').append(parserOptions).append('\0');
+        header.append(compilerOptions).append('\0');
+        digest.update(header.toString().getBytes(StandardCharsets.UTF_8));
+        digest.update(sourceCode.getBytes(StandardCharsets.UTF_8));
+        return toHexString(digest.digest());
+    }
+
+    /**
+     * Returns the cache entry for {@code key} or {@code null} if not present. Unreadable or
+     * corrupted entries are treated as not present.
+     *
+     * @param key
+     *            the cache key
+     * @return the cache entry or {@code null}
+     */
+    public Entry get(String key) {
+        Path file = directory.resolve(key + FILE_SUFFIX);
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+                Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION) {
+                return null;
+            }
+            String className = in.readUTF();
+            int count = in.readInt();
+            LinkedHashMap<String, byte[]> classes = new LinkedHashMap<>();
+            for (int i = 0; i < count; ++i) {
+                String name = in.readUTF();
+                byte[] bytes = new byte[in.readInt()];
+                in.readFully(bytes);
+                classes.put(name, bytes);
+            }
+            if (in.read() != -1 || !classes.containsKey(className)) {
+                return null;
+            }
+            return new Entry(className, Collections.unmodifiableMap(classes));
+        } catch (IOException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Stores a new cache entry. I/O errors are ignored, the entry is simply not cached in that
+     * case.
+     *
+     * @param key
+     *            the cache key
+     * @param className
+     *            the internal name of the main class
+     * @param classes
+     *            the class files keyed by their internal class names
+     */
+    public void put(String key, String className, Map<String, byte[]> classes) {
+        Path file = directory.resolve(key + FILE_SUFFIX);
+        Path tempFile = null;
+        try {
+            // Write to a temporary file first to avoid exposing partially written entries.
+            tempFile = Files.createTempFile(directory, key, ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                    Files.newOutputStream(tempFile)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(FORMAT_VERSION);
+                out.writeUTF(className);
+                out.writeInt(classes.size());
+                for (Map.Entry<String, byte[]> entry : classes.entrySet()) {
+                    out.writeUTF(entry.getKey());
+                    out.writeInt(entry.getValue().length);
+                    out.write(entry.getValue());
+                }
+            }
+            Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+            tempFile = null;
+        } catch (IOException e) {
+            // Ignore, caching is optional.
+        } finally {
+            if (tempFile != null) {
+                try {
+                    Files.deleteIfExists(tempFile);
+                } catch (IOException e) {
+                    // Ignore.
+                }
+            }
+        }
+    }
+}
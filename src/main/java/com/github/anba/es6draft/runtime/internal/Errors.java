@@ -17,39 +17,45 @@ public final class Errors {
     private Errors() {
     }
 
+    private static ScriptException capture(ExecutionContext cx, ErrorObject error) {
+        ScriptException exception = error.getException();
+        InterpreterFrames.capture(cx, exception);
+        return exception;
+    }
+
     private static ScriptException newError(ExecutionContext cx, Intrinsics prototype,
             String message) {
-        return new ErrorObject(cx.getRealm(), prototype, message).getException();
+        return capture(cx, new ErrorObject(cx.getRealm(), prototype, message));
     }
 
     private static ScriptException newError(ExecutionContext cx, Intrinsics prototype,
             String message, String file, int line, int column) {
-        return new ErrorObject(cx.getRealm(), prototype, message, file, line, column)
-                .getException();
+        return capture(cx,
+                new ErrorObject(cx.getRealm(), prototype, message, file, line, column));
     }
 
     private static ScriptException newError(ExecutionContext cx, Throwable cause,
             Intrinsics prototype, String message, String file, int line, int column) {
-        return new ErrorObject(cx.getRealm(), cause, prototype, message, file, line, column)
-                .getException();
+        return capture(cx, new ErrorObject(cx.getRealm(), cause, prototype, message, file, line,
+                column));
     }
 
     private static ScriptException newError(ExecutionContext cx, Intrinsics prototype,
             Messages.Key key) {
         String message = cx.getRealm().message(key);
-        return new ErrorObject(cx.getRealm(), prototype, message).getException();
+        return capture(cx, new ErrorObject(cx.getRealm(), prototype, message));
     }
 
     private static ScriptException newError(ExecutionContext cx, Intrinsics prototype,
             Messages.Key key, String... args) {
         String message = cx.getRealm().message(key, args);
-        return new ErrorObject(cx.getRealm(), prototype, message).getException();
+        return capture(cx, new ErrorObject(cx.getRealm(), prototype, message));
     }
 
     private static ScriptException newError(ExecutionContext cx, Throwable cause,
             Intrinsics prototype, Messages.Key key, String... args) {
         String message = cx.getRealm().message(key, args);
-        return new ErrorObject(cx.getRealm(), cause, prototype, message).getException();
+        return capture(cx, new ErrorObject(cx.getRealm(), cause, prototype, message));
     }
 
     /**
@@ -9,7 +9,13 @@ package com.github.anba.es6draft.runtime.internal;
 import java.util.*;
 
 /**
- * 
+ * Map for integer indexed properties.
+ * <p>
+ * Maps created with a {@link Packing} start with a packed elements representation: all entries
+ * from index {@code 0} to {@code length - 1} are present and store their unwrapped values in an
+ * {@code int[]}, {@code double[]} or {@code Object[]}. The map switches to the generic
+ * representation when a hole is created, when a value cannot be packed or when a live value is
+ * requested through {@link #get(long)}.
  */
 public final class IndexedMap<VALUE> {
     private static final long MAX_LENGTH = 0x1F_FFFF_FFFF_FFFFL;
@@ -23,24 +29,81 @@ public final class IndexedMap<VALUE> {
         return (Elements<VALUE>) EMPTY_ELEMENTS;
     }
 
+    private static final IndexedMap<?> EMPTY_MAP = new IndexedMap<>();
+
+    /**
+     * Returns the shared empty indexed map. The returned map must not be modified.
+     * 
+     * @param <VALUE>
+     *            the value type
+     * @return the shared empty indexed map
+     */
+    @SuppressWarnings("unchecked")
+    public static <VALUE> IndexedMap<VALUE> emptyMap() {
+        return (IndexedMap<VALUE>) EMPTY_MAP;
+    }
+
+    /**
+     * Conversion between map values and packed element values.
+     *
+     * @param <VALUE>
+     *            the value type
+     */
+    public interface Packing<VALUE> {
+        /**
+         * Returns the packed element value for {@code value} or {@code null} if the value cannot be
+         * stored in packed elements.
+         * 
+         * @param value
+         *            the map value
+         * @return the packed element value or {@code null}
+         */
+        Object pack(VALUE value);
+
+        /**
+         * Returns a new map value for the packed element value.
+         * 
+         * @param value
+         *            the packed element value
+         * @return the map value
+         */
+        VALUE unpack(Object value);
+    }
+
+    private final Packing<VALUE> packing;
     private long length;
     private Elements<VALUE> elements;
 
     public IndexedMap() {
+        this.packing = null;
         this.length = 0;
         this.elements = emptyElements();
     }
 
     public IndexedMap(long length) {
+        this.packing = null;
         this.length = length;
         this.elements = emptyElements();
     }
 
     public IndexedMap(long length, int capacity) {
+        this.packing = null;
         this.length = length;
         this.elements = new DenseElements<>(capacity);
     }
 
+    /**
+     * Constructs a new, empty map which uses packed elements while possible.
+     * 
+     * @param packing
+     *            the packing conversion
+     */
+    public IndexedMap(Packing<VALUE> packing) {
+        this.packing = packing;
+        this.length = 0;
+        this.elements = emptyElements();
+    }
+
     private static abstract class Elements<VALUE> {
         /**
          * Returns the maximum property key index + 1.
@@ -724,6 +787,374 @@ public final class IndexedMap<VALUE> {
         }
     }
 
+    /**
+     * Base class for packed elements. Packed elements don't have holes, so the element count is
+     * always equal to the length. Map values are not stored in packed elements, therefore all
+     * value-based operations are handled in {@link IndexedMap}.
+     */
+    private static abstract class PackedElements<VALUE> extends Elements<VALUE> {
+        private static final int MIN_CAPACITY = 8;
+
+        protected int size;
+
+        PackedElements(int size) {
+            this.size = size;
+        }
+
+        static int nextCapacity(int size) {
+            return Math.max(size + (size >> 1), MIN_CAPACITY);
+        }
+
+        static <VALUE> PackedElements<VALUE> create(Object value) {
+            if (value instanceof Integer) {
+                return new IntElements<VALUE>(MIN_CAPACITY).add(value);
+            }
+            if (value instanceof Double) {
+                return new DoubleElements<VALUE>(MIN_CAPACITY).add(value);
+            }
+            return new ObjectElements<VALUE>(MIN_CAPACITY).add(value);
+        }
+
+        /**
+         * Returns the element value at {@code index}.
+         * 
+         * @param index
+         *            the element index
+         * @return the element value
+         */
+        abstract Object getElement(int index);
+
+        /**
+         * Sets the element at {@code index} to the new value. Returns the elements object which now
+         * holds the value, the receiver itself unless a more general element kind is required.
+         * 
+         * @param index
+         *            the element index
+         * @param value
+         *            the new element value
+         * @return the updated elements
+         */
+        abstract PackedElements<VALUE> set(int index, Object value);
+
+        /**
+         * Appends the value at index {@code size}. Returns the elements object which now holds the
+         * value, the receiver itself unless a more general element kind is required.
+         * 
+         * @param value
+         *            the new element value
+         * @return the updated elements
+         */
+        abstract PackedElements<VALUE> add(Object value);
+
+        /**
+         * Truncates the elements to the new size.
+         * 
+         * @param newSize
+         *            the new size
+         */
+        void truncate(int newSize) {
+            assert 0 <= newSize && newSize <= size;
+            size = newSize;
+        }
+
+        /**
+         * Returns the generic representation for the packed elements.
+         * 
+         * @param packing
+         *            the packing conversion
+         * @return the generic representation
+         */
+        final Elements<VALUE> unpack(Packing<VALUE> packing) {
+            int size = this.size;
+            if (size == 0) {
+                return emptyElements();
+            }
+            VALUE[] array = newArray(DenseElements.nextCapacity(size));
+            for (int i = 0; i < size; ++i) {
+                array[i] = packing.unpack(getElement(i));
+            }
+            return new DenseElements<>(array, size);
+        }
+
+        @Override
+        final long length() {
+            return size;
+        }
+
+        @Override
+        final int count() {
+            return size;
+        }
+
+        @Override
+        final boolean has(long propertyKey) {
+            return 0 <= propertyKey && propertyKey < size;
+        }
+
+        @Override
+        final VALUE get(long propertyKey) {
+            throw new AssertionError();
+        }
+
+        @Override
+        final void put(long propertyKey, VALUE value) {
+            throw new AssertionError();
+        }
+
+        @Override
+        final void delete(long propertyKey) {
+            throw new AssertionError();
+        }
+
+        @Override
+        final Elements<VALUE> toDense() {
+            throw new AssertionError();
+        }
+
+        @Override
+        final Elements<VALUE> toSparse() {
+            throw new AssertionError();
+        }
+
+        @Override
+        final Elements<VALUE> toSparseOrShrink() {
+            throw new AssertionError();
+        }
+
+        @Override
+        final List<String> keys() {
+            return keys(0, size);
+        }
+
+        @Override
+        final List<String> keys(long from, long to) {
+            assert from <= to;
+            int fromIndex = (int) Math.min(from, size);
+            int toIndex = (int) Math.min(to, size);
+            ArrayList<String> keys = new ArrayList<>(toIndex - fromIndex);
+            for (int i = fromIndex; i < toIndex; ++i) {
+                keys.add(Integer.toString(i));
+            }
+            return keys;
+        }
+
+        @Override
+        final long[] indices() {
+            return indices(0, size);
+        }
+
+        @Override
+        final long[] indices(long from, long to) {
+            if (from >= size || from >= to) {
+                return new long[0];
+            }
+            int fromIndex = (int) from;
+            int toIndex = (int) Math.min(to, size);
+            long[] indices = new long[toIndex - fromIndex];
+            for (int i = fromIndex, j = 0; i < toIndex; ++i) {
+                indices[j++] = i;
+            }
+            return indices;
+        }
+
+        @Override
+        final Iterator<Map.Entry<Long, VALUE>> iterator() {
+            throw new AssertionError();
+        }
+
+        @Override
+        final Iterator<Long> keysIterator() {
+            throw new AssertionError();
+        }
+
+        @Override
+        final Iterator<VALUE> valuesIterator() {
+            throw new AssertionError();
+        }
+
+        @Override
+        final Iterator<Map.Entry<Long, VALUE>> ascendingIterator(long from, long to) {
+            throw new AssertionError();
+        }
+
+        @Override
+        final Iterator<Map.Entry<Long, VALUE>> descendingIterator(long from, long to) {
+            throw new AssertionError();
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s=[0, %d)", getClass().getSimpleName(), size);
+        }
+    }
+
+    private static final class IntElements<VALUE> extends PackedElements<VALUE> {
+        private int[] array;
+
+        IntElements(int capacity) {
+            super(0);
+            this.array = new int[capacity];
+        }
+
+        @Override
+        int capacity() {
+            return array.length;
+        }
+
+        @Override
+        Object getElement(int index) {
+            assert index < size;
+            return array[index];
+        }
+
+        @Override
+        PackedElements<VALUE> set(int index, Object value) {
+            assert index < size;
+            if (value instanceof Integer) {
+                array[index] = (Integer) value;
+                return this;
+            }
+            return generalize(value).set(index, value);
+        }
+
+        @Override
+        PackedElements<VALUE> add(Object value) {
+            if (value instanceof Integer) {
+                if (size == array.length) {
+                    array = Arrays.copyOf(array, nextCapacity(size));
+                }
+                array[size++] = (Integer) value;
+                return this;
+            }
+            return generalize(value).add(value);
+        }
+
+        private PackedElements<VALUE> generalize(Object value) {
+            int[] array = this.array;
+            int size = this.size;
+            if (value instanceof Double) {
+                DoubleElements<VALUE> elements = new DoubleElements<>(nextCapacity(size));
+                for (int i = 0; i < size; ++i) {
+                    elements.array[i] = array[i];
+                }
+                elements.size = size;
+                return elements;
+            }
+            ObjectElements<VALUE> elements = new ObjectElements<>(nextCapacity(size));
+            for (int i = 0; i < size; ++i) {
+                elements.array[i] = array[i];
+            }
+            elements.size = size;
+            return elements;
+        }
+    }
+
+    private static final class DoubleElements<VALUE> extends PackedElements<VALUE> {
+        private double[] array;
+
+        DoubleElements(int capacity) {
+            super(0);
+            this.array = new double[capacity];
+        }
+
+        private static boolean isNumber(Object value) {
+            return value instanceof Double || value instanceof Integer;
+        }
+
+        @Override
+        int capacity() {
+            return array.length;
+        }
+
+        @Override
+        Object getElement(int index) {
+            assert index < size;
+            double value = array[index];
+            // Return int32 values as Integer, consistent with the values stored in IntElements.
+            int intValue = (int) value;
+            if (intValue == value && (intValue != 0 || Double.doubleToRawLongBits(value) == 0L)) {
+                return Integers.valueOf(intValue);
+            }
+            return value;
+        }
+
+        @Override
+        PackedElements<VALUE> set(int index, Object value) {
+            assert index < size;
+            if (isNumber(value)) {
+                array[index] = ((Number) value).doubleValue();
+                return this;
+            }
+            return generalize().set(index, value);
+        }
+
+        @Override
+        PackedElements<VALUE> add(Object value) {
+            if (isNumber(value)) {
+                if (size == array.length) {
+                    array = Arrays.copyOf(array, nextCapacity(size));
+                }
+                array[size++] = ((Number) value).doubleValue();
+                return this;
+            }
+            return generalize().add(value);
+        }
+
+        private PackedElements<VALUE> generalize() {
+            double[] array = this.array;
+            int size = this.size;
+            ObjectElements<VALUE> elements = new ObjectElements<>(nextCapacity(size));
+            for (int i = 0; i < size; ++i) {
+                elements.array[i] = array[i];
+            }
+            elements.size = size;
+            return elements;
+        }
+    }
+
+    private static final class ObjectElements<VALUE> extends PackedElements<VALUE> {
+        private Object[] array;
+
+        ObjectElements(int capacity) {
+            super(0);
+            this.array = new Object[capacity];
+        }
+
+        @Override
+        int capacity() {
+            return array.length;
+        }
+
+        @Override
+        Object getElement(int index) {
+            assert index < size;
+            return array[index];
+        }
+
+        @Override
+        PackedElements<VALUE> set(int index, Object value) {
+            assert index < size;
+            array[index] = value;
+            return this;
+        }
+
+        @Override
+        PackedElements<VALUE> add(Object value) {
+            if (size == array.length) {
+                array = Arrays.copyOf(array, nextCapacity(size));
+            }
+            array[size++] = value;
+            return this;
+        }
+
+        @Override
+        void truncate(int newSize) {
+            // Clear references to allow garbage collection.
+            Arrays.fill(array, newSize, size, null);
+            super.truncate(newSize);
+        }
+    }
+
     private static abstract class DenseIterator<V, T> implements Iterator<T> {
         private final V[] values;
         private final int endIndex;
@@ -929,7 +1360,9 @@ public final class IndexedMap<VALUE> {
     }
 
     /**
-     * Returns the mapped value or {@code null} if not found.
+     * Returns the mapped value or {@code null} if not found. If the value is stored in packed
+     * elements, a new map value is created from the packed element value and the map stays
+     * packed. Modifications of such values need to be written back with {@link #put(long, Object)}.
      * 
      * @param propertyKey
      *            the property key
@@ -938,11 +1371,90 @@ public final class IndexedMap<VALUE> {
     public VALUE get(long propertyKey) {
         assert isIndex(propertyKey) : "invalid index: " + propertyKey;
         if (0 <= propertyKey && propertyKey < length) {
+            Elements<VALUE> elements = this.elements;
+            if (elements instanceof PackedElements) {
+                return packing.unpack(((PackedElements<VALUE>) elements)
+                        .getElement((int) propertyKey));
+            }
             return elements.get(propertyKey);
         }
         return null;
     }
 
+    /**
+     * Returns {@code true} if the map uses the packed elements representation.
+     * 
+     * @return {@code true} if the map is packed
+     */
+    public boolean isPacked() {
+        return elements instanceof PackedElements;
+    }
+
+    /**
+     * Returns the packed element value or {@code null} if not found or if the map does not use the
+     * packed elements representation.
+     * 
+     * @param propertyKey
+     *            the property key
+     * @return the packed element value or {@code null}
+     */
+    public Object getPacked(long propertyKey) {
+        assert isIndex(propertyKey) : "invalid index: " + propertyKey;
+        Elements<VALUE> elements = this.elements;
+        if (elements instanceof PackedElements && propertyKey < length) {
+            return ((PackedElements<VALUE>) elements).getElement((int) propertyKey);
+        }
+        return null;
+    }
+
+    /**
+     * Sets the packed element value of an existing entry. Returns {@code false} if the map does
+     * not use the packed elements representation or if the entry is not present.
+     * 
+     * @param propertyKey
+     *            the property key
+     * @param value
+     *            the new packed element value
+     * @return {@code true} on success
+     */
+    public boolean setPacked(long propertyKey, Object value) {
+        assert isIndex(propertyKey) : "invalid index: " + propertyKey;
+        Elements<VALUE> elements = this.elements;
+        if (elements instanceof PackedElements && propertyKey < length) {
+            this.elements = ((PackedElements<VALUE>) elements).set((int) propertyKey, value);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Removes all entries starting at {@code newLength}. Returns {@code false} if the map does not
+     * use the packed elements representation.
+     * 
+     * @param newLength
+     *            the new length
+     * @return {@code true} on success
+     */
+    public boolean truncatePacked(long newLength) {
+        Elements<VALUE> elements = this.elements;
+        if (elements instanceof PackedElements) {
+            if (newLength < length) {
+                ((PackedElements<VALUE>) elements).truncate((int) newLength);
+                length = newLength;
+            }
+            return true;
+        }
+        return false;
+    }
+
+    private Elements<VALUE> unpacked() {
+        Elements<VALUE> elements = this.elements;
+        if (elements instanceof PackedElements) {
+            this.elements = elements = ((PackedElements<VALUE>) elements).unpack(packing);
+        }
+        return elements;
+    }
+
     /**
      * Sets the property key to the new value.
      * 
@@ -953,6 +1465,10 @@ public final class IndexedMap<VALUE> {
      */
     public void put(long propertyKey, VALUE value) {
         assert isIndex(propertyKey) : "invalid index: " + propertyKey;
+        assert this != EMPTY_MAP : "shared empty map";
+        if (packing != null && packedPut(propertyKey, value)) {
+            return;
+        }
         if (propertyKey <= MAX_DENSE_LENGTH) {
             smallPut((int) propertyKey, value);
         } else {
@@ -960,6 +1476,39 @@ public final class IndexedMap<VALUE> {
         }
     }
 
+    private boolean packedPut(long propertyKey, VALUE value) {
+        Elements<VALUE> elements = this.elements;
+        if (elements == EMPTY_ELEMENTS) {
+            // Only start with packed elements when no holes are present.
+            Object packed;
+            if (propertyKey == 0 && length == 0 && (packed = packing.pack(value)) != null) {
+                this.elements = PackedElements.create(packed);
+                this.length = 1;
+                return true;
+            }
+            return false;
+        }
+        if (!(elements instanceof PackedElements)) {
+            return false;
+        }
+        PackedElements<VALUE> packedElements = (PackedElements<VALUE>) elements;
+        Object packed = packing.pack(value);
+        if (packed != null) {
+            if (propertyKey < length) {
+                this.elements = packedElements.set((int) propertyKey, packed);
+                return true;
+            }
+            if (propertyKey == length && propertyKey <= MAX_DENSE_LENGTH) {
+                this.elements = packedElements.add(packed);
+                this.length = propertyKey + 1;
+                return true;
+            }
+        }
+        // Hole or non-packable value, switch to generic representation.
+        this.elements = packedElements.unpack(packing);
+        return false;
+    }
+
     private static <VALUE> Elements<VALUE> createElements(int propertyKey) {
         if (propertyKey < MIN_SPARSE_LENGTH) {
             return new DenseElements<VALUE>(propertyKey);
@@ -1011,11 +1560,28 @@ public final class IndexedMap<VALUE> {
     public void remove(long propertyKey) {
         assert isIndex(propertyKey) : "invalid index: " + propertyKey;
         if (0 <= propertyKey && propertyKey < length) {
+            if (packedRemove(propertyKey)) {
+                return;
+            }
             elements.delete(propertyKey);
             updateLength();
         }
     }
 
+    private boolean packedRemove(long propertyKey) {
+        Elements<VALUE> elements = this.elements;
+        if (elements instanceof PackedElements) {
+            if (propertyKey + 1 == length) {
+                // Removing the last element doesn't create a hole.
+                ((PackedElements<VALUE>) elements).truncate((int) propertyKey);
+                length = propertyKey;
+                return true;
+            }
+            this.elements = ((PackedElements<VALUE>) elements).unpack(packing);
+        }
+        return false;
+    }
+
     /**
      * Deletes the property key. Does not perform any representation clean-up.
      * 
@@ -1026,6 +1592,9 @@ public final class IndexedMap<VALUE> {
     public void removeUnchecked(long propertyKey) {
         assert isIndex(propertyKey) : "invalid index: " + propertyKey;
         if (0 <= propertyKey && propertyKey < length) {
+            if (packedRemove(propertyKey)) {
+                return;
+            }
             elements.delete(propertyKey);
         }
     }
@@ -1034,8 +1603,12 @@ public final class IndexedMap<VALUE> {
      * Updates the length and adjusts the internal representation.
      */
     public void updateLength() {
-        // Switch to sparse representation?
         Elements<VALUE> elements = this.elements;
+        if (elements instanceof PackedElements) {
+            // Packed elements are always up-to-date.
+            return;
+        }
+        // Switch to sparse representation?
         int count = elements.count(), capacity = elements.capacity();
         if (capacity > MIN_SPARSE_LENGTH && count * SPARSE_DENSE_RATIO < capacity) {
             this.elements = elements = elements.toSparseOrShrink();
@@ -1138,7 +1711,7 @@ public final class IndexedMap<VALUE> {
      * @return the range iterator
      */
     public Iterator<Map.Entry<Long, VALUE>> iterator() {
-        return elements.iterator();
+        return unpacked().iterator();
     }
 
     /**
@@ -1147,7 +1720,7 @@ public final class IndexedMap<VALUE> {
      * @return the range iterator
      */
     public Iterator<Long> keysIterator() {
-        return elements.keysIterator();
+        return unpacked().keysIterator();
     }
 
     /**
@@ -1156,7 +1729,7 @@ public final class IndexedMap<VALUE> {
      * @return the range iterator
      */
     public Iterator<VALUE> valuesIterator() {
-        return elements.valuesIterator();
+        return unpacked().valuesIterator();
     }
 
     /**
@@ -1172,7 +1745,7 @@ public final class IndexedMap<VALUE> {
         if (from < 0 || to < 0 || from > to) {
             throw new IndexOutOfBoundsException();
         }
-        return elements.ascendingIterator(from, to);
+        return unpacked().ascendingIterator(from, to);
     }
 
     /**
@@ -1188,7 +1761,7 @@ public final class IndexedMap<VALUE> {
         if (from < 0 || to < 0 || from > to) {
             throw new IndexOutOfBoundsException();
         }
-        return elements.descendingIterator(from, to);
+        return unpacked().descendingIterator(from, to);
     }
 
     @Override
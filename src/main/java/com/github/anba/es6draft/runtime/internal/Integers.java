@@ -0,0 +1,43 @@
+/**
+ * Copyright (c) 2012-2015 André Bargull
+ * Alle Rechte vorbehalten / All Rights Reserved.  Use is subject to license terms.
+ *
+ * <https://github.com/anba/es6draft>
+ */
+package com.github.anba.es6draft.runtime.internal;
+
+/**
+ * Operations on boxed integers
+ */
+public final class Integers {
+    private Integers() {
+    }
+
+    private static final int CACHE_LOW = Short.MIN_VALUE;
+    private static final int CACHE_HIGH = 0xffff;
+    private static final Integer[] CACHE = new Integer[CACHE_HIGH - CACHE_LOW + 1];
+
+    /**
+     * Returns the boxed integer for {@code value}.
+     * <p>
+     * Unlike {@link Integer#valueOf(int)}, boxed values are cached for the complete range of 8- and
+     * 16-bit integers, both signed and unsigned. Cache entries are created on first use; concurrent
+     * callers may create distinct boxes for the same value, which is harmless because boxed
+     * integers are immutable.
+     *
+     * @param value
+     *            the integer value
+     * @return the boxed integer
+     */
+    public static Integer valueOf(int value) {
+        if (CACHE_LOW <= value && value <= CACHE_HIGH) {
+            int index = value - CACHE_LOW;
+            Integer boxed = CACHE[index];
+            if (boxed == null) {
+                CACHE[index] = boxed = new Integer(value);
+            }
+            return boxed;
+        }
+        return Integer.valueOf(value);
+    }
+}
@@ -0,0 +1,171 @@
+/**
+ * Copyright (c) 2012-2015 André Bargull
+ * Alle Rechte vorbehalten / All Rights Reserved.  Use is subject to license terms.
+ *
+ * <https://github.com/anba/es6draft>
+ */
+package com.github.anba.es6draft.runtime.internal;
+
+import com.github.anba.es6draft.interpreter.InterpretedFunction;
+import com.github.anba.es6draft.runtime.ExecutionContext;
+
+/**
+ * Script frames of interpreted functions.
+ * <p>
+ * Interpreted functions don't have a generated class in the Java stack trace, so their frames are
+ * recorded in the {@link ScriptException} and substituted for the interpreter's Java frames when
+ * the stack trace is requested. Frames are recorded when an error object is created in an
+ * interpreted function and when an exception propagates out of an interpreted function.
+ */
+public final class InterpreterFrames {
+    private static final String FRAME_CLASS_NAME = "#Interpreter";
+    private static final String INTERPRETER_CLASS_NAME = InterpretedFunction.class.getName();
+    private static final String INTERPRETER_METHOD_NAME = "evaluate";
+
+    private InterpreterFrames() {
+    }
+
+    /**
+     * A single interpreter frame. The frame is stored in the execution context of the interpreted
+     * function.
+     */
+    public static final class Frame {
+        private final String methodName;
+        private final String fileName;
+        private final Frame caller;
+        private int lineNumber;
+        private int backEdges;
+
+        /**
+         * Creates a new frame for an interpreted function call.
+         * 
+         * @param methodName
+         *            the method name in bytecode format, see {@link StackTraces#getMethodName}
+         * @param fileName
+         *            the source file name
+         * @param lineNumber
+         *            the initial line number
+         * @param callerContext
+         *            the caller execution context or {@code null}
+         */
+        public Frame(String methodName, String fileName, int lineNumber,
+                ExecutionContext callerContext) {
+            this.methodName = methodName;
+            this.fileName = fileName;
+            this.lineNumber = lineNumber;
+            this.caller = callerContext != null ? callerContext.getInterpreterFrame() : null;
+        }
+
+        /**
+         * Updates the current line number of this frame.
+         *
+         * @param lineNumber
+         *            the line number
+         */
+        public void setLineNumber(int lineNumber) {
+            this.lineNumber = lineNumber;
+        }
+
+        /**
+         * Increments the number of loop back-edges taken in this frame.
+         * 
+         * @return the new number of loop back-edges
+         */
+        public int incrementBackEdges() {
+            return ++backEdges;
+        }
+    }
+
+    /**
+     * Recorded frame with the line number at the time of recording.
+     */
+    static final class FrameRecord {
+        final Frame frame;
+        final StackTraceElement element;
+        final FrameRecord next;
+
+        FrameRecord(Frame frame, FrameRecord next) {
+            this.frame = frame;
+            this.element = new StackTraceElement(FRAME_CLASS_NAME, frame.methodName,
+                    frame.fileName, frame.lineNumber);
+            this.next = next;
+        }
+    }
+
+    /**
+     * Records the interpreter frames of the execution context <var>cx</var> and its interpreted
+     * callers in the exception.
+     * 
+     * @param cx
+     *            the execution context
+     * @param exception
+     *            the script exception
+     */
+    public static void capture(ExecutionContext cx, ScriptException exception) {
+        for (Frame frame = cx.getInterpreterFrame(); frame != null; frame = frame.caller) {
+            exception.addInterpreterFrame(frame);
+        }
+    }
+
+    /**
+     * Records the interpreter frame in an exception which propagates out of the interpreted
+     * function.
+     * 
+     * @param frame
+     *            the interpreter frame
+     * @param exception
+     *            the script exception
+     */
+    public static void unwind(Frame frame, ScriptException exception) {
+        exception.addInterpreterFrame(frame);
+    }
+
+    /**
+     * Returns {@code true} if <var>records</var> already contains <var>frame</var>.
+     * 
+     * @param records
+     *            the recorded frames, most recently recorded first
+     * @param frame
+     *            the interpreter frame
+     * @return {@code true} if the frame was already recorded
+     */
+    static boolean contains(FrameRecord records, Frame frame) {
+        for (FrameRecord record = records; record != null; record = record.next) {
+            if (record.frame == frame) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Replaces the Java frames of interpreted function calls in <var>stackTrace</var> with the
+     * recorded script frames.
+     * 
+     * @param stackTrace
+     *            the stack trace
+     * @param records
+     *            the recorded frames, most recently recorded first
+     * @return the updated stack trace
+     */
+    static StackTraceElement[] replaceFrames(StackTraceElement[] stackTrace,
+            FrameRecord records) {
+        // Frames are recorded innermost first, the records list is in reverse order.
+        int count = 0;
+        for (FrameRecord record = records; record != null; record = record.next) {
+            count += 1;
+        }
+        StackTraceElement[] elements = new StackTraceElement[count];
+        for (FrameRecord record = records; record != null; record = record.next) {
+            elements[--count] = record.element;
+        }
+        for (int i = 0, j = 0; i < stackTrace.length && j < elements.length; ++i) {
+            StackTraceElement element = stackTrace[i];
+            if (INTERPRETER_METHOD_NAME.equals(element.getMethodName())
+                    && INTERPRETER_CLASS_NAME.equals(element.getClassName())) {
+                stackTrace[i] = elements[j++];
+            }
+        }
+        return stackTrace;
+    }
+}
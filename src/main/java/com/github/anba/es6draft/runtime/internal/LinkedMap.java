@@ -14,7 +14,10 @@ import java.util.NoSuchElementException;
 
 /**
  * Simple double-linked map implementation without fail-fast iterator.
+ * 
+ * @deprecated No longer used, replaced by {@link OrderedHashMap}
  */
+@Deprecated
 public class LinkedMap<KEY, VALUE> implements Iterable<Map.Entry<KEY, VALUE>> {
     @SuppressWarnings("serial")
     private static final class Entry<KEY, VALUE> extends SimpleEntry<KEY, VALUE> {
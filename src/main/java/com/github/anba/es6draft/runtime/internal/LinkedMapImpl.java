@@ -11,7 +11,10 @@ import com.github.anba.es6draft.runtime.types.Type;
 /**
  * {@link LinkedMap} implementation with additional changes to {@link #hashKey(Object)} to properly
  * support runtime types.
+ * 
+ * @deprecated No longer used, replaced by {@link OrderedHashMap}
  */
+@Deprecated
 public final class LinkedMapImpl<VALUE> extends LinkedMap<Object, VALUE> {
     @Override
     protected Object hashKey(Object key) {
@@ -281,6 +281,7 @@ public final class Messages {
         OutOfMemory("binary.out_of_memory"),
         OutOfMemoryVM("binary.out_of_memory_vm"),
         BufferDetached("binary.buffer_detached"),
+        BufferImmutable("binary.buffer_immutable"),
         BufferInvalid("binary.buffer_invalid"),
         ArrayOffsetOutOfRange("binary.array_offset_out_of_range"),
         InvalidByteLength("binary.invalid_bytelength"),
@@ -0,0 +1,403 @@
+/**
+ * Copyright (c) 2012-2015 André Bargull
+ * Alle Rechte vorbehalten / All Rights Reserved.  Use is subject to license terms.
+ *
+ * <https://github.com/anba/es6draft>
+ */
+package com.github.anba.es6draft.runtime.internal;
+
+import java.lang.ref.WeakReference;
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+import com.github.anba.es6draft.runtime.types.Type;
+
+/**
+ * Insertion-ordered open-addressing hash map for runtime values.
+ * <p>
+ * Keys are compared using SameValueZero semantics: number keys are compared unboxed, strings are
+ * compared by value, all other keys by identity. Iterators are not fail-fast, entries added during
+ * iteration are visited and entries deleted before they were reached are skipped.
+ */
+public final class OrderedHashMap<VALUE> implements Iterable<Map.Entry<Object, VALUE>> {
+    private static final int INITIAL_CAPACITY = 8;
+
+    /** Marker for number key lookups, number keys are compared using {@link #numberKeys}. */
+    private static final Object NUMBER_KEY = new Object();
+
+    /** Marker for deleted entries. */
+    private static final Object DELETED = new Object();
+
+    // Entries in insertion order, deleted entries are kept until the next compaction.
+    private Object[] keys;
+    private double[] numberKeys;
+    private Object[] values;
+    private int[] hashes;
+    // Hash index with linear probing, stores entry position + 1 or 0 for free slots.
+    private int[] index;
+    private int used;
+    private int size;
+    // Entry positions change when the map is compacted or cleared, live iterators are adjusted to
+    // the new positions. Iterators are weakly referenced to release iterators which are no longer
+    // used, cleared references are removed when the list is updated.
+    private ArrayList<WeakReference<EntryIterator>> iterators;
+    private int iteratorsLimit = INITIAL_CAPACITY;
+
+    /**
+     * Construct a new empty map.
+     */
+    public OrderedHashMap() {
+        allocate(INITIAL_CAPACITY);
+    }
+
+    private void allocate(int capacity) {
+        keys = new Object[capacity];
+        numberKeys = new double[capacity];
+        values = new Object[capacity];
+        hashes = new int[capacity];
+        index = new int[capacity << 1];
+    }
+
+    private static int hash(int h) {
+        h *= 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private static double numberKey(double v) {
+        // Map +/-0 to +0 to enforce SameValueZero comparison semantics
+        return v == 0 ? +0d : v;
+    }
+
+    private static Object numberKeyObject(Object key, double number) {
+        // Store integral keys as Integer, this also maps -0 to +0
+        if (!(key instanceof Integer)) {
+            int i = (int) number;
+            if (i == number) {
+                return Integer.valueOf(i);
+            }
+        }
+        return key;
+    }
+
+    private static int numberHash(double v) {
+        int i = (int) v;
+        if (i == v) {
+            return hash(i);
+        }
+        long bits = Double.doubleToLongBits(v);
+        return hash((int) (bits ^ (bits >>> 32)));
+    }
+
+    private static Object hashKey(Object key) {
+        if (Type.isString(key)) {
+            // String/ConsString -> String
+            return Type.stringValue(key).toString();
+        }
+        return key;
+    }
+
+    private static int hashCode(Object key) {
+        if (key instanceof String || key instanceof Boolean) {
+            return hash(key.hashCode());
+        }
+        return hash(System.identityHashCode(key));
+    }
+
+    private boolean matches(int position, Object key, double number) {
+        Object k = keys[position];
+        if (key == NUMBER_KEY) {
+            if (!(k instanceof Number)) {
+                return false;
+            }
+            double n = numberKeys[position];
+            return n == number || (n != n && number != number);
+        }
+        if (k == key) {
+            return true;
+        }
+        return (key instanceof String || key instanceof Boolean) && key.equals(k);
+    }
+
+    private int find(Object key, double number, int hash) {
+        int[] index = this.index;
+        int mask = index.length - 1;
+        for (int i = hash & mask;; i = (i + 1) & mask) {
+            int position = index[i] - 1;
+            if (position < 0) {
+                return -1;
+            }
+            if (hashes[position] == hash && matches(position, key, number)) {
+                return position;
+            }
+        }
+    }
+
+    private int find(Object key) {
+        if (Type.isNumber(key)) {
+            double number = numberKey(Type.numberValue(key));
+            return find(NUMBER_KEY, number, numberHash(number));
+        }
+        Object hashKey = hashKey(key);
+        return find(hashKey, 0, hashCode(hashKey));
+    }
+
+    private void insertIndex(int position, int hash) {
+        int[] index = this.index;
+        int mask = index.length - 1;
+        int i = hash & mask;
+        for (;; i = (i + 1) & mask) {
+            // Slots of deleted entries are reused.
+            int p = index[i] - 1;
+            if (p < 0 || keys[p] == DELETED) {
+                break;
+            }
+        }
+        index[i] = position + 1;
+    }
+
+    private void insert(Object key, double number, int hash, VALUE value) {
+        if (used == keys.length) {
+            int capacity = keys.length;
+            // Grow if more than half of the entries are live, otherwise only compact.
+            rehash(size >= (capacity >> 1) ? capacity << 1 : capacity);
+        }
+        int position = used++;
+        keys[position] = key;
+        numberKeys[position] = number;
+        values[position] = value;
+        hashes[position] = hash;
+        size += 1;
+        insertIndex(position, hash);
+    }
+
+    private void rehash(int capacity) {
+        Object[] oldKeys = keys;
+        double[] oldNumberKeys = numberKeys;
+        Object[] oldValues = values;
+        int[] oldHashes = hashes;
+        int oldUsed = used;
+        int[] removed = new int[oldUsed - size];
+        allocate(capacity);
+        for (int p = 0, q = 0, r = 0; p < oldUsed; ++p) {
+            if (oldKeys[p] == DELETED) {
+                removed[r++] = p;
+                continue;
+            }
+            keys[q] = oldKeys[p];
+            numberKeys[q] = oldNumberKeys[p];
+            values[q] = oldValues[p];
+            hashes[q] = oldHashes[p];
+            insertIndex(q, oldHashes[p]);
+            q += 1;
+        }
+        used = size;
+        if (removed.length > 0) {
+            updateIterators(removed);
+        }
+    }
+
+    /**
+     * Adjusts the positions of all live iterators.
+     * 
+     * @param removed
+     *            the sorted positions of the removed entries or {@code null} if the map was cleared
+     */
+    private void updateIterators(int[] removed) {
+        if (iterators == null) {
+            return;
+        }
+        int j = 0;
+        for (int i = 0, len = iterators.size(); i < len; ++i) {
+            WeakReference<EntryIterator> ref = iterators.get(i);
+            EntryIterator itr = ref.get();
+            if (itr == null) {
+                continue;
+            }
+            if (removed == null) {
+                itr.position = 0;
+            } else {
+                itr.position -= removedBefore(removed, itr.position);
+            }
+            iterators.set(j++, ref);
+        }
+        truncateIterators(j);
+    }
+
+    private void registerIterator(EntryIterator itr) {
+        if (iterators == null) {
+            iterators = new ArrayList<>();
+        } else if (iterators.size() >= iteratorsLimit) {
+            int j = 0;
+            for (int i = 0, len = iterators.size(); i < len; ++i) {
+                WeakReference<EntryIterator> ref = iterators.get(i);
+                if (ref.get() != null) {
+                    iterators.set(j++, ref);
+                }
+            }
+            truncateIterators(j);
+            iteratorsLimit = Math.max(INITIAL_CAPACITY, j << 1);
+        }
+        iterators.add(new WeakReference<>(itr));
+    }
+
+    private void truncateIterators(int newSize) {
+        iterators.subList(newSize, iterators.size()).clear();
+    }
+
+    private static int removedBefore(int[] removed, int position) {
+        int i = Arrays.binarySearch(removed, position);
+        return i >= 0 ? i : -(i + 1);
+    }
+
+    private Object key(int position) {
+        return keys[position];
+    }
+
+    @SuppressWarnings("unchecked")
+    private VALUE value(int position) {
+        return (VALUE) values[position];
+    }
+
+    /**
+     * Returns the number of mappings.
+     * 
+     * @return the number of mappings
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Removes all mappings.
+     */
+    public void clear() {
+        allocate(INITIAL_CAPACITY);
+        used = 0;
+        size = 0;
+        updateIterators(null);
+    }
+
+    /**
+     * Deletes the mapping for <var>key</var>.
+     * 
+     * @param key
+     *            the key
+     * @return {@code true} if <var>key</var> was mapped to a value
+     */
+    public boolean delete(Object key) {
+        int position = find(key);
+        if (position < 0) {
+            return false;
+        }
+        keys[position] = DELETED;
+        values[position] = null;
+        size -= 1;
+        int capacity = keys.length;
+        if (capacity > INITIAL_CAPACITY && size < (capacity >> 2)) {
+            rehash(capacity >> 1);
+        }
+        return true;
+    }
+
+    /**
+     * Returns the mapped value for <var>key</var> or {@code null} if no mapping was found.
+     * 
+     * @param key
+     *            the key
+     * @return the mapped value or {@code null}
+     */
+    public VALUE get(Object key) {
+        int position = find(key);
+        return position >= 0 ? value(position) : null;
+    }
+
+    /**
+     * Returns {@code true} if a mapping for <var>key</var> is present.
+     * 
+     * @param key
+     *            the key
+     * @return {@code true} if <var>key</var> is mapped to a value
+     */
+    public boolean has(Object key) {
+        return find(key) >= 0;
+    }
+
+    /**
+     * Inserts or updates the mapping <var>key</var> &rarr; <var>value</var>.
+     * 
+     * @param key
+     *            the key
+     * @param value
+     *            the mapped value
+     */
+    public void set(Object key, VALUE value) {
+        Object hashKey;
+        double number;
+        int hash;
+        if (Type.isNumber(key)) {
+            hashKey = NUMBER_KEY;
+            number = numberKey(Type.numberValue(key));
+            hash = numberHash(number);
+        } else {
+            hashKey = hashKey(key);
+            number = 0;
+            hash = hashCode(hashKey);
+        }
+        int position = find(hashKey, number, hash);
+        if (position >= 0) {
+            values[position] = value;
+        } else if (hashKey == NUMBER_KEY) {
+            insert(numberKeyObject(key, number), number, hash, value);
+        } else {
+            insert(hashKey, number, hash, value);
+        }
+    }
+
+    /**
+     * Returns a new {@link Iterator} over this map.
+     * 
+     * @return an iterator over this map
+     */
+    @Override
+    public Iterator<Map.Entry<Object, VALUE>> iterator() {
+        EntryIterator itr = new EntryIterator();
+        registerIterator(itr);
+        return itr;
+    }
+
+    private final class EntryIterator implements Iterator<Map.Entry<Object, VALUE>> {
+        private int position = 0;
+
+        private int find() {
+            int p = position;
+            while (p < used && keys[p] == DELETED) {
+                p += 1;
+            }
+            return position = p;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return find() < used;
+        }
+
+        @Override
+        public Map.Entry<Object, VALUE> next() {
+            int p = find();
+            if (p >= used) {
+                throw new NoSuchElementException();
+            }
+            position = p + 1;
+            return new SimpleImmutableEntry<>(key(p), value(p));
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
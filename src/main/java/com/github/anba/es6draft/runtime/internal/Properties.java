@@ -1559,6 +1559,7 @@ public final class Properties {
             assert (layout.type == Accessor.Type.Getter ? accessorProperty.getGetter()
                     : accessorProperty.getSetter()) == null;
             accessorProperty.apply(accessorPropertyDescriptor(layout, fun));
+            replaceProperty(target, layout, accessorProperty);
         }
     }
 
@@ -1621,6 +1622,15 @@ public final class Properties {
         }
     }
 
+    private static void replaceProperty(OrdinaryObject target, PropertyLayout layout,
+            Property property) {
+        if (layout.symbol == null) {
+            target.infallibleReplaceOwnProperty(layout.name, property);
+        } else {
+            target.infallibleReplaceOwnProperty(layout.symbol, property);
+        }
+    }
+
     private static Property lookupOwnProperty(OrdinaryObject target, PropertyLayout layout) {
         if (layout.symbol == null) {
             return target.lookupOwnProperty(layout.name);
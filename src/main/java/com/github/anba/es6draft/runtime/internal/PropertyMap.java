@@ -6,14 +6,333 @@
  */
 package com.github.anba.es6draft.runtime.internal;
 
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.LinkedHashMap;
 
 /**
- *
+ * Insertion ordered property storage.
+ * <p>
+ * The map starts in shape mode: the property keys and attributes are stored in a shared
+ * {@link Shape} and the values are stored in a flat slot array. Maps created with a {@link Packing}
+ * split their values into attributes and slot values, maps without a packing store the values
+ * as-is. The map switches to dictionary mode (backed by a {@link LinkedHashMap}) when a property
+ * other than the last added property is removed or when the shape limits are exceeded.
  */
-@SuppressWarnings("serial")
-public final class PropertyMap<KEY, VALUE> extends LinkedHashMap<KEY, VALUE> {
-    public PropertyMap(int initialCapacity) {
-        super(initialCapacity);
+public final class PropertyMap<KEY, VALUE> {
+    private static final int INITIAL_SLOTS = 4;
+    private static final Object[] EMPTY_SLOTS = new Object[0];
+    private static final PropertyMap<?, ?> EMPTY_MAP = new PropertyMap<>();
+
+    /**
+     * Conversion between map values and the attributes and slot values used in shape mode.
+     *
+     * @param <VALUE>
+     *            the value type
+     */
+    public interface Packing<VALUE> {
+        /**
+         * Returns the attributes of {@code value}, in the range {@code [0, }
+         * {@link Shape#MAX_ATTRIBUTES}{@code ]}.
+         *
+         * @param value
+         *            the map value
+         * @return the attributes stored in the shape
+         */
+        int attributes(VALUE value);
+
+        /**
+         * Returns the slot value of {@code value}.
+         *
+         * @param value
+         *            the map value
+         * @return the slot value
+         */
+        Object pack(VALUE value);
+
+        /**
+         * Returns a new map value for the attributes and slot value.
+         *
+         * @param attributes
+         *            the attributes stored in the shape
+         * @param value
+         *            the slot value
+         * @return the map value
+         */
+        VALUE unpack(int attributes, Object value);
+    }
+
+    private final Packing<VALUE> packing;
+
+    // Shape mode, shape is null in dictionary mode
+    private Shape shape = Shape.EMPTY;
+    private Object[] slots = EMPTY_SLOTS;
+
+    // Dictionary mode
+    private LinkedHashMap<KEY, VALUE> dictionary;
+
+    /**
+     * Constructs a new, empty property map.
+     */
+    public PropertyMap() {
+        this.packing = null;
+    }
+
+    /**
+     * Constructs a new, empty property map which splits its values using {@code packing}.
+     *
+     * @param packing
+     *            the packing conversion
+     */
+    public PropertyMap(Packing<VALUE> packing) {
+        this.packing = packing;
+    }
+
+    /**
+     * Returns the shared empty property map. The returned map must not be modified.
+     *
+     * @param <KEY>
+     *            the key type
+     * @param <VALUE>
+     *            the value type
+     * @return the shared empty property map
+     */
+    @SuppressWarnings("unchecked")
+    public static <KEY, VALUE> PropertyMap<KEY, VALUE> emptyMap() {
+        return (PropertyMap<KEY, VALUE>) EMPTY_MAP;
+    }
+
+    @Override
+    public String toString() {
+        return keys().toString();
+    }
+
+    /**
+     * Returns the current shape or {@code null} if this map is in dictionary mode.
+     *
+     * @return the shape or {@code null}
+     */
+    public Shape getShape() {
+        return shape;
+    }
+
+    /**
+     * Returns the value stored in the given slot. Only applicable in shape mode.
+     *
+     * @param slot
+     *            the slot index
+     * @return the slot value
+     */
+    public Object getSlotValue(int slot) {
+        assert shape != null && slot < shape.size();
+        return slots[slot];
+    }
+
+    /**
+     * Replaces the value stored in the given slot. Only applicable in shape mode.
+     *
+     * @param slot
+     *            the slot index
+     * @param value
+     *            the new slot value
+     */
+    public void setSlotValue(int slot, Object value) {
+        assert shape != null && slot < shape.size();
+        slots[slot] = value;
+    }
+
+    /**
+     * Returns the number of entries.
+     *
+     * @return the number of entries
+     */
+    public int size() {
+        Shape shape = this.shape;
+        if (shape != null) {
+            return shape.size();
+        }
+        return dictionary.size();
+    }
+
+    /**
+     * Returns {@code true} if this map has no entries.
+     *
+     * @return {@code true} if the map is empty
+     */
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * Returns the value for {@code key}. Values of maps with a packing are created on each call,
+     * modifications need to be stored with {@link #put(Object, Object)} or
+     * {@link #replace(Object, Object)}.
+     *
+     * @param key
+     *            the key
+     * @return the value or {@code null} if not present
+     */
+    public VALUE get(KEY key) {
+        Shape shape = this.shape;
+        if (shape != null) {
+            int slot = shape.indexOf(key);
+            return slot >= 0 ? unpack(shape, slot) : null;
+        }
+        return dictionary.get(key);
+    }
+
+    /**
+     * Returns {@code true} if an entry for {@code key} is present.
+     *
+     * @param key
+     *            the key
+     * @return {@code true} if the key is present
+     */
+    public boolean containsKey(KEY key) {
+        Shape shape = this.shape;
+        if (shape != null) {
+            return shape.indexOf(key) >= 0;
+        }
+        return dictionary.containsKey(key);
+    }
+
+    /**
+     * Adds or replaces the value for {@code key}. Replacing an existing entry does not change the
+     * insertion order.
+     *
+     * @param key
+     *            the key
+     * @param value
+     *            the new value
+     * @return the previous value or {@code null} if not present
+     */
+    public VALUE put(KEY key, VALUE value) {
+        assert this != EMPTY_MAP : "shared empty map";
+        Shape shape = this.shape;
+        if (shape != null) {
+            int slot = shape.indexOf(key);
+            if (slot >= 0) {
+                VALUE previous = unpack(shape, slot);
+                store(shape, slot, value);
+                return previous;
+            }
+            Shape successor = shape.addKey(key, attributes(value));
+            if (successor != null) {
+                int newSlot = shape.size();
+                if (newSlot == slots.length) {
+                    slots = Arrays.copyOf(slots, Math.max(INITIAL_SLOTS, newSlot << 1));
+                }
+                slots[newSlot] = pack(value);
+                this.shape = successor;
+                return null;
+            }
+            toDictionary();
+        }
+        return dictionary.put(key, value);
+    }
+
+    /**
+     * Replaces the value for {@code key} if an entry for {@code key} is present.
+     *
+     * @param key
+     *            the key
+     * @param value
+     *            the new value
+     * @return {@code true} if the value was replaced
+     */
+    public boolean replace(KEY key, VALUE value) {
+        Shape shape = this.shape;
+        if (shape != null) {
+            int slot = shape.indexOf(key);
+            if (slot < 0) {
+                return false;
+            }
+            store(shape, slot, value);
+            return true;
+        }
+        if (!dictionary.containsKey(key)) {
+            return false;
+        }
+        dictionary.put(key, value);
+        return true;
+    }
+
+    /**
+     * Removes the entry for {@code key}.
+     *
+     * @param key
+     *            the key
+     * @return the removed value or {@code null} if not present
+     */
+    public VALUE remove(KEY key) {
+        Shape shape = this.shape;
+        if (shape != null) {
+            int slot = shape.indexOf(key);
+            if (slot < 0) {
+                return null;
+            }
+            VALUE previous = unpack(shape, slot);
+            if (slot == shape.size() - 1) {
+                // Removing the last added key restores the parent shape.
+                slots[slot] = null;
+                this.shape = shape.getParent();
+                return previous;
+            }
+            toDictionary();
+        }
+        return dictionary.remove(key);
+    }
+
+    /**
+     * Returns the keys in insertion order.
+     *
+     * @return the keys
+     */
+    @SuppressWarnings("unchecked")
+    public Collection<KEY> keys() {
+        Shape shape = this.shape;
+        if (shape != null) {
+            return (Collection<KEY>) shape.keys();
+        }
+        return dictionary.keySet();
+    }
+
+    private int attributes(VALUE value) {
+        return packing != null ? packing.attributes(value) : 0;
+    }
+
+    private Object pack(VALUE value) {
+        return packing != null ? packing.pack(value) : value;
+    }
+
+    @SuppressWarnings("unchecked")
+    private VALUE unpack(Shape shape, int slot) {
+        Object value = slots[slot];
+        if (packing == null) {
+            return (VALUE) value;
+        }
+        return packing.unpack(shape.getAttributes(slot), value);
+    }
+
+    private void store(Shape shape, int slot, VALUE value) {
+        int attributes = attributes(value);
+        if (attributes != shape.getAttributes(slot)) {
+            this.shape = shape.changeAttributes(slot, attributes);
+        }
+        slots[slot] = pack(value);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void toDictionary() {
+        Shape shape = this.shape;
+        int size = shape.size();
+        LinkedHashMap<KEY, VALUE> dictionary = new LinkedHashMap<>(Math.max(16,
+                (int) (size / 0.75f) + 1));
+        for (int i = 0; i < size; ++i) {
+            dictionary.put((KEY) shape.getKey(i), unpack(shape, i));
+        }
+        this.dictionary = dictionary;
+        this.shape = null;
+        this.slots = null;
     }
 }
@@ -431,6 +431,16 @@ public final class RuntimeInfo {
          */
         Eval(0x20000),
 
+        /**
+         * Flag for comparator functions of the form {@code (a, b) => a - b}.
+         */
+        AscendingComparator(0x40000),
+
+        /**
+         * Flag for comparator functions of the form {@code (a, b) => b - a}.
+         */
+        DescendingComparator(0x80000),
+
         ;
 
         private final int value;
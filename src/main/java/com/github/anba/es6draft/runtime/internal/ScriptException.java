@@ -19,6 +19,8 @@ import com.github.anba.es6draft.runtime.types.ScriptObject;
 @SuppressWarnings("serial")
 public final class ScriptException extends RuntimeException implements InternalThrowable {
     private final Object value;
+    private InterpreterFrames.FrameRecord interpreterFrames;
+    private boolean stackTraceResolved;
 
     /**
      * Create a new {@link ScriptException} instance.
@@ -58,6 +60,32 @@ public final class ScriptException extends RuntimeException implements InternalT
         return new ScriptException(value);
     }
 
+    /**
+     * Records an interpreter frame, see {@link InterpreterFrames}.
+     * 
+     * @param frame
+     *            the interpreter frame
+     */
+    synchronized void addInterpreterFrame(InterpreterFrames.Frame frame) {
+        if (!stackTraceResolved && !InterpreterFrames.contains(interpreterFrames, frame)) {
+            interpreterFrames = new InterpreterFrames.FrameRecord(frame, interpreterFrames);
+        }
+    }
+
+    @Override
+    public synchronized StackTraceElement[] getStackTrace() {
+        if (!stackTraceResolved) {
+            // Frames recorded after this point no longer belong to the captured Java stack.
+            stackTraceResolved = true;
+            if (interpreterFrames != null) {
+                super.setStackTrace(InterpreterFrames.replaceFrames(super.getStackTrace(),
+                        interpreterFrames));
+                interpreterFrames = null;
+            }
+        }
+        return super.getStackTrace();
+    }
+
     /**
      * Returns the wrapped value of this exception.
      * 
@@ -96,7 +124,7 @@ public final class ScriptException extends RuntimeException implements InternalT
      * @return the script stack trace elements
      */
     public StackTraceElement[] getScriptStackTrace() {
-        return StackTraces.scriptStackTrace(super.getStackTrace());
+        return StackTraces.scriptStackTrace(getStackTrace());
     }
 
     /**
@@ -105,7 +133,7 @@ public final class ScriptException extends RuntimeException implements InternalT
      * @return the native stack trace elements
      */
     public StackTraceElement[] getNativeStackTrace() {
-        return super.getStackTrace();
+        return getStackTrace();
     }
 
     @Override
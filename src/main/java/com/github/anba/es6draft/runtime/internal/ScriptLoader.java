@@ -18,6 +18,7 @@ import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.EnumSet;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
@@ -50,6 +51,7 @@ public final class ScriptLoader {
     private final EnumSet<CompatibilityOption> options;
     private final EnumSet<Parser.Option> parserOptions;
     private final EnumSet<Compiler.Option> compilerOptions;
+    private final CodeCache codeCache;
     private final AtomicInteger scriptCounter = new AtomicInteger(0);
     private final AtomicInteger moduleCounter = new AtomicInteger(0);
     private final AtomicInteger evalCounter = new AtomicInteger(0);
@@ -101,11 +103,18 @@ public final class ScriptLoader {
 
     public ScriptLoader(ExecutorService executor, Set<CompatibilityOption> options,
             Set<Parser.Option> parserOptions, Set<Compiler.Option> compilerOptions) {
+        this(executor, options, parserOptions, compilerOptions, null);
+    }
+
+    public ScriptLoader(ExecutorService executor, Set<CompatibilityOption> options,
+            Set<Parser.Option> parserOptions, Set<Compiler.Option> compilerOptions,
+            CodeCache codeCache) {
         this.shutdownExecutorOnFinalization = executor == null;
         this.executor = executor != null ? executor : createThreadPoolExecutor();
         this.options = EnumSet.copyOf(options);
         this.parserOptions = EnumSet.copyOf(parserOptions);
         this.compilerOptions = EnumSet.copyOf(compilerOptions);
+        this.codeCache = codeCache;
     }
 
     @Override
@@ -151,6 +160,15 @@ public final class ScriptLoader {
         return compilerOptions;
     }
 
+    /**
+     * Returns the persistent code cache or {@code null} if not available.
+     * 
+     * @return the code cache or {@code null}
+     */
+    public CodeCache getCodeCache() {
+        return codeCache;
+    }
+
     /**
      * Parses the javascript script source.
      * 
@@ -168,6 +186,34 @@ public final class ScriptLoader {
         return parser.parseScript(sourceCode);
     }
 
+    /**
+     * Parses the javascript script source for immediate compilation. Function bodies are only
+     * pre-parsed if the script is compiled lazily.
+     * 
+     * @param source
+     *            the script source descriptor
+     * @param sourceCode
+     *            the source code
+     * @return the parsed script node
+     * @throws ParserException
+     *             if the source contains any syntax errors
+     */
+    private com.github.anba.es6draft.ast.Script parseScriptForCompilation(Source source,
+            String sourceCode) throws ParserException {
+        Parser parser = new Parser(source, options, compilationParserOptions());
+        return parser.parseScript(sourceCode);
+    }
+
+    private EnumSet<Parser.Option> compilationParserOptions() {
+        EnumSet<Parser.Option> parserOptions = this.parserOptions;
+        if (compilerOptions.contains(Compiler.Option.LazyCompilation)
+                || compilerOptions.contains(Compiler.Option.TieredCompilation)) {
+            parserOptions = EnumSet.copyOf(parserOptions);
+            parserOptions.add(Parser.Option.PreParse);
+        }
+        return parserOptions;
+    }
+
     /**
      * Parses the javascript module source.
      * 
@@ -357,8 +403,117 @@ public final class ScriptLoader {
             throw new IllegalArgumentException(String.format("'%s' is not an absolute path", file));
         }
         // Don't interpret script files to get better stack trace information.
-        com.github.anba.es6draft.ast.Script parsedScript = parseScript(source, readFully(file));
-        return compile(parsedScript, nextScriptName());
+        return compileScript(source, readFully(file));
+    }
+
+    /**
+     * Parses and compiles the script source code. The persistent code cache is used if available.
+     * 
+     * @param source
+     *            the script source descriptor
+     * @param sourceCode
+     *            the source code
+     * @return the compiled script
+     * @throws ParserException
+     *             if the source contains any syntax errors
+     * @throws CompilationException
+     *             if the parsed source could not be compiled
+     */
+    public CompiledScript compileScript(Source source, String sourceCode) throws ParserException,
+            CompilationException {
+        return compileScript(source, sourceCode, nextScriptName());
+    }
+
+    /**
+     * Parses and compiles the script source code. The persistent code cache is used if available.
+     * The code cache is consulted before the source code is parsed.
+     * 
+     * @param source
+     *            the script source descriptor
+     * @param sourceCode
+     *            the source code
+     * @param className
+     *            the class name
+     * @return the compiled script
+     * @throws ParserException
+     *             if the source contains any syntax errors
+     * @throws CompilationException
+     *             if the parsed source could not be compiled
+     */
+    public CompiledScript compileScript(Source source, String sourceCode, String className)
+            throws ParserException, CompilationException {
+        String key = codeCacheKey(source, sourceCode);
+        CompiledScript script = cachedScript(key);
+        if (script == null) {
+            script = compile(parseScriptForCompilation(source, sourceCode), className, key);
+        }
+        return script;
+    }
+
+    /**
+     * Parses the script source code and returns an executable {@link Script} object. The script
+     * is interpreted if possible, otherwise it is compiled. Compiled scripts are taken from the
+     * persistent code cache if available, the code cache is consulted before the source code is
+     * parsed.
+     * 
+     * @param source
+     *            the script source descriptor
+     * @param sourceCode
+     *            the source code
+     * @param className
+     *            the class name
+     * @return the script object
+     * @throws ParserException
+     *             if the source contains any syntax errors
+     * @throws CompilationException
+     *             if the parsed source could not be compiled
+     */
+    public Script script(Source source, String sourceCode, String className)
+            throws ParserException, CompilationException {
+        // Only compiled scripts are stored in the code cache, so a cache hit implies the script
+        // would have been compiled anyway.
+        String key = codeCacheKey(source, sourceCode);
+        Script script = cachedScript(key);
+        if (script == null) {
+            com.github.anba.es6draft.ast.Script parsedScript = parseScriptForCompilation(source,
+                    sourceCode);
+            script = Interpreter.script(parsedScript);
+            if (script == null) {
+                script = compile(parsedScript, className, key);
+            }
+        }
+        return script;
+    }
+
+    private String codeCacheKey(Source source, String sourceCode) {
+        if (codeCache == null) {
+            return null;
+        }
+        return codeCache.key(source, sourceCode, options, compilationParserOptions(),
+                compilerOptions);
+    }
+
+    private CompiledScript cachedScript(String key) {
+        if (key == null) {
+            return null;
+        }
+        CodeCache.Entry entry = codeCache.get(key);
+        if (entry == null) {
+            return null;
+        }
+        return new Compiler(executor, compilerOptions).defineAndLoad(entry.getClasses(),
+                entry.getClassName());
+    }
+
+    private CompiledScript compile(com.github.anba.es6draft.ast.Script parsedScript,
+            String className, String key) throws CompilationException {
+        if (key == null) {
+            return compile(parsedScript, className);
+        }
+        Map<String, byte[]> classes = tryCompileToClasses(parsedScript, className, executor,
+                compilerOptions);
+        codeCache.put(key, className, classes);
+        return new Compiler(executor, compilerOptions).defineAndLoad(classes, className);
     }
 
     /**
@@ -376,7 +531,8 @@ public final class ScriptLoader {
      */
     public Script script(Source source, String sourceCode) throws ParserException,
             CompilationException {
-        com.github.anba.es6draft.ast.Script parsedScript = parseScript(source, sourceCode);
+        com.github.anba.es6draft.ast.Script parsedScript = parseScriptForCompilation(source,
+                sourceCode);
         return load(parsedScript, nextScriptName());
     }
 
@@ -513,6 +669,20 @@ public final class ScriptLoader {
         return compileWith(parsedScript, className, executor, options);
     }
 
+    private static Map<String, byte[]> tryCompileToClasses(
+            com.github.anba.es6draft.ast.Script parsedScript, String className,
+            ExecutorService executor, EnumSet<Compiler.Option> options) {
+        if (executor.isShutdown()) {
+            ExecutorService newExecutor = Executors.newFixedThreadPool(2);
+            try {
+                return new Compiler(newExecutor, options).compileToClasses(parsedScript, className);
+            } finally {
+                newExecutor.shutdown();
+            }
+        }
+        return new Compiler(executor, options).compileToClasses(parsedScript, className);
+    }
+
     private static CompiledModule tryCompile(com.github.anba.es6draft.ast.Module parsedModule,
             SourceTextModuleRecord moduleRecord, String className, ExecutorService executor,
             EnumSet<Compiler.Option> options) {
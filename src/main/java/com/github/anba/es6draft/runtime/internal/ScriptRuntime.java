@@ -700,8 +700,7 @@ public final class ScriptRuntime {
         RequireObjectCoercible(cx, baseValue);
         /* step 9 */
         if (Type.isString(propertyName)) {
-            // flat-string
-            return Type.stringValue(propertyName).toString();
+            return cx.getRealm().getAtomTable().intern(Type.stringValue(propertyName).toString());
         }
         if (Type.isNumber(propertyName)) {
             double propertyKey = Type.numberValue(propertyName);
@@ -1005,7 +1004,8 @@ public final class ScriptRuntime {
     public static Reference<Object, ?> getElement(Object baseValue, Object propertyNameValue,
             ExecutionContext cx, boolean strict) {
         if (Type.isString(propertyNameValue)) {
-            return getProperty(baseValue, Type.stringValue(propertyNameValue).toString(), cx,
+            String propertyKey = Type.stringValue(propertyNameValue).toString();
+            return getProperty(baseValue, cx.getRealm().getAtomTable().intern(propertyKey), cx,
                     strict);
         }
         if (Type.isNumber(propertyNameValue)) {
@@ -1043,7 +1043,8 @@ public final class ScriptRuntime {
     public static Object getElementValue(Object baseValue, Object propertyNameValue,
             ExecutionContext cx) {
         if (Type.isString(propertyNameValue)) {
-            return getPropertyValue(baseValue, Type.stringValue(propertyNameValue).toString(), cx);
+            String propertyKey = Type.stringValue(propertyNameValue).toString();
+            return getPropertyValue(baseValue, cx.getRealm().getAtomTable().intern(propertyKey), cx);
         }
         if (Type.isNumber(propertyNameValue)) {
             return getPropertyValue(baseValue, Type.numberValue(propertyNameValue), cx);
@@ -1514,6 +1515,50 @@ public final class ScriptRuntime {
         return result;
     }
 
+    /**
+     * 12.4.4 Postfix Increment Operator<br>
+     * 12.5.7 Prefix Increment Operator
+     * <p>
+     * Int32 values are kept as {@link Integer} as long as the result does not overflow.
+     * 
+     * @param val
+     *            the old value
+     * @param cx
+     *            the execution context
+     * @return the new value
+     */
+    public static Number increment(Object val, ExecutionContext cx) {
+        if (val instanceof Integer) {
+            int value = (Integer) val;
+            if (value != Integer.MAX_VALUE) {
+                return Integers.valueOf(value + 1);
+            }
+        }
+        return ToNumber(cx, val) + 1;
+    }
+
+    /**
+     * 12.4.5 Postfix Decrement Operator<br>
+     * 12.5.8 Prefix Decrement Operator
+     * <p>
+     * Int32 values are kept as {@link Integer} as long as the result does not overflow.
+     * 
+     * @param val
+     *            the old value
+     * @param cx
+     *            the execution context
+     * @return the new value
+     */
+    public static Number decrement(Object val, ExecutionContext cx) {
+        if (val instanceof Integer) {
+            int value = (Integer) val;
+            if (value != Integer.MIN_VALUE) {
+                return Integers.valueOf(value - 1);
+            }
+        }
+        return ToNumber(cx, val) - 1;
+    }
+
     /**
      * 12.5 Unary Operators<br>
      * 12.5.6 The typeof Operator
@@ -1643,7 +1688,7 @@ public final class ScriptRuntime {
             // return new StringBuilder(newlen).append(lstr).append(rstr).toString();
             return inlineString(lstr, rstr, llen, rlen);
         }
-        return new ConsString(lstr, rstr);
+        return ConsString.concat(lstr, rstr);
     }
 
     private static String inlineString(CharSequence lstr, CharSequence rstr, int llen, int rlen) {
@@ -0,0 +1,338 @@
+/**
+ * Copyright (c) 2012-2015 André Bargull
+ * Alle Rechte vorbehalten / All Rights Reserved.  Use is subject to license terms.
+ *
+ * <https://github.com/anba/es6draft>
+ */
+package com.github.anba.es6draft.runtime.internal;
+
+import java.lang.ref.WeakReference;
+import java.util.AbstractList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Shared, immutable property layout descriptor.
+ * <p>
+ * A shape maps property keys to slot indices and property attributes. Shapes are linked through
+ * transitions: adding a property key with the same attributes to a shape returns the (shared)
+ * successor shape, so objects which receive the same property keys in the same order share the
+ * same shape. The slot index of a key is equal to its insertion position, which preserves the
+ * property key order.
+ */
+public final class Shape {
+    /** Maximum number of property keys per shape */
+    private static final int MAX_PROPERTIES = 128;
+    /** Initial threshold to remove cleared transitions */
+    private static final int TRANSITIONS_PURGE_THRESHOLD = 64;
+    /** Shapes with at most this number of keys use a linear search */
+    private static final int LINEAR_SEARCH_LIMIT = 8;
+    /** Maximum attributes value */
+    public static final int MAX_ATTRIBUTES = 0xff;
+
+    /**
+     * The empty root shape.
+     */
+    public static final Shape EMPTY = new Shape();
+
+    private final Shape parent;
+    // Property keys and attributes, only the range [0, size) belongs to this shape.
+    private final Table table;
+    private final int size;
+
+    // guarded by this
+    private HashMap<Object, Transition> transitions;
+    // guarded by this
+    private int purgeThreshold = TRANSITIONS_PURGE_THRESHOLD;
+
+    private Shape() {
+        this.parent = null;
+        this.table = new Table(LINEAR_SEARCH_LIMIT);
+        this.size = 0;
+    }
+
+    private Shape(Shape parent, Table table) {
+        this.parent = parent;
+        this.table = table;
+        this.size = parent.size + 1;
+    }
+
+    /**
+     * Key and attribute storage shared by all shapes along a transition path. Each position is
+     * written once, by the shape whose size is equal to the position.
+     */
+    private static final class Table {
+        final Object[] keys;
+        final byte[] attributes;
+        // Index for the positions [0, indexed), extended on demand.
+        private ConcurrentHashMap<Object, Integer> index;
+        private volatile int indexed;
+
+        Table(int capacity) {
+            this.keys = new Object[capacity];
+            this.attributes = new byte[capacity];
+        }
+
+        Table(Table table, int size, int capacity) {
+            this(capacity);
+            System.arraycopy(table.keys, 0, keys, 0, size);
+            System.arraycopy(table.attributes, 0, attributes, 0, size);
+        }
+
+        int indexOf(Object key, int size) {
+            if (indexed < size) {
+                extendIndex(size);
+            }
+            Integer slot = index.get(key);
+            return slot != null && slot < size ? slot : -1;
+        }
+
+        private synchronized void extendIndex(int size) {
+            int start = indexed;
+            if (start >= size) {
+                return;
+            }
+            ConcurrentHashMap<Object, Integer> index = this.index;
+            if (index == null) {
+                this.index = index = new ConcurrentHashMap<>(keys.length + (keys.length >>> 1));
+            }
+            for (int i = start; i < size; ++i) {
+                index.put(keys[i], i);
+            }
+            indexed = size;
+        }
+    }
+
+    /**
+     * Weakly referenced successor shape, transitions for the same key with different attributes
+     * are chained.
+     */
+    private static final class Transition extends WeakReference<Shape> {
+        final int attributes;
+        Transition next;
+
+        Transition(Shape successor, int attributes, Transition next) {
+            super(successor);
+            this.attributes = attributes;
+            this.next = next;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Shape@%x: size=%d, keys=%s", System.identityHashCode(this), size,
+                keys());
+    }
+
+    /**
+     * Returns the parent shape or {@code null} for the root shape.
+     *
+     * @return the parent shape
+     */
+    public Shape getParent() {
+        return parent;
+    }
+
+    /**
+     * Returns the number of property keys.
+     *
+     * @return the number of property keys
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the property key at the given slot index.
+     *
+     * @param slot
+     *            the slot index
+     * @return the property key
+     */
+    public Object getKey(int slot) {
+        assert 0 <= slot && slot < size;
+        return table.keys[slot];
+    }
+
+    /**
+     * Returns the property attributes at the given slot index.
+     *
+     * @param slot
+     *            the slot index
+     * @return the property attributes
+     */
+    public int getAttributes(int slot) {
+        assert 0 <= slot && slot < size;
+        return table.attributes[slot] & MAX_ATTRIBUTES;
+    }
+
+    /**
+     * Returns the slot index for the requested property key.
+     *
+     * @param key
+     *            the property key
+     * @return the slot index or {@code -1} if the key is not present
+     */
+    public int indexOf(Object key) {
+        if (size > LINEAR_SEARCH_LIMIT) {
+            return table.indexOf(key, size);
+        }
+        Object[] keys = table.keys;
+        int hash = key.hashCode();
+        for (int i = 0, len = size; i < len; ++i) {
+            Object k = keys[i];
+            if (k == key || (k.hashCode() == hash && k.equals(key))) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the successor shape after adding {@code key}. Returns {@code null} if the resulting
+     * shape exceeds the maximum number of property keys, callers need to switch to a different
+     * storage mode in that case. The key must not be present in this shape.
+     *
+     * @param key
+     *            the new property key
+     * @param attributes
+     *            the property attributes
+     * @return the successor shape or {@code null}
+     */
+    public Shape addKey(Object key, int attributes) {
+        assert 0 <= attributes && attributes <= MAX_ATTRIBUTES;
+        if (size >= MAX_PROPERTIES) {
+            return null;
+        }
+        synchronized (this) {
+            HashMap<Object, Transition> transitions = this.transitions;
+            if (transitions == null) {
+                this.transitions = transitions = new HashMap<>(4);
+            }
+            Transition first = transitions.get(key);
+            for (Transition t = first; t != null; t = t.next) {
+                if (t.attributes == attributes) {
+                    Shape successor = t.get();
+                    if (successor != null) {
+                        return successor;
+                    }
+                }
+            }
+            if (first == null && transitions.size() >= purgeThreshold) {
+                removeClearedTransitions(transitions);
+                purgeThreshold = Math.max(transitions.size() << 1, TRANSITIONS_PURGE_THRESHOLD);
+            }
+            Shape successor = new Shape(this, appendKey(key, attributes));
+            transitions.put(key, new Transition(successor, attributes, first));
+            return successor;
+        }
+    }
+
+    /**
+     * Returns the shape with the same property keys, but with the attributes at {@code slot}
+     * changed to {@code attributes}.
+     *
+     * @param slot
+     *            the slot index
+     * @param attributes
+     *            the new property attributes
+     * @return the shape with the changed attributes
+     */
+    public Shape changeAttributes(int slot, int attributes) {
+        assert 0 <= slot && slot < size;
+        Shape shape = this;
+        while (shape.size > slot) {
+            shape = shape.parent;
+        }
+        // Re-add the following keys, the successor shapes are shared through the transitions.
+        shape = shape.addKey(getKey(slot), attributes);
+        for (int i = slot + 1; i < size; ++i) {
+            shape = shape.addKey(getKey(i), getAttributes(i));
+        }
+        assert shape != null && shape.size == size;
+        return shape;
+    }
+
+    private Table appendKey(Object key, int attributes) {
+        Table table = this.table;
+        int size = this.size;
+        // Share the table if the next position is still available.
+        if (size < table.keys.length && table.keys[size] == null) {
+            table.attributes[size] = (byte) attributes;
+            table.keys[size] = key;
+            return table;
+        }
+        int capacity = Math.min(Math.max(size + (size >>> 1), LINEAR_SEARCH_LIMIT), MAX_PROPERTIES);
+        Table newTable = new Table(table, size, capacity);
+        newTable.attributes[size] = (byte) attributes;
+        newTable.keys[size] = key;
+        return newTable;
+    }
+
+    private static void removeClearedTransitions(HashMap<Object, Transition> transitions) {
+        for (Iterator<Map.Entry<Object, Transition>> iter = transitions.entrySet().iterator(); iter
+                .hasNext();) {
+            Map.Entry<Object, Transition> entry = iter.next();
+            Transition first = null, last = null;
+            for (Transition t = entry.getValue(); t != null; t = t.next) {
+                if (t.get() != null) {
+                    if (last == null) {
+                        first = t;
+                    } else {
+                        last.next = t;
+                    }
+                    last = t;
+                }
+            }
+            if (first == null) {
+                iter.remove();
+            } else {
+                last.next = null;
+                entry.setValue(first);
+            }
+        }
+    }
+
+    /**
+     * Returns an unmodifiable list view of the property keys in insertion order.
+     *
+     * @return the property keys
+     */
+    public List<Object> keys() {
+        return new KeyList(table.keys, size);
+    }
+
+    private static final class KeyList extends AbstractList<Object> implements RandomAccess {
+        private final Object[] keys;
+        private final int size;
+
+        KeyList(Object[] keys, int size) {
+            this.keys = keys;
+            this.size = size;
+        }
+
+        @Override
+        public Object get(int index) {
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException();
+            }
+            return keys[index];
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public Object[] toArray() {
+            Object[] array = new Object[size];
+            System.arraycopy(keys, 0, array, 0, size);
+            return array;
+        }
+    }
+}
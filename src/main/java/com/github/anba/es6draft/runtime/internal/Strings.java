@@ -10,10 +10,15 @@ import static com.github.anba.es6draft.parser.Characters.isWhitespaceOrLineTermi
 
 import java.util.Arrays;
 
+import org.mozilla.javascript.ConsString;
+
 /**
  * Operations on strings
  */
 public final class Strings {
+    /** Initial and maximum number of characters copied at once from concatenated strings */
+    private static final int MIN_CHUNK_SIZE = 64, MAX_CHUNK_SIZE = 4096;
+
     private Strings() {
     }
 
@@ -79,6 +84,136 @@ public final class Strings {
         return s.substring(start, end);
     }
 
+    /**
+     * Removes leading and trailing whitespace. Concatenated strings are not flattened, the result
+     * shares the characters of the input string.
+     * 
+     * @param s
+     *            the string
+     * @return the string with leading and trailing whitespace removed
+     */
+    public static CharSequence trim(CharSequence s) {
+        if (s instanceof String) {
+            return trim((String) s);
+        }
+        int start = 0, end = s.length();
+        for (; start < end; ++start) {
+            char c = s.charAt(start);
+            if (!isWhitespaceOrLineTerminator(c)) {
+                break;
+            }
+        }
+        for (; end > start; --end) {
+            char c = s.charAt(end - 1);
+            if (!isWhitespaceOrLineTerminator(c)) {
+                break;
+            }
+        }
+        assert start <= end;
+        if (start == end) {
+            return "";
+        }
+        return ConsString.slice(s, start, end);
+    }
+
+    /**
+     * Returns the index of the first occurrence of {@code t} in {@code s}, starting the search at
+     * {@code fromIndex}. Concatenated strings are not flattened, instead they are searched in flat
+     * chunks of increasing size.
+     * 
+     * @param s
+     *            the string
+     * @param t
+     *            the search string
+     * @param fromIndex
+     *            the start index
+     * @return the index of the first occurrence or {@code -1} if not found
+     * @see String#indexOf(String, int)
+     */
+    public static int indexOf(CharSequence s, String t, int fromIndex) {
+        if (s instanceof String) {
+            return ((String) s).indexOf(t, fromIndex);
+        }
+        int length = s.length(), searchLength = t.length();
+        int start = Math.max(fromIndex, 0);
+        if (searchLength == 0) {
+            return Math.min(start, length);
+        }
+        for (int size = MIN_CHUNK_SIZE; start <= length - searchLength;) {
+            // Chunks overlap by (searchLength - 1) characters.
+            int end = (int) Math.min((long) start + size + searchLength - 1, length);
+            int index = s.subSequence(start, end).toString().indexOf(t);
+            if (index >= 0) {
+                return start + index;
+            }
+            start += size;
+            size = Math.min(size << 1, MAX_CHUNK_SIZE);
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the index of the last occurrence of {@code t} in {@code s}, starting the backward
+     * search at {@code fromIndex}. Concatenated strings are not flattened, instead they are
+     * searched in flat chunks of increasing size.
+     * 
+     * @param s
+     *            the string
+     * @param t
+     *            the search string
+     * @param fromIndex
+     *            the start index
+     * @return the index of the last occurrence or {@code -1} if not found
+     * @see String#lastIndexOf(String, int)
+     */
+    public static int lastIndexOf(CharSequence s, String t, int fromIndex) {
+        if (s instanceof String) {
+            return ((String) s).lastIndexOf(t, fromIndex);
+        }
+        int searchLength = t.length();
+        int last = Math.min(fromIndex, s.length() - searchLength);
+        if (last < 0) {
+            return -1;
+        }
+        if (searchLength == 0) {
+            return last;
+        }
+        for (int size = MIN_CHUNK_SIZE, end = last + searchLength; end >= searchLength;) {
+            // Chunks overlap by (searchLength - 1) characters.
+            int start = Math.max(end - size - searchLength + 1, 0);
+            int index = s.subSequence(start, end).toString().lastIndexOf(t);
+            if (index >= 0) {
+                return start + index;
+            }
+            end -= size;
+            size = Math.min(size << 1, MAX_CHUNK_SIZE);
+        }
+        return -1;
+    }
+
+    /**
+     * Tests if {@code s} contains {@code t} at {@code offset}. Concatenated strings are not
+     * flattened, only the compared characters are copied.
+     * 
+     * @param s
+     *            the string
+     * @param t
+     *            the prefix string
+     * @param offset
+     *            the start index
+     * @return {@code true} if {@code t} is found at {@code offset}
+     * @see String#startsWith(String, int)
+     */
+    public static boolean startsWith(CharSequence s, String t, int offset) {
+        if (s instanceof String) {
+            return ((String) s).startsWith(t, offset);
+        }
+        if (offset < 0 || offset > s.length() - t.length()) {
+            return false;
+        }
+        return t.equals(s.subSequence(offset, offset + t.length()).toString());
+    }
+
     /**
      * Concatenates the input strings, adjacent strings are separated by the given separator char.
      * 
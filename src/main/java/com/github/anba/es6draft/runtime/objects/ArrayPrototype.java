@@ -15,8 +15,6 @@ import static com.github.anba.es6draft.runtime.types.Undefined.UNDEFINED;
 
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collections;
-import java.util.Comparator;
 
 import com.github.anba.es6draft.runtime.ExecutionContext;
 import com.github.anba.es6draft.runtime.Realm;
@@ -175,6 +173,55 @@ public final class ArrayPrototype extends ArrayObject implements Initializable {
         return iteration;
     }
 
+    /**
+     * Returns the element value if present, otherwise {@code null}. Equivalent to calling
+     * HasProperty(O, k) followed by Get(O, k).
+     * <p>
+     * Packed array elements are always own data properties, therefore they can be read directly
+     * without observable differences. All other cases use the generic operations.
+     * 
+     * @param cx
+     *            the execution context
+     * @param o
+     *            the script object
+     * @param k
+     *            the element index
+     * @return the element value or {@code null} if not present
+     */
+    private static Object GetIfPresent(ExecutionContext cx, ScriptObject o, long k) {
+        if (o instanceof ArrayObject) {
+            Object value = ((ArrayObject) o).getPackedElement(k);
+            if (value != null) {
+                return value;
+            }
+        }
+        if (!HasProperty(cx, o, k)) {
+            return null;
+        }
+        return Get(cx, o, k);
+    }
+
+    /**
+     * Returns the element value. Equivalent to calling Get(O, k).
+     * 
+     * @param cx
+     *            the execution context
+     * @param o
+     *            the script object
+     * @param k
+     *            the element index
+     * @return the element value
+     */
+    private static Object GetElement(ExecutionContext cx, ScriptObject o, long k) {
+        if (o instanceof ArrayObject) {
+            Object value = ((ArrayObject) o).getPackedElement(k);
+            if (value != null) {
+                return value;
+            }
+        }
+        return Get(cx, o, k);
+    }
+
     private static long[] arrayKeys(OrdinaryObject array, long from, long to, boolean inherited) {
         if (inherited) {
             return inheritedKeys(array, from, to);
@@ -565,7 +612,7 @@ public final class ArrayPrototype extends ArrayObject implements Initializable {
                     /* step 13.a */
                     r.append(sep);
                     /* step 13.b */
-                    Object element = Get(cx, o, k);
+                    Object element = GetElement(cx, o, k);
                     /* steps 13.c-e */
                     if (!Type.isUndefinedOrNull(element)) {
                         r.append(ToString(cx, element));
@@ -949,67 +996,19 @@ public final class ArrayPrototype extends ArrayObject implements Initializable {
             }
         }
 
-        /**
-         * 22.1.3.24.1 Runtime Semantics: SortCompare( x, y )
-         */
-        private static final class DefaultComparator implements Comparator<Object> {
-            private final ExecutionContext cx;
-
-            DefaultComparator(ExecutionContext cx) {
-                this.cx = cx;
-            }
-
-            @Override
-            public int compare(Object o1, Object o2) {
-                /* steps 1-4 (not applicable) */
-                /* steps 5-6 */
-                String x = ToFlatString(cx, o1);
-                /* steps 7-8 */
-                String y = ToFlatString(cx, o2);
-                /* steps 9-11 */
-                return x.compareTo(y);
-            }
-        }
-
-        /**
-         * 22.1.3.24.1 Runtime Semantics: SortCompare( x, y )
-         */
-        private static final class FunctionComparator implements Comparator<Object> {
-            private final ExecutionContext cx;
-            private final Callable comparefn;
-
-            FunctionComparator(ExecutionContext cx, Callable comparefn) {
-                this.cx = cx;
-                this.comparefn = comparefn;
-            }
-
-            @Override
-            public int compare(Object o1, Object o2) {
-                /* steps 1-3, 5-11 (not applicable) */
-                /* step 4 */
-                double c = ToNumber(cx, comparefn.call(cx, UNDEFINED, o1, o2));
-                return (c < 0 ? -1 : c > 0 ? 1 : 0);
-            }
-        }
-
         private static void sortElements(ExecutionContext cx, ArrayList<Object> elements,
                 Object comparefn) {
-            Comparator<Object> comparator;
+            Object[] array = elements.toArray();
             if (!Type.isUndefined(comparefn)) {
                 if (!IsCallable(comparefn)) {
                     throw newTypeError(cx, Messages.Key.NotCallable);
                 }
-                comparator = new FunctionComparator(cx, (Callable) comparefn);
+                ArraySort.sort(cx, array, (Callable) comparefn);
             } else {
-                comparator = new DefaultComparator(cx);
+                ArraySort.sort(cx, array);
             }
-            try {
-                Collections.sort(elements, comparator);
-            } catch (IllegalArgumentException e) {
-                // User-defined comparator functions may return inconsistent comparison results,
-                // and those will trigger this exception in the Collections.sort() method:
-                // `IllegalArgumentException: Comparison method violates its general contract!`
-                // If that happens, just ignore the Java exception and stop the sort operation.
+            for (int i = 0; i < array.length; ++i) {
+                elements.set(i, array[i]);
             }
         }
 
@@ -1515,11 +1514,10 @@ public final class ArrayPrototype extends ArrayObject implements Initializable {
             }
             /* step 11 */
             for (; k < len; ++k) {
-                /* step 11.a-b */
-                boolean kpresent = HasProperty(cx, o, k);
+                /* steps 11.a-b */
+                Object elementk = GetIfPresent(cx, o, k);
                 /* step 11.c */
-                if (kpresent) {
-                    Object elementk = Get(cx, o, k);
+                if (elementk != null) {
                     boolean same = StrictEqualityComparison(searchElement, elementk);
                     if (same) {
                         return k;
@@ -1571,10 +1569,9 @@ public final class ArrayPrototype extends ArrayObject implements Initializable {
             /* step 10 */
             for (; k >= 0; --k) {
                 /* steps 10.a-b */
-                boolean kpresent = HasProperty(cx, o, k);
+                Object elementk = GetIfPresent(cx, o, k);
                 /* step 10.c */
-                if (kpresent) {
-                    Object elementk = Get(cx, o, k);
+                if (elementk != null) {
                     boolean same = StrictEqualityComparison(searchElement, elementk);
                     if (same) {
                         return k;
@@ -1616,10 +1613,9 @@ public final class ArrayPrototype extends ArrayObject implements Initializable {
                 /* step 8.a */
                 long pk = k;
                 /* steps 8.b-c */
-                boolean kpresent = HasProperty(cx, o, pk);
+                Object kvalue = GetIfPresent(cx, o, pk);
                 /* step 8.d */
-                if (kpresent) {
-                    Object kvalue = Get(cx, o, pk);
+                if (kvalue != null) {
                     boolean testResult = ToBoolean(callback.call(cx, thisArg, kvalue, k, o));
                     if (!testResult) {
                         return false;
@@ -1659,9 +1655,8 @@ public final class ArrayPrototype extends ArrayObject implements Initializable {
             /* steps 7-8 */
             for (long k = 0; k < len; ++k) {
                 long pk = k;
-                boolean kpresent = HasProperty(cx, o, pk);
-                if (kpresent) {
-                    Object kvalue = Get(cx, o, pk);
+                Object kvalue = GetIfPresent(cx, o, pk);
+                if (kvalue != null) {
                     boolean testResult = ToBoolean(callback.call(cx, thisArg, kvalue, k, o));
                     if (testResult) {
                         return true;
@@ -1703,10 +1698,9 @@ public final class ArrayPrototype extends ArrayObject implements Initializable {
                 /* step 8.a */
                 long pk = k;
                 /* steps 8.b-c */
-                boolean kpresent = HasProperty(cx, o, pk);
+                Object kvalue = GetIfPresent(cx, o, pk);
                 /* step 8.d */
-                if (kpresent) {
-                    Object kvalue = Get(cx, o, pk);
+                if (kvalue != null) {
                     callback.call(cx, thisArg, kvalue, k, o);
                 }
             }
@@ -1747,10 +1741,9 @@ public final class ArrayPrototype extends ArrayObject implements Initializable {
                 /* step 10.a */
                 long pk = k;
                 /* steps 10.b-c */
-                boolean kpresent = HasProperty(cx, o, pk);
+                Object kvalue = GetIfPresent(cx, o, pk);
                 /* step 10.d */
-                if (kpresent) {
-                    Object kvalue = Get(cx, o, pk);
+                if (kvalue != null) {
                     Object mappedValue = callback.call(cx, thisArg, kvalue, k, o);
                     CreateDataPropertyOrThrow(cx, a, pk, mappedValue);
                 }
@@ -1792,10 +1785,9 @@ public final class ArrayPrototype extends ArrayObject implements Initializable {
                 /* step 11.a */
                 long pk = k;
                 /* steps 11.b-c */
-                boolean kpresent = HasProperty(cx, o, pk);
+                Object kvalue = GetIfPresent(cx, o, pk);
                 /* step 11.d */
-                if (kpresent) {
-                    Object kvalue = Get(cx, o, pk);
+                if (kvalue != null) {
                     boolean selected = ToBoolean(callback.call(cx, thisArg, kvalue, k, o));
                     if (selected) {
                         CreateDataPropertyOrThrow(cx, a, to, kvalue);
@@ -1849,10 +1841,8 @@ public final class ArrayPrototype extends ArrayObject implements Initializable {
                 /* step 9.b */
                 for (; !kpresent && k < len; ++k) {
                     long pk = k;
-                    kpresent = HasProperty(cx, o, pk);
-                    if (kpresent) {
-                        accumulator = Get(cx, o, pk);
-                    }
+                    accumulator = GetIfPresent(cx, o, pk);
+                    kpresent = accumulator != null;
                 }
                 /* step 9.c */
                 if (!kpresent) {
@@ -1864,10 +1854,9 @@ public final class ArrayPrototype extends ArrayObject implements Initializable {
                 /* step 10.a */
                 long pk = k;
                 /* steps 10.b-c */
-                boolean kpresent = HasProperty(cx, o, pk);
+                Object kvalue = GetIfPresent(cx, o, pk);
                 /* step 10.d */
-                if (kpresent) {
-                    Object kvalue = Get(cx, o, pk);
+                if (kvalue != null) {
                     accumulator = callback.call(cx, UNDEFINED, accumulator, kvalue, k, o);
                 }
             }
@@ -1917,10 +1906,8 @@ public final class ArrayPrototype extends ArrayObject implements Initializable {
                 /* step 9.b */
                 for (; !kpresent && k >= 0; --k) {
                     long pk = k;
-                    kpresent = HasProperty(cx, o, pk);
-                    if (kpresent) {
-                        accumulator = Get(cx, o, pk);
-                    }
+                    accumulator = GetIfPresent(cx, o, pk);
+                    kpresent = accumulator != null;
                 }
                 /* step 9.c */
                 if (!kpresent) {
@@ -1932,10 +1919,9 @@ public final class ArrayPrototype extends ArrayObject implements Initializable {
                 /* step 10.a */
                 long pk = k;
                 /* steps 10.b-c */
-                boolean kpresent = HasProperty(cx, o, pk);
+                Object kvalue = GetIfPresent(cx, o, pk);
                 /* step 10.d */
-                if (kpresent) {
-                    Object kvalue = Get(cx, o, pk);
+                if (kvalue != null) {
                     accumulator = callback.call(cx, UNDEFINED, accumulator, kvalue, k, o);
                 }
             }
@@ -1974,7 +1960,7 @@ public final class ArrayPrototype extends ArrayObject implements Initializable {
                 /* step 8.a */
                 long pk = k;
                 /* steps 8.b-c */
-                Object kvalue = Get(cx, o, pk);
+                Object kvalue = GetElement(cx, o, pk);
                 /* steps 8.d-e */
                 boolean testResult = ToBoolean(pred.call(cx, thisArg, kvalue, k, o));
                 /* step 8.f */
@@ -2017,7 +2003,7 @@ public final class ArrayPrototype extends ArrayObject implements Initializable {
                 /* step 8.a */
                 long pk = k;
                 /* steps 8.b-c */
-                Object kvalue = Get(cx, o, pk);
+                Object kvalue = GetElement(cx, o, pk);
                 /* steps 8.d-e */
                 boolean testResult = ToBoolean(pred.call(cx, thisArg, kvalue, k, o));
                 /* step 8.f */
@@ -2254,7 +2240,7 @@ public final class ArrayPrototype extends ArrayObject implements Initializable {
             /* step 10 */
             for (; k < len; ++k) {
                 /* steps 10.a-b */
-                Object element = Get(cx, o, k);
+                Object element = GetElement(cx, o, k);
                 /* step 10.c */
                 if (SameValueZero(searchElement, element)) {
                     return true;
@@ -0,0 +1,273 @@
+/**
+ * Copyright (c) 2012-2015 André Bargull
+ * Alle Rechte vorbehalten / All Rights Reserved.  Use is subject to license terms.
+ *
+ * <https://github.com/anba/es6draft>
+ */
+package com.github.anba.es6draft.runtime.objects;
+
+import static com.github.anba.es6draft.runtime.AbstractOperations.ToFlatString;
+import static com.github.anba.es6draft.runtime.AbstractOperations.ToNumber;
+import static com.github.anba.es6draft.runtime.types.Undefined.UNDEFINED;
+
+import java.util.Comparator;
+
+import com.github.anba.es6draft.runtime.ExecutionContext;
+import com.github.anba.es6draft.runtime.internal.RuntimeInfo;
+import com.github.anba.es6draft.runtime.internal.RuntimeInfo.FunctionFlags;
+import com.github.anba.es6draft.runtime.types.Callable;
+import com.github.anba.es6draft.runtime.types.Type;
+import com.github.anba.es6draft.runtime.types.builtins.OrdinaryFunction;
+
+/**
+ * Sort engine for {@code Array.prototype.sort}.
+ * <p>
+ * All sort operations use a stable merge sort which always terminates with a permutation of the
+ * input elements, even if the comparator function returns inconsistent results. Primitive
+ * elements are sorted by pre-computed string keys when the default sort order is used. Number
+ * elements are sorted by their {@code double} values when the comparator function is known to
+ * compute the difference of its arguments, e.g. {@code (a, b) => a - b}.
+ */
+final class ArraySort {
+    private static final int INSERTION_SORT_THRESHOLD = 8;
+
+    private ArraySort() {
+    }
+
+    /**
+     * 22.1.3.24.1 Runtime Semantics: SortCompare( x, y )
+     */
+    private static final class DefaultComparator implements Comparator<Object> {
+        private final ExecutionContext cx;
+
+        DefaultComparator(ExecutionContext cx) {
+            this.cx = cx;
+        }
+
+        @Override
+        public int compare(Object o1, Object o2) {
+            /* steps 1-4 (not applicable) */
+            /* steps 5-6 */
+            String x = ToFlatString(cx, o1);
+            /* steps 7-8 */
+            String y = ToFlatString(cx, o2);
+            /* steps 9-11 */
+            return x.compareTo(y);
+        }
+    }
+
+    /**
+     * 22.1.3.24.1 Runtime Semantics: SortCompare( x, y )
+     */
+    private static final class FunctionComparator implements Comparator<Object> {
+        private final ExecutionContext cx;
+        private final Callable comparefn;
+
+        FunctionComparator(ExecutionContext cx, Callable comparefn) {
+            this.cx = cx;
+            this.comparefn = comparefn;
+        }
+
+        @Override
+        public int compare(Object o1, Object o2) {
+            /* steps 1-3, 5-11 (not applicable) */
+            /* step 4 */
+            double c = ToNumber(cx, comparefn.call(cx, UNDEFINED, o1, o2));
+            return (c < 0 ? -1 : c > 0 ? 1 : 0);
+        }
+    }
+
+    /**
+     * Sorts the elements using the default sort order.
+     *
+     * @param cx
+     *            the execution context
+     * @param elements
+     *            the array elements, must not contain {@code undefined}
+     */
+    static void sort(ExecutionContext cx, Object[] elements) {
+        int length = elements.length;
+        String[] keys = new String[length];
+        for (int i = 0; i < length; ++i) {
+            Object e = elements[i];
+            if (Type.isObject(e) || Type.isSymbol(e)) {
+                // ToString() is observable or throws, call it for each comparison.
+                mergeSort(elements, elements.clone(), 0, length, new DefaultComparator(cx));
+                return;
+            }
+            keys[i] = ToFlatString(cx, e);
+        }
+        mergeSort(keys, elements, keys.clone(), elements.clone(), 0, length);
+    }
+
+    /**
+     * Sorts the elements using the comparator function.
+     *
+     * @param cx
+     *            the execution context
+     * @param elements
+     *            the array elements, must not contain {@code undefined}
+     * @param comparefn
+     *            the comparator function
+     */
+    static void sort(ExecutionContext cx, Object[] elements, Callable comparefn) {
+        int length = elements.length;
+        int direction = numericComparator(comparefn);
+        if (direction != 0) {
+            double[] keys = new double[length];
+            for (int i = 0; i < length; ++i) {
+                Object e = elements[i];
+                if (!Type.isNumber(e)) {
+                    direction = 0;
+                    break;
+                }
+                keys[i] = Type.numberValue(e);
+            }
+            if (direction != 0) {
+                mergeSort(keys, elements, keys.clone(), elements.clone(), 0, length,
+                        direction < 0);
+                return;
+            }
+        }
+        mergeSort(elements, elements.clone(), 0, length, new FunctionComparator(cx, comparefn));
+    }
+
+    /**
+     * Returns {@code 1} if the comparator function is {@code (a, b) => a - b}, {@code -1} if it is
+     * {@code (a, b) => b - a}, and {@code 0} otherwise. Both forms have no observable side-effects
+     * when called with number arguments. The form is detected by the compiler, see
+     * {@link FunctionFlags#AscendingComparator} and {@link FunctionFlags#DescendingComparator}.
+     *
+     * @param comparefn
+     *            the comparator function
+     * @return the sort direction or {@code 0} if not a numeric comparator
+     */
+    private static int numericComparator(Callable comparefn) {
+        if (!(comparefn instanceof OrdinaryFunction)) {
+            return 0;
+        }
+        RuntimeInfo.Function code = ((OrdinaryFunction) comparefn).getCode();
+        if (code == null) {
+            return 0;
+        }
+        if (code.is(FunctionFlags.AscendingComparator)) {
+            return 1;
+        }
+        if (code.is(FunctionFlags.DescendingComparator)) {
+            return -1;
+        }
+        return 0;
+    }
+
+    private static void mergeSort(Object[] a, Object[] tmp, int lo, int hi, Comparator<Object> c) {
+        if (hi - lo <= INSERTION_SORT_THRESHOLD) {
+            for (int i = lo + 1; i < hi; ++i) {
+                Object v = a[i];
+                int j = i;
+                for (; j > lo && c.compare(a[j - 1], v) > 0; --j) {
+                    a[j] = a[j - 1];
+                }
+                a[j] = v;
+            }
+            return;
+        }
+        int mid = (lo + hi) >>> 1;
+        mergeSort(a, tmp, lo, mid, c);
+        mergeSort(a, tmp, mid, hi, c);
+        if (c.compare(a[mid - 1], a[mid]) <= 0) {
+            return;
+        }
+        System.arraycopy(a, lo, tmp, lo, mid - lo);
+        int i = lo, j = mid, k = lo;
+        while (i < mid && j < hi) {
+            if (c.compare(a[j], tmp[i]) < 0) {
+                a[k++] = a[j++];
+            } else {
+                a[k++] = tmp[i++];
+            }
+        }
+        System.arraycopy(tmp, i, a, k, mid - i);
+    }
+
+    private static void mergeSort(String[] keys, Object[] values, String[] tmpKeys,
+            Object[] tmpValues, int lo, int hi) {
+        if (hi - lo <= INSERTION_SORT_THRESHOLD) {
+            for (int i = lo + 1; i < hi; ++i) {
+                String key = keys[i];
+                Object value = values[i];
+                int j = i;
+                for (; j > lo && keys[j - 1].compareTo(key) > 0; --j) {
+                    keys[j] = keys[j - 1];
+                    values[j] = values[j - 1];
+                }
+                keys[j] = key;
+                values[j] = value;
+            }
+            return;
+        }
+        int mid = (lo + hi) >>> 1;
+        mergeSort(keys, values, tmpKeys, tmpValues, lo, mid);
+        mergeSort(keys, values, tmpKeys, tmpValues, mid, hi);
+        if (keys[mid - 1].compareTo(keys[mid]) <= 0) {
+            return;
+        }
+        System.arraycopy(keys, lo, tmpKeys, lo, mid - lo);
+        System.arraycopy(values, lo, tmpValues, lo, mid - lo);
+        int i = lo, j = mid, k = lo;
+        while (i < mid && j < hi) {
+            if (keys[j].compareTo(tmpKeys[i]) < 0) {
+                keys[k] = keys[j];
+                values[k++] = values[j++];
+            } else {
+                keys[k] = tmpKeys[i];
+                values[k++] = tmpValues[i++];
+            }
+        }
+        System.arraycopy(tmpKeys, i, keys, k, mid - i);
+        System.arraycopy(tmpValues, i, values, k, mid - i);
+    }
+
+    private static int compare(double x, double y, boolean descending) {
+        // Same result as calling the comparator function, NaN compares equal to all values.
+        double c = descending ? y - x : x - y;
+        return (c < 0 ? -1 : c > 0 ? 1 : 0);
+    }
+
+    private static void mergeSort(double[] keys, Object[] values, double[] tmpKeys,
+            Object[] tmpValues, int lo, int hi, boolean descending) {
+        if (hi - lo <= INSERTION_SORT_THRESHOLD) {
+            for (int i = lo + 1; i < hi; ++i) {
+                double key = keys[i];
+                Object value = values[i];
+                int j = i;
+                for (; j > lo && compare(keys[j - 1], key, descending) > 0; --j) {
+                    keys[j] = keys[j - 1];
+                    values[j] = values[j - 1];
+                }
+                keys[j] = key;
+                values[j] = value;
+            }
+            return;
+        }
+        int mid = (lo + hi) >>> 1;
+        mergeSort(keys, values, tmpKeys, tmpValues, lo, mid, descending);
+        mergeSort(keys, values, tmpKeys, tmpValues, mid, hi, descending);
+        if (compare(keys[mid - 1], keys[mid], descending) <= 0) {
+            return;
+        }
+        System.arraycopy(keys, lo, tmpKeys, lo, mid - lo);
+        System.arraycopy(values, lo, tmpValues, lo, mid - lo);
+        int i = lo, j = mid, k = lo;
+        while (i < mid && j < hi) {
+            if (compare(keys[j], tmpKeys[i], descending) < 0) {
+                keys[k] = keys[j];
+                values[k++] = values[j++];
+            } else {
+                keys[k] = tmpKeys[i];
+                values[k++] = tmpValues[i++];
+            }
+        }
+        System.arraycopy(tmpKeys, i, keys, k, mid - i);
+        System.arraycopy(tmpValues, i, values, k, mid - i);
+    }
+}
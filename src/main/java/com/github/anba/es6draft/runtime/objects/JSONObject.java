@@ -12,8 +12,9 @@ import static com.github.anba.es6draft.runtime.internal.Errors.newTypeError;
 import static com.github.anba.es6draft.runtime.internal.Properties.createProperties;
 import static com.github.anba.es6draft.runtime.types.Undefined.UNDEFINED;
 
-import java.util.ArrayList;
-import java.util.HashSet;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.LinkedHashSet;
 import java.util.Set;
 
@@ -124,72 +125,11 @@ public final class JSONObject extends OrdinaryObject implements Initializable {
         @Function(name = "stringify", arity = 3)
         public static Object stringify(ExecutionContext cx, Object thisValue, Object value,
                 Object replacer, Object space) {
-            /* step 1 */
-            HashSet<ScriptObject> stack = new HashSet<>();
-            /* step 2 */
-            String indent = "";
-            /* step 3 */
-            LinkedHashSet<String> propertyList = null;
-            Callable replacerFunction = null;
-            /* step 4 */
-            if (Type.isObject(replacer)) {
-                if (IsCallable(replacer)) {
-                    replacerFunction = (Callable) replacer;
-                } else if (IsArray(cx, replacer)) {
-                    propertyList = new LinkedHashSet<>();
-                    ScriptObject objReplacer = (ScriptObject) replacer;
-                    long len = ToLength(cx, Get(cx, objReplacer, "length"));
-                    for (long k = 0; k < len; ++k) {
-                        String item = null;
-                        Object v = Get(cx, objReplacer, k);
-                        if (Type.isString(v)) {
-                            item = Type.stringValue(v).toString();
-                        } else if (Type.isNumber(v)) {
-                            item = ToString(Type.numberValue(v));
-                        } else if (Type.isObject(v)) {
-                            ScriptObject o = Type.objectValue(v);
-                            if (o instanceof StringObject || o instanceof NumberObject) {
-                                item = ToFlatString(cx, v);
-                            }
-                        }
-                        if (item != null) {
-                            propertyList.add(item);
-                        }
-                    }
-                }
-            }
-            /* step 5 */
-            if (Type.isObject(space)) {
-                ScriptObject o = Type.objectValue(space);
-                if (o instanceof NumberObject) {
-                    space = ToNumber(cx, space);
-                } else if (o instanceof StringObject) {
-                    space = ToString(cx, space);
-                }
-            }
-            /* steps 6-8 */
-            String gap;
-            if (Type.isNumber(space)) {
-                int nspace = (int) Math.max(0, Math.min(10, ToInteger(Type.numberValue(space))));
-                gap = Strings.repeat(' ', nspace);
-            } else if (Type.isString(space)) {
-                String sspace = Type.stringValue(space).toString();
-                gap = sspace.length() <= 10 ? sspace : sspace.substring(0, 10);
-            } else {
-                gap = "";
-            }
-            /* step 9 */
-            OrdinaryObject wrapper = ObjectCreate(cx, Intrinsics.ObjectPrototype);
-            /* steps 10-11 */
-            boolean status = CreateDataProperty(cx, wrapper, "", value);
-            assert status;
-            /* step 12 */
-            String result = SerializeJSONProperty(cx, stack, propertyList, replacerFunction,
-                    indent, gap, "", wrapper);
-            if (result == null) {
+            StringBuilder result = new StringBuilder();
+            if (!Stringify(cx, value, replacer, space, result)) {
                 return UNDEFINED;
             }
-            return result;
+            return result.toString();
         }
 
         /**
@@ -285,6 +225,209 @@ public final class JSONObject extends OrdinaryObject implements Initializable {
         }
     }
 
+    /**
+     * 24.3.2 JSON.stringify ( value [ , replacer [ , space ] ] )
+     * <p>
+     * Appends the JSON text to <var>result</var> instead of returning a new string. If the value is
+     * not serializable or an exception is thrown, <var>result</var> is restored to its original
+     * length.
+     * 
+     * @param cx
+     *            the execution context
+     * @param value
+     *            the value
+     * @param replacer
+     *            the optional replacer argument
+     * @param space
+     *            the optional space argument
+     * @param result
+     *            the output buffer
+     * @return {@code false} if the value is not serializable, i.e. {@code JSON.stringify} returns
+     *         {@code undefined}
+     */
+    public static boolean Stringify(ExecutionContext cx, Object value, Object replacer,
+            Object space, StringBuilder result) {
+        /* steps 1-8 */
+        JSONSerializer serializer = CreateSerializer(cx, replacer, space, result, null);
+        /* steps 9-12 */
+        int start = result.length();
+        boolean serialized = false;
+        try {
+            serialized = SerializeJSONRoot(cx, serializer, value);
+            return serialized;
+        } finally {
+            if (!serialized) {
+                result.setLength(start);
+            }
+        }
+    }
+
+    /**
+     * 24.3.2 JSON.stringify ( value [ , replacer [ , space ] ] )
+     * <p>
+     * Writes the JSON text to <var>out</var>. The text is buffered and handed to <var>out</var> in
+     * chunks, so large values are never held in memory as a whole. If an exception is thrown,
+     * <var>out</var> may already have received part of the text. Nothing is written if the value
+     * is not serializable.
+     * 
+     * @param cx
+     *            the execution context
+     * @param value
+     *            the value
+     * @param replacer
+     *            the optional replacer argument
+     * @param space
+     *            the optional space argument
+     * @param out
+     *            the output sink
+     * @return {@code false} if the value is not serializable, i.e. {@code JSON.stringify} returns
+     *         {@code undefined}
+     * @throws IOException
+     *             if writing to <var>out</var> failed
+     */
+    public static boolean Stringify(ExecutionContext cx, Object value, Object replacer,
+            Object space, Appendable out) throws IOException {
+        if (out instanceof StringBuilder) {
+            return Stringify(cx, value, replacer, space, (StringBuilder) out);
+        }
+        StringBuilder buffer = new StringBuilder(JSONSerializer.FLUSH_THRESHOLD);
+        /* steps 1-8 */
+        JSONSerializer serializer = CreateSerializer(cx, replacer, space, buffer, out);
+        /* steps 9-12 */
+        try {
+            if (!SerializeJSONRoot(cx, serializer, value)) {
+                return false;
+            }
+        } catch (SinkException e) {
+            throw e.getCause();
+        }
+        out.append(buffer);
+        return true;
+    }
+
+    private static JSONSerializer CreateSerializer(ExecutionContext cx, Object replacer,
+            Object space, StringBuilder result, Appendable sink) {
+        /* step 1 */
+        Set<ScriptObject> stack = Collections
+                .newSetFromMap(new IdentityHashMap<ScriptObject, Boolean>());
+        /* step 2 (see JSONSerializer) */
+        /* step 3 */
+        LinkedHashSet<String> propertyList = null;
+        Callable replacerFunction = null;
+        /* step 4 */
+        if (Type.isObject(replacer)) {
+            if (IsCallable(replacer)) {
+                replacerFunction = (Callable) replacer;
+            } else if (IsArray(cx, replacer)) {
+                propertyList = new LinkedHashSet<>();
+                ScriptObject objReplacer = (ScriptObject) replacer;
+                long len = ToLength(cx, Get(cx, objReplacer, "length"));
+                for (long k = 0; k < len; ++k) {
+                    String item = null;
+                    Object v = Get(cx, objReplacer, k);
+                    if (Type.isString(v)) {
+                        item = Type.stringValue(v).toString();
+                    } else if (Type.isNumber(v)) {
+                        item = ToString(Type.numberValue(v));
+                    } else if (Type.isObject(v)) {
+                        ScriptObject o = Type.objectValue(v);
+                        if (o instanceof StringObject || o instanceof NumberObject) {
+                            item = ToFlatString(cx, v);
+                        }
+                    }
+                    if (item != null) {
+                        propertyList.add(item);
+                    }
+                }
+            }
+        }
+        /* step 5 */
+        if (Type.isObject(space)) {
+            ScriptObject o = Type.objectValue(space);
+            if (o instanceof NumberObject) {
+                space = ToNumber(cx, space);
+            } else if (o instanceof StringObject) {
+                space = ToString(cx, space);
+            }
+        }
+        /* steps 6-8 */
+        String gap;
+        if (Type.isNumber(space)) {
+            int nspace = (int) Math.max(0, Math.min(10, ToInteger(Type.numberValue(space))));
+            gap = Strings.repeat(' ', nspace);
+        } else if (Type.isString(space)) {
+            String sspace = Type.stringValue(space).toString();
+            gap = sspace.length() <= 10 ? sspace : sspace.substring(0, 10);
+        } else {
+            gap = "";
+        }
+        return new JSONSerializer(stack, propertyList, replacerFunction, gap, result, sink);
+    }
+
+    private static boolean SerializeJSONRoot(ExecutionContext cx, JSONSerializer serializer,
+            Object value) {
+        /* step 9 */
+        OrdinaryObject wrapper = ObjectCreate(cx, Intrinsics.ObjectPrototype);
+        /* steps 10-11 */
+        boolean status = CreateDataProperty(cx, wrapper, "", value);
+        assert status;
+        /* step 12 */
+        return SerializeJSONProperty(cx, serializer, "", wrapper);
+    }
+
+    /**
+     * The serialization state shared by all nesting levels of a single {@code JSON.stringify}
+     * call. The JSON text is written directly into the output buffer. If a sink is present, the
+     * buffer is drained into the sink after each complete array element or object member.
+     */
+    private static final class JSONSerializer {
+        static final int FLUSH_THRESHOLD = 8192;
+
+        final Set<ScriptObject> stack;
+        final Set<String> propertyList;
+        final Callable replacerFunction;
+        final String gap;
+        final StringBuilder result;
+        final Appendable sink;
+        String indent = "";
+
+        JSONSerializer(Set<ScriptObject> stack, Set<String> propertyList,
+                Callable replacerFunction, String gap, StringBuilder result, Appendable sink) {
+            this.stack = stack;
+            this.propertyList = propertyList;
+            this.replacerFunction = replacerFunction;
+            this.gap = gap;
+            this.result = result;
+            this.sink = sink;
+        }
+
+        void flush() {
+            if (sink != null && result.length() >= FLUSH_THRESHOLD) {
+                try {
+                    sink.append(result);
+                } catch (IOException e) {
+                    throw new SinkException(e);
+                }
+                result.setLength(0);
+            }
+        }
+    }
+
+    /**
+     * Carries an {@link IOException} from the output sink through the serialization methods.
+     */
+    @SuppressWarnings("serial")
+    private static final class SinkException extends RuntimeException {
+        SinkException(IOException cause) {
+            super(cause);
+        }
+
+        @Override
+        public IOException getCause() {
+            return (IOException) super.getCause();
+        }
+    }
+
     /**
      * 24.3.2.1 Runtime Semantics: SerializeJSONProperty (key, holder )
      * 
@@ -304,11 +447,114 @@ public final class JSONObject extends OrdinaryObject implements Initializable {
      *            the property key
      * @param holder
      *            the script object
-     * @return the JSON string
+     * @return the JSON string or {@code null} if the property value is not serializable
      */
     public static String SerializeJSONProperty(ExecutionContext cx, Set<ScriptObject> stack,
             Set<String> propertyList, Callable replacerFunction, String indent, String gap,
             String key, ScriptObject holder) {
+        JSONSerializer serializer = new JSONSerializer(stack, propertyList, replacerFunction, gap,
+                new StringBuilder(), null);
+        serializer.indent = indent;
+        if (!SerializeJSONProperty(cx, serializer, key, holder)) {
+            return null;
+        }
+        return serializer.result.toString();
+    }
+
+    /**
+     * 24.3.2.3 Runtime Semantics: SerializeJSONObject ( value )
+     * 
+     * @param cx
+     *            the execution context
+     * @param stack
+     *            the current stack
+     * @param propertyList
+     *            the set of property keys to visit
+     * @param replacerFunction
+     *            the replacer function
+     * @param indent
+     *            the current indentation
+     * @param gap
+     *            the string gap
+     * @param value
+     *            the script object
+     * @return the JSON string
+     */
+    public static String SerializeJSONObject(ExecutionContext cx, Set<ScriptObject> stack,
+            Set<String> propertyList, Callable replacerFunction, String indent, String gap,
+            ScriptObject value) {
+        JSONSerializer serializer = new JSONSerializer(stack, propertyList, replacerFunction, gap,
+                new StringBuilder(), null);
+        serializer.indent = indent;
+        SerializeJSONObject(cx, serializer, value);
+        return serializer.result.toString();
+    }
+
+    /**
+     * 24.3.2.4 Runtime Semantics: SerializeJSONArray( value )
+     * 
+     * @param cx
+     *            the execution context
+     * @param stack
+     *            the current stack
+     * @param propertyList
+     *            the set of property keys to visit
+     * @param replacerFunction
+     *            the replacer function
+     * @param indent
+     *            the current indentation
+     * @param gap
+     *            the string gap
+     * @param value
+     *            the script array object
+     * @return the JSON string
+     */
+    public static String SerializeJSONArray(ExecutionContext cx, Set<ScriptObject> stack,
+            Set<String> propertyList, Callable replacerFunction, String indent, String gap,
+            ScriptObject value) {
+        JSONSerializer serializer = new JSONSerializer(stack, propertyList, replacerFunction, gap,
+                new StringBuilder(), null);
+        serializer.indent = indent;
+        SerializeJSONArray(cx, serializer, value);
+        return serializer.result.toString();
+    }
+
+    /**
+     * 24.3.2.1 Runtime Semantics: SerializeJSONProperty (key, holder )
+     * 
+     * @param cx
+     *            the execution context
+     * @param serializer
+     *            the serialization state
+     * @param key
+     *            the property key
+     * @param holder
+     *            the script object
+     * @return {@code true} if the property value was serialized
+     */
+    private static boolean SerializeJSONProperty(ExecutionContext cx, JSONSerializer serializer,
+            String key, ScriptObject holder) {
+        /* steps 1-5 */
+        Object value = JSONPropertyValue(cx, serializer, key, holder);
+        /* steps 6-12 */
+        return SerializeJSONValue(cx, serializer, value);
+    }
+
+    /**
+     * 24.3.2.1 Runtime Semantics: SerializeJSONProperty (key, holder ), steps 1-5
+     * 
+     * @param cx
+     *            the execution context
+     * @param serializer
+     *            the serialization state
+     * @param key
+     *            the property key
+     * @param holder
+     *            the script object
+     * @return the property value to serialize
+     */
+    private static Object JSONPropertyValue(ExecutionContext cx, JSONSerializer serializer,
+            String key, ScriptObject holder) {
         /* steps 1-2 */
         Object value = Get(cx, holder, key);
         /* step 3 */
@@ -319,8 +565,8 @@ public final class JSONObject extends OrdinaryObject implements Initializable {
             }
         }
         /* step 4 */
-        if (replacerFunction != null) {
-            value = replacerFunction.call(cx, holder, key, value);
+        if (serializer.replacerFunction != null) {
+            value = serializer.replacerFunction.call(cx, holder, key, value);
         }
         /* step 5 */
         if (Type.isObject(value)) {
@@ -333,34 +579,76 @@ public final class JSONObject extends OrdinaryObject implements Initializable {
                 value = ((BooleanObject) o).getBooleanData();
             }
         }
-        /* steps 6-12 */
+        return value;
+    }
+
+    /**
+     * Returns {@code true} if steps 6-12 of SerializeJSONProperty don't return {@code undefined}
+     * for <var>value</var>.
+     * 
+     * @param value
+     *            the property value
+     * @return {@code true} if the value is serializable
+     */
+    private static boolean isSerializable(Object value) {
         switch (Type.of(value)) {
         case Null:
-            return "null";
         case Boolean:
-            return Type.booleanValue(value) ? "true" : "false";
         case String:
-            return QuoteJSONString(Type.stringValue(value));
+        case Number:
+            return true;
+        case Object:
+            return !IsCallable(value);
+        case Undefined:
+        case Symbol:
+        default:
+            return false;
+        }
+    }
+
+    /**
+     * 24.3.2.1 Runtime Semantics: SerializeJSONProperty (key, holder ), steps 6-12
+     * 
+     * @param cx
+     *            the execution context
+     * @param serializer
+     *            the serialization state
+     * @param value
+     *            the property value
+     * @return {@code true} if the value was serialized
+     */
+    private static boolean SerializeJSONValue(ExecutionContext cx, JSONSerializer serializer,
+            Object value) {
+        StringBuilder result = serializer.result;
+        switch (Type.of(value)) {
+        case Null:
+            result.append("null");
+            return true;
+        case Boolean:
+            result.append(Type.booleanValue(value) ? "true" : "false");
+            return true;
+        case String:
+            QuoteJSONString(result, Type.stringValue(value));
+            return true;
         case Number:
             double d = Type.numberValue(value);
-            return isFinite(d) ? ToString(d) : "null";
+            result.append(isFinite(d) ? ToString(d) : "null");
+            return true;
         case Object:
             if (!IsCallable(value)) {
                 ScriptObject valueObj = Type.objectValue(value);
                 if (IsArray(cx, valueObj)) {
-                    return SerializeJSONArray(cx, stack, propertyList, replacerFunction, indent,
-                            gap, valueObj);
+                    SerializeJSONArray(cx, serializer, valueObj);
                 } else {
-                    return SerializeJSONObject(cx, stack, propertyList, replacerFunction, indent,
-                            gap, valueObj);
+                    SerializeJSONObject(cx, serializer, valueObj);
                 }
-            } else {
-                return null;
+                return true;
             }
+            return false;
         case Undefined:
         case Symbol:
         default:
-            return null;
+            return false;
         }
     }
 
@@ -380,11 +668,31 @@ public final class JSONObject extends OrdinaryObject implements Initializable {
      */
     public static String QuoteJSONString(CharSequence value) {
         StringBuilder product = new StringBuilder(value.length() + 2);
+        QuoteJSONString(product, value);
+        return product.toString();
+    }
+
+    /**
+     * 24.3.2.2 Runtime Semantics: QuoteJSONString ( value )
+     * 
+     * @param product
+     *            the output buffer
+     * @param value
+     *            the string
+     */
+    public static void QuoteJSONString(StringBuilder product, CharSequence value) {
         /* step 1 */
         product.append('"');
         /* step 2 */
+        int start = 0;
         for (int i = 0, len = value.length(); i < len; ++i) {
             char c = value.charAt(i);
+            if (c >= ' ' && c != '"' && c != '\\') {
+                continue;
+            }
+            // Copy unescaped characters in bulk.
+            product.append(value, start, i);
+            start = i + 1;
             switch (c) {
             case '"':
             case '\\':
@@ -406,21 +714,17 @@ public final class JSONObject extends OrdinaryObject implements Initializable {
                 product.append('\\').append('t');
                 break;
             default:
-                if (c < ' ') {
-                    product.append('\\').append('u')//
-                            .append(HEXDIGITS[(c >> 12) & 0xf])//
-                            .append(HEXDIGITS[(c >> 8) & 0xf])//
-                            .append(HEXDIGITS[(c >> 4) & 0xf])//
-                            .append(HEXDIGITS[(c >> 0) & 0xf]);
-                } else {
-                    product.append(c);
-                }
+                product.append('\\').append('u')//
+                        .append(HEXDIGITS[(c >> 12) & 0xf])//
+                        .append(HEXDIGITS[(c >> 8) & 0xf])//
+                        .append(HEXDIGITS[(c >> 4) & 0xf])//
+                        .append(HEXDIGITS[(c >> 0) & 0xf]);
             }
         }
+        product.append(value, start, value.length());
         /* step 3 */
         product.append('"');
-        /* step 4 */
-        return product.toString();
+        /* step 4 (not applicable) */
     }
 
     /**
@@ -428,81 +732,61 @@ public final class JSONObject extends OrdinaryObject implements Initializable {
      * 
      * @param cx
      *            the execution context
-     * @param stack
-     *            the current stack
-     * @param propertyList
-     *            the set of property keys to visit
-     * @param replacerFunction
-     *            the replacer function
-     * @param indent
-     *            the current indentation
-     * @param gap
-     *            the string gap
+     * @param serializer
+     *            the serialization state
      * @param value
      *            the script object
-     * @return the JSON string
      */
-    public static String SerializeJSONObject(ExecutionContext cx, Set<ScriptObject> stack,
-            Set<String> propertyList, Callable replacerFunction, String indent, String gap,
+    private static void SerializeJSONObject(ExecutionContext cx, JSONSerializer serializer,
             ScriptObject value) {
         /* steps 1-2 */
-        if (!stack.add(value)) {
+        if (!serializer.stack.add(value)) {
             throw newTypeError(cx, Messages.Key.JSONCyclicValue);
         }
         /* step 3 */
-        String stepback = indent;
+        String stepback = serializer.indent;
         /* step 4 */
-        indent = indent + gap;
+        String indent = serializer.indent = stepback + serializer.gap;
         /* steps 5-6 */
         Iterable<String> k;
-        if (propertyList != null) {
-            k = propertyList;
+        if (serializer.propertyList != null) {
+            k = serializer.propertyList;
         } else {
             k = EnumerableOwnNames(cx, value);
         }
-        /* step 7 */
-        ArrayList<String> partial = new ArrayList<>();
-        /* step 8 */
+        /* steps 7-10 */
+        StringBuilder result = serializer.result;
+        boolean gap = !serializer.gap.isEmpty();
+        boolean empty = true;
+        result.append('{');
         for (String p : k) {
-            String strP = SerializeJSONProperty(cx, stack, propertyList, replacerFunction, indent,
-                    gap, p, value);
-            if (strP != null) {
-                StringBuilder member = new StringBuilder(p.length() + strP.length() + 4);
-                member.append(QuoteJSONString(p)).append(':');
-                if (!gap.isEmpty()) {
-                    member.append(' ');
+            Object v = JSONPropertyValue(cx, serializer, p, value);
+            if (isSerializable(v)) {
+                if (!empty) {
+                    result.append(',');
                 }
-                member.append(strP);
-                partial.add(member.toString());
-            }
-        }
-        /* steps 9-10 */
-        String _final;
-        if (partial.isEmpty()) {
-            _final = "{}";
-        } else {
-            if (gap.isEmpty()) {
-                StringBuilder properties = new StringBuilder();
-                for (String p : partial) {
-                    properties.append(',').append(p);
+                if (gap) {
+                    result.append('\n').append(indent);
                 }
-                properties.append('}').setCharAt(0, '{');
-                _final = properties.toString();
-            } else {
-                StringBuilder properties = new StringBuilder();
-                String separator = ",\n" + indent;
-                for (String p : partial) {
-                    properties.append(separator).append(p);
+                QuoteJSONString(result, p);
+                result.append(':');
+                if (gap) {
+                    result.append(' ');
                 }
-                properties.append('\n').append(stepback).append('}').setCharAt(0, '{');
-                _final = properties.toString();
+                SerializeJSONValue(cx, serializer, v);
+                empty = false;
+                serializer.flush();
             }
         }
+        if (!empty && gap) {
+            result.append('\n').append(stepback);
+        }
+        result.append('}');
         /* step 11 */
-        stack.remove(value);
-        /* step 12 (not applicable) */
-        /* step 13 */
-        return _final;
+        serializer.stack.remove(value);
+        /* step 12 */
+        serializer.indent = stepback;
+        /* step 13 (not applicable) */
     }
 
     /**
@@ -510,71 +794,47 @@ public final class JSONObject extends OrdinaryObject implements Initializable {
      * 
      * @param cx
      *            the execution context
-     * @param stack
-     *            the current stack
-     * @param propertyList
-     *            the set of property keys to visit
-     * @param replacerFunction
-     *            the replacer function
-     * @param indent
-     *            the current indentation
-     * @param gap
-     *            the string gap
+     * @param serializer
+     *            the serialization state
      * @param value
      *            the script array object
-     * @return the JSON string
      */
-    public static String SerializeJSONArray(ExecutionContext cx, Set<ScriptObject> stack,
-            Set<String> propertyList, Callable replacerFunction, String indent, String gap,
+    private static void SerializeJSONArray(ExecutionContext cx, JSONSerializer serializer,
             ScriptObject value) {
         /* steps 1-2 */
-        if (!stack.add(value)) {
+        if (!serializer.stack.add(value)) {
             throw newTypeError(cx, Messages.Key.JSONCyclicValue);
         }
         /* step 3 */
-        String stepback = indent;
+        String stepback = serializer.indent;
         /* step 4 */
-        indent = indent + gap;
-        /* step 5 */
-        ArrayList<String> partial = new ArrayList<>();
+        String indent = serializer.indent = stepback + serializer.gap;
         /* steps 6-7 */
         long len = ToLength(cx, Get(cx, value, "length"));
-        /* steps 8-9 */
+        /* steps 5, 8-11 */
+        StringBuilder result = serializer.result;
+        boolean gap = !serializer.gap.isEmpty();
+        result.append('[');
         for (long index = 0; index < len; ++index) {
-            String strP = SerializeJSONProperty(cx, stack, propertyList, replacerFunction, indent,
-                    gap, ToString(index), value);
-            if (strP == null) {
-                partial.add("null");
-            } else {
-                partial.add(strP);
+            if (index > 0) {
+                result.append(',');
             }
-        }
-        /* steps 10-11 */
-        String _final;
-        if (partial.isEmpty()) {
-            _final = "[]";
-        } else {
-            if (gap.isEmpty()) {
-                StringBuilder properties = new StringBuilder();
-                for (String p : partial) {
-                    properties.append(',').append(p);
-                }
-                properties.append(']').setCharAt(0, '[');
-                _final = properties.toString();
-            } else {
-                StringBuilder properties = new StringBuilder();
-                String separator = ",\n" + indent;
-                for (String p : partial) {
-                    properties.append(separator).append(p);
-                }
-                properties.append('\n').append(stepback).append(']').setCharAt(0, '[');
-                _final = properties.toString();
+            if (gap) {
+                result.append('\n').append(indent);
+            }
+            if (!SerializeJSONProperty(cx, serializer, ToString(index), value)) {
+                result.append("null");
             }
+            serializer.flush();
         }
+        if (len > 0 && gap) {
+            result.append('\n').append(stepback);
+        }
+        result.append(']');
         /* step 12 */
-        stack.remove(value);
-        /* step 13 (not applicable) */
-        /* step 14 */
-        return _final;
+        serializer.stack.remove(value);
+        /* step 13 */
+        serializer.indent = stepback;
+        /* step 14 (not applicable) */
     }
 }
@@ -13,6 +13,7 @@ import static com.github.anba.es6draft.runtime.internal.Properties.createPropert
 import com.github.anba.es6draft.runtime.ExecutionContext;
 import com.github.anba.es6draft.runtime.Realm;
 import com.github.anba.es6draft.runtime.internal.Initializable;
+import com.github.anba.es6draft.runtime.internal.InterpreterFrames;
 import com.github.anba.es6draft.runtime.internal.ObjectAllocator;
 import com.github.anba.es6draft.runtime.internal.Properties.Attributes;
 import com.github.anba.es6draft.runtime.internal.Properties.Prototype;
@@ -145,6 +146,7 @@ public final class NativeErrorConstructor extends BuiltinConstructor implements
         /* steps 2-3 */
         ErrorObject obj = OrdinaryCreateFromConstructor(calleeContext, newTarget, type.prototype(),
                 NativeErrorObjectAllocator.INSTANCE);
+        InterpreterFrames.capture(callerContext, obj.getException());
         /* step 4 */
         if (!Type.isUndefined(message)) {
             CharSequence msg = ToString(calleeContext, message);
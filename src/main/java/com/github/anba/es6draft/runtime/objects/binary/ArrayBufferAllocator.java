@@ -0,0 +1,69 @@
+/**
+ * Copyright (c) 2012-2015 André Bargull
+ * Alle Rechte vorbehalten / All Rights Reserved.  Use is subject to license terms.
+ *
+ * <https://github.com/anba/es6draft>
+ */
+package com.github.anba.es6draft.runtime.objects.binary;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Allocator for the data blocks of {@link ArrayBufferObject}s.
+ *
+ * @see com.github.anba.es6draft.runtime.World#setArrayBufferAllocator(ArrayBufferAllocator)
+ */
+public interface ArrayBufferAllocator {
+    /**
+     * Allocates data blocks on the Java heap.
+     */
+    ArrayBufferAllocator HEAP = new ArrayBufferAllocator() {
+        @Override
+        public ByteBuffer allocate(int size) {
+            return ByteBuffer.allocate(size);
+        }
+    };
+
+    /**
+     * Allocates data blocks outside of the Java heap.
+     */
+    ArrayBufferAllocator DIRECT = new ArrayBufferAllocator() {
+        @Override
+        public ByteBuffer allocate(int size) {
+            return ByteBuffer.allocateDirect(size);
+        }
+    };
+
+    /**
+     * Allocates a new, zero-initialized data block.
+     *
+     * @param size
+     *            the data block size in bytes
+     * @return the new data block
+     * @throws OutOfMemoryError
+     *             if the data block cannot be allocated
+     */
+    ByteBuffer allocate(int size) throws OutOfMemoryError;
+
+    /**
+     * Allocator which uses direct data blocks for sizes above a threshold.
+     */
+    final class Threshold implements ArrayBufferAllocator {
+        private final int threshold;
+
+        /**
+         * Constructs a new threshold allocator.
+         *
+         * @param threshold
+         *            the smallest size in bytes for which direct data blocks are allocated
+         */
+        public Threshold(int threshold) {
+            this.threshold = threshold;
+        }
+
+        @Override
+        public ByteBuffer allocate(int size) {
+            return size < threshold ? HEAP.allocate(size) : DIRECT.allocate(size);
+        }
+    }
+}
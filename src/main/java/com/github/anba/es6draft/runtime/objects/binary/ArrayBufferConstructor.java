@@ -11,8 +11,14 @@ import static com.github.anba.es6draft.runtime.internal.Errors.newRangeError;
 import static com.github.anba.es6draft.runtime.internal.Errors.newTypeError;
 import static com.github.anba.es6draft.runtime.internal.Properties.createProperties;
 
+import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.FileSystemException;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 
 import com.github.anba.es6draft.runtime.ExecutionContext;
 import com.github.anba.es6draft.runtime.Realm;
@@ -86,10 +92,10 @@ public final class ArrayBufferConstructor extends BuiltinConstructor implements
         if (size > Integer.MAX_VALUE) {
             throw newRangeError(cx, Messages.Key.OutOfMemory);
         }
+        ArrayBufferAllocator allocator = cx.getRealm().getWorld().getArrayBufferAllocator();
         try {
             /* step 3 */
-            // TODO: Call allocateDirect() if size exceeds predefined limit?
-            return ByteBuffer.allocate((int) size).order(DEFAULT_BYTE_ORDER);
+            return allocator.allocate((int) size).order(DEFAULT_BYTE_ORDER);
         } catch (OutOfMemoryError e) {
             /* step 2 */
             throw newRangeError(cx, Messages.Key.OutOfMemoryVM);
@@ -129,6 +135,55 @@ public final class ArrayBufferConstructor extends BuiltinConstructor implements
         fromBlock.clear();
     }
 
+    /**
+     * Copies {@code count} bytes within a single data block, the source and target ranges may
+     * overlap.
+     * 
+     * @param block
+     *            the byte buffer
+     * @param toIndex
+     *            the target offset
+     * @param fromIndex
+     *            the source offset
+     * @param count
+     *            the number of bytes to copy
+     */
+    static void MoveDataBlockBytes(ByteBuffer block, long toIndex, long fromIndex, long count) {
+        assert fromIndex >= 0 && toIndex >= 0 && count >= 0;
+        assert fromIndex + count <= block.capacity();
+        assert toIndex + count <= block.capacity();
+
+        // ByteBuffer.put(ByteBuffer) has memmove semantics when both buffers share their content.
+        ByteBuffer from = block.duplicate();
+        from.limit((int) (fromIndex + count)).position((int) fromIndex);
+        block.limit((int) (toIndex + count)).position((int) toIndex);
+        block.put(from);
+        block.clear();
+    }
+
+    /**
+     * Repeats the first {@code elementSize} bytes at {@code index} until {@code count} bytes are
+     * filled.
+     * 
+     * @param block
+     *            the byte buffer
+     * @param index
+     *            the start offset
+     * @param elementSize
+     *            the size of the repeated element
+     * @param count
+     *            the number of bytes to fill
+     */
+    static void FillDataBlockBytes(ByteBuffer block, long index, int elementSize, long count) {
+        assert index >= 0 && count >= elementSize && count % elementSize == 0;
+        assert index + count <= block.capacity();
+
+        // Double the filled range with each copy.
+        for (long filled = elementSize; filled < count; filled <<= 1) {
+            MoveDataBlockBytes(block, index + filled, index, Math.min(filled, count - filled));
+        }
+    }
+
     /**
      * 24.1.1.1 AllocateArrayBuffer( constructor, byteLength )
      * 
@@ -153,6 +208,66 @@ public final class ArrayBufferConstructor extends BuiltinConstructor implements
         return new ArrayBufferObject(cx.getRealm(), block, byteLength, proto);
     }
 
+    /**
+     * Creates a new array buffer object whose data block is a memory-mapped region of a file.
+     * <p>
+     * Modifications are written to the file if {@code writable} is {@code true}, the file is
+     * extended if the mapped region exceeds the current file size. Otherwise the region is mapped
+     * read-only and the returned array buffer is immutable, see {@link #IsImmutableBuffer}.
+     * 
+     * @param cx
+     *            the execution context
+     * @param file
+     *            the file path
+     * @param position
+     *            the start position of the mapped region
+     * @param size
+     *            the size of the mapped region in bytes or {@code -1} to map all bytes from
+     *            {@code position} to the end of the file
+     * @param writable
+     *            if {@code true} modifications are written to the file
+     * @return the new array buffer object
+     * @throws IOException
+     *             if there was any I/O error
+     */
+    public static ArrayBufferObject MapArrayBuffer(ExecutionContext cx, Path file, long position,
+            long size, boolean writable) throws IOException {
+        FileChannel channel;
+        if (writable) {
+            try {
+                channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            } catch (NoSuchFileException e) {
+                throw e;
+            } catch (FileSystemException e) {
+                // Access denied or read-only file system (EROFS).
+                throw new IOException(String.format("can't open '%s' for writing: %s", file,
+                        e.getReason()), e);
+            }
+        } else {
+            channel = FileChannel.open(file, StandardOpenOption.READ);
+        }
+        try (FileChannel c = channel) {
+            long fileSize = c.size();
+            if (position < 0 || position > fileSize) {
+                throw newRangeError(cx, Messages.Key.InvalidByteOffset);
+            }
+            long byteLength = size < 0 ? fileSize - position : size;
+            if (!writable && position + byteLength > fileSize) {
+                throw newRangeError(cx, Messages.Key.InvalidBufferSize);
+            }
+            // The data block of an array buffer is limited to 2^31-1 bytes, larger files need to
+            // be mapped in multiple regions.
+            if (byteLength > Integer.MAX_VALUE) {
+                throw newRangeError(cx, Messages.Key.OutOfMemory);
+            }
+            FileChannel.MapMode mode = writable ? FileChannel.MapMode.READ_WRITE
+                    : FileChannel.MapMode.READ_ONLY;
+            ByteBuffer block = c.map(mode, position, byteLength).order(DEFAULT_BYTE_ORDER);
+            ScriptObject proto = cx.getIntrinsic(Intrinsics.ArrayBufferPrototype);
+            return new ArrayBufferObject(cx.getRealm(), block, byteLength, proto);
+        }
+    }
+
     /**
      * 24.1.1.2 IsDetachedBuffer( arrayBuffer )
      * 
@@ -166,6 +281,21 @@ public final class ArrayBufferConstructor extends BuiltinConstructor implements
         return arrayBuffer.isDetached();
     }
 
+    /**
+     * IsImmutableBuffer( arrayBuffer )
+     * <p>
+     * Immutable array buffers are created for read-only file mappings, see
+     * {@link #MapArrayBuffer(ExecutionContext, Path, long, long, boolean)}. Integer-indexed element
+     * sets on views of immutable array buffers fail, all other write operations throw a TypeError.
+     * 
+     * @param arrayBuffer
+     *            the array buffer object
+     * @return {@code true} if the array buffer is immutable
+     */
+    public static boolean IsImmutableBuffer(ArrayBufferObject arrayBuffer) {
+        return arrayBuffer.isImmutable();
+    }
+
     /**
      * 24.1.1.3 DetachArrayBuffer( arrayBuffer )
      * 
@@ -250,6 +380,20 @@ public final class ArrayBufferConstructor extends BuiltinConstructor implements
         return targetBuffer;
     }
 
+    /**
+     * Returns the data block of the array buffer in the default byte order.
+     * 
+     * @param arrayBuffer
+     *            the array buffer object
+     * @return the data block
+     */
+    static ByteBuffer GetDataBlock(ArrayBufferObject arrayBuffer) {
+        assert !IsDetachedBuffer(arrayBuffer) : "ArrayBuffer is detached";
+        ByteBuffer block = arrayBuffer.getData();
+        assert block.order() == DEFAULT_BYTE_ORDER;
+        return block;
+    }
+
     /**
      * 24.1.1.5 GetValueFromBuffer (arrayBuffer, byteIndex, type, isLittleEndian)
      * 
@@ -287,22 +431,21 @@ public final class ArrayBufferConstructor extends BuiltinConstructor implements
         assert byteIndex >= 0 && (byteIndex + type.size() <= arrayBuffer.getByteLength());
         /* step 4 */
         ByteBuffer block = arrayBuffer.getData();
+        assert block.order() == DEFAULT_BYTE_ORDER;
         /* steps 7-8 */
-        if ((block.order() == ByteOrder.LITTLE_ENDIAN) != isLittleEndian) {
-            // NB: Byte order is not reset after this call.
-            block.order(isLittleEndian ? ByteOrder.LITTLE_ENDIAN : ByteOrder.BIG_ENDIAN);
-        }
+        // The byte order of the shared data block is never changed, instead the bytes are swapped.
+        boolean swap = isLittleEndian != IS_LITTLE_ENDIAN;
 
         int index = (int) byteIndex;
         switch (type) {
         case Float32: {
             /* steps 5-6, 9 */
-            double rawValue = block.getFloat(index);
+            double rawValue = Float.intBitsToFloat(getInt(block, index, swap));
             return Double.isNaN(rawValue) ? Double.NaN : rawValue;
         }
         case Float64: {
             /* steps 5-6, 10 */
-            double rawValue = block.getDouble(index);
+            double rawValue = Double.longBitsToDouble(getLong(block, index, swap));
             return Double.isNaN(rawValue) ? Double.NaN : rawValue;
         }
 
@@ -311,17 +454,17 @@ public final class ArrayBufferConstructor extends BuiltinConstructor implements
         case Uint8C:
             return block.get(index) & 0xffL;
         case Uint16:
-            return block.getShort(index) & 0xffffL;
+            return getShort(block, index, swap) & 0xffffL;
         case Uint32:
-            return block.getInt(index) & 0xffffffffL;
+            return getInt(block, index, swap) & 0xffffffffL;
 
             /* steps 5-6, 12-13 */
         case Int8:
             return (long) block.get(index);
         case Int16:
-            return (long) block.getShort(index);
+            return (long) getShort(block, index, swap);
         case Int32:
-            return (long) block.getInt(index);
+            return (long) getInt(block, index, swap);
 
         default:
             throw new AssertionError();
@@ -363,28 +506,27 @@ public final class ArrayBufferConstructor extends BuiltinConstructor implements
             ElementType type, double value, boolean isLittleEndian) {
         /* step 1 */
         assert !IsDetachedBuffer(arrayBuffer) : "ArrayBuffer is detached";
+        assert !IsImmutableBuffer(arrayBuffer) : "ArrayBuffer is immutable";
         /* steps 2-3 */
         assert byteIndex >= 0 && (byteIndex + type.size() <= arrayBuffer.getByteLength());
         /* step 4 (not applicable) */
         /* step 5 */
         ByteBuffer block = arrayBuffer.getData();
         /* step 6 */
-        assert block != null;
+        assert block != null && block.order() == DEFAULT_BYTE_ORDER;
         /* step 8 */
-        if ((block.order() == ByteOrder.LITTLE_ENDIAN) != isLittleEndian) {
-            // NB: Byte order is not reset after this call.
-            block.order(isLittleEndian ? ByteOrder.LITTLE_ENDIAN : ByteOrder.BIG_ENDIAN);
-        }
+        // The byte order of the shared data block is never changed, instead the bytes are swapped.
+        boolean swap = isLittleEndian != IS_LITTLE_ENDIAN;
 
         int index = (int) byteIndex;
         switch (type) {
         case Float32:
             /* steps 5, 9, 12-13 */
-            block.putFloat(index, (float) value);
+            putInt(block, index, Float.floatToRawIntBits((float) value), swap);
             return;
         case Float64:
             /* steps 5, 10, 12-13 */
-            block.putDouble(index, value);
+            putLong(block, index, Double.doubleToRawLongBits(value), swap);
             return;
 
             /* steps 5, 11-13 */
@@ -399,17 +541,17 @@ public final class ArrayBufferConstructor extends BuiltinConstructor implements
             return;
 
         case Int16:
-            block.putShort(index, ElementType.ToInt16(value));
+            putShort(block, index, ElementType.ToInt16(value), swap);
             return;
         case Uint16:
-            block.putShort(index, ElementType.ToUint16(value));
+            putShort(block, index, ElementType.ToUint16(value), swap);
             return;
 
         case Int32:
-            block.putInt(index, ElementType.ToInt32(value));
+            putInt(block, index, ElementType.ToInt32(value), swap);
             return;
         case Uint32:
-            block.putInt(index, ElementType.ToUint32(value));
+            putInt(block, index, ElementType.ToUint32(value), swap);
             return;
 
         default:
@@ -417,6 +559,33 @@ public final class ArrayBufferConstructor extends BuiltinConstructor implements
         }
     }
 
+    private static short getShort(ByteBuffer block, int index, boolean swap) {
+        short value = block.getShort(index);
+        return swap ? Short.reverseBytes(value) : value;
+    }
+
+    private static int getInt(ByteBuffer block, int index, boolean swap) {
+        int value = block.getInt(index);
+        return swap ? Integer.reverseBytes(value) : value;
+    }
+
+    private static long getLong(ByteBuffer block, int index, boolean swap) {
+        long value = block.getLong(index);
+        return swap ? Long.reverseBytes(value) : value;
+    }
+
+    private static void putShort(ByteBuffer block, int index, short value, boolean swap) {
+        block.putShort(index, swap ? Short.reverseBytes(value) : value);
+    }
+
+    private static void putInt(ByteBuffer block, int index, int value, boolean swap) {
+        block.putInt(index, swap ? Integer.reverseBytes(value) : value);
+    }
+
+    private static void putLong(ByteBuffer block, int index, long value, boolean swap) {
+        block.putLong(index, swap ? Long.reverseBytes(value) : value);
+    }
+
     /**
      * 24.1.2.1 ArrayBuffer(length)
      */
@@ -85,4 +85,13 @@ public final class ArrayBufferObject extends OrdinaryObject {
     public boolean isDetached() {
         return detached;
     }
+
+    /**
+     * Returns {@code true} if the data block of this array buffer object is read-only.
+     * 
+     * @return {@code true} if this array buffer object is immutable
+     */
+    public boolean isImmutable() {
+        return data != null && data.isReadOnly();
+    }
 }
@@ -15,6 +15,7 @@ import static com.github.anba.es6draft.runtime.internal.Errors.newTypeError;
 import static com.github.anba.es6draft.runtime.internal.Properties.createProperties;
 import static com.github.anba.es6draft.runtime.objects.binary.ArrayBufferConstructor.GetValueFromBuffer;
 import static com.github.anba.es6draft.runtime.objects.binary.ArrayBufferConstructor.IsDetachedBuffer;
+import static com.github.anba.es6draft.runtime.objects.binary.ArrayBufferConstructor.IsImmutableBuffer;
 import static com.github.anba.es6draft.runtime.objects.binary.ArrayBufferConstructor.SetValueInBuffer;
 
 import com.github.anba.es6draft.runtime.ExecutionContext;
@@ -154,6 +155,9 @@ public final class DataViewConstructor extends BuiltinConstructor implements Ini
         if (IsDetachedBuffer(buffer)) {
             throw newTypeError(cx, Messages.Key.BufferDetached);
         }
+        if (IsImmutableBuffer(buffer)) {
+            throw newTypeError(cx, Messages.Key.BufferImmutable);
+        }
         /* step 10 */
         long viewOffset = dataView.getByteOffset();
         /* step 11 */
@@ -77,6 +77,54 @@ public enum ElementType {
         return size;
     }
 
+    /**
+     * Returns {@code true} if all values of this element type are in the int32 range.
+     * 
+     * @return {@code true} if the element values are int32 values
+     */
+    public boolean isInt32() {
+        switch (this) {
+        case Int8:
+        case Uint8:
+        case Uint8C:
+        case Int16:
+        case Uint16:
+        case Int32:
+            return true;
+        default:
+            return false;
+        }
+    }
+
+    /**
+     * Returns {@code true} if converting any value of the source element type to this element type
+     * preserves its byte representation, so that elements can be copied without conversion.
+     * 
+     * @param source
+     *            the source element type
+     * @return {@code true} if elements of the source type can be copied byte-wise
+     */
+    public boolean isByteCompatible(ElementType source) {
+        if (this == source) {
+            return true;
+        }
+        switch (this) {
+        case Int8:
+        case Uint8:
+            return source == Int8 || source == Uint8 || source == Uint8C;
+        case Uint8C:
+            return source == Uint8;
+        case Int16:
+        case Uint16:
+            return source == Int16 || source == Uint16;
+        case Int32:
+        case Uint32:
+            return source == Int32 || source == Uint32;
+        default:
+            return false;
+        }
+    }
+
     /**
      * Returns the constructor name for the element type.
      * 
@@ -8,13 +8,18 @@ package com.github.anba.es6draft.runtime.objects.binary;
 
 import static com.github.anba.es6draft.runtime.AbstractOperations.ToNumber;
 import static com.github.anba.es6draft.runtime.internal.Errors.newTypeError;
+import static com.github.anba.es6draft.runtime.objects.binary.ArrayBufferConstructor.GetDataBlock;
 import static com.github.anba.es6draft.runtime.objects.binary.ArrayBufferConstructor.GetValueFromBuffer;
 import static com.github.anba.es6draft.runtime.objects.binary.ArrayBufferConstructor.IsDetachedBuffer;
+import static com.github.anba.es6draft.runtime.objects.binary.ArrayBufferConstructor.IsImmutableBuffer;
 import static com.github.anba.es6draft.runtime.objects.binary.ArrayBufferConstructor.SetValueInBuffer;
 import static com.github.anba.es6draft.runtime.types.Undefined.UNDEFINED;
 
+import java.nio.ByteBuffer;
+
 import com.github.anba.es6draft.runtime.ExecutionContext;
 import com.github.anba.es6draft.runtime.Realm;
+import com.github.anba.es6draft.runtime.internal.Integers;
 import com.github.anba.es6draft.runtime.internal.Messages;
 import com.github.anba.es6draft.runtime.types.ScriptObject;
 import com.github.anba.es6draft.runtime.types.builtins.IntegerIndexedObject;
@@ -119,7 +124,13 @@ public final class TypedArrayObject extends IntegerIndexedObject implements Arra
         /* steps 11-12 */
         long indexedPosition = (index << elementShift) + offset;
         /* step 14 */
-        return GetValueFromBuffer(buffer, indexedPosition, elementType);
+        double value = GetValueFromBuffer(buffer, indexedPosition, elementType);
+        if (elementType.isInt32()
+                || (elementType == ElementType.Uint32 && value <= Integer.MAX_VALUE)) {
+            // Return int32 values as Integer to enable the int32 fast paths in generated code.
+            return Integers.valueOf((int) value);
+        }
+        return value;
     }
 
     double elementGetDirect(ExecutionContext cx, long index) {
@@ -155,7 +166,7 @@ public final class TypedArrayObject extends IntegerIndexedObject implements Arra
             throw newTypeError(cx, Messages.Key.BufferDetached);
         }
         /* steps 7-10 */
-        if (index >= getArrayLength()) {
+        if (index >= getArrayLength() || IsImmutableBuffer(buffer)) {
             return false;
         }
         /* step 11 */
@@ -179,6 +190,9 @@ public final class TypedArrayObject extends IntegerIndexedObject implements Arra
         if (IsDetachedBuffer(buffer)) {
             throw newTypeError(cx, Messages.Key.BufferDetached);
         }
+        if (IsImmutableBuffer(buffer)) {
+            throw newTypeError(cx, Messages.Key.BufferImmutable);
+        }
         /* steps 7-10 (not applicable) */
         /* step 11 */
         long offset = getByteOffset();
@@ -191,6 +205,47 @@ public final class TypedArrayObject extends IntegerIndexedObject implements Arra
         /* step 18 (return) */
     }
 
+    /**
+     * Returns the byte index of the element at {@code index} or {@code -1} if the array buffer is
+     * detached or {@code index} is not a valid element index.
+     * 
+     * @param index
+     *            the element index
+     * @return the byte index or {@code -1}
+     */
+    public int elementByteIndex(int index) {
+        if (index < 0 || index >= getArrayLength() || IsDetachedBuffer(getBuffer())) {
+            return -1;
+        }
+        return (int) (((long) index << elementShift) + getByteOffset());
+    }
+
+    /**
+     * Returns the byte index of the element at {@code index} or {@code -1} if the array buffer is
+     * detached or immutable or {@code index} is not a valid element index.
+     * 
+     * @param index
+     *            the element index
+     * @return the byte index or {@code -1}
+     */
+    public int writableElementByteIndex(int index) {
+        if (IsImmutableBuffer(getBuffer())) {
+            return -1;
+        }
+        return elementByteIndex(index);
+    }
+
+    /**
+     * Returns the data block of the viewed array buffer. The array buffer must not be detached.
+     * 
+     * @return the data block
+     * @see #elementByteIndex(int)
+     * @see #writableElementByteIndex(int)
+     */
+    public ByteBuffer elementData() {
+        return GetDataBlock(getBuffer());
+    }
+
     /**
      * [[ViewedArrayBuffer]]
      */
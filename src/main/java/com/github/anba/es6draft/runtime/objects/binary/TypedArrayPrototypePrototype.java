@@ -13,13 +13,16 @@ import static com.github.anba.es6draft.runtime.internal.Errors.newTypeError;
 import static com.github.anba.es6draft.runtime.internal.Properties.createProperties;
 import static com.github.anba.es6draft.runtime.objects.ArrayIteratorPrototype.CreateArrayIterator;
 import static com.github.anba.es6draft.runtime.objects.binary.ArrayBufferConstructor.CloneArrayBuffer;
+import static com.github.anba.es6draft.runtime.objects.binary.ArrayBufferConstructor.CopyDataBlockBytes;
+import static com.github.anba.es6draft.runtime.objects.binary.ArrayBufferConstructor.FillDataBlockBytes;
 import static com.github.anba.es6draft.runtime.objects.binary.ArrayBufferConstructor.GetValueFromBuffer;
 import static com.github.anba.es6draft.runtime.objects.binary.ArrayBufferConstructor.IsDetachedBuffer;
+import static com.github.anba.es6draft.runtime.objects.binary.ArrayBufferConstructor.IsImmutableBuffer;
+import static com.github.anba.es6draft.runtime.objects.binary.ArrayBufferConstructor.MoveDataBlockBytes;
 import static com.github.anba.es6draft.runtime.objects.binary.ArrayBufferConstructor.SetValueInBuffer;
 import static com.github.anba.es6draft.runtime.objects.binary.TypedArrayConstructorPrototype.AllocateTypedArray;
 import static com.github.anba.es6draft.runtime.types.Undefined.UNDEFINED;
 
-import java.nio.ByteBuffer;
 import java.util.Arrays;
 import java.util.Comparator;
 
@@ -254,6 +257,9 @@ public final class TypedArrayPrototypePrototype extends OrdinaryObject implement
                 if (IsDetachedBuffer(targetBuffer)) {
                     throw newTypeError(cx, Messages.Key.BufferDetached);
                 }
+                if (IsImmutableBuffer(targetBuffer)) {
+                    throw newTypeError(cx, Messages.Key.BufferImmutable);
+                }
                 /* step 11 */
                 long targetLength = target.getArrayLength();
                 /* steps 12, 14 */
@@ -307,6 +313,9 @@ public final class TypedArrayPrototypePrototype extends OrdinaryObject implement
                 if (IsDetachedBuffer(targetBuffer)) {
                     throw newTypeError(cx, Messages.Key.BufferDetached);
                 }
+                if (IsImmutableBuffer(targetBuffer)) {
+                    throw newTypeError(cx, Messages.Key.BufferImmutable);
+                }
                 /* step 12 */
                 ArrayBufferObject srcBuffer = typedArray.getBuffer();
                 /* step 13 */
@@ -334,9 +343,11 @@ public final class TypedArrayPrototypePrototype extends OrdinaryObject implement
                     throw newRangeError(cx, Messages.Key.ArrayOffsetOutOfRange);
                 }
                 long targetIndex = (long) targetOffset;
+                // Byte compatible elements are copied without conversion.
+                boolean byteCompatible = targetType.isByteCompatible(srcType);
                 /* steps 24-25 */
                 long srcByteIndex;
-                if (srcBuffer == targetBuffer) {
+                if (srcBuffer == targetBuffer && !byteCompatible) {
                     srcBuffer = CloneArrayBuffer(cx, targetBuffer, srcByteOffset,
                             Intrinsics.ArrayBuffer);
                     assert !IsDetachedBuffer(targetBuffer);
@@ -347,7 +358,7 @@ public final class TypedArrayPrototypePrototype extends OrdinaryObject implement
                 /* step 26 */
                 long targetByteIndex = targetIndex * targetElementSize + targetByteOffset;
                 /* steps 27-29 */
-                if (srcType != targetType) {
+                if (!byteCompatible) {
                     /* step 27 */
                     long limit = targetByteIndex + targetElementSize * srcLength;
                     /* step 28 */
@@ -360,19 +371,14 @@ public final class TypedArrayPrototypePrototype extends OrdinaryObject implement
                 } else {
                     /* steps 27, 29 */
                     long countByteLength = targetElementSize * srcLength;
-                    ByteBuffer srcData = srcBuffer.getData();
-                    ByteBuffer targetData = targetBuffer.getData();
-                    assert (srcByteIndex + countByteLength) <= srcData.capacity();
-                    assert (targetByteIndex + countByteLength) <= targetData.capacity();
-                    assert srcData != targetData;
-
-                    srcData.limit((int) (srcByteIndex + countByteLength)).position(
-                            (int) srcByteIndex);
-                    targetData.limit((int) (targetByteIndex + countByteLength)).position(
-                            (int) targetByteIndex);
-                    targetData.put(srcData);
-                    srcData.clear();
-                    targetData.clear();
+                    if (srcBuffer == targetBuffer) {
+                        // Overlapping ranges are copied as if through an intermediate buffer.
+                        MoveDataBlockBytes(targetBuffer.getData(), targetByteIndex, srcByteIndex,
+                                countByteLength);
+                    } else {
+                        CopyDataBlockBytes(targetBuffer.getData(), targetByteIndex,
+                                srcBuffer.getData(), srcByteIndex, countByteLength);
+                    }
                 }
                 /* step 30 */
                 return UNDEFINED;
@@ -587,7 +593,7 @@ public final class TypedArrayPrototypePrototype extends OrdinaryObject implement
             /* steps 19-20 */
             ElementType targetType = a.getElementType();
             /* steps 21-22 */
-            if (srcType != targetType) {
+            if (!targetType.isByteCompatible(srcType)) {
                 /* step 21 */
                 /* steps 21.a-b */
                 for (long n = 0; k < finall; ++k, ++n) {
@@ -614,22 +620,19 @@ public final class TypedArrayPrototypePrototype extends OrdinaryObject implement
                 /* step 22.f */
                 long srcByteOffset = o.getByteOffset();
                 /* step 22.g */
-                long targetByteIndex = 0;
+                long targetByteIndex = a.getByteOffset();
                 /* step 22.h */
                 long srcByteIndex = srcByteOffset + k * elementSize;
                 /* step 22.i */
-                ByteBuffer srcData = srcBuffer.getData();
-                ByteBuffer targetData = targetBuffer.getData();
                 long countByteLength = count * elementSize;
-                assert (srcByteIndex + countByteLength) <= srcData.capacity();
-                assert countByteLength <= targetData.capacity();
-                assert srcData != targetData;
-
-                srcData.limit((int) (srcByteIndex + countByteLength)).position((int) srcByteIndex);
-                targetData.limit((int) countByteLength).position((int) targetByteIndex);
-                targetData.put(srcData);
-                srcData.clear();
-                targetData.clear();
+                if (srcBuffer == targetBuffer) {
+                    // The species constructor may return a view on the source buffer.
+                    MoveDataBlockBytes(targetBuffer.getData(), targetByteIndex, srcByteIndex,
+                            countByteLength);
+                } else {
+                    CopyDataBlockBytes(targetBuffer.getData(), targetByteIndex,
+                            srcBuffer.getData(), srcByteIndex, countByteLength);
+                }
             }
             /* step 23 */
             return a;
@@ -1263,6 +1266,25 @@ public final class TypedArrayPrototypePrototype extends OrdinaryObject implement
             /* steps 8-10 */
             long finall = Type.isUndefined(end) ? len : ToArrayIndex(cx, end, len);
             /* step 11 */
+            if (k < finall && !Type.isObject(value)) {
+                // ToNumber is not observable for primitive values, store the converted value once
+                // and then repeat its bytes.
+                double numValue = ToNumber(cx, value);
+                ArrayBufferObject buffer = o.getBuffer();
+                if (IsDetachedBuffer(buffer)) {
+                    throw newTypeError(cx, Messages.Key.BufferDetached);
+                }
+                if (IsImmutableBuffer(buffer)) {
+                    throw newTypeError(cx, Messages.Key.BufferImmutable);
+                }
+                ElementType elementType = o.getElementType();
+                int elementSize = elementType.size();
+                long byteIndex = o.getByteOffset() + k * elementSize;
+                SetValueInBuffer(buffer, byteIndex, elementType, numValue);
+                FillDataBlockBytes(buffer.getData(), byteIndex, elementSize, (finall - k)
+                        * elementSize);
+                return o;
+            }
             for (; k < finall; ++k) {
                 long pk = k;
                 o.elementSetDirect(cx, pk, ToNumber(cx, value));
@@ -1308,18 +1330,15 @@ public final class TypedArrayPrototypePrototype extends OrdinaryObject implement
                 if (IsDetachedBuffer(buffer)) {
                     throw newTypeError(cx, Messages.Key.BufferDetached);
                 }
+                if (IsImmutableBuffer(buffer)) {
+                    throw newTypeError(cx, Messages.Key.BufferImmutable);
+                }
                 int elementSize = o.getElementType().size();
-                long toByteIndex = to * elementSize;
-                long fromByteIndex = from * elementSize;
+                long byteOffset = o.getByteOffset();
+                long toByteIndex = to * elementSize + byteOffset;
+                long fromByteIndex = from * elementSize + byteOffset;
                 long countByteLength = count * elementSize;
-                ByteBuffer data = buffer.getData();
-                assert toByteIndex < data.capacity();
-                assert (fromByteIndex + countByteLength) <= data.capacity();
-
-                ByteBuffer dup = data.duplicate();
-                data.limit((int) (toByteIndex + countByteLength)).position((int) toByteIndex);
-                dup.limit((int) (fromByteIndex + countByteLength)).position((int) fromByteIndex);
-                data.put(dup).clear();
+                MoveDataBlockBytes(buffer.getData(), toByteIndex, fromByteIndex, countByteLength);
             }
             /* step 18 */
             return o;
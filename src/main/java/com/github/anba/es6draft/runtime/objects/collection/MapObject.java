@@ -7,8 +7,7 @@
 package com.github.anba.es6draft.runtime.objects.collection;
 
 import com.github.anba.es6draft.runtime.Realm;
-import com.github.anba.es6draft.runtime.internal.LinkedMap;
-import com.github.anba.es6draft.runtime.internal.LinkedMapImpl;
+import com.github.anba.es6draft.runtime.internal.OrderedHashMap;
 import com.github.anba.es6draft.runtime.types.builtins.OrdinaryObject;
 
 /**
@@ -20,7 +19,7 @@ import com.github.anba.es6draft.runtime.types.builtins.OrdinaryObject;
  */
 public final class MapObject extends OrdinaryObject {
     /** [[MapData]] */
-    private final LinkedMap<Object, Object> mapData = new LinkedMapImpl<Object>();
+    private final OrderedHashMap<Object> mapData = new OrderedHashMap<Object>();
 
     /**
      * Constructs a new Map object.
@@ -39,7 +38,7 @@ public final class MapObject extends OrdinaryObject {
      * 
      * @return the underlying map data
      */
-    public LinkedMap<Object, Object> getMapData() {
+    public OrderedHashMap<Object> getMapData() {
         return mapData;
     }
 }
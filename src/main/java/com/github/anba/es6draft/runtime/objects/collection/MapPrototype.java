@@ -17,8 +17,8 @@ import java.util.Map.Entry;
 import com.github.anba.es6draft.runtime.ExecutionContext;
 import com.github.anba.es6draft.runtime.Realm;
 import com.github.anba.es6draft.runtime.internal.Initializable;
-import com.github.anba.es6draft.runtime.internal.LinkedMap;
 import com.github.anba.es6draft.runtime.internal.Messages;
+import com.github.anba.es6draft.runtime.internal.OrderedHashMap;
 import com.github.anba.es6draft.runtime.internal.Properties.Accessor;
 import com.github.anba.es6draft.runtime.internal.Properties.AliasFunction;
 import com.github.anba.es6draft.runtime.internal.Properties.Attributes;
@@ -90,7 +90,7 @@ public final class MapPrototype extends OrdinaryObject implements Initializable
             /* steps 1-3 */
             MapObject m = thisMapObject(cx, thisValue);
             /* step 4 */
-            LinkedMap<Object, Object> entries = m.getMapData();
+            OrderedHashMap<Object> entries = m.getMapData();
             /* step 5 */
             entries.clear();
             /* step 6 */
@@ -113,7 +113,7 @@ public final class MapPrototype extends OrdinaryObject implements Initializable
             /* steps 1-3 */
             MapObject m = thisMapObject(cx, thisValue);
             /* step 4 */
-            LinkedMap<Object, Object> entries = m.getMapData();
+            OrderedHashMap<Object> entries = m.getMapData();
             /* steps 5-6 */
             return entries.delete(key);
         }
@@ -160,7 +160,7 @@ public final class MapPrototype extends OrdinaryObject implements Initializable
             Callable callback = (Callable) callbackfn;
             /* step 5 (omitted) */
             /* step 6 */
-            LinkedMap<Object, Object> entries = m.getMapData();
+            OrderedHashMap<Object> entries = m.getMapData();
             /* step 7 */
             for (Entry<Object, Object> e : entries) {
                 callback.call(cx, thisArg, e.getValue(), e.getKey(), m);
@@ -185,7 +185,7 @@ public final class MapPrototype extends OrdinaryObject implements Initializable
             /* steps 1-3 */
             MapObject m = thisMapObject(cx, thisValue);
             /* step 4 */
-            LinkedMap<Object, Object> entries = m.getMapData();
+            OrderedHashMap<Object> entries = m.getMapData();
             /* steps 5-6 */
             Object value = entries.get(key);
             return value != null ? value : UNDEFINED;
@@ -207,7 +207,7 @@ public final class MapPrototype extends OrdinaryObject implements Initializable
             /* steps 1-3 */
             MapObject m = thisMapObject(cx, thisValue);
             /* step 4 */
-            LinkedMap<Object, Object> entries = m.getMapData();
+            OrderedHashMap<Object> entries = m.getMapData();
             /* steps 5-6 */
             return entries.has(key);
         }
@@ -245,7 +245,7 @@ public final class MapPrototype extends OrdinaryObject implements Initializable
             /* steps 1-3 */
             MapObject m = thisMapObject(cx, thisValue);
             /* step 4 */
-            LinkedMap<Object, Object> entries = m.getMapData();
+            OrderedHashMap<Object> entries = m.getMapData();
             /* steps 5-8 */
             entries.set(key, value);
             /* step 9 */
@@ -266,7 +266,7 @@ public final class MapPrototype extends OrdinaryObject implements Initializable
             /* steps 1-3 */
             MapObject m = thisMapObject(cx, thisValue);
             /* step 4 */
-            LinkedMap<Object, Object> entries = m.getMapData();
+            OrderedHashMap<Object> entries = m.getMapData();
             /* steps 5-7 */
             return entries.size();
         }
@@ -7,8 +7,7 @@
 package com.github.anba.es6draft.runtime.objects.collection;
 
 import com.github.anba.es6draft.runtime.Realm;
-import com.github.anba.es6draft.runtime.internal.LinkedMap;
-import com.github.anba.es6draft.runtime.internal.LinkedMapImpl;
+import com.github.anba.es6draft.runtime.internal.OrderedHashMap;
 import com.github.anba.es6draft.runtime.types.builtins.OrdinaryObject;
 
 /**
@@ -20,7 +19,7 @@ import com.github.anba.es6draft.runtime.types.builtins.OrdinaryObject;
  */
 public final class SetObject extends OrdinaryObject {
     /** [[SetData]] */
-    private final LinkedMap<Object, Void> setData = new LinkedMapImpl<Void>();
+    private final OrderedHashMap<Void> setData = new OrderedHashMap<Void>();
 
     /**
      * Constructs a new Set object.
@@ -39,7 +38,7 @@ public final class SetObject extends OrdinaryObject {
      * 
      * @return the underlying set data
      */
-    public LinkedMap<Object, Void> getSetData() {
+    public OrderedHashMap<Void> getSetData() {
         return setData;
     }
 }
@@ -91,7 +91,7 @@ public final class SetPrototype extends OrdinaryObject implements Initializable
             /* steps 1-3 */
             SetObject s = thisSetObject(cx, thisValue);
             /* step 4 */
-            LinkedMap<Object, Void> entries = s.getSetData();
+            OrderedHashMap<Void> entries = s.getSetData();
             /* steps 5-7 */
             entries.set(value, null);
             /* step 8 */
@@ -112,7 +112,7 @@ public final class SetPrototype extends OrdinaryObject implements Initializable
             /* steps 1-3 */
             SetObject s = thisSetObject(cx, thisValue);
             /* step 4 */
-            LinkedMap<Object, Void> entries = s.getSetData();
+            OrderedHashMap<Void> entries = s.getSetData();
             /* step 5 */
             entries.clear();
             /* step 6 */
@@ -135,7 +135,7 @@ public final class SetPrototype extends OrdinaryObject implements Initializable
             /* steps 1-3 */
             SetObject s = thisSetObject(cx, thisValue);
             /* step 4 */
-            LinkedMap<Object, Void> entries = s.getSetData();
+            OrderedHashMap<Void> entries = s.getSetData();
             /* steps 5-6 */
             return entries.delete(value);
         }
@@ -180,7 +180,7 @@ public final class SetPrototype extends OrdinaryObject implements Initializable
             Callable callback = (Callable) callbackfn;
             /* step 5 (omitted) */
             /* step 6 */
-            LinkedMap<Object, Void> entries = s.getSetData();
+            OrderedHashMap<Void> entries = s.getSetData();
             /* step 7 */
             for (Entry<Object, Void> e : entries) {
                 callback.call(cx, thisArg, e.getKey(), e.getKey(), s);
@@ -205,7 +205,7 @@ public final class SetPrototype extends OrdinaryObject implements Initializable
             /* steps 1-3 */
             SetObject s = thisSetObject(cx, thisValue);
             /* step 4 */
-            LinkedMap<Object, Void> entries = s.getSetData();
+            OrderedHashMap<Void> entries = s.getSetData();
             /* steps 5-6 */
             return entries.has(value);
         }
@@ -224,7 +224,7 @@ public final class SetPrototype extends OrdinaryObject implements Initializable
             /* steps 1-3 */
             SetObject s = thisSetObject(cx, thisValue);
             /* step 4 */
-            LinkedMap<Object, Void> entries = s.getSetData();
+            OrderedHashMap<Void> entries = s.getSetData();
             /* steps 5-7 */
             return entries.size();
         }
@@ -6,10 +6,8 @@
  */
 package com.github.anba.es6draft.runtime.objects.collection;
 
-import java.util.WeakHashMap;
-
 import com.github.anba.es6draft.runtime.Realm;
-import com.github.anba.es6draft.runtime.types.ScriptObject;
+import com.github.anba.es6draft.runtime.types.builtins.EphemeronTable;
 import com.github.anba.es6draft.runtime.types.builtins.OrdinaryObject;
 
 /**
@@ -21,8 +19,7 @@ import com.github.anba.es6draft.runtime.types.builtins.OrdinaryObject;
  */
 public final class WeakMapObject extends OrdinaryObject {
     /** [[WeakMapData]] */
-    // no ephemeron tables in java :(
-    private final WeakHashMap<ScriptObject, Object> weakMapData = new WeakHashMap<>();
+    private final EphemeronTable<Object> weakMapData = new EphemeronTable<>();
 
     /**
      * Constructs a new WeakMap object.
@@ -41,7 +38,7 @@ public final class WeakMapObject extends OrdinaryObject {
      * 
      * @return the underlying map data
      */
-    public WeakHashMap<ScriptObject, Object> getWeakMapData() {
+    public EphemeronTable<Object> getWeakMapData() {
         return weakMapData;
     }
 }
@@ -10,8 +10,6 @@ import static com.github.anba.es6draft.runtime.internal.Errors.newTypeError;
 import static com.github.anba.es6draft.runtime.internal.Properties.createProperties;
 import static com.github.anba.es6draft.runtime.types.Undefined.UNDEFINED;
 
-import java.util.WeakHashMap;
-
 import com.github.anba.es6draft.runtime.ExecutionContext;
 import com.github.anba.es6draft.runtime.Realm;
 import com.github.anba.es6draft.runtime.internal.Initializable;
@@ -22,8 +20,8 @@ import com.github.anba.es6draft.runtime.internal.Properties.Prototype;
 import com.github.anba.es6draft.runtime.internal.Properties.Value;
 import com.github.anba.es6draft.runtime.types.BuiltinSymbol;
 import com.github.anba.es6draft.runtime.types.Intrinsics;
-import com.github.anba.es6draft.runtime.types.ScriptObject;
 import com.github.anba.es6draft.runtime.types.Type;
+import com.github.anba.es6draft.runtime.types.builtins.EphemeronTable;
 import com.github.anba.es6draft.runtime.types.builtins.OrdinaryObject;
 
 /**
@@ -87,13 +85,13 @@ public final class WeakMapPrototype extends OrdinaryObject implements Initializa
             /* steps 1-3 */
             WeakMapObject m = thisWeakMapObject(cx, thisValue);
             /* step 4 */
-            WeakHashMap<ScriptObject, Object> entries = m.getWeakMapData();
+            EphemeronTable<Object> entries = m.getWeakMapData();
             /* step 5 */
             if (!Type.isObject(key)) {
                 return false;
             }
             /* steps 6-7 */
-            return entries.remove(key) != null;
+            return entries.delete(Type.objectValue(key));
         }
 
         /**
@@ -112,13 +110,13 @@ public final class WeakMapPrototype extends OrdinaryObject implements Initializa
             /* steps 1-3 */
             WeakMapObject m = thisWeakMapObject(cx, thisValue);
             /* step 4 */
-            WeakHashMap<ScriptObject, Object> entries = m.getWeakMapData();
+            EphemeronTable<Object> entries = m.getWeakMapData();
             /* step 5 */
             if (!Type.isObject(key)) {
                 return UNDEFINED;
             }
             /* steps 6-7 */
-            Object value = entries.get(key);
+            Object value = entries.get(Type.objectValue(key));
             return value != null ? value : UNDEFINED;
         }
 
@@ -138,13 +136,13 @@ public final class WeakMapPrototype extends OrdinaryObject implements Initializa
             /* steps 1-3 */
             WeakMapObject m = thisWeakMapObject(cx, thisValue);
             /* step 4 */
-            WeakHashMap<ScriptObject, Object> entries = m.getWeakMapData();
+            EphemeronTable<Object> entries = m.getWeakMapData();
             /* step 5 */
             if (!Type.isObject(key)) {
                 return false;
             }
             /* steps 6-7 */
-            return entries.containsKey(key);
+            return entries.has(Type.objectValue(key));
         }
 
         /**
@@ -165,13 +163,13 @@ public final class WeakMapPrototype extends OrdinaryObject implements Initializa
             /* steps 1-3 */
             WeakMapObject m = thisWeakMapObject(cx, thisValue);
             /* step 4 */
-            WeakHashMap<ScriptObject, Object> entries = m.getWeakMapData();
+            EphemeronTable<Object> entries = m.getWeakMapData();
             /* step 5 */
             if (!Type.isObject(key)) {
                 throw newTypeError(cx, Messages.Key.NotObjectType);
             }
             /* steps 6-8 */
-            entries.put(Type.objectValue(key), value);
+            entries.set(Type.objectValue(key), value);
             /* step 9 */
             return m;
         }
@@ -6,10 +6,8 @@
  */
 package com.github.anba.es6draft.runtime.objects.collection;
 
-import java.util.WeakHashMap;
-
 import com.github.anba.es6draft.runtime.Realm;
-import com.github.anba.es6draft.runtime.types.ScriptObject;
+import com.github.anba.es6draft.runtime.types.builtins.EphemeronTable;
 import com.github.anba.es6draft.runtime.types.builtins.OrdinaryObject;
 
 /**
@@ -21,8 +19,7 @@ import com.github.anba.es6draft.runtime.types.builtins.OrdinaryObject;
  */
 public final class WeakSetObject extends OrdinaryObject {
     /** [[WeakSetData]] */
-    // no ephemeron tables in java :(
-    private final WeakHashMap<ScriptObject, Boolean> weakSetData = new WeakHashMap<>();
+    private final EphemeronTable<Boolean> weakSetData = new EphemeronTable<>();
 
     /**
      * Constructs a new WeakSet object.
@@ -41,7 +38,7 @@ public final class WeakSetObject extends OrdinaryObject {
      * 
      * @return the underlying set data
      */
-    public WeakHashMap<ScriptObject, Boolean> getWeakSetData() {
+    public EphemeronTable<Boolean> getWeakSetData() {
         return weakSetData;
     }
 }
@@ -9,8 +9,6 @@ package com.github.anba.es6draft.runtime.objects.collection;
 import static com.github.anba.es6draft.runtime.internal.Errors.newTypeError;
 import static com.github.anba.es6draft.runtime.internal.Properties.createProperties;
 
-import java.util.WeakHashMap;
-
 import com.github.anba.es6draft.runtime.ExecutionContext;
 import com.github.anba.es6draft.runtime.Realm;
 import com.github.anba.es6draft.runtime.internal.Initializable;
@@ -21,8 +19,8 @@ import com.github.anba.es6draft.runtime.internal.Properties.Prototype;
 import com.github.anba.es6draft.runtime.internal.Properties.Value;
 import com.github.anba.es6draft.runtime.types.BuiltinSymbol;
 import com.github.anba.es6draft.runtime.types.Intrinsics;
-import com.github.anba.es6draft.runtime.types.ScriptObject;
 import com.github.anba.es6draft.runtime.types.Type;
+import com.github.anba.es6draft.runtime.types.builtins.EphemeronTable;
 import com.github.anba.es6draft.runtime.types.builtins.OrdinaryObject;
 
 /**
@@ -90,9 +88,9 @@ public final class WeakSetPrototype extends OrdinaryObject implements Initializa
                 throw newTypeError(cx, Messages.Key.NotObjectType);
             }
             /* step 5 */
-            WeakHashMap<ScriptObject, Boolean> entries = s.getWeakSetData();
+            EphemeronTable<Boolean> entries = s.getWeakSetData();
             /* steps 6-7 */
-            entries.put(Type.objectValue(value), Boolean.TRUE);
+            entries.set(Type.objectValue(value), Boolean.TRUE);
             /* step 8 */
             return s;
         }
@@ -117,9 +115,9 @@ public final class WeakSetPrototype extends OrdinaryObject implements Initializa
                 return false;
             }
             /* step 5 */
-            WeakHashMap<ScriptObject, Boolean> entries = s.getWeakSetData();
+            EphemeronTable<Boolean> entries = s.getWeakSetData();
             /* steps 6-7 */
-            return entries.remove(value) != null;
+            return entries.delete(Type.objectValue(value));
         }
 
         /**
@@ -142,9 +140,9 @@ public final class WeakSetPrototype extends OrdinaryObject implements Initializa
                 return false;
             }
             /* step 4 */
-            WeakHashMap<ScriptObject, Boolean> entries = s.getWeakSetData();
+            EphemeronTable<Boolean> entries = s.getWeakSetData();
             /* steps 6-7 */
-            return entries.containsKey(value);
+            return entries.has(Type.objectValue(value));
         }
 
         /**
@@ -153,9 +153,11 @@ public final class CollatorPrototype extends CollatorObject implements Initializ
      *            the second string
      * @return the locale specific string comparison result
      */
-    public static int CompareStrings(ExecutionContext cx, CollatorObject collator, String x,
-            String y) {
-        return collator.getCollator().compare(x, y);
+    public static int CompareStrings(ExecutionContext cx, CollatorObject collator, CharSequence x,
+            CharSequence y) {
+        // Collator.compare(Object, Object) accepts any CharSequence, concatenated strings are
+        // compared without flattening them first.
+        return collator.getCollator().compare((Object) x, (Object) y);
     }
 
     /**
@@ -10,12 +10,15 @@ import static com.github.anba.es6draft.runtime.AbstractOperations.*;
 import static com.github.anba.es6draft.runtime.internal.Properties.createProperties;
 import static com.github.anba.es6draft.runtime.types.Undefined.UNDEFINED;
 
+import java.util.EnumSet;
 import java.util.regex.MatchResult;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
+import com.github.anba.es6draft.compiler.Compiler;
 import com.github.anba.es6draft.parser.Characters;
 import com.github.anba.es6draft.parser.ParserException;
+import com.github.anba.es6draft.regexp.RegExpCache;
 import com.github.anba.es6draft.regexp.RegExpMatcher;
 import com.github.anba.es6draft.regexp.RegExpParser;
 import com.github.anba.es6draft.runtime.ExecutionContext;
@@ -242,8 +245,9 @@ public final class RegExpConstructor extends BuiltinConstructor implements Initi
         /* steps 7-10 */
         RegExpMatcher matcher;
         try {
-            matcher = RegExpParser.parse(p, f, "<regexp>", 1, 1,
-                    cx.getRealm().isEnabled(CompatibilityOption.WebRegularExpressions));
+            matcher = RegExpCache.getDefault().get(p, f, "<regexp>", 1, 1,
+                    cx.getRealm().isEnabled(CompatibilityOption.WebRegularExpressions),
+                    regExpEngine(cx.getRealm()));
         } catch (ParserException e) {
             throw e.toScriptException(cx);
         }
@@ -255,6 +259,17 @@ public final class RegExpConstructor extends BuiltinConstructor implements Initi
         return obj;
     }
 
+    private static RegExpParser.Engine regExpEngine(Realm realm) {
+        EnumSet<Compiler.Option> options = realm.getScriptLoader().getCompilerOptions();
+        if (options.contains(Compiler.Option.JDKRegExp)) {
+            return RegExpParser.Engine.JDK;
+        }
+        if (options.contains(Compiler.Option.JoniRegExp)) {
+            return RegExpParser.Engine.Joni;
+        }
+        return RegExpParser.Engine.Native;
+    }
+
     /**
      * 21.2.3.2 Abstract Operations for the RegExp Constructor<br>
      * 21.2.3.2.3 Runtime Semantics: RegExpCreate ( P, F )
@@ -17,6 +17,7 @@ import static com.github.anba.es6draft.runtime.types.Undefined.UNDEFINED;
 import static com.github.anba.es6draft.runtime.types.builtins.ArrayObject.ArrayCreate;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.regex.MatchResult;
 
@@ -423,6 +424,14 @@ public final class RegExpPrototype extends OrdinaryObject implements Initializab
                 /* steps 10.c-d */
                 Set(cx, rx, "lastIndex", 0, true);
             }
+            // Optimization: Literal patterns with a replace string don't need to run the matcher.
+            if (!functionalReplace) {
+                String literal = literalPatternOrNull(cx, rx);
+                if (literal != null) {
+                    return LiteralReplace(cx, (RegExpObject) rx, s, literal, global,
+                            replaceValueString);
+                }
+            }
             /* step 11 */
             ArrayList<MatchResult> results = new ArrayList<>();
             /* step 12 */
@@ -1065,6 +1074,113 @@ public final class RegExpPrototype extends OrdinaryObject implements Initializab
         return true;
     }
 
+    /**
+     * Returns the literal string of the pattern if {@code RegExp.prototype.exec} can be replaced
+     * with a substring search for <var>rx</var>, otherwise returns {@code null}. The substring
+     * search is only applicable for non-sticky regular expression objects which use the built-in
+     * {@code exec}, {@code global} and {@code sticky} properties.
+     * 
+     * @param cx
+     *            the execution context
+     * @param rx
+     *            the regular expression object
+     * @return the literal string or {@code null}
+     */
+    private static String literalPatternOrNull(ExecutionContext cx, ScriptObject rx) {
+        if (!(rx instanceof RegExpObject)) {
+            return null;
+        }
+        RegExpObject r = (RegExpObject) rx;
+        RegExpMatcher matcher = r.getRegExpMatcher();
+        if (matcher == null || r.isSet(RegExpObject.Flags.Sticky)) {
+            return null;
+        }
+        String literal = matcher.getLiteral();
+        if (literal == null) {
+            return null;
+        }
+        if (r.getPrototype() != cx.getIntrinsic(Intrinsics.RegExpPrototype)
+                || !isBuiltinRegExpPrototypeForExec(cx)) {
+            return null;
+        }
+        if (r.getOwnProperty(cx, "exec") != null || r.getOwnProperty(cx, "global") != null
+                || r.getOwnProperty(cx, "sticky") != null) {
+            return null;
+        }
+        return literal;
+    }
+
+    /**
+     * Replaces the matches of a literal pattern, the observable steps of
+     * {@code RegExp.prototype[@@replace]} for non-functional replace values are preserved.
+     * 
+     * @param cx
+     *            the execution context
+     * @param rx
+     *            the regular expression object
+     * @param s
+     *            the string
+     * @param literal
+     *            the literal pattern string
+     * @param global
+     *            the global flag
+     * @param replaceValue
+     *            the replace string
+     * @return the new string
+     */
+    private static String LiteralReplace(ExecutionContext cx, RegExpObject rx, String s,
+            String literal, boolean global, String replaceValue) {
+        if (!global) {
+            // RegExpBuiltinExec reads lastIndex even if the value is ignored.
+            ToLength(cx, Get(cx, rx, "lastIndex"));
+        }
+        int lengthS = s.length(), matchLength = literal.length();
+        int[] positions = new int[global ? 8 : 1];
+        int count = 0;
+        for (int position = s.indexOf(literal); position >= 0;) {
+            if (count == positions.length) {
+                positions = Arrays.copyOf(positions, count << 1);
+            }
+            positions[count++] = position;
+            if (!global) {
+                break;
+            }
+            position = s.indexOf(literal, position + matchLength);
+        }
+        if (global || count == 0) {
+            Set(cx, rx, "lastIndex", 0, true);
+        }
+        if (count == 0) {
+            return s;
+        }
+        int lastPosition = positions[count - 1];
+        RegExpConstructor.storeLastMatchResult(cx, s, matchResult(rx, s, lastPosition));
+        boolean substitution = replaceValue.indexOf('$') >= 0;
+        int capacity = lengthS + count * (replaceValue.length() - matchLength);
+        StringBuilder accumulatedResult = new StringBuilder(Math.max(capacity, 16));
+        String[] captures = new String[0];
+        int nextSourcePosition = 0;
+        for (int i = 0; i < count; ++i) {
+            int position = positions[i];
+            accumulatedResult.append(s, nextSourcePosition, position);
+            if (substitution) {
+                accumulatedResult.append(GetSubstitution(literal, s, position, captures,
+                        replaceValue));
+            } else {
+                accumulatedResult.append(replaceValue);
+            }
+            nextSourcePosition = position + matchLength;
+        }
+        return accumulatedResult.append(s, nextSourcePosition, lengthS).toString();
+    }
+
+    private static MatchResult matchResult(RegExpObject rx, String s, int position) {
+        MatchState matcher = rx.getRegExpMatcher().matcher(s);
+        boolean matchSucceeded = matcher.matches(position);
+        assert matchSucceeded;
+        return matcher.toMatchResult();
+    }
+
     private static Object[] GetReplacerArguments(String matched, String string, int position,
             MatchResult matchResult, int groupCount) {
         Object[] arguments = new Object[groupCount + 3];
@@ -1288,6 +1404,11 @@ public final class RegExpPrototype extends OrdinaryObject implements Initializab
             CreateDataProperty(cx, a, 0, s);
             return a;
         }
+        // Optimization: Split literal patterns with a substring search.
+        String literal = rx.getRegExpMatcher().getLiteral();
+        if (literal != null) {
+            return LiteralSplit(cx, rx, s, literal, lim, a);
+        }
         /* step 23 */
         int q = p;
         /* step 24 */
@@ -1339,6 +1460,28 @@ public final class RegExpPrototype extends OrdinaryObject implements Initializab
         return a;
     }
 
+    private static ArrayObject LiteralSplit(ExecutionContext cx, RegExpObject rx, String s,
+            String literal, long lim, ArrayObject a) {
+        assert !literal.isEmpty() && lim > 0;
+        int lengthA = 0, p = 0, lastMatch = -1;
+        for (int z = s.indexOf(literal); z >= 0; z = s.indexOf(literal, p)) {
+            lastMatch = z;
+            CreateDataProperty(cx, a, lengthA, s.substring(p, z));
+            lengthA += 1;
+            p = z + literal.length();
+            if (lengthA == lim) {
+                break;
+            }
+        }
+        if (lastMatch >= 0) {
+            RegExpConstructor.storeLastMatchResult(cx, s, matchResult(rx, s, lastMatch));
+        }
+        if (lengthA != lim) {
+            CreateDataProperty(cx, a, lengthA, s.substring(p));
+        }
+        return a;
+    }
+
     /**
      * Returns the capturing groups of the {@link MatchResult} argument.
      * 
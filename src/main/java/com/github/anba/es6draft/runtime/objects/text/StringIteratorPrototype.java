@@ -52,17 +52,41 @@ public final class StringIteratorPrototype extends OrdinaryObject implements Ini
      * 21.1.5.3 Properties of String Iterator Instances
      */
     private static final class StringIterator extends OrdinaryObject {
+        /** Number of characters copied at once from concatenated strings */
+        private static final int CHUNK_SIZE = 1024;
+
         /** [[IteratedString]] */
-        String iteratedString;
+        CharSequence iteratedString;
 
         /** [[StringIteratorNextIndex]] */
         int nextIndex;
 
-        StringIterator(Realm realm, String string, ScriptObject prototype) {
+        /** Flat copy of the iterated string starting at {@link #chunkStart} */
+        private String chunk = "";
+        private int chunkStart;
+
+        StringIterator(Realm realm, CharSequence string, ScriptObject prototype) {
             super(realm);
             this.iteratedString = string;
             setPrototype(prototype);
         }
+
+        /**
+         * Returns the code point at {@code index}. Concatenated strings are read in flat chunks
+         * instead of flattening them.
+         */
+        int codePointAt(CharSequence string, int index) {
+            if (string instanceof String) {
+                return ((String) string).codePointAt(index);
+            }
+            // Reload if the chunk doesn't contain both possible surrogate characters.
+            if (index < chunkStart || index + 1 >= chunkStart + chunk.length()) {
+                int end = Math.min(index + CHUNK_SIZE, string.length());
+                chunk = string.subSequence(index, end).toString();
+                chunkStart = index;
+            }
+            return chunk.codePointAt(index - chunkStart);
+        }
     }
 
     /**
@@ -74,7 +98,7 @@ public final class StringIteratorPrototype extends OrdinaryObject implements Ini
      *            the string value
      * @return the new string iterator
      */
-    public static OrdinaryObject CreateStringIterator(ExecutionContext cx, String string) {
+    public static OrdinaryObject CreateStringIterator(ExecutionContext cx, CharSequence string) {
         /* step 1 (not applicable) */
         /* steps 2-5 */
         return new StringIterator(cx.getRealm(), string,
@@ -112,7 +136,7 @@ public final class StringIteratorPrototype extends OrdinaryObject implements Ini
             }
             StringIterator iterator = (StringIterator) thisValue;
             /* step 4 */
-            String string = iterator.iteratedString;
+            CharSequence string = iterator.iteratedString;
             /* step 5 */
             if (string == null) {
                 return CreateIterResultObject(cx, UNDEFINED, true);
@@ -127,7 +151,7 @@ public final class StringIteratorPrototype extends OrdinaryObject implements Ini
                 return CreateIterResultObject(cx, UNDEFINED, true);
             }
             /* steps 9-11 */
-            int cp = string.codePointAt(position);
+            int cp = iterator.codePointAt(string, position);
             String resultString = fromCodePoint(cp);
             /* step 12 */
             int resultSize = Character.charCount(cp);
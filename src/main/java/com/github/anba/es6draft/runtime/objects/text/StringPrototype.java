@@ -25,6 +25,8 @@ import java.util.HashSet;
 import java.util.Locale;
 import java.util.Set;
 
+import org.mozilla.javascript.ConsString;
+
 import com.github.anba.es6draft.runtime.ExecutionContext;
 import com.github.anba.es6draft.runtime.Realm;
 import com.github.anba.es6draft.runtime.internal.CompatibilityOption;
@@ -34,6 +36,7 @@ import com.github.anba.es6draft.runtime.internal.Properties.CompatibilityExtensi
 import com.github.anba.es6draft.runtime.internal.Properties.Function;
 import com.github.anba.es6draft.runtime.internal.Properties.Prototype;
 import com.github.anba.es6draft.runtime.internal.Properties.Value;
+import com.github.anba.es6draft.runtime.internal.ScriptRuntime;
 import com.github.anba.es6draft.runtime.internal.Strings;
 import com.github.anba.es6draft.runtime.objects.intl.CollatorConstructor;
 import com.github.anba.es6draft.runtime.objects.intl.CollatorObject;
@@ -212,7 +215,7 @@ public final class StringPrototype extends OrdinaryObject implements Initializab
             /* step 1 */
             Object obj = RequireObjectCoercible(cx, thisValue);
             /* steps 2-3 */
-            String s = ToFlatString(cx, obj);
+            CharSequence s = ToString(cx, obj);
             /* steps 4-5 */
             double position = ToInteger(cx, pos);
             /* step 6 */
@@ -222,7 +225,7 @@ public final class StringPrototype extends OrdinaryObject implements Initializab
                 return UNDEFINED;
             }
             /* steps 8-12 */
-            return s.codePointAt((int) position);
+            return Character.codePointAt(s, (int) position);
         }
 
         /**
@@ -244,14 +247,14 @@ public final class StringPrototype extends OrdinaryObject implements Initializab
             CharSequence s = ToString(cx, obj);
             /* step 4 (not applicable) */
             /* step 5 */
-            StringBuilder r = new StringBuilder(s);
+            CharSequence r = s;
             /* step 6 */
             for (int i = 0; i < args.length; ++i) {
                 CharSequence nextString = ToString(cx, args[i]);
-                r.append(nextString);
+                r = ScriptRuntime.add(r, nextString, cx);
             }
             /* step 7 */
-            return r.toString();
+            return r;
         }
 
         /**
@@ -273,7 +276,7 @@ public final class StringPrototype extends OrdinaryObject implements Initializab
             /* step 1 */
             Object obj = RequireObjectCoercible(cx, thisValue);
             /* steps 2-3 */
-            String s = ToFlatString(cx, obj);
+            CharSequence s = ToString(cx, obj);
             /* steps 4-6 */
             if (IsRegExp(cx, searchString)) {
                 throw newTypeError(cx, Messages.Key.InvalidRegExpArgument);
@@ -295,7 +298,7 @@ public final class StringPrototype extends OrdinaryObject implements Initializab
                 return false;
             }
             /* steps 16-17 */
-            return s.startsWith(searchStr, start);
+            return Strings.startsWith(s, searchStr, start);
         }
 
         /**
@@ -317,7 +320,7 @@ public final class StringPrototype extends OrdinaryObject implements Initializab
             /* step 1 */
             Object obj = RequireObjectCoercible(cx, thisValue);
             /* steps 2-3 */
-            String s = ToFlatString(cx, obj);
+            CharSequence s = ToString(cx, obj);
             /* steps 4-6 */
             if (IsRegExp(cx, searchString)) {
                 throw newTypeError(cx, Messages.Key.InvalidRegExpArgument);
@@ -333,7 +336,7 @@ public final class StringPrototype extends OrdinaryObject implements Initializab
             /* step 13 */
             // int searchLen = searchStr.length();
             /* step 14 */
-            return s.indexOf(searchStr, start) != -1;
+            return Strings.indexOf(s, searchStr, start) != -1;
         }
 
         /**
@@ -355,7 +358,7 @@ public final class StringPrototype extends OrdinaryObject implements Initializab
             /* step 1 */
             Object obj = RequireObjectCoercible(cx, thisValue);
             /* steps 2-3 */
-            String s = ToFlatString(cx, obj);
+            CharSequence s = ToString(cx, obj);
             /* steps 4-5 */
             String searchStr = ToFlatString(cx, searchString);
             /* steps 6-7 */
@@ -365,7 +368,7 @@ public final class StringPrototype extends OrdinaryObject implements Initializab
             /* step 9 */
             int start = (int) Math.min(Math.max(pos, 0), len);
             /* steps 10-11 */
-            return s.indexOf(searchStr, start);
+            return Strings.indexOf(s, searchStr, start);
         }
 
         /**
@@ -387,7 +390,7 @@ public final class StringPrototype extends OrdinaryObject implements Initializab
             /* step 1 */
             Object obj = RequireObjectCoercible(cx, thisValue);
             /* steps 2-3 */
-            String s = ToFlatString(cx, obj);
+            CharSequence s = ToString(cx, obj);
             /* steps 4-5 */
             String searchStr = ToFlatString(cx, searchString);
             /* steps 6-7 */
@@ -399,7 +402,7 @@ public final class StringPrototype extends OrdinaryObject implements Initializab
             /* step 10 */
             int start = (int) Math.min(Math.max(pos, 0), len);
             /* steps 11-12 */
-            return s.lastIndexOf(searchStr, start);
+            return Strings.lastIndexOf(s, searchStr, start);
         }
 
         /**
@@ -424,9 +427,9 @@ public final class StringPrototype extends OrdinaryObject implements Initializab
             /* step 1 */
             Object obj = RequireObjectCoercible(cx, thisValue);
             /* steps 2-3 */
-            String s = ToFlatString(cx, obj);
+            CharSequence s = ToString(cx, obj);
             /* steps 4-5 */
-            String t = ToFlatString(cx, that);
+            CharSequence t = ToString(cx, that);
 
             // ES5/6
             // return cx.getRealm().getCollator().compare(s, t);
@@ -488,25 +491,36 @@ public final class StringPrototype extends OrdinaryObject implements Initializab
             /* step 1 */
             Object obj = RequireObjectCoercible(cx, thisValue);
             /* steps 2-3 */
-            String s = ToFlatString(cx, obj);
+            CharSequence s = ToString(cx, obj);
             /* steps 4-6 */
             String f = "NFC";
             if (!Type.isUndefined(form)) {
                 f = ToFlatString(cx, form);
             }
             /* steps 7-9 */
+            final Normalizer.Mode mode;
             switch (f) {
             case "NFC":
-                return Normalizer.normalize(s, Normalizer.NFC);
+                mode = Normalizer.NFC;
+                break;
             case "NFD":
-                return Normalizer.normalize(s, Normalizer.NFD);
+                mode = Normalizer.NFD;
+                break;
             case "NFKC":
-                return Normalizer.normalize(s, Normalizer.NFKC);
+                mode = Normalizer.NFKC;
+                break;
             case "NFKD":
-                return Normalizer.normalize(s, Normalizer.NFKD);
+                mode = Normalizer.NFKD;
+                break;
             default:
                 throw newRangeError(cx, Messages.Key.InvalidNormalizationForm, f);
             }
+            return convert(cx, s, new Conversion() {
+                @Override
+                public String convert(String part) {
+                    return Normalizer.normalize(part, mode);
+                }
+            });
         }
 
         /**
@@ -525,7 +539,7 @@ public final class StringPrototype extends OrdinaryObject implements Initializab
             /* step 1 */
             Object obj = RequireObjectCoercible(cx, thisValue);
             /* steps 2-3 */
-            String s = ToFlatString(cx, obj);
+            CharSequence s = ToString(cx, obj);
             /* steps 4-5 */
             double n = ToInteger(cx, count);
             /* steps 6-7 */
@@ -542,12 +556,18 @@ public final class StringPrototype extends OrdinaryObject implements Initializab
                 throw newRangeError(cx, Messages.Key.InvalidStringRepeat);
             }
             /* step 8 */
-            StringBuilder t = new StringBuilder((int) capacity);
-            for (int c = (int) n; c > 0; --c) {
-                t.append(s);
+            // Concatenate by repeated doubling, the result shares the characters of s.
+            CharSequence t = "";
+            for (int c = (int) n;; s = ScriptRuntime.add(s, s, cx)) {
+                if ((c & 1) != 0) {
+                    t = ScriptRuntime.add(t, s, cx);
+                }
+                if ((c >>>= 1) == 0) {
+                    break;
+                }
             }
             /* step 9 */
-            return t.toString();
+            return t;
         }
 
         /**
@@ -578,7 +598,7 @@ public final class StringPrototype extends OrdinaryObject implements Initializab
                 }
             }
             /* steps 4-5 */
-            String string = ToFlatString(cx, obj);
+            CharSequence string = ToString(cx, obj);
             /* steps 6-7 */
             String searchString = ToFlatString(cx, searchValue);
             /* step 8 */
@@ -592,7 +612,7 @@ public final class StringPrototype extends OrdinaryObject implements Initializab
                 replaceValueCallable = (Callable) replaceValue;
             }
             /* step 10 */
-            int pos = string.indexOf(searchString);
+            int pos = Strings.indexOf(string, searchString, 0);
             if (pos < 0) {
                 return string;
             }
@@ -608,7 +628,11 @@ public final class StringPrototype extends OrdinaryObject implements Initializab
             /* step 13 */
             int tailPos = pos + searchString.length();
             /* steps 14-15 */
-            return string.substring(0, pos) + replStr + string.substring(tailPos);
+            // The unchanged parts are shared with the input string instead of being copied.
+            int length = string.length();
+            CharSequence head = ConsString.slice(string, 0, pos);
+            CharSequence tail = ConsString.slice(string, tailPos, length);
+            return ScriptRuntime.add(ScriptRuntime.add(head, replStr, cx), tail, cx);
         }
 
         /**
@@ -625,7 +649,7 @@ public final class StringPrototype extends OrdinaryObject implements Initializab
          *            the replacement value
          * @return the replacement string
          */
-        private static String GetSubstitution(String matched, String string, int position,
+        private static String GetSubstitution(String matched, CharSequence string, int position,
                 String replacement) {
             /* step 1 (not applicable) */
             /* step 2 */
@@ -661,10 +685,10 @@ public final class StringPrototype extends OrdinaryObject implements Initializab
                     result.append(matched);
                     break;
                 case '`':
-                    result.append(string, 0, position);
+                    result.append(string.subSequence(0, position).toString());
                     break;
                 case '\'':
-                    result.append(string, tailPos, stringLength);
+                    result.append(string.subSequence(tailPos, stringLength).toString());
                     break;
                 case '$':
                     result.append('$');
@@ -778,7 +802,7 @@ public final class StringPrototype extends OrdinaryObject implements Initializab
                 }
             }
             /* steps 4-5 */
-            String s = ToFlatString(cx, obj);
+            CharSequence s = ToString(cx, obj);
             /* step 6 */
             ArrayObject a = ArrayCreate(cx, 0);
             /* step 7 */
@@ -820,7 +844,7 @@ public final class StringPrototype extends OrdinaryObject implements Initializab
                     if (e == p) {
                         q = q + 1;
                     } else {
-                        String t = s.substring(p, z);
+                        CharSequence t = s.subSequence(p, z);
                         CreateDataProperty(cx, a, lengthA, t);
                         lengthA += 1;
                         if (lengthA == lim) {
@@ -832,7 +856,7 @@ public final class StringPrototype extends OrdinaryObject implements Initializab
                 }
             }
             /* step 19 */
-            String t = s.substring(p, size);
+            CharSequence t = s.subSequence(p, size);
             /* steps 20-21 */
             CreateDataProperty(cx, a, lengthA, t);
             /* step 22 */
@@ -850,9 +874,9 @@ public final class StringPrototype extends OrdinaryObject implements Initializab
          *            the search string
          * @return the index of the first match
          */
-        private static int SplitMatch(String s, int q, String r) {
+        private static int SplitMatch(CharSequence s, int q, String r) {
             // returns start instead of end position
-            return s.indexOf(r, q);
+            return Strings.indexOf(s, r, q);
         }
 
         /**
@@ -874,7 +898,7 @@ public final class StringPrototype extends OrdinaryObject implements Initializab
             /* step 1 */
             Object obj = RequireObjectCoercible(cx, thisValue);
             /* steps 2-3 */
-            String s = ToFlatString(cx, obj);
+            CharSequence s = ToString(cx, obj);
             /* steps 4-6 */
             if (IsRegExp(cx, searchString)) {
                 throw newTypeError(cx, Messages.Key.InvalidRegExpArgument);
@@ -894,7 +918,7 @@ public final class StringPrototype extends OrdinaryObject implements Initializab
                 return false;
             }
             /* steps 15-16 */
-            return s.startsWith(searchStr, start);
+            return Strings.startsWith(s, searchStr, start);
         }
 
         /**
@@ -952,7 +976,7 @@ public final class StringPrototype extends OrdinaryObject implements Initializab
             /* step 1 */
             Object obj = RequireObjectCoercible(cx, thisValue);
             /* steps 2-3 */
-            String s = ToFlatString(cx, obj);
+            CharSequence s = ToString(cx, obj);
 
             // ES5/6
             // return s.toLowerCase(cx.getRealm().getLocale());
@@ -971,7 +995,13 @@ public final class StringPrototype extends OrdinaryObject implements Initializab
             /* step 12 */
             String supportedLocale = locale == null ? "und" : locale;
             /* steps 13-18 */
-            return UCharacter.toLowerCase(ULocale.forLanguageTag(supportedLocale), s);
+            final ULocale ulocale = ULocale.forLanguageTag(supportedLocale);
+            return convert(cx, s, new Conversion() {
+                @Override
+                public String convert(String part) {
+                    return UCharacter.toLowerCase(ulocale, part);
+                }
+            });
         }
 
         /**
@@ -991,7 +1021,7 @@ public final class StringPrototype extends OrdinaryObject implements Initializab
             /* step 1 */
             Object obj = RequireObjectCoercible(cx, thisValue);
             /* steps 2-3 */
-            String s = ToFlatString(cx, obj);
+            CharSequence s = ToString(cx, obj);
 
             // ES5/6
             // return s.toUpperCase(cx.getRealm().getLocale());
@@ -1010,7 +1040,13 @@ public final class StringPrototype extends OrdinaryObject implements Initializab
             /* step 12 */
             String supportedLocale = locale == null ? "und" : locale;
             /* steps 13-18 */
-            return UCharacter.toUpperCase(ULocale.forLanguageTag(supportedLocale), s);
+            final ULocale ulocale = ULocale.forLanguageTag(supportedLocale);
+            return convert(cx, s, new Conversion() {
+                @Override
+                public String convert(String part) {
+                    return UCharacter.toUpperCase(ulocale, part);
+                }
+            });
         }
 
         /**
@@ -1027,9 +1063,14 @@ public final class StringPrototype extends OrdinaryObject implements Initializab
             /* step 1 */
             Object obj = RequireObjectCoercible(cx, thisValue);
             /* steps 2-3 */
-            String s = ToFlatString(cx, obj);
+            CharSequence s = ToString(cx, obj);
             /* steps 4-9 */
-            return StringPrototype.toLowerCase(s);
+            return convert(cx, s, new Conversion() {
+                @Override
+                public String convert(String part) {
+                    return StringPrototype.toLowerCase(part);
+                }
+            });
         }
 
         /**
@@ -1046,9 +1087,14 @@ public final class StringPrototype extends OrdinaryObject implements Initializab
             /* step 1 */
             Object obj = RequireObjectCoercible(cx, thisValue);
             /* steps 2-3 */
-            String s = ToFlatString(cx, obj);
+            CharSequence s = ToString(cx, obj);
             /* steps 4-9 */
-            return s.toUpperCase(Locale.ROOT);
+            return convert(cx, s, new Conversion() {
+                @Override
+                public String convert(String part) {
+                    return part.toUpperCase(Locale.ROOT);
+                }
+            });
         }
 
         /**
@@ -1065,7 +1111,7 @@ public final class StringPrototype extends OrdinaryObject implements Initializab
             /* step 1 */
             Object obj = RequireObjectCoercible(cx, thisValue);
             /* steps 2-3 */
-            String s = ToFlatString(cx, obj);
+            CharSequence s = ToString(cx, obj);
             /* steps 4-5 */
             return Strings.trim(s);
         }
@@ -1084,7 +1130,7 @@ public final class StringPrototype extends OrdinaryObject implements Initializab
             /* step 1 */
             Object obj = RequireObjectCoercible(cx, thisValue);
             /* steps 2-3 */
-            String s = ToFlatString(cx, obj);
+            CharSequence s = ToString(cx, obj);
             /* step 4 */
             return CreateStringIterator(cx, s);
         }
@@ -1116,7 +1162,7 @@ public final class StringPrototype extends OrdinaryObject implements Initializab
             /* step 1 */
             Object obj = RequireObjectCoercible(cx, thisValue);
             /* steps 2-3 */
-            String s = ToFlatString(cx, obj);
+            CharSequence s = ToString(cx, obj);
             /* steps 4-5 */
             double intStart = ToInteger(cx, start);
             /* steps 6-7 */
@@ -1136,7 +1182,7 @@ public final class StringPrototype extends OrdinaryObject implements Initializab
             }
             assert 0 <= intStart && intStart + resultLength <= size;
             /* step 12 */
-            return s.substring((int) intStart, (int) (intStart + resultLength));
+            return s.subSequence((int) intStart, (int) (intStart + resultLength));
         }
 
         /**
@@ -1376,6 +1422,59 @@ public final class StringPrototype extends OrdinaryObject implements Initializab
         }
     }
 
+    /**
+     * String conversion applied by {@link #convert(ExecutionContext, CharSequence, Conversion)}.
+     */
+    private interface Conversion {
+        String convert(String s);
+    }
+
+    /** Initial number of characters converted at once for concatenated strings */
+    private static final int CONVERSION_CHUNK_SIZE = 4096;
+
+    /**
+     * Converts a string, concatenated strings are converted in flat parts instead of flattening
+     * them. The parts are split before U+0020 (SPACE): the space character starts a new
+     * normalisation segment and ends all casing contexts, so converting the parts separately gives
+     * the same result as converting the complete string. Strings without spaces are converted as
+     * a whole.
+     * 
+     * @param cx
+     *            the execution context
+     * @param s
+     *            the string
+     * @param conversion
+     *            the string conversion
+     * @return the converted string or <var>s</var> if no character was changed
+     */
+    private static CharSequence convert(ExecutionContext cx, CharSequence s,
+            Conversion conversion) {
+        if (s instanceof String) {
+            return conversion.convert((String) s);
+        }
+        CharSequence result = "";
+        boolean changed = false;
+        for (int start = 0, size = CONVERSION_CHUNK_SIZE, length = s.length(); start < length;) {
+            int end = (int) Math.min((long) start + size, length);
+            String part = s.subSequence(start, end).toString();
+            if (end < length) {
+                int split = part.lastIndexOf(' ');
+                if (split <= 0) {
+                    // No split position found, retry with a larger part.
+                    size <<= 1;
+                    continue;
+                }
+                part = part.substring(0, split);
+            }
+            String converted = conversion.convert(part);
+            changed |= !converted.equals(part);
+            result = ScriptRuntime.add(result, converted, cx);
+            start += part.length();
+            size = CONVERSION_CHUNK_SIZE;
+        }
+        return changed ? result : s;
+    }
+
     /**
      * SpecialCasing support for u+0130 (LATIN CAPITAL LETTER I WITH DOT ABOVE) was removed in Java8:
      * <a href="https://bugs.openjdk.java.net/browse/JDK-8020037">JDK-8020037</a>
@@ -132,6 +132,37 @@ public class ArrayObject extends OrdinaryObject {
         return succeeded;
     }
 
+    @Override
+    final boolean usePackedElements() {
+        return true;
+    }
+
+    @Override
+    protected final Object getValue(ExecutionContext cx, long propertyKey, Object receiver) {
+        Object value = getPackedElement(propertyKey);
+        if (value != null) {
+            return value;
+        }
+        return super.getValue(cx, propertyKey, receiver);
+    }
+
+    @Override
+    protected final boolean setValue(ExecutionContext cx, long propertyKey, Object value,
+            Object receiver) {
+        if (receiver == this && setPackedElement(propertyKey, value)) {
+            return true;
+        }
+        return super.setValue(cx, propertyKey, value, receiver);
+    }
+
+    @Override
+    protected final boolean deleteProperty(ExecutionContext cx, long propertyKey) {
+        if (deletePackedElement(propertyKey)) {
+            return true;
+        }
+        return super.deleteProperty(cx, propertyKey);
+    }
+
     @Override
     protected final boolean setPropertyValue(ExecutionContext cx, String propertyKey, Object value,
             Property current) {
@@ -0,0 +1,369 @@
+/**
+ * Copyright (c) 2012-2015 André Bargull
+ * Alle Rechte vorbehalten / All Rights Reserved.  Use is subject to license terms.
+ *
+ * <https://github.com/anba/es6draft>
+ */
+package com.github.anba.es6draft.runtime.types.builtins;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.github.anba.es6draft.runtime.types.ScriptObject;
+
+/**
+ * Identity-based ephemeron table for WeakMap and WeakSet objects.
+ * <p>
+ * Values are stored on the key object itself if the key is an {@link OrdinaryObject} or a
+ * {@link ProxyObject}, so a value is only strongly reachable through its key and a value which
+ * references its key does not keep the key alive. The table only holds weak references to its
+ * keys. Entries of collected keys are removed when the table is resized. When a table is collected,
+ * its entries are removed from the key objects the next time any table adds an entry, so a live key
+ * does not keep the values of a collected table alive.
+ * <p>
+ * Values for other {@link ScriptObject} implementations are stored in the table itself. These
+ * values are strongly reachable from the table, so a value which references its key keeps the
+ * entry alive until it is deleted or the table is cleared or collected.
+ */
+public final class EphemeronTable<VALUE> {
+    private static final int INITIAL_CAPACITY = 16;
+
+    private static final class Key extends WeakReference<ScriptObject> {
+        final int hash;
+        // Only used for keys which don't store their entries.
+        Object value;
+
+        Key(ScriptObject referent, int hash, Object value) {
+            super(referent);
+            this.hash = hash;
+            this.value = value;
+        }
+    }
+
+    /**
+     * Identifies the entries of a table in the key objects. The key references are kept in the
+     * token, so the entries can still be removed from the key objects after the table was
+     * collected.
+     */
+    private static final class Token extends WeakReference<EphemeronTable<?>> {
+        // Open addressing with linear probing over weak key references.
+        Key[] keys = new Key[INITIAL_CAPACITY];
+        int used;
+
+        Token(EphemeronTable<?> table) {
+            super(table, collectedTables);
+        }
+    }
+
+    private static final ReferenceQueue<EphemeronTable<?>> collectedTables = new ReferenceQueue<>();
+
+    private final Token token = new Token(this);
+
+    private static int hash(ScriptObject key) {
+        int h = System.identityHashCode(key);
+        return h ^ (h >>> 16);
+    }
+
+    private static boolean isHolder(ScriptObject key) {
+        return key instanceof OrdinaryObject || key instanceof ProxyObject;
+    }
+
+    private static Object[] getEphemerons(ScriptObject key) {
+        if (key instanceof OrdinaryObject) {
+            return ((OrdinaryObject) key).getEphemerons();
+        }
+        return ((ProxyObject) key).getEphemerons();
+    }
+
+    private static void setEphemerons(ScriptObject key, Object[] ephemerons) {
+        if (key instanceof OrdinaryObject) {
+            ((OrdinaryObject) key).setEphemerons(ephemerons);
+        } else {
+            ((ProxyObject) key).setEphemerons(ephemerons);
+        }
+    }
+
+    private int indexOf(ScriptObject key) {
+        Key[] keys = token.keys;
+        int mask = keys.length - 1;
+        int hash = hash(key);
+        for (int i = hash & mask;; i = (i + 1) & mask) {
+            Key k = keys[i];
+            if (k == null) {
+                return -1;
+            }
+            if (k.hash == hash && k.get() == key) {
+                return i;
+            }
+        }
+    }
+
+    private static void insert(Key[] keys, Key key) {
+        int mask = keys.length - 1;
+        int i = key.hash & mask;
+        while (keys[i] != null) {
+            i = (i + 1) & mask;
+        }
+        keys[i] = key;
+    }
+
+    private void addKey(ScriptObject key, Object value) {
+        Token token = this.token;
+        if ((token.used + 1) << 1 > token.keys.length) {
+            expunge();
+        }
+        insert(token.keys, new Key(key, hash(key), value));
+        token.used += 1;
+    }
+
+    private void removeKey(int index) {
+        Key[] keys = token.keys;
+        int mask = keys.length - 1;
+        keys[index] = null;
+        token.used -= 1;
+        // Shift back entries which are no longer reachable from their home slot.
+        for (int i = index, j = (index + 1) & mask; keys[j] != null; j = (j + 1) & mask) {
+            int home = keys[j].hash & mask;
+            if (i <= j ? (home <= i || home > j) : (home <= i && home > j)) {
+                keys[i] = keys[j];
+                keys[j] = null;
+                i = j;
+            }
+        }
+    }
+
+    private void expunge() {
+        Key[] keys = token.keys;
+        int live = 0;
+        for (Key k : keys) {
+            if (k != null && k.get() != null) {
+                live += 1;
+            }
+        }
+        int capacity = INITIAL_CAPACITY;
+        while (capacity < (live + 1) << 2) {
+            capacity <<= 1;
+        }
+        Key[] newKeys = new Key[capacity];
+        for (Key k : keys) {
+            if (k != null && k.get() != null) {
+                insert(newKeys, k);
+            }
+        }
+        token.keys = newKeys;
+        token.used = live;
+    }
+
+    /**
+     * Removes the entries of collected tables from their key objects. Only the slots of collected
+     * tables are cleared, so this method doesn't interfere with concurrent updates of live tables.
+     */
+    private static void purgeCollectedTables() {
+        for (Reference<?> ref; (ref = collectedTables.poll()) != null;) {
+            Token token = (Token) ref;
+            for (Key k : token.keys) {
+                ScriptObject key;
+                if (k != null && (key = k.get()) != null && isHolder(key)) {
+                    Object[] ephemerons = getEphemerons(key);
+                    for (int i = 0; ephemerons != null && i < ephemerons.length; i += 2) {
+                        if (ephemerons[i] == token) {
+                            ephemerons[i] = ephemerons[i + 1] = null;
+                        }
+                    }
+                }
+            }
+            token.keys = null;
+        }
+    }
+
+    /**
+     * Returns the index of this table's entry in the ephemeron entries of <var>key</var>. Entries
+     * of collected tables are removed.
+     * 
+     * @param key
+     *            the key object
+     * @return the entry index or {@code -1} if not present
+     */
+    private int holderIndexOf(ScriptObject key) {
+        Object[] ephemerons = getEphemerons(key);
+        if (ephemerons == null) {
+            return -1;
+        }
+        int index = -1;
+        boolean empty = true;
+        for (int i = 0; i < ephemerons.length; i += 2) {
+            Object t = ephemerons[i];
+            if (t == token) {
+                index = i;
+                empty = false;
+            } else if (t != null) {
+                if (((WeakReference<?>) t).get() == null) {
+                    ephemerons[i] = ephemerons[i + 1] = null;
+                } else {
+                    empty = false;
+                }
+            }
+        }
+        if (empty) {
+            setEphemerons(key, null);
+        }
+        return index;
+    }
+
+    /**
+     * Returns the number of live entries.
+     * 
+     * @return the number of entries
+     */
+    public int size() {
+        int size = 0;
+        for (Key k : token.keys) {
+            if (k != null && k.get() != null) {
+                size += 1;
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Returns the keys of all live entries.
+     * 
+     * @return the list of keys
+     */
+    public List<ScriptObject> keys() {
+        ArrayList<ScriptObject> list = new ArrayList<>();
+        for (Key k : token.keys) {
+            ScriptObject key;
+            if (k != null && (key = k.get()) != null) {
+                list.add(key);
+            }
+        }
+        return list;
+    }
+
+    /**
+     * Removes all entries.
+     */
+    public void clear() {
+        for (Key k : token.keys) {
+            ScriptObject key;
+            if (k != null && (key = k.get()) != null && isHolder(key)) {
+                int index = holderIndexOf(key);
+                if (index >= 0) {
+                    Object[] ephemerons = getEphemerons(key);
+                    ephemerons[index] = ephemerons[index + 1] = null;
+                }
+            }
+        }
+        token.keys = new Key[INITIAL_CAPACITY];
+        token.used = 0;
+    }
+
+    /**
+     * Returns the value for <var>key</var> or {@code null} if not present.
+     * 
+     * @param key
+     *            the key object
+     * @return the value or {@code null}
+     */
+    @SuppressWarnings("unchecked")
+    public VALUE get(ScriptObject key) {
+        if (isHolder(key)) {
+            int index = holderIndexOf(key);
+            return index >= 0 ? (VALUE) getEphemerons(key)[index + 1] : null;
+        }
+        int index = indexOf(key);
+        return index >= 0 ? (VALUE) token.keys[index].value : null;
+    }
+
+    /**
+     * Returns {@code true} if an entry for <var>key</var> is present.
+     * 
+     * @param key
+     *            the key object
+     * @return {@code true} if <var>key</var> is present
+     */
+    public boolean has(ScriptObject key) {
+        if (isHolder(key)) {
+            return holderIndexOf(key) >= 0;
+        }
+        return indexOf(key) >= 0;
+    }
+
+    /**
+     * Inserts or updates the entry <var>key</var> &rarr; <var>value</var>.
+     * 
+     * @param key
+     *            the key object
+     * @param value
+     *            the value
+     */
+    public void set(ScriptObject key, VALUE value) {
+        purgeCollectedTables();
+        if (isHolder(key)) {
+            int index = holderIndexOf(key);
+            Object[] ephemerons = getEphemerons(key);
+            if (index >= 0) {
+                ephemerons[index + 1] = value;
+                return;
+            }
+            int free = -1;
+            if (ephemerons != null) {
+                for (int i = 0; i < ephemerons.length; i += 2) {
+                    if (ephemerons[i] == null) {
+                        free = i;
+                        break;
+                    }
+                }
+            }
+            if (free < 0) {
+                if (ephemerons == null) {
+                    ephemerons = new Object[2];
+                    free = 0;
+                } else {
+                    free = ephemerons.length;
+                    ephemerons = Arrays.copyOf(ephemerons, free + 2);
+                }
+                setEphemerons(key, ephemerons);
+            }
+            ephemerons[free] = token;
+            ephemerons[free + 1] = value;
+            addKey(key, null);
+        } else {
+            int index = indexOf(key);
+            if (index >= 0) {
+                token.keys[index].value = value;
+            } else {
+                addKey(key, value);
+            }
+        }
+    }
+
+    /**
+     * Deletes the entry for <var>key</var>.
+     * 
+     * @param key
+     *            the key object
+     * @return {@code true} if an entry for <var>key</var> was present
+     */
+    public boolean delete(ScriptObject key) {
+        if (isHolder(key)) {
+            int index = holderIndexOf(key);
+            if (index < 0) {
+                return false;
+            }
+            Object[] ephemerons = getEphemerons(key);
+            ephemerons[index] = ephemerons[index + 1] = null;
+        }
+        int index = indexOf(key);
+        if (index < 0) {
+            return false;
+        }
+        removeKey(index);
+        return true;
+    }
+}
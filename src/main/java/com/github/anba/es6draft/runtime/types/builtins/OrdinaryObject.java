@@ -24,6 +24,7 @@ import com.github.anba.es6draft.runtime.internal.ObjectAllocator;
 import com.github.anba.es6draft.runtime.internal.PropertyMap;
 import com.github.anba.es6draft.runtime.internal.ScriptException;
 import com.github.anba.es6draft.runtime.internal.ScriptIterator;
+import com.github.anba.es6draft.runtime.internal.Shape;
 import com.github.anba.es6draft.runtime.types.Callable;
 import com.github.anba.es6draft.runtime.types.Constructor;
 import com.github.anba.es6draft.runtime.types.Intrinsics;
@@ -40,14 +41,55 @@ import com.github.anba.es6draft.runtime.types.Type;
  * </ul>
  */
 public class OrdinaryObject implements ScriptObject {
-    private static final int STRING_PROPERTIES_DEFAULT_INITIAL_CAPACITY = 16;
-    private static final int SYMBOL_PROPERTIES_DEFAULT_INITIAL_CAPACITY = 4;
     private static final Object[] EMPTY_GETTER_ARGS = new Object[0];
-    // Maps for String and Symbol valued property keys
-    private final PropertyMap<String, Property> properties;
-    private final PropertyMap<Symbol, Property> symbolProperties;
-    // Map for indexed properties [0, 2^53 - 1]
-    private final IndexedMap<Property> indexedProperties;
+    private static final IndexedMap.Packing<Property> PACKING = new IndexedMap.Packing<Property>() {
+        @Override
+        public Object pack(Property property) {
+            if (property.isDataDescriptor() && property.isWritable() && property.isEnumerable()
+                    && property.isConfigurable()) {
+                return property.getValue();
+            }
+            return null;
+        }
+
+        @Override
+        public Property unpack(Object value) {
+            return new Property(value, true, true, true);
+        }
+    };
+    // Property attributes of String and Symbol valued property keys, mirrored in the shape
+    private static final int WRITABLE = 0x01;
+    private static final int ENUMERABLE = 0x02;
+    private static final int CONFIGURABLE = 0x04;
+    private static final int ACCESSOR = 0x08;
+    private static final PropertyMap.Packing<Property> PROPERTY_PACKING = new PropertyMap.Packing<Property>() {
+        @Override
+        public int attributes(Property property) {
+            int attributes = (property.isEnumerable() ? ENUMERABLE : 0)
+                    | (property.isConfigurable() ? CONFIGURABLE : 0);
+            if (property.isAccessorDescriptor()) {
+                return attributes | ACCESSOR;
+            }
+            return attributes | (property.isWritable() ? WRITABLE : 0);
+        }
+
+        @Override
+        public Object pack(Property property) {
+            // Slots hold the property records, lookups don't need to allocate.
+            return property;
+        }
+
+        @Override
+        public Property unpack(int attributes, Object value) {
+            return (Property) value;
+        }
+    };
+
+    // Maps for String and Symbol valued property keys, allocated on first write
+    private PropertyMap<String, Property> properties;
+    private PropertyMap<Symbol, Property> symbolProperties;
+    // Map for indexed properties [0, 2^53 - 1], allocated on first write
+    private IndexedMap<Property> indexedProperties;
 
     /** [[Realm]] */
     @SuppressWarnings("unused")
@@ -59,6 +101,9 @@ public class OrdinaryObject implements ScriptObject {
     /** [[Extensible]] */
     private boolean extensible = true;
 
+    // WeakMap and WeakSet entries keyed by this object, allocated on first use
+    private Object[] ephemerons;
+
     /**
      * Constructs a new Ordinary Object instance.
      * 
@@ -67,9 +112,9 @@ public class OrdinaryObject implements ScriptObject {
      */
     public OrdinaryObject(Realm realm) {
         this.realm = realm;
-        this.properties = new PropertyMap<>(STRING_PROPERTIES_DEFAULT_INITIAL_CAPACITY);
-        this.symbolProperties = new PropertyMap<>(SYMBOL_PROPERTIES_DEFAULT_INITIAL_CAPACITY);
-        this.indexedProperties = new IndexedMap<>();
+        this.properties = PropertyMap.emptyMap();
+        this.symbolProperties = PropertyMap.emptyMap();
+        this.indexedProperties = IndexedMap.emptyMap();
     }
 
     /**
@@ -104,7 +149,108 @@ public class OrdinaryObject implements ScriptObject {
     public String toString() {
         return String.format("%s@%x: indexed=%s, strings=%s, symbols=%s, extensible=%b", getClass()
                 .getSimpleName(), System.identityHashCode(this), indexedProperties, properties
-                .keySet(), symbolProperties.keySet(), extensible);
+                .keys(), symbolProperties.keys(), extensible);
+    }
+
+    final Object[] getEphemerons() {
+        return ephemerons;
+    }
+
+    final void setEphemerons(Object[] ephemerons) {
+        this.ephemerons = ephemerons;
+    }
+
+    private PropertyMap<String, Property> writableProperties() {
+        PropertyMap<String, Property> properties = this.properties;
+        if (properties == PropertyMap.<String, Property> emptyMap()) {
+            this.properties = properties = new PropertyMap<>(PROPERTY_PACKING);
+        }
+        return properties;
+    }
+
+    private PropertyMap<Symbol, Property> writableSymbolProperties() {
+        PropertyMap<Symbol, Property> symbolProperties = this.symbolProperties;
+        if (symbolProperties == PropertyMap.<Symbol, Property> emptyMap()) {
+            this.symbolProperties = symbolProperties = new PropertyMap<>(PROPERTY_PACKING);
+        }
+        return symbolProperties;
+    }
+
+    private IndexedMap<Property> writableIndexedProperties() {
+        IndexedMap<Property> indexedProperties = this.indexedProperties;
+        if (indexedProperties == IndexedMap.<Property> emptyMap()) {
+            if (usePackedElements()) {
+                indexedProperties = new IndexedMap<>(PACKING);
+            } else {
+                indexedProperties = new IndexedMap<>();
+            }
+            this.indexedProperties = indexedProperties;
+        }
+        return indexedProperties;
+    }
+
+    /**
+     * Returns {@code true} if indexed properties should use packed elements while all indexed
+     * properties are writable, enumerable and configurable data properties without holes.
+     * 
+     * @return {@code true} if packed elements are used
+     */
+    boolean usePackedElements() {
+        return false;
+    }
+
+    /**
+     * Returns the value of the packed element at the given index or {@code null} if the indexed
+     * properties are not packed or if no element is present.
+     * 
+     * @param propertyKey
+     *            the indexed property key
+     * @return the element value or {@code null}
+     */
+    public final Object getPackedElement(long propertyKey) {
+        return indexedProperties.getPacked(propertyKey);
+    }
+
+    /**
+     * Sets the value of an existing packed element.
+     * 
+     * @param propertyKey
+     *            the indexed property key
+     * @param value
+     *            the new element value
+     * @return {@code true} on success or {@code false} if the indexed properties are not packed
+     *         or if no element is present
+     */
+    final boolean setPackedElement(long propertyKey, Object value) {
+        IndexedMap<Property> indexed = indexedProperties;
+        if (value instanceof Double && Double.isNaN((Double) value)) {
+            // Keep the current NaN value, compare setPropertyValue().
+            Object current = indexed.getPacked(propertyKey);
+            if (current == null) {
+                return false;
+            }
+            if (SameValueNaN(current, value)) {
+                return true;
+            }
+        }
+        return indexed.setPacked(propertyKey, value);
+    }
+
+    /**
+     * Deletes the last packed element.
+     * 
+     * @param propertyKey
+     *            the indexed property key
+     * @return {@code true} on success or {@code false} if the indexed properties are not packed
+     *         or if the element is not the last element
+     */
+    final boolean deletePackedElement(long propertyKey) {
+        IndexedMap<Property> indexed = indexedProperties;
+        if (indexed.isPacked() && propertyKey + 1 == indexed.getLength()) {
+            indexed.remove(propertyKey);
+            return true;
+        }
+        return false;
     }
 
     /**
@@ -143,7 +289,7 @@ public class OrdinaryObject implements ScriptObject {
      */
     final void appendProperties(List<? super String> list) {
         if (!properties.isEmpty()) {
-            list.addAll(properties.keySet());
+            list.addAll(properties.keys());
         }
     }
 
@@ -155,7 +301,7 @@ public class OrdinaryObject implements ScriptObject {
      */
     final void appendSymbolProperties(List<? super Symbol> list) {
         if (!symbolProperties.isEmpty()) {
-            list.addAll(symbolProperties.keySet());
+            list.addAll(symbolProperties.keys());
         }
     }
 
@@ -175,20 +321,20 @@ public class OrdinaryObject implements ScriptObject {
         // Same as infallibleDefineOwnProperty except extensible check removed.
         assert !IndexedMap.isIndex(IndexedMap.toIndex(propertyKey));
         assert !properties.containsKey(propertyKey) : "illegal property = " + propertyKey;
-        properties.put(propertyKey, property);
+        writableProperties().put(propertyKey, property);
     }
 
     public final void infallibleDefineOwnProperty(String propertyKey, Property property) {
         assert extensible : "object not extensible";
         assert !IndexedMap.isIndex(IndexedMap.toIndex(propertyKey));
         assert !properties.containsKey(propertyKey) : "illegal property = " + propertyKey;
-        properties.put(propertyKey, property);
+        writableProperties().put(propertyKey, property);
     }
 
     public final void infallibleDefineOwnProperty(Symbol propertyKey, Property property) {
         assert extensible : "object not extensible";
         assert !symbolProperties.containsKey(propertyKey) : "illegal property = " + propertyKey;
-        symbolProperties.put(propertyKey, property);
+        writableSymbolProperties().put(propertyKey, property);
     }
 
     public final Property lookupOwnProperty(String propertyKey) {
@@ -200,6 +346,96 @@ public class OrdinaryObject implements ScriptObject {
         return symbolProperties.get(propertyKey);
     }
 
+    /**
+     * Stores the modified {@code property}, the property must already be present.
+     * 
+     * @param propertyKey
+     *            the property key
+     * @param property
+     *            the modified property
+     */
+    public final void infallibleReplaceOwnProperty(String propertyKey, Property property) {
+        boolean replaced = properties.replace(propertyKey, property);
+        assert replaced : "property not found = " + propertyKey;
+    }
+
+    /**
+     * Stores the modified {@code property}, the property must already be present.
+     * 
+     * @param propertyKey
+     *            the property key
+     * @param property
+     *            the modified property
+     */
+    public final void infallibleReplaceOwnProperty(Symbol propertyKey, Property property) {
+        boolean replaced = symbolProperties.replace(propertyKey, property);
+        assert replaced : "property not found = " + propertyKey;
+    }
+
+    /**
+     * Returns the shape of the string valued properties or {@code null} if the properties are not
+     * stored in shape mode.
+     * 
+     * @return the shape or {@code null}
+     */
+    public final Shape getShape() {
+        PropertyMap<String, Property> properties = this.properties;
+        return properties != null ? properties.getShape() : null;
+    }
+
+    /**
+     * Returns {@code true} if {@code slot} holds a data property.
+     * 
+     * @param shape
+     *            the shape
+     * @param slot
+     *            the slot index
+     * @return {@code true} if the slot holds a data property
+     */
+    public static boolean isDataSlot(Shape shape, int slot) {
+        return (shape.getAttributes(slot) & ACCESSOR) == 0;
+    }
+
+    /**
+     * Returns {@code true} if {@code slot} holds a writable data property.
+     * 
+     * @param shape
+     *            the shape
+     * @param slot
+     *            the slot index
+     * @return {@code true} if the slot holds a writable data property
+     */
+    public static boolean isWritableDataSlot(Shape shape, int slot) {
+        return (shape.getAttributes(slot) & (ACCESSOR | WRITABLE)) == WRITABLE;
+    }
+
+    /**
+     * Returns the value of the string valued data property stored in {@code slot}. Only
+     * applicable in shape mode.
+     * 
+     * @param slot
+     *            the slot index
+     * @return the property value
+     */
+    public final Object getShapeSlotValue(int slot) {
+        assert isDataSlot(properties.getShape(), slot);
+        return ((Property) properties.getSlotValue(slot)).getValue();
+    }
+
+    /**
+     * Replaces the value of the string valued, writable data property stored in {@code slot}.
+     * Only applicable in shape mode.
+     * 
+     * @param slot
+     *            the slot index
+     * @param value
+     *            the new property value
+     */
+    public final void setShapeSlotValue(int slot, Object value) {
+        assert isWritableDataSlot(properties.getShape(), slot);
+        ((Property) properties.getSlotValue(slot)).setValue(value);
+    }
+
     /**
      * Returns the indexed properties length.
      * 
@@ -217,7 +453,12 @@ public class OrdinaryObject implements ScriptObject {
      * @return the property value
      */
     Object getIndexed(int propertyKey) {
-        return indexedProperties.get(propertyKey).getValue();
+        IndexedMap<Property> indexed = indexedProperties;
+        Object value = indexed.getPacked(propertyKey);
+        if (value != null) {
+            return value;
+        }
+        return indexed.get(propertyKey).getValue();
     }
 
     /**
@@ -229,7 +470,7 @@ public class OrdinaryObject implements ScriptObject {
      *            the property value
      */
     final void setIndexed(int propertyKey, Object value) {
-        indexedProperties.put(propertyKey, new Property(value, true, true, true));
+        writableIndexedProperties().put(propertyKey, new Property(value, true, true, true));
     }
 
     /**
@@ -249,6 +490,10 @@ public class OrdinaryObject implements ScriptObject {
         if (indexed.isEmpty()) {
             return -1;
         }
+        if (endIndex >= indexed.getLength() && indexed.truncatePacked(startIndex)) {
+            // Packed elements are always deletable.
+            return -1;
+        }
         long lastIndex;
         if (indexed.isSparse()) {
             lastIndex = deleteRangeSparse(startIndex, endIndex);
@@ -322,7 +567,7 @@ public class OrdinaryObject implements ScriptObject {
      * @return {@code true} if the object has indexed accessors
      */
     public boolean hasIndexedAccessors() {
-        if (indexedProperties.isEmpty()) {
+        if (indexedProperties.isEmpty() || indexedProperties.isPacked()) {
             return false;
         }
         for (Iterator<Property> iter = indexedProperties.valuesIterator(); iter.hasNext();) {
@@ -645,7 +890,7 @@ public class OrdinaryObject implements ScriptObject {
      * @return the property record or {@code null} if none found
      */
     protected final Property ordinaryGetOwnProperty(long propertyKey) {
-        /* steps 1-9 (altered: returns live view) */
+        /* steps 1-9 (altered: returns live view, except for packed elements) */
         return indexedProperties.get(propertyKey);
     }
 
@@ -657,7 +902,7 @@ public class OrdinaryObject implements ScriptObject {
      * @return the property record or {@code null} if none found
      */
     protected final Property ordinaryGetOwnProperty(String propertyKey) {
-        /* steps 1-9 (altered: returns live view) */
+        /* steps 1-9 (altered: returns live view, attribute changes need to be written back) */
         return properties.get(propertyKey);
     }
 
@@ -669,7 +914,7 @@ public class OrdinaryObject implements ScriptObject {
      * @return the property record or {@code null} if none found
      */
     protected final Property ordinaryGetOwnProperty(Symbol propertyKey) {
-        /* steps 1-9 (altered: returns live view) */
+        /* steps 1-9 (altered: returns live view, attribute changes need to be written back) */
         return symbolProperties.get(propertyKey);
     }
 
@@ -766,8 +1011,8 @@ public class OrdinaryObject implements ScriptObject {
         /* step 3 */
         boolean extensible = isExtensible();
         /* step 4 */
-        return validateAndApplyPropertyDescriptor(indexedProperties, propertyKey, extensible, desc,
-                current);
+        return validateAndApplyPropertyDescriptor(writableIndexedProperties(), propertyKey,
+                extensible, desc, current);
     }
 
     /**
@@ -788,8 +1033,8 @@ public class OrdinaryObject implements ScriptObject {
         /* step 3 */
         boolean extensible = isExtensible();
         /* step 4 */
-        return validateAndApplyPropertyDescriptor(properties, propertyKey, extensible, desc,
-                current);
+        return validateAndApplyPropertyDescriptor(writableProperties(), propertyKey, extensible,
+                desc, current);
     }
 
     /**
@@ -810,8 +1055,8 @@ public class OrdinaryObject implements ScriptObject {
         /* step 3 */
         boolean extensible = isExtensible();
         /* step 4 */
-        return validateAndApplyPropertyDescriptor(symbolProperties, propertyKey, extensible, desc,
-                current);
+        return validateAndApplyPropertyDescriptor(writableSymbolProperties(), propertyKey,
+                extensible, desc, current);
     }
 
     /**
@@ -848,7 +1093,7 @@ public class OrdinaryObject implements ScriptObject {
      */
     protected static final boolean ValidateAndApplyPropertyDescriptor(OrdinaryObject object,
             long propertyKey, boolean extensible, PropertyDescriptor desc, Property current) {
-        return validateAndApplyPropertyDescriptor(object.indexedProperties, propertyKey,
+        return validateAndApplyPropertyDescriptor(object.writableIndexedProperties(), propertyKey,
                 extensible, desc, current);
     }
 
@@ -869,8 +1114,8 @@ public class OrdinaryObject implements ScriptObject {
      */
     protected static final boolean ValidateAndApplyPropertyDescriptor(OrdinaryObject object,
             String propertyKey, boolean extensible, PropertyDescriptor desc, Property current) {
-        return validateAndApplyPropertyDescriptor(object.properties, propertyKey, extensible, desc,
-                current);
+        return validateAndApplyPropertyDescriptor(object.writableProperties(), propertyKey,
+                extensible, desc, current);
     }
 
     /**
@@ -890,8 +1135,8 @@ public class OrdinaryObject implements ScriptObject {
      */
     protected static final boolean ValidateAndApplyPropertyDescriptor(OrdinaryObject object,
             Symbol propertyKey, boolean extensible, PropertyDescriptor desc, Property current) {
-        return validateAndApplyPropertyDescriptor(object.symbolProperties, propertyKey, extensible,
-                desc, current);
+        return validateAndApplyPropertyDescriptor(object.writableSymbolProperties(), propertyKey,
+                extensible, desc, current);
     }
 
     /**
@@ -948,6 +1193,7 @@ public class OrdinaryObject implements ScriptObject {
                 return false;
             }
         }
+        boolean toAccessor = false, toData = false;
         if (desc.isGenericDescriptor()) {
             /* step 6 */
             // no further validation required, proceed below...
@@ -956,15 +1202,8 @@ public class OrdinaryObject implements ScriptObject {
             if (!current.isConfigurable()) {
                 return false;
             }
-            if (current.isDataDescriptor()) {
-                if (object != null) {
-                    object.get(propertyKey).toAccessorProperty();
-                }
-            } else {
-                if (object != null) {
-                    object.get(propertyKey).toDataProperty();
-                }
-            }
+            toAccessor = current.isDataDescriptor();
+            toData = !toAccessor;
         } else if (desc.isDataDescriptor() && current.isDataDescriptor()) {
             /* step 8 */
             if (!current.isConfigurable()) {
@@ -989,9 +1228,17 @@ public class OrdinaryObject implements ScriptObject {
                 }
             }
         }
-        /* step 10 */
+        /* steps 7, 10 */
         if (object != null) {
-            object.get(propertyKey).apply(desc);
+            // Write back the modified property to update the attributes stored in the shape.
+            Property property = object.get(propertyKey);
+            if (toAccessor) {
+                property.toAccessorProperty();
+            } else if (toData) {
+                property.toDataProperty();
+            }
+            property.apply(desc);
+            object.put(propertyKey, property);
         }
         /* step 11 */
         return true;
@@ -1050,6 +1297,7 @@ public class OrdinaryObject implements ScriptObject {
                 return false;
             }
         }
+        boolean toAccessor = false, toData = false;
         if (desc.isGenericDescriptor()) {
             /* step 6 */
             // no further validation required, proceed below...
@@ -1058,15 +1306,8 @@ public class OrdinaryObject implements ScriptObject {
             if (!current.isConfigurable()) {
                 return false;
             }
-            if (current.isDataDescriptor()) {
-                if (object != null) {
-                    object.get(propertyKey).toAccessorProperty();
-                }
-            } else {
-                if (object != null) {
-                    object.get(propertyKey).toDataProperty();
-                }
-            }
+            toAccessor = current.isDataDescriptor();
+            toData = !toAccessor;
         } else if (desc.isDataDescriptor() && current.isDataDescriptor()) {
             /* step 8 */
             if (!current.isConfigurable()) {
@@ -1091,9 +1332,17 @@ public class OrdinaryObject implements ScriptObject {
                 }
             }
         }
-        /* step 10 */
+        /* steps 7, 10 */
         if (object != null) {
-            object.get(propertyKey).apply(desc);
+            // Packed elements are not stored as live objects, write back the modified property.
+            Property property = object.get(propertyKey);
+            if (toAccessor) {
+                property.toAccessorProperty();
+            } else if (toData) {
+                property.toDataProperty();
+            }
+            property.apply(desc);
+            object.put(propertyKey, property);
         }
         /* step 11 */
         return true;
@@ -1478,6 +1727,10 @@ public class OrdinaryObject implements ScriptObject {
         assert current.isDataDescriptor() && current.isWritable();
         if (!SameValueNaN(current.getValue(), value)) {
             current.setValue(value);
+            if (indexedProperties.isPacked()) {
+                // Packed elements are not stored as live objects, write back the modified property.
+                indexedProperties.put(propertyKey, current);
+            }
         }
         return true;
     }
@@ -48,6 +48,9 @@ public class ProxyObject implements ScriptObject {
     /** [[ProxyHandler]] */
     private ScriptObject proxyHandler;
 
+    // WeakMap and WeakSet entries keyed by this object, allocated on first use
+    private Object[] ephemerons;
+
     /**
      * Constructs a new Proxy object.
      * 
@@ -142,6 +145,14 @@ public class ProxyObject implements ScriptObject {
         return target;
     }
 
+    final Object[] getEphemerons() {
+        return ephemerons;
+    }
+
+    final void setEphemerons(Object[] ephemerons) {
+        this.ephemerons = ephemerons;
+    }
+
     @Override
     public String toString() {
         return String.format("%s@%x {{%n\tTarget=%s%n\tHandler=%s%n}}", getClass().getSimpleName(),
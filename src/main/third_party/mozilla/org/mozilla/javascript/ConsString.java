@@ -6,15 +6,19 @@
 
 package org.mozilla.javascript;
 
+import java.util.ArrayDeque;
+import java.util.Arrays;
+
 /**
  * <p>This class represents a string composed of two components, each of which
  * may be a <code>java.lang.String</code> or another ConsString.</p>
  *
  * <p>This string representation is optimized for concatenation using the "+"
  * operator. Instead of immediately copying both components to a new character
- * array, ConsString keeps references to the original components and only
- * converts them to a String if either toString() is called or a certain depth
- * level is reached.</p>
+ * array, ConsString keeps references to the original components in a tree
+ * and only converts them to a String if toString() is called. Character
+ * access and substrings are computed from the tree, which is rebalanced
+ * on first access if repeated concatenations made it too deep.</p>
  *
  * <p>Note that instances of this class are only immutable if both parts are
  * immutable, i.e. either Strings or ConsStrings that are ultimately composed
@@ -23,41 +27,139 @@ package org.mozilla.javascript;
  * <p>Both the name and the concept are borrowed from V8.</p>
  */
 public final class ConsString implements CharSequence {
+    // Adjacent leaves up to this length are merged when strings are concatenated.
+    private static final int MAX_MERGED_LEAF_LENGTH = 64;
+
+    /**
+     * Immutable tree node. Rebalancing replaces the node of the root as a
+     * whole.
+     */
+    private static final class Node {
+        final CharSequence s1, s2;
+        // Tree height, at least one.
+        final int depth;
+
+        Node(CharSequence s1, CharSequence s2) {
+            this.s1 = s1;
+            this.s2 = s2;
+            this.depth = Math.max(depth(s1), depth(s2)) + 1;
+        }
+    }
+
     private final int length;
-    private int depth;
-    private CharSequence s1, s2;
-
-    public ConsString(CharSequence str1, CharSequence str2) {
-        int length = 0, depth = 1;
-        if (str1 instanceof ConsString) {
-            ConsString s = (ConsString) str1;
-            length += s.length;
-            depth += s.depth;
-            if (s.depth == 0) {
-                // Directly access string if ConsString is flattened
-                str1 = s.s1;
-            }
-        } else {
-            length += ((String) str1).length();
-        }
-        if (str2 instanceof ConsString) {
-            ConsString s = (ConsString) str2;
-            length += s.length;
-            depth += s.depth;
-            if (s.depth == 0) {
-                // Directly access string if ConsString is flattened
-                str2 = s.s1;
+    // Either the Node of the tree or the flattened String. Both are immutable,
+    // so a rebalanced or flattened string is published with a single write and
+    // concurrent readers always see a consistent tree.
+    private Object content;
+
+    private ConsString(CharSequence str1, CharSequence str2) {
+        this.length = str1.length() + str2.length();
+        this.content = new Node(str1, str2);
+    }
+
+    /**
+     * Returns the concatenation of both strings.
+     * <p>
+     * Concatenation only allocates a new tree node, the tree is rebalanced
+     * lazily when characters or substrings are accessed.
+     *
+     * @param str1 the first string, either a String or a ConsString
+     * @param str2 the second string, either a String or a ConsString
+     * @return the concatenated string
+     */
+    public static CharSequence concat(CharSequence str1, CharSequence str2) {
+        if (str1.length() == 0) {
+            return str2;
+        }
+        if (str2.length() == 0) {
+            return str1;
+        }
+        CharSequence left = leaf(str1), right = leaf(str2);
+        if (left instanceof String && right instanceof String
+                && left.length() + right.length() <= MAX_MERGED_LEAF_LENGTH) {
+            return ((String) left).concat((String) right);
+        }
+        return new ConsString(left, right);
+    }
+
+    // Returns the Node or the flat String of a string.
+    private static Object content(CharSequence s) {
+        return s instanceof ConsString ? ((ConsString) s).content : s;
+    }
+
+    // Returns the flat string of a flattened ConsString.
+    private static CharSequence leaf(CharSequence s) {
+        Object c = content(s);
+        return c instanceof Node ? s : (CharSequence) c;
+    }
+
+    private static int depth(CharSequence s) {
+        Object c = content(s);
+        return c instanceof Node ? ((Node) c).depth : 0;
+    }
+
+    /**
+     * Returns the content of this string. The tree is rebalanced if its
+     * height exceeds twice the height of a balanced tree over the same number
+     * of characters.
+     */
+    private Object balanced() {
+        Object c = content;
+        if (!(c instanceof Node)) {
+            return c;
+        }
+        int maxDepth = 2 * (Integer.SIZE - Integer.numberOfLeadingZeros(length));
+        if (((Node) c).depth <= maxDepth) {
+            return c;
+        }
+        String[] leaves = new String[16];
+        int count = 0;
+        for (Leaves it = new Leaves(c); it.hasNext();) {
+            if (count == leaves.length) {
+                leaves = Arrays.copyOf(leaves, count << 1);
             }
-        } else {
-            length += ((String) str2).length();
+            leaves[count++] = it.next();
+        }
+        int mid = count >>> 1;
+        Node node = new Node(build(leaves, 0, mid), build(leaves, mid, count));
+        content = node;
+        return node;
+    }
+
+    private static CharSequence build(String[] leaves, int start, int end) {
+        if (end - start == 1) {
+            return leaves[start];
+        }
+        int mid = (start + end) >>> 1;
+        return new ConsString(build(leaves, start, mid), build(leaves, mid, end));
+    }
+
+    /**
+     * Iterates over the flat strings of a tree from left to right. The
+     * pending right parts are kept on the heap, so deep trees can be
+     * traversed without recursion.
+     */
+    private static final class Leaves {
+        private final ArrayDeque<CharSequence> pending = new ArrayDeque<>();
+        private Object next;
+
+        Leaves(Object content) {
+            this.next = content;
         }
-        this.length = length;
-        this.depth = depth;
-        this.s1 = str1;
-        this.s2 = str2;
-        // Don't let it grow too deep, can cause stack overflows
-        if (depth > 200 && str1 instanceof ConsString && str2 instanceof ConsString) {
-            flatten();
+
+        boolean hasNext() {
+            return next != null || !pending.isEmpty();
+        }
+
+        String next() {
+            Object c = next != null ? next : content(pending.pop());
+            while (c instanceof Node) {
+                Node node = (Node) c;
+                pending.push(node.s2);
+                c = content(node.s1);
+            }
+            next = null;
+            return (String) c;
         }
     }
 
@@ -68,25 +170,135 @@ public final class ConsString implements CharSequence {
 
     @Override
     public char charAt(int index) {
-        return toString().charAt(index);
+        Object c = content;
+        if (c instanceof String) {
+            return ((String) c).charAt(index);
+        }
+        if (index < 0 || index >= length) {
+            throw new StringIndexOutOfBoundsException(index);
+        }
+        c = balanced();
+        while (c instanceof Node) {
+            Node node = (Node) c;
+            int len1 = node.s1.length();
+            if (index < len1) {
+                c = content(node.s1);
+            } else {
+                c = content(node.s2);
+                index -= len1;
+            }
+        }
+        return ((String) c).charAt(index);
     }
 
     @Override
     public CharSequence subSequence(int start, int end) {
-        return toString().substring(start, end);
+        Object c = content;
+        if (c instanceof String) {
+            return ((String) c).substring(start, end);
+        }
+        if (start < 0 || end > length || start > end) {
+            throw new StringIndexOutOfBoundsException();
+        }
+        if (start == 0 && end == length) {
+            return this;
+        }
+        c = balanced();
+        // Descend while the range is contained in a single part.
+        while (c instanceof Node) {
+            Node node = (Node) c;
+            int len1 = node.s1.length();
+            if (end <= len1) {
+                c = content(node.s1);
+            } else if (start >= len1) {
+                c = content(node.s2);
+                start -= len1;
+                end -= len1;
+            } else {
+                char[] ca = new char[end - start];
+                getChars(node, start, end, ca, 0);
+                return new String(ca);
+            }
+        }
+        return ((String) c).substring(start, end);
+    }
+
+    /**
+     * Returns the characters from start to end of a string. Unlike
+     * subSequence(), the parts of the tree which are completely within the
+     * range are shared instead of copied, so only the characters of the
+     * outermost leaves are copied.
+     *
+     * @param s the string, either a String or a ConsString
+     * @param start the start index, inclusive
+     * @param end the end index, exclusive
+     * @return the characters from start to end
+     */
+    public static CharSequence slice(CharSequence s, int start, int end) {
+        if (!(s instanceof ConsString)) {
+            return s.subSequence(start, end);
+        }
+        if (start < 0 || end > s.length() || start > end) {
+            throw new StringIndexOutOfBoundsException();
+        }
+        return slice(s, ((ConsString) s).balanced(), start, end);
+    }
+
+    private static CharSequence slice(CharSequence s, Object c, int start, int end) {
+        if (start == 0 && end == s.length()) {
+            return s;
+        }
+        if (!(c instanceof Node)) {
+            return ((String) c).substring(start, end);
+        }
+        // Called on balanced trees, recursion is bounded.
+        Node node = (Node) c;
+        int len1 = node.s1.length();
+        if (end <= len1) {
+            return slice(node.s1, content(node.s1), start, end);
+        }
+        if (start >= len1) {
+            return slice(node.s2, content(node.s2), start - len1, end - len1);
+        }
+        return concat(slice(node.s1, content(node.s1), start, len1),
+                slice(node.s2, content(node.s2), 0, end - len1));
+    }
+
+    private static void getChars(Object c, int start, int end, char[] ca, int offset) {
+        while (c instanceof Node) {
+            Node node = (Node) c;
+            int len1 = node.s1.length();
+            if (end <= len1) {
+                c = content(node.s1);
+            } else if (start >= len1) {
+                c = content(node.s2);
+                start -= len1;
+                end -= len1;
+            } else {
+                // Called on balanced trees, recursion for the left part is bounded.
+                getChars(content(node.s1), start, len1, ca, offset);
+                offset += len1 - start;
+                c = content(node.s2);
+                start = 0;
+                end -= len1;
+            }
+        }
+        ((String) c).getChars(start, end, ca, offset);
     }
 
     @Override
     public String toString() {
-        return depth == 0 ? (String) s1 : flatten();
+        Object c = content;
+        return c instanceof String ? (String) c : flatten();
     }
 
     public char[] toCharArray() {
-        if (depth == 0) {
-            return ((String) s1).toCharArray();
+        Object c = content;
+        if (c instanceof String) {
+            return ((String) c).toCharArray();
         }
         char[] ca = new char[length()];
-        appendTo(this, ca, 0);
+        appendTo(c, ca);
         return ca;
     }
 
@@ -94,102 +306,32 @@ public final class ConsString implements CharSequence {
         if (ba == null || ba.length < length() * 2) {
             ba = new byte[length() * 2];
         }
-        if (depth == 0) {
-            appendTo((String) s1, ba, 0);
-        } else {
-            appendTo(this, ba, 0);
+        int offset = 0;
+        for (Leaves it = new Leaves(content); it.hasNext();) {
+            String s = it.next();
+            appendTo(s, ba, offset);
+            offset += s.length() * 2;
         }
         return ba;
     }
 
     private String flatten() {
-        if (depth > 0) {
-            s1 = flatten(this);
-            s2 = "";
-            depth = 0;
-        }
-        return (String) s1;
-    }
-
-    private static String flatten(ConsString s) {
-        char[] ca = new char[s.length()];
-        appendTo(s, ca, 0);
-        return new String(ca);
-    }
-
-    private static void appendTo(ConsString s, char[] ca, int offset) {
-        for (;;) {
-            // Flattened ConsString or both parts are simple Strings, just append and return.
-            if (s.depth <= 1) {
-                String s1 = (String) s.s1, s2 = (String) s.s2;
-                appendTo(s1, ca, offset);
-                appendTo(s2, ca, offset + s1.length());
-                return;
-            }
-            // At least one part is a ConsString.
-            if (s.s1 instanceof String) {
-                // Left is String and right is ConsString, append left and continue with right.
-                String s1 = (String) s.s1;
-                s = (ConsString) s.s2;
-                appendTo(s1, ca, offset);
-                offset += s1.length();
-            } else if (s.s2 instanceof String) {
-                // Left is ConsString and right is String, append right and continue with left.
-                String s2 = (String) s.s2;
-                s = (ConsString) s.s1;
-                appendTo(s2, ca, offset + s.length());
-            } else {
-                // Both are ConsStrings, descend into less deeper one and continue with the other.
-                ConsString s1 = (ConsString) s.s1, s2 = (ConsString) s.s2;
-                if (s1.depth < s2.depth) {
-                    s = s2;
-                    appendTo(s1, ca, offset);
-                    offset += s1.length();
-                } else {
-                    s = s1;
-                    appendTo(s2, ca, offset + s.length());
-                }
-            }
+        Object c = content;
+        if (c instanceof Node) {
+            char[] ca = new char[length()];
+            appendTo(c, ca);
+            c = new String(ca);
+            content = c;
         }
+        return (String) c;
     }
 
-    private static void appendTo(String s, char[] ca, int offset) {
-        s.getChars(0, s.length(), ca, offset);
-    }
-
-    private static void appendTo(ConsString s, byte[] ba, int offset) {
-        for (;;) {
-            // Flattened ConsString or both parts are simple Strings, just append and return.
-            if (s.depth <= 1) {
-                String s1 = (String) s.s1, s2 = (String) s.s2;
-                appendTo(s1, ba, offset);
-                appendTo(s2, ba, offset + s1.length());
-                return;
-            }
-            // At least one part is a ConsString.
-            if (s.s1 instanceof String) {
-                // Left is String and right is ConsString, append left and continue with right.
-                String s1 = (String) s.s1;
-                s = (ConsString) s.s2;
-                appendTo(s1, ba, offset);
-                offset += s1.length();
-            } else if (s.s2 instanceof String) {
-                // Left is ConsString and right is String, append right and continue with left.
-                String s2 = (String) s.s2;
-                s = (ConsString) s.s1;
-                appendTo(s2, ba, offset + s.length());
-            } else {
-                // Both are ConsStrings, descend into less deeper one and continue with the other.
-                ConsString s1 = (ConsString) s.s1, s2 = (ConsString) s.s2;
-                if (s1.depth < s2.depth) {
-                    s = s2;
-                    appendTo(s1, ba, offset);
-                    offset += s1.length();
-                } else {
-                    s = s1;
-                    appendTo(s2, ba, offset + s.length());
-                }
-            }
+    private static void appendTo(Object content, char[] ca) {
+        int offset = 0;
+        for (Leaves it = new Leaves(content); it.hasNext();) {
+            String str = it.next();
+            str.getChars(0, str.length(), ca, offset);
+            offset += str.length();
         }
     }
 
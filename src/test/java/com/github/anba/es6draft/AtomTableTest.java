@@ -0,0 +1,98 @@
+/**
+ * Copyright (c) 2012-2015 André Bargull
+ * Alle Rechte vorbehalten / All Rights Reserved.  Use is subject to license terms.
+ *
+ * <https://github.com/anba/es6draft>
+ */
+package com.github.anba.es6draft;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import com.github.anba.es6draft.runtime.AtomTable;
+
+/**
+ *
+ */
+public final class AtomTableTest {
+    @Test
+    public void testAtoms() {
+        AtomTable atoms = new AtomTable();
+        String first = new StringBuilder("prop").append("ertyKey").toString();
+        String second = new String("propertyKey");
+        String third = new String("propertyKey");
+        assertSame(first, atoms.intern(first));
+        assertEquals(0, atoms.size());
+        String atom = atoms.intern(second);
+        assertEquals("propertyKey", atom);
+        assertSame(atom, atoms.intern(third));
+        assertSame(atom, atoms.intern(first));
+        assertEquals(1, atoms.size());
+    }
+
+    @Test
+    public void testConstantIdentity() {
+        AtomTable atoms = new AtomTable();
+        String computed = new StringBuilder("prop").append("ertyKey").toString();
+        assertNotSame("propertyKey", atoms.intern(computed));
+        // Atoms are the same instance as string constants.
+        assertSame("propertyKey", atoms.intern(new String("propertyKey")));
+    }
+
+    @Test
+    public void testSingleUse() {
+        AtomTable atoms = new AtomTable();
+        for (int i = 0; i < 10000; ++i) {
+            String key = "key" + i;
+            assertSame(key, atoms.intern(key));
+        }
+        assertEquals(0, atoms.size());
+    }
+
+    @Test
+    public void testArrayIndex() {
+        AtomTable atoms = new AtomTable();
+        String key = new String("123");
+        assertSame(key, atoms.intern(key));
+        String other = new String("123");
+        assertSame(other, atoms.intern(other));
+        assertEquals(0, atoms.size());
+
+        // Not an array index.
+        String nonIndex = new String("0123");
+        atoms.intern(nonIndex);
+        assertSame("0123", atoms.intern(new String("0123")));
+        assertEquals(1, atoms.size());
+    }
+
+    @Test
+    public void testLongStrings() {
+        AtomTable atoms = new AtomTable();
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 100; ++i) {
+            sb.append('a');
+        }
+        String key = sb.toString();
+        assertSame(key, atoms.intern(key));
+        assertSame(key, atoms.intern(key));
+        assertEquals(0, atoms.size());
+    }
+
+    @Test
+    public void testBounded() {
+        AtomTable atoms = new AtomTable();
+        for (int i = 0; i < 100000; ++i) {
+            String key = "key" + i;
+            atoms.intern(key);
+            atoms.intern(key);
+        }
+        assertTrue(atoms.size() <= 1 << 14);
+        String key = new String("key99999");
+        assertEquals("key99999", atoms.intern(key));
+        assertNotSame(key, atoms.intern(key));
+    }
+}
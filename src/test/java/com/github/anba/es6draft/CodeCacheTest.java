@@ -0,0 +1,96 @@
+/**
+ * Copyright (c) 2012-2015 André Bargull
+ * Alle Rechte vorbehalten / All Rights Reserved.  Use is subject to license terms.
+ *
+ * <https://github.com/anba/es6draft>
+ */
+package com.github.anba.es6draft;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.github.anba.es6draft.compiler.Compiler;
+import com.github.anba.es6draft.parser.Parser;
+import com.github.anba.es6draft.runtime.internal.CodeCache;
+import com.github.anba.es6draft.runtime.internal.CompatibilityOption;
+import com.github.anba.es6draft.runtime.internal.Source;
+
+/**
+ *
+ */
+public final class CodeCacheTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static String key(CodeCache cache, Source source, String sourceCode) {
+        return cache.key(source, sourceCode, CompatibilityOption.WebCompatibility(),
+                EnumSet.noneOf(Parser.Option.class), EnumSet.noneOf(Compiler.Option.class));
+    }
+
+    @Test
+    public void testKey() throws IOException {
+        CodeCache cache = new CodeCache(folder.getRoot().toPath());
+        Source source = new Source("test", 1);
+
+        assertEquals(key(cache, source, "1 + 2"), key(cache, source, "1 + 2"));
+        assertFalse(key(cache, source, "1 + 2").equals(key(cache, source, "1 + 3")));
+        assertFalse(key(cache, source, "1 + 2").equals(
+                key(cache, new Source("test", 2), "1 + 2")));
+        assertFalse(key(cache, source, "1 + 2").equals(
+                cache.key(source, "1 + 2", CompatibilityOption.StrictCompatibility(),
+                        EnumSet.noneOf(Parser.Option.class),
+                        EnumSet.noneOf(Compiler.Option.class))));
+    }
+
+    @Test
+    public void testPutAndGet() throws IOException {
+        CodeCache cache = new CodeCache(folder.getRoot().toPath());
+        String key = key(cache, new Source("test", 1), "1 + 2");
+        assertNull(cache.get(key));
+
+        Map<String, byte[]> classes = new LinkedHashMap<>();
+        classes.put("#Script_1", new byte[] { 1, 2, 3 });
+        classes.put("#Script_1_1", new byte[] { 4, 5 });
+        cache.put(key, "#Script_1", classes);
+
+        CodeCache.Entry entry = cache.get(key);
+        assertNotNull(entry);
+        assertEquals("#Script_1", entry.getClassName());
+        assertEquals(classes.keySet(), entry.getClasses().keySet());
+        for (Map.Entry<String, byte[]> e : classes.entrySet()) {
+            assertArrayEquals(e.getValue(), entry.getClasses().get(e.getKey()));
+        }
+    }
+
+    @Test
+    public void testCorruptedEntry() throws IOException {
+        CodeCache cache = new CodeCache(folder.getRoot().toPath());
+        String key = key(cache, new Source("test", 1), "1 + 2");
+        cache.put(key, "#Script_1", Collections.singletonMap("#Script_1", new byte[] { 1, 2, 3 }));
+
+        Path file = cache.getDirectory().resolve(key + ".classes");
+        byte[] bytes = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(bytes, bytes.length - 1));
+        assertNull(cache.get(key));
+
+        Files.write(file, "garbage".getBytes(StandardCharsets.UTF_8));
+        assertNull(cache.get(key));
+    }
+}
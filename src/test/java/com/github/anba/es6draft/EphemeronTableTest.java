@@ -0,0 +1,218 @@
+/**
+ * Copyright (c) 2012-2015 André Bargull
+ * Alle Rechte vorbehalten / All Rights Reserved.  Use is subject to license terms.
+ *
+ * <https://github.com/anba/es6draft>
+ */
+package com.github.anba.es6draft;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.github.anba.es6draft.runtime.types.ScriptObject;
+import com.github.anba.es6draft.runtime.types.builtins.EphemeronTable;
+import com.github.anba.es6draft.runtime.types.builtins.OrdinaryObject;
+
+/**
+ *
+ */
+public final class EphemeronTableTest {
+    private static ScriptObject newObject() {
+        return new OrdinaryObject(null);
+    }
+
+    private static ScriptObject newForeignObject() {
+        // ScriptObject implementation which does not store ephemeron entries.
+        return (ScriptObject) Proxy.newProxyInstance(EphemeronTableTest.class.getClassLoader(),
+                new Class<?>[] { ScriptObject.class }, new InvocationHandler() {
+                    @Override
+                    public Object invoke(Object proxy, Method method, Object[] args) {
+                        if (method.getName().equals("equals")) {
+                            return proxy == args[0];
+                        }
+                        if (method.getName().equals("hashCode")) {
+                            return System.identityHashCode(proxy);
+                        }
+                        return null;
+                    }
+                });
+    }
+
+    private static Object[] ephemerons(ScriptObject object) throws ReflectiveOperationException {
+        Field field = OrdinaryObject.class.getDeclaredField("ephemerons");
+        field.setAccessible(true);
+        return (Object[]) field.get(object);
+    }
+
+    private static void test(ScriptObject key1, ScriptObject key2) {
+        EphemeronTable<String> table = new EphemeronTable<>();
+
+        assertEquals(0, table.size());
+        assertFalse(table.has(key1));
+        assertNull(table.get(key1));
+
+        table.set(key1, "value1");
+        assertEquals(1, table.size());
+        assertTrue(table.has(key1));
+        assertFalse(table.has(key2));
+        assertEquals("value1", table.get(key1));
+
+        table.set(key1, "value1-new");
+        table.set(key2, "value2");
+        assertEquals(2, table.size());
+        assertEquals("value1-new", table.get(key1));
+        assertEquals("value2", table.get(key2));
+
+        assertTrue(table.delete(key1));
+        assertFalse(table.delete(key1));
+        assertEquals(1, table.size());
+        assertFalse(table.has(key1));
+        assertTrue(table.has(key2));
+
+        table.clear();
+        assertEquals(0, table.size());
+        assertFalse(table.has(key2));
+        assertNull(table.get(key2));
+
+        table.set(key2, "value2-new");
+        assertEquals("value2-new", table.get(key2));
+    }
+
+    @Test
+    public void testHolderKeys() {
+        test(newObject(), newObject());
+    }
+
+    @Test
+    public void testForeignKeys() {
+        test(newForeignObject(), newForeignObject());
+    }
+
+    @Test
+    public void testMultipleTables() {
+        EphemeronTable<String> table1 = new EphemeronTable<>();
+        EphemeronTable<String> table2 = new EphemeronTable<>();
+        ScriptObject key = newObject();
+
+        table1.set(key, "value1");
+        table2.set(key, "value2");
+        assertEquals("value1", table1.get(key));
+        assertEquals("value2", table2.get(key));
+
+        table1.clear();
+        assertFalse(table1.has(key));
+        assertEquals("value2", table2.get(key));
+
+        table1.set(key, "value1-new");
+        assertEquals("value1-new", table1.get(key));
+        assertEquals("value2", table2.get(key));
+    }
+
+    @Test
+    public void testClearReleasesValues() throws ReflectiveOperationException {
+        EphemeronTable<String> table1 = new EphemeronTable<>();
+        EphemeronTable<String> table2 = new EphemeronTable<>();
+        ScriptObject key = newObject();
+
+        table1.set(key, "value1");
+        table2.set(key, "value2");
+        table1.clear();
+        assertFalse(Arrays.asList(ephemerons(key)).contains("value1"));
+        assertTrue(Arrays.asList(ephemerons(key)).contains("value2"));
+
+        table2.clear();
+        assertFalse(Arrays.asList(ephemerons(key)).contains("value2"));
+    }
+
+    @Test
+    public void testCollectedTables() throws ReflectiveOperationException, InterruptedException {
+        ScriptObject key = newObject();
+        WeakReference<EphemeronTable<String>> ref = collectableTable(key);
+        for (int i = 0; i < 20 && ref.get() != null; ++i) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        assertNull(ref.get());
+
+        // Entries of collected tables are removed when any table adds an entry, even if the key
+        // object is never accessed again.
+        EphemeronTable<String> table = new EphemeronTable<>();
+        for (int i = 0; i < 20 && Arrays.asList(ephemerons(key)).contains("value"); ++i) {
+            table.set(newObject(), "other");
+            Thread.sleep(10);
+        }
+        assertFalse(Arrays.asList(ephemerons(key)).contains("value"));
+
+        // Emptied entry arrays are released on the next access.
+        assertFalse(table.has(key));
+        assertNull(ephemerons(key));
+    }
+
+    private static WeakReference<EphemeronTable<String>> collectableTable(ScriptObject key) {
+        EphemeronTable<String> table = new EphemeronTable<>();
+        table.set(key, "value");
+        return new WeakReference<>(table);
+    }
+
+    @Test
+    public void testManyKeys() {
+        EphemeronTable<Integer> table = new EphemeronTable<>();
+        List<ScriptObject> keys = new ArrayList<>();
+        for (int i = 0; i < 1000; ++i) {
+            ScriptObject key = (i & 1) == 0 ? newObject() : newForeignObject();
+            keys.add(key);
+            table.set(key, i);
+        }
+        assertEquals(1000, table.size());
+        for (int i = 0; i < 1000; i += 3) {
+            assertTrue(table.delete(keys.get(i)));
+        }
+        for (int i = 0; i < 1000; ++i) {
+            if (i % 3 == 0) {
+                assertFalse(table.has(keys.get(i)));
+            } else {
+                assertEquals(i, (int) table.get(keys.get(i)));
+            }
+        }
+        assertEquals(666, table.size());
+        assertEquals(666, table.keys().size());
+    }
+
+    @Test
+    public void testValueReferencesKey() throws InterruptedException {
+        EphemeronTable<Object> table = new EphemeronTable<>();
+        List<WeakReference<ScriptObject>> refs = new ArrayList<>();
+        for (int i = 0; i < 100; ++i) {
+            ScriptObject key = newObject();
+            Object[] value = { key };
+            table.set(key, value);
+            refs.add(new WeakReference<>(key));
+        }
+        ScriptObject retained = newObject();
+        table.set(retained, new Object[] { retained });
+
+        for (int i = 0; i < 20 && table.size() > 1; ++i) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        assertEquals(1, table.size());
+        assertSame(retained, table.keys().get(0));
+        for (WeakReference<ScriptObject> ref : refs) {
+            assertNull(ref.get());
+        }
+    }
+}
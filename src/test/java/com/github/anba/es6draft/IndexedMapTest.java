@@ -6,7 +6,10 @@
  */
 package com.github.anba.es6draft;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
 
@@ -47,6 +50,151 @@ public final class IndexedMapTest {
         return list;
     }
 
+    private static final IndexedMap.Packing<String> PACKING = new IndexedMap.Packing<String>() {
+        @Override
+        public Object pack(String value) {
+            return value.startsWith("#") ? null : value;
+        }
+
+        @Override
+        public String unpack(Object value) {
+            return value.toString();
+        }
+    };
+
+    private static IndexedMap<String> packed(long... indices) {
+        return putAll(new IndexedMap<>(PACKING), indices);
+    }
+
+    @Test
+    public void packedPut() {
+        IndexedMap<String> indexed = packed(0, 1, 2, 3, 4, 5);
+
+        assertTrue(indexed.isPacked());
+        assertEquals(6, indexed.getLength());
+        assertEquals(6, indexed.size());
+        assertEquals("3", indexed.getPacked(3));
+        assertNull(indexed.getPacked(6));
+        assertThat(indexed.keys(), Matchers.contains("0", "1", "2", "3", "4", "5"));
+        assertThat(indexed.keys(2, 4), Matchers.contains("2", "3"));
+
+        assertTrue(indexed.setPacked(3, "three"));
+        assertFalse(indexed.setPacked(6, "six"));
+        assertEquals("three", indexed.getPacked(3));
+        assertTrue(indexed.isPacked());
+    }
+
+    @Test
+    public void packedStartsWithHole() {
+        IndexedMap<String> indexed = packed(1, 2, 3);
+
+        assertFalse(indexed.isPacked());
+        assertNull(indexed.getPacked(1));
+        assertTrue(indexed.containsKey(1));
+    }
+
+    @Test
+    public void packedTransitionOnHole() {
+        IndexedMap<String> indexed = packed(0, 1, 2);
+        indexed.put(4, "4");
+
+        assertFalse(indexed.isPacked());
+        assertThat(indexed.keys(), Matchers.contains("0", "1", "2", "4"));
+        assertEquals("1", indexed.get(1));
+    }
+
+    @Test
+    public void packedTransitionOnNonPackableValue() {
+        IndexedMap<String> indexed = packed(0, 1, 2);
+        indexed.put(1, "#1");
+
+        assertFalse(indexed.isPacked());
+        assertEquals("0", indexed.get(0));
+        assertEquals("#1", indexed.get(1));
+        assertEquals("2", indexed.get(2));
+    }
+
+    @Test
+    public void packedGet() {
+        IndexedMap<String> indexed = packed(0, 1, 2);
+
+        assertNull(indexed.get(3));
+        assertTrue(indexed.isPacked());
+        assertEquals("1", indexed.get(1));
+        assertTrue(indexed.isPacked());
+    }
+
+    private static final IndexedMap.Packing<Object[]> BOX_PACKING = new IndexedMap.Packing<Object[]>() {
+        @Override
+        public Object pack(Object[] value) {
+            return value[0];
+        }
+
+        @Override
+        public Object[] unpack(Object value) {
+            return new Object[] { value };
+        }
+    };
+
+    @Test
+    public void packedGetWriteBack() {
+        IndexedMap<Object[]> indexed = new IndexedMap<>(BOX_PACKING);
+        indexed.put(0, new Object[] { "a" });
+        indexed.put(1, new Object[] { "b" });
+
+        Object[] value = indexed.get(1);
+        assertNotSame(value, indexed.get(1));
+        value[0] = "c";
+        assertEquals("b", indexed.getPacked(1));
+        indexed.put(1, value);
+        assertEquals("c", indexed.getPacked(1));
+        assertTrue(indexed.isPacked());
+    }
+
+    @Test
+    public void packedDoubleElements() {
+        IndexedMap<Object[]> indexed = new IndexedMap<>(BOX_PACKING);
+        indexed.put(0, new Object[] { 1 });
+        indexed.put(1, new Object[] { 1.5 });
+        indexed.put(2, new Object[] { -0.0 });
+        indexed.put(3, new Object[] { 4.0 });
+
+        assertEquals(Integer.valueOf(1), indexed.getPacked(0));
+        assertEquals(Double.valueOf(1.5), indexed.getPacked(1));
+        assertEquals(Double.valueOf(-0.0), indexed.getPacked(2));
+        assertEquals(Integer.valueOf(4), indexed.getPacked(3));
+        assertEquals(Integer.valueOf(4), indexed.get(3)[0]);
+    }
+
+    @Test
+    public void packedRemove() {
+        IndexedMap<String> indexed = packed(0, 1, 2, 3);
+
+        indexed.remove(3);
+        assertTrue(indexed.isPacked());
+        assertEquals(3, indexed.getLength());
+
+        indexed.remove(0);
+        assertFalse(indexed.isPacked());
+        assertEquals(3, indexed.getLength());
+        assertThat(indexed.keys(), Matchers.contains("1", "2"));
+    }
+
+    @Test
+    public void packedTruncate() {
+        IndexedMap<String> indexed = packed(0, 1, 2, 3, 4, 5);
+
+        assertTrue(indexed.truncatePacked(2));
+        assertEquals(2, indexed.getLength());
+        assertThat(indexed.keys(), Matchers.contains("0", "1"));
+
+        indexed.put(2, "x");
+        assertTrue(indexed.isPacked());
+        assertEquals("x", indexed.getPacked(2));
+
+        assertFalse(putAll(new IndexedMap<String>(), 0, 1).truncatePacked(0));
+    }
+
     @Test
     public void denseContainsKey() {
         IndexedMap<String> indexed = putAll(new IndexedMap<String>(), 0, 1, 2, 3, 4, 5);
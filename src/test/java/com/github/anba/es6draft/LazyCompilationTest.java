@@ -0,0 +1,45 @@
+/**
+ * Copyright (c) 2012-2015 André Bargull
+ * Alle Rechte vorbehalten / All Rights Reserved.  Use is subject to license terms.
+ *
+ * <https://github.com/anba/es6draft>
+ */
+package com.github.anba.es6draft;
+
+import static com.github.anba.es6draft.util.Resources.loadConfiguration;
+import static com.github.anba.es6draft.util.Resources.loadTests;
+
+import java.io.IOException;
+import java.util.EnumSet;
+import java.util.List;
+
+import org.apache.commons.configuration.Configuration;
+import org.junit.ClassRule;
+import org.junit.runners.Parameterized.Parameters;
+
+import com.github.anba.es6draft.compiler.Compiler;
+import com.github.anba.es6draft.util.TestConfiguration;
+import com.github.anba.es6draft.util.TestGlobals;
+import com.github.anba.es6draft.util.TestInfo;
+
+/**
+ * Runs the script tests with {@link Compiler.Option#LazyCompilation}.
+ */
+@TestConfiguration(name = "lazy.test", file = "resource:/test-configuration.properties")
+public final class LazyCompilationTest extends ScriptTest {
+    private static final Configuration configuration = loadConfiguration(LazyCompilationTest.class);
+
+    @Parameters(name = "{0}")
+    public static List<TestInfo> suiteValues() throws IOException {
+        return loadTests(configuration);
+    }
+
+    @ClassRule
+    public static TestGlobals<TestGlobalObject, TestInfo> globals = newGlobals(configuration,
+            EnumSet.of(Compiler.Option.LazyCompilation));
+
+    @Override
+    protected TestGlobals<TestGlobalObject, TestInfo> getGlobals() {
+        return globals;
+    }
+}
@@ -0,0 +1,156 @@
+/**
+ * Copyright (c) 2012-2015 André Bargull
+ * Alle Rechte vorbehalten / All Rights Reserved.  Use is subject to license terms.
+ *
+ * <https://github.com/anba/es6draft>
+ */
+package com.github.anba.es6draft;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.fail;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.EnumSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.TimeZone;
+
+import org.junit.After;
+import org.junit.Test;
+
+import com.github.anba.es6draft.compiler.Compiler;
+import com.github.anba.es6draft.interpreter.Interpreter;
+import com.github.anba.es6draft.parser.Parser;
+import com.github.anba.es6draft.parser.ParserException;
+import com.github.anba.es6draft.runtime.Realm;
+import com.github.anba.es6draft.runtime.World;
+import com.github.anba.es6draft.runtime.internal.CompatibilityOption;
+import com.github.anba.es6draft.runtime.internal.ScriptException;
+import com.github.anba.es6draft.runtime.internal.ScriptLoader;
+import com.github.anba.es6draft.runtime.internal.Source;
+import com.github.anba.es6draft.runtime.modules.ModuleLoader;
+import com.github.anba.es6draft.runtime.modules.loader.FileModuleLoader;
+import com.github.anba.es6draft.runtime.objects.GlobalObject;
+
+/**
+ * Tests for {@link Compiler.Option#LazyCompilation} and {@link Compiler.Option#TieredCompilation}.
+ */
+public final class LazyFunctionTest {
+    /** Same value as {@code LazyCompilation.PROMOTION_THRESHOLD} */
+    private static final int PROMOTION_THRESHOLD = 10;
+    private static final String INTERPRETER_FRAME = "#Interpreter";
+
+    private World<GlobalObject> world;
+
+    @After
+    public void tearDown() {
+        if (world != null) {
+            world.shutdown();
+        }
+    }
+
+    private Realm newRealm(Compiler.Option option) throws Exception {
+        Set<CompatibilityOption> options = CompatibilityOption.StrictCompatibility();
+        Set<Parser.Option> parserOptions = EnumSet.noneOf(Parser.Option.class);
+        Set<Compiler.Option> compilerOptions = EnumSet.of(option);
+        Path baseDir = Paths.get("").toAbsolutePath();
+        ScriptLoader scriptLoader = new ScriptLoader(options, parserOptions, compilerOptions);
+        ModuleLoader moduleLoader = new FileModuleLoader(scriptLoader, baseDir);
+        world = new World<>(World.getDefaultGlobalObjectAllocator(), moduleLoader, scriptLoader,
+                Locale.ROOT, TimeZone.getDefault());
+        return world.newInitializedGlobal().getRealm();
+    }
+
+    private static Object eval(Realm realm, String sourceCode) {
+        Source source = new Source("eval-lazy-function-test", 1);
+        return realm.getScriptLoader().script(source, sourceCode).evaluate(realm);
+    }
+
+    /**
+     * Calls the function and returns the class name of its frame in the thrown exception.
+     */
+    private static String frameClassName(Realm realm, String functionName, String arguments) {
+        try {
+            eval(realm, functionName + "(" + arguments + ")");
+        } catch (ScriptException e) {
+            for (StackTraceElement element : e.getStackTrace()) {
+                if (element.getMethodName().startsWith(functionName)) {
+                    return element.getClassName();
+                }
+            }
+            fail("no frame for " + functionName);
+        }
+        fail("no exception thrown");
+        return null;
+    }
+
+    @Test
+    public void testBodyCompiledOnFirstCall() throws Exception {
+        Realm realm = newRealm(Compiler.Option.LazyCompilation);
+        eval(realm, "function alpha() { return null.x; } function beta() { return null.x; }");
+
+        // Function classes are numbered in the order the functions are first called.
+        String betaClass = frameClassName(realm, "beta", "");
+        String alphaClass = frameClassName(realm, "alpha", "");
+        assertNotNull(betaClass);
+        assertNotNull(alphaClass);
+        assertEquals(betaClass.substring(0, betaClass.length() - 2) + "$2", alphaClass);
+        assertEquals("$1", betaClass.substring(betaClass.length() - 2));
+        assertEquals(betaClass, frameClassName(realm, "beta", ""));
+    }
+
+    @Test
+    public void testPreParsedFunctionBody() throws Exception {
+        Realm realm = newRealm(Compiler.Option.LazyCompilation);
+        // Braces in regular expressions, template literals and object literals.
+        eval(realm, "function epsilon() { if (true) /\\}/; "
+                + "return `${ {a: '}'}.a }` + /\\{/.source; }");
+
+        assertEquals("}\\{", eval(realm, "epsilon()").toString());
+    }
+
+    @Test
+    public void testEarlyErrorReportedOnFirstCall() throws Exception {
+        Realm realm = newRealm(Compiler.Option.LazyCompilation);
+        // Redeclarations are not detected when the function body is pre-parsed.
+        eval(realm, "function zeta() { let x; let x; }");
+
+        try {
+            eval(realm, "zeta()");
+            fail("no exception thrown");
+        } catch (ParserException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testHotLoopPromotesFunction() throws Exception {
+        Realm realm = newRealm(Compiler.Option.TieredCompilation);
+        // Compile hot functions synchronously.
+        world.shutdown();
+        eval(realm, "function gamma(n) { for (var i = 0; i < n; ++i) ; return null.x; }");
+
+        assertEquals(INTERPRETER_FRAME, frameClassName(realm, "gamma", "0"));
+
+        // Promoted while the loop runs, but the current call finishes in the interpreter.
+        int iterations = Interpreter.BACK_EDGE_INTERVAL * PROMOTION_THRESHOLD;
+        assertEquals(INTERPRETER_FRAME,
+                frameClassName(realm, "gamma", Integer.toString(iterations)));
+
+        assertFalse(INTERPRETER_FRAME.equals(frameClassName(realm, "gamma", "0")));
+    }
+
+    @Test
+    public void testColdFunctionStaysInterpreted() throws Exception {
+        Realm realm = newRealm(Compiler.Option.TieredCompilation);
+        world.shutdown();
+        eval(realm, "function delta(n) { for (var i = 0; i < n; ++i) ; return null.x; }");
+
+        for (int i = 0; i < PROMOTION_THRESHOLD - 1; ++i) {
+            assertEquals(INTERPRETER_FRAME, frameClassName(realm, "delta", "1"));
+        }
+    }
+}
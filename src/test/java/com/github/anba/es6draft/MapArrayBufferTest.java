@@ -0,0 +1,170 @@
+/**
+ * Copyright (c) 2012-2015 André Bargull
+ * Alle Rechte vorbehalten / All Rights Reserved.  Use is subject to license terms.
+ *
+ * <https://github.com/anba/es6draft>
+ */
+package com.github.anba.es6draft;
+
+import static com.github.anba.es6draft.runtime.objects.binary.ArrayBufferConstructor.MapArrayBuffer;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.MappedByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.EnumSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.TimeZone;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.github.anba.es6draft.compiler.Compiler;
+import com.github.anba.es6draft.parser.Parser;
+import com.github.anba.es6draft.runtime.ExecutionContext;
+import com.github.anba.es6draft.runtime.Realm;
+import com.github.anba.es6draft.runtime.World;
+import com.github.anba.es6draft.runtime.internal.CompatibilityOption;
+import com.github.anba.es6draft.runtime.internal.ScriptException;
+import com.github.anba.es6draft.runtime.internal.ScriptLoader;
+import com.github.anba.es6draft.runtime.internal.Source;
+import com.github.anba.es6draft.runtime.modules.ModuleLoader;
+import com.github.anba.es6draft.runtime.modules.loader.FileModuleLoader;
+import com.github.anba.es6draft.runtime.objects.GlobalObject;
+import com.github.anba.es6draft.runtime.objects.binary.ArrayBufferObject;
+
+/**
+ *
+ */
+public final class MapArrayBufferTest {
+    private static final byte[] CONTENT = { 1, 2, 3, 4 };
+
+    private Realm realm;
+    private Path file;
+
+    @Before
+    public void setUp() throws Exception {
+        Set<CompatibilityOption> options = CompatibilityOption.StrictCompatibility();
+        Set<Parser.Option> parserOptions = EnumSet.noneOf(Parser.Option.class);
+        Set<Compiler.Option> compilerOptions = EnumSet.noneOf(Compiler.Option.class);
+        Path baseDir = Paths.get("").toAbsolutePath();
+        ScriptLoader scriptLoader = new ScriptLoader(options, parserOptions, compilerOptions);
+        ModuleLoader moduleLoader = new FileModuleLoader(scriptLoader, baseDir);
+        World<GlobalObject> world = new World<>(World.getDefaultGlobalObjectAllocator(),
+                moduleLoader, scriptLoader, Locale.ROOT, TimeZone.getDefault());
+        realm = world.newInitializedGlobal().getRealm();
+        file = Files.createTempFile("es6draft-map", ".bin");
+        Files.write(file, CONTENT);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        if (file != null) {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private ArrayBufferObject map(long position, long size, boolean writable) throws Exception {
+        ExecutionContext cx = realm.defaultContext();
+        ArrayBufferObject buffer = MapArrayBuffer(cx, file, position, size, writable);
+        realm.getGlobalThis().set(cx, "buffer", buffer, realm.getGlobalThis());
+        return buffer;
+    }
+
+    private Object eval(String sourceCode) {
+        Source source = new Source("eval-map-array-buffer-test", 1);
+        return realm.getScriptLoader().script(source, sourceCode).evaluate(realm);
+    }
+
+    private int evalInt(String sourceCode) {
+        return ((Number) eval(sourceCode)).intValue();
+    }
+
+    @Test
+    public void testReadOnlyMapping() throws Exception {
+        ArrayBufferObject buffer = map(0, -1, false);
+
+        assertTrue(buffer.isImmutable());
+        assertEquals(CONTENT.length, buffer.getByteLength());
+        assertEquals(1, evalInt("new Uint8Array(buffer)[0]"));
+        assertEquals(4, evalInt("new Uint8Array(buffer)[3]"));
+    }
+
+    @Test
+    public void testReadOnlyRegion() throws Exception {
+        ArrayBufferObject buffer = map(1, 2, false);
+
+        assertTrue(buffer.isImmutable());
+        assertEquals("2,3", eval("[...new Uint8Array(buffer)].join()"));
+    }
+
+    @Test
+    public void testReadOnlyMappingRejectsWrites() throws Exception {
+        map(0, -1, false);
+
+        assertEquals(Boolean.FALSE, eval("Reflect.set(new Uint8Array(buffer), 0, 9)"));
+        assertEquals(1, evalInt("var a = new Uint8Array(buffer); a[0] = 9; a[0]"));
+        assertArrayEquals(CONTENT, Files.readAllBytes(file));
+    }
+
+    @Test(expected = ScriptException.class)
+    public void testReadOnlyMappingStrictWrite() throws Exception {
+        map(0, -1, false);
+
+        eval("'use strict'; new Uint8Array(buffer)[0] = 9;");
+    }
+
+    @Test(expected = ScriptException.class)
+    public void testReadOnlyMappingDataView() throws Exception {
+        map(0, -1, false);
+
+        eval("new DataView(buffer).setUint8(0, 9);");
+    }
+
+    @Test
+    public void testReadOnlyMappingSlice() throws Exception {
+        map(0, -1, false);
+
+        assertEquals(9, evalInt("var a = new Uint8Array(buffer.slice(0)); a[0] = 9; a[0]"));
+        assertArrayEquals(CONTENT, Files.readAllBytes(file));
+    }
+
+    @Test
+    public void testWritableMapping() throws Exception {
+        ArrayBufferObject buffer = map(0, -1, true);
+
+        assertFalse(buffer.isImmutable());
+        assertEquals(9, evalInt("var a = new Uint8Array(buffer); a[0] = 9; a[0]"));
+        assertEquals(8, evalInt("new DataView(buffer).setUint8(3, 8); new Uint8Array(buffer)[3]"));
+        ((MappedByteBuffer) buffer.getData()).force();
+        assertArrayEquals(new byte[] { 9, 2, 3, 8 }, Files.readAllBytes(file));
+    }
+
+    @Test
+    public void testWritableMappingExtendsFile() throws Exception {
+        ArrayBufferObject buffer = map(2, 4, true);
+
+        assertEquals(4, buffer.getByteLength());
+        assertEquals(6, Files.size(file));
+        assertEquals("3,4,0,0", eval("[...new Uint8Array(buffer)].join()"));
+    }
+
+    @Test(expected = NoSuchFileException.class)
+    public void testMissingFile() throws Exception {
+        Files.delete(file);
+        map(0, -1, false);
+    }
+
+    @Test(expected = NoSuchFileException.class)
+    public void testMissingFileWritable() throws Exception {
+        Files.delete(file);
+        map(0, -1, true);
+    }
+}
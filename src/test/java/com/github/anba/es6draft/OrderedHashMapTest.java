@@ -0,0 +1,347 @@
+/**
+ * Copyright (c) 2012-2015 André Bargull
+ * Alle Rechte vorbehalten / All Rights Reserved.  Use is subject to license terms.
+ *
+ * <https://github.com/anba/es6draft>
+ */
+package com.github.anba.es6draft;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.Iterator;
+import java.util.Map.Entry;
+import java.util.NoSuchElementException;
+
+import org.junit.Test;
+
+import com.github.anba.es6draft.runtime.internal.OrderedHashMap;
+import com.github.anba.es6draft.runtime.types.Null;
+import com.github.anba.es6draft.runtime.types.Undefined;
+
+/**
+ *
+ */
+public final class OrderedHashMapTest {
+
+    @Test
+    public void test() {
+        OrderedHashMap<String> map = new OrderedHashMap<>();
+
+        assertEquals(0, map.size());
+        map.set("key1", "value1");
+        assertEquals(1, map.size());
+        map.set("key2", "value2");
+        assertEquals(2, map.size());
+        map.set("key2", "value2-new");
+        assertEquals(2, map.size());
+        assertEquals("value2-new", map.get("key2"));
+
+        assertTrue(map.has("key1"));
+        assertTrue(map.has("key2"));
+        assertFalse(map.has("key3"));
+        assertNull(map.get("key3"));
+
+        assertTrue(map.delete("key2"));
+        assertEquals(1, map.size());
+        assertTrue(map.has("key1"));
+        assertFalse(map.has("key2"));
+        assertFalse(map.has("key3"));
+
+        assertFalse(map.delete("key2"));
+        assertEquals(1, map.size());
+        assertTrue(map.has("key1"));
+        assertFalse(map.has("key2"));
+        assertFalse(map.has("key3"));
+
+        map.clear();
+        assertEquals(0, map.size());
+        assertFalse(map.has("key1"));
+    }
+
+    @Test
+    public void testNumberKeys() {
+        OrderedHashMap<String> map = new OrderedHashMap<>();
+
+        map.set(1, "int");
+        assertEquals("int", map.get(1d));
+        assertEquals("int", map.get(1L));
+        map.set(1.5, "double");
+        assertEquals("double", map.get(1.5));
+        assertFalse(map.has(2));
+
+        map.set(-0d, "zero");
+        assertEquals("zero", map.get(0));
+        assertEquals("zero", map.get(+0d));
+
+        map.set(Double.NaN, "nan");
+        assertEquals("nan", map.get(Double.NaN));
+        assertEquals("nan", map.get(Double.longBitsToDouble(0x7ff8000000000001L)));
+
+        assertFalse(map.has("1"));
+        assertEquals(4, map.size());
+
+        Iterator<Entry<Object, String>> itr = map.iterator();
+        assertEntryEquals(1, "int", itr.next());
+        assertEntryEquals(1.5, "double", itr.next());
+        assertEntryEquals(0, "zero", itr.next());
+        assertEntryEquals(Double.NaN, "nan", itr.next());
+        assertFalse(itr.hasNext());
+    }
+
+    @Test
+    public void testNumberKeyObjects() {
+        OrderedHashMap<String> map = new OrderedHashMap<>();
+        Double fraction = 0.5;
+        map.set(fraction, "fraction");
+        map.set(2d, "double");
+        map.set(3L, "long");
+        map.set(1L << 40, "large");
+
+        Iterator<Entry<Object, String>> itr = map.iterator();
+        Entry<Object, String> entry = itr.next();
+        assertSame(fraction, entry.getKey());
+        assertSame(entry.getKey(), map.iterator().next().getKey());
+        assertEntryEquals(2, "double", itr.next());
+        assertEntryEquals(3, "long", itr.next());
+        assertEntryEquals(1L << 40, "large", itr.next());
+        assertFalse(itr.hasNext());
+    }
+
+    @Test
+    public void testOtherKeys() {
+        OrderedHashMap<String> map = new OrderedHashMap<>();
+
+        map.set(new String("key"), "string");
+        assertEquals("string", map.get("key"));
+        map.set(Boolean.TRUE, "true");
+        assertEquals("true", map.get(true));
+        map.set(Undefined.UNDEFINED, "undefined");
+        map.set(Null.NULL, "null");
+        assertEquals("undefined", map.get(Undefined.UNDEFINED));
+        assertEquals("null", map.get(Null.NULL));
+        assertFalse(map.has(false));
+
+        Object key1 = new Object(), key2 = new Object();
+        map.set(key1, "key1");
+        assertEquals("key1", map.get(key1));
+        assertFalse(map.has(key2));
+    }
+
+    @Test
+    public void testCompaction() {
+        OrderedHashMap<Integer> map = new OrderedHashMap<>();
+
+        for (int i = 0; i < 10000; ++i) {
+            map.set(i, i);
+        }
+        assertEquals(10000, map.size());
+        for (int i = 0; i < 10000; i += 2) {
+            assertTrue(map.delete(i));
+        }
+        assertEquals(5000, map.size());
+        for (int i = 0; i < 10000; ++i) {
+            assertEquals((i & 1) != 0, map.has(i));
+        }
+        for (int i = 1; i < 9990; i += 2) {
+            assertTrue(map.delete(i));
+        }
+        assertEquals(5, map.size());
+
+        int expected = 9991;
+        for (Entry<Object, Integer> entry : map) {
+            assertEquals(expected, entry.getKey());
+            assertEquals(expected, (int) entry.getValue());
+            expected += 2;
+        }
+        assertEquals(10001, expected);
+    }
+
+    private <K, V> void assertEntryEquals(K key, V value, Entry<K, V> entry) {
+        assertEquals(key, entry.getKey());
+        assertEquals(value, entry.getValue());
+    }
+
+    @Test
+    public void testIterator1() {
+        OrderedHashMap<String> map = new OrderedHashMap<>();
+        map.set("key1", "value1");
+        map.set("key2", "value2");
+
+        Iterator<Entry<Object, String>> itr = map.iterator();
+
+        assertTrue(itr.hasNext());
+        assertTrue(itr.hasNext());
+        assertTrue(itr.hasNext());
+        assertEntryEquals("key1", "value1", itr.next());
+
+        assertTrue(itr.hasNext());
+        assertEntryEquals("key2", "value2", itr.next());
+
+        assertFalse(itr.hasNext());
+        try {
+            itr.next();
+            fail();
+        } catch (NoSuchElementException e) {
+        }
+    }
+
+    @Test
+    public void testIterator2() {
+        OrderedHashMap<String> map = new OrderedHashMap<>();
+
+        Iterator<Entry<Object, String>> itr = map.iterator();
+
+        // iterator finished concept not available
+        assertFalse(itr.hasNext());
+        try {
+            itr.next();
+            fail();
+        } catch (NoSuchElementException e) {
+        }
+
+        map.set("key1", "value1");
+        assertTrue(itr.hasNext());
+        assertEntryEquals("key1", "value1", itr.next());
+
+        assertFalse(itr.hasNext());
+        try {
+            itr.next();
+            fail();
+        } catch (NoSuchElementException e) {
+        }
+    }
+
+    @Test
+    public void testIterator3() {
+        OrderedHashMap<String> map = new OrderedHashMap<>();
+
+        Iterator<Entry<Object, String>> itr = map.iterator();
+
+        map.set("key1", "value1");
+        map.set("key2", "value2");
+        map.set("key3", "value3");
+        map.set("key4", "value4");
+
+        assertTrue(itr.hasNext());
+        assertEntryEquals("key1", "value1", itr.next());
+
+        assertTrue(itr.hasNext());
+
+        map.delete("key1");
+        map.delete("key2");
+
+        assertTrue(itr.hasNext());
+        assertEntryEquals("key3", "value3", itr.next());
+        assertEntryEquals("key4", "value4", itr.next());
+        try {
+            itr.next();
+            fail();
+        } catch (NoSuchElementException e) {
+        }
+    }
+
+    @Test
+    public void testIterator4() {
+        OrderedHashMap<String> map = new OrderedHashMap<>();
+
+        Iterator<Entry<Object, String>> itr = map.iterator();
+
+        map.set("key1", "value1");
+        map.set("key2", "value2");
+        map.set("key3", "value3");
+        map.set("key4", "value4");
+
+        assertTrue(itr.hasNext());
+        assertEntryEquals("key1", "value1", itr.next());
+
+        assertTrue(itr.hasNext());
+
+        map.delete("key1");
+        map.delete("key3");
+
+        assertTrue(itr.hasNext());
+        assertEntryEquals("key2", "value2", itr.next());
+        assertEntryEquals("key4", "value4", itr.next());
+        try {
+            itr.next();
+            fail();
+        } catch (NoSuchElementException e) {
+        }
+    }
+
+    @Test
+    public void testIterator5() {
+        OrderedHashMap<Integer> map = new OrderedHashMap<>();
+        for (int i = 0; i < 100; ++i) {
+            map.set(i, i);
+        }
+
+        Iterator<Entry<Object, Integer>> itr = map.iterator();
+        for (int i = 0; i < 50; ++i) {
+            assertEquals(i, (int) itr.next().getValue());
+        }
+
+        // Delete enough entries to shrink the map, including already visited entries.
+        for (int i = 0; i < 90; ++i) {
+            if (i != 50 && i != 70) {
+                map.delete(i);
+            }
+        }
+        // Add enough entries to grow the map again.
+        for (int i = 100; i < 200; ++i) {
+            map.set(i, i);
+        }
+
+        assertEquals(50, (int) itr.next().getValue());
+        assertEquals(70, (int) itr.next().getValue());
+        for (int i = 90; i < 200; ++i) {
+            assertEquals(i, (int) itr.next().getValue());
+        }
+        assertFalse(itr.hasNext());
+    }
+
+    @Test
+    public void testIterator6() {
+        OrderedHashMap<String> map = new OrderedHashMap<>();
+        map.set("key1", "value1");
+        map.set("key2", "value2");
+
+        Iterator<Entry<Object, String>> itr = map.iterator();
+        assertEntryEquals("key1", "value1", itr.next());
+
+        map.clear();
+        assertFalse(itr.hasNext());
+
+        map.set("key3", "value3");
+        assertTrue(itr.hasNext());
+        assertEntryEquals("key3", "value3", itr.next());
+        assertFalse(itr.hasNext());
+    }
+
+    @Test
+    public void testIterator7() {
+        OrderedHashMap<Integer> map = new OrderedHashMap<>();
+        for (int i = 0; i < 100; ++i) {
+            map.set(i, i);
+        }
+
+        // Unused iterators don't prevent compaction.
+        for (int i = 0; i < 1000; ++i) {
+            map.iterator();
+        }
+        Iterator<Entry<Object, Integer>> itr = map.iterator();
+        assertEquals(0, (int) itr.next().getValue());
+
+        for (int i = 0; i < 99; ++i) {
+            map.delete(i);
+        }
+        assertTrue(itr.hasNext());
+        assertEquals(99, (int) itr.next().getValue());
+        assertFalse(itr.hasNext());
+    }
+}
@@ -0,0 +1,202 @@
+/**
+ * Copyright (c) 2012-2015 André Bargull
+ * Alle Rechte vorbehalten / All Rights Reserved.  Use is subject to license terms.
+ *
+ * <https://github.com/anba/es6draft>
+ */
+package com.github.anba.es6draft;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.github.anba.es6draft.runtime.internal.PropertyMap;
+import com.github.anba.es6draft.runtime.internal.Shape;
+
+/**
+ *
+ */
+public final class PropertyMapTest {
+
+    @Test
+    public void test() {
+        PropertyMap<String, String> map = new PropertyMap<>();
+
+        assertEquals(0, map.size());
+        assertTrue(map.isEmpty());
+        assertNull(map.put("key1", "value1"));
+        assertEquals(1, map.size());
+        assertNull(map.put("key2", "value2"));
+        assertEquals(2, map.size());
+        assertEquals("value2", map.put("key2", "value2-new"));
+        assertEquals(2, map.size());
+
+        assertTrue(map.containsKey("key1"));
+        assertTrue(map.containsKey("key2"));
+        assertFalse(map.containsKey("key3"));
+        assertEquals("value1", map.get("key1"));
+        assertEquals("value2-new", map.get("key2"));
+        assertNull(map.get("key3"));
+
+        assertEquals("value1", map.remove("key1"));
+        assertNull(map.remove("key1"));
+        assertEquals(1, map.size());
+        assertFalse(map.containsKey("key1"));
+        assertTrue(map.containsKey("key2"));
+    }
+
+    @Test
+    public void testSharedShape() {
+        PropertyMap<String, String> map1 = new PropertyMap<>();
+        map1.put("a", "1");
+        map1.put("b", "2");
+
+        PropertyMap<String, String> map2 = new PropertyMap<>();
+        map2.put("a", "3");
+        map2.put("b", "4");
+
+        PropertyMap<String, String> map3 = new PropertyMap<>();
+        map3.put("b", "5");
+        map3.put("a", "6");
+
+        assertNotNull(map1.getShape());
+        assertSame(map1.getShape(), map2.getShape());
+        assertFalse(map1.getShape() == map3.getShape());
+        assertEquals("3", map2.get("a"));
+        assertEquals("6", map3.get("a"));
+    }
+
+    @Test
+    public void testRemoveLast() {
+        PropertyMap<String, String> map = new PropertyMap<>();
+        map.put("a", "1");
+        map.put("b", "2");
+        PropertyMap<String, String> other = new PropertyMap<>();
+        other.put("a", "3");
+
+        map.remove("b");
+        assertNotNull(map.getShape());
+        assertSame(other.getShape(), map.getShape());
+        assertNull(map.get("b"));
+
+        map.put("c", "4");
+        assertEquals(Arrays.asList("a", "c"), new ArrayList<>(map.keys()));
+    }
+
+    @Test
+    public void testInsertionOrder() {
+        PropertyMap<String, Integer> map = new PropertyMap<>();
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < 20; ++i) {
+            String key = "key" + (i * 7 % 20);
+            map.put(key, i);
+            expected.add(key);
+        }
+        assertEquals(expected, new ArrayList<>(map.keys()));
+
+        // Remove an inner key to switch to dictionary mode.
+        map.remove("key7");
+        expected.remove("key7");
+        assertNull(map.getShape());
+        assertEquals(expected, new ArrayList<>(map.keys()));
+
+        map.put("key7", 100);
+        expected.add("key7");
+        assertEquals(expected, new ArrayList<>(map.keys()));
+        assertEquals(Integer.valueOf(100), map.get("key7"));
+    }
+
+    private static final PropertyMap.Packing<String> PACKING = new PropertyMap.Packing<String>() {
+        @Override
+        public int attributes(String value) {
+            return value.startsWith("!") ? 1 : 0;
+        }
+
+        @Override
+        public Object pack(String value) {
+            return value.startsWith("!") ? value.substring(1) : value;
+        }
+
+        @Override
+        public String unpack(int attributes, Object value) {
+            return attributes == 1 ? "!" + value : (String) value;
+        }
+    };
+
+    @Test
+    public void testPacking() {
+        PropertyMap<String, String> map1 = new PropertyMap<>(PACKING);
+        map1.put("a", "1");
+        map1.put("b", "!2");
+        map1.put("c", "3");
+        assertEquals(1, map1.getShape().getAttributes(1));
+        assertEquals("2", map1.getSlotValue(1));
+        assertEquals("!2", map1.get("b"));
+
+        PropertyMap<String, String> map2 = new PropertyMap<>(PACKING);
+        map2.put("a", "4");
+        map2.put("b", "5");
+        map2.put("c", "6");
+        assertFalse(map1.getShape() == map2.getShape());
+
+        // Changing the attributes keeps the shape mode and shares the resulting shape.
+        assertTrue(map1.replace("b", "7"));
+        assertSame(map2.getShape(), map1.getShape());
+        assertEquals(Arrays.asList("a", "b", "c"), new ArrayList<>(map1.keys()));
+        assertEquals("7", map1.get("b"));
+        assertFalse(map1.replace("d", "8"));
+        assertNull(map1.get("d"));
+    }
+
+    @Test
+    public void testLargeShapes() {
+        PropertyMap<String, Integer> map1 = new PropertyMap<>();
+        PropertyMap<String, Integer> map2 = new PropertyMap<>();
+        for (int i = 0; i < 20; ++i) {
+            map1.put("p" + i, i);
+            map2.put("p" + i, i);
+        }
+        Shape shape = map1.getShape();
+        assertSame(shape, map2.getShape());
+        map1.put("x", 1);
+        map1.put("y", 2);
+        map2.put("y", 3);
+        map2.put("x", 4);
+
+        assertEquals(-1, shape.indexOf("x"));
+        assertEquals(20, map1.getShape().indexOf("x"));
+        assertEquals(21, map2.getShape().indexOf("x"));
+        assertEquals(Integer.valueOf(1), map1.get("x"));
+        assertEquals(Integer.valueOf(2), map1.get("y"));
+        assertEquals(Integer.valueOf(4), map2.get("x"));
+        assertEquals(Integer.valueOf(3), map2.get("y"));
+        for (int i = 0; i < 20; ++i) {
+            assertEquals(i, shape.indexOf("p" + i));
+        }
+    }
+
+    @Test
+    public void testManyProperties() {
+        PropertyMap<String, Integer> map = new PropertyMap<>();
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < 1000; ++i) {
+            String key = "p" + i;
+            map.put(key, i);
+            expected.add(key);
+        }
+        assertEquals(1000, map.size());
+        assertEquals(expected, new ArrayList<>(map.keys()));
+        for (int i = 0; i < 1000; ++i) {
+            assertEquals(Integer.valueOf(i), map.get("p" + i));
+        }
+    }
+}
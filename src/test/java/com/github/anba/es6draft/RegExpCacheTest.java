@@ -0,0 +1,107 @@
+/**
+ * Copyright (c) 2012-2015 André Bargull
+ * Alle Rechte vorbehalten / All Rights Reserved.  Use is subject to license terms.
+ *
+ * <https://github.com/anba/es6draft>
+ */
+package com.github.anba.es6draft;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.junit.Test;
+
+import com.github.anba.es6draft.parser.ParserException;
+import com.github.anba.es6draft.regexp.MatchState;
+import com.github.anba.es6draft.regexp.RegExpCache;
+import com.github.anba.es6draft.regexp.RegExpMatcher;
+import com.github.anba.es6draft.regexp.RegExpParser;
+
+/**
+ *
+ */
+public final class RegExpCacheTest {
+    private static RegExpMatcher get(RegExpCache cache, String pattern, String flags) {
+        return get(cache, pattern, flags, RegExpParser.Engine.Native);
+    }
+
+    private static RegExpMatcher get(RegExpCache cache, String pattern, String flags,
+            RegExpParser.Engine engine) {
+        return cache.get(pattern, flags, "<regexp>", 1, 1, false, engine);
+    }
+
+    @Test
+    public void testHitsAndMisses() {
+        RegExpCache cache = new RegExpCache();
+        get(cache, "a+b", "");
+        get(cache, "a+b", "");
+        get(cache, "a+b", "i");
+        get(cache, "(a)\\1", "");
+        get(cache, "a+b", "i");
+        assertEquals(2, cache.getHits());
+        assertEquals(3, cache.getMisses());
+        assertEquals(3, cache.size());
+    }
+
+    @Test
+    public void testSharedMatchers() {
+        RegExpCache cache = new RegExpCache();
+        // Native and Joni matchers
+        for (String flags : new String[] { "", "iu" }) {
+            RegExpMatcher m1 = get(cache, "(a+)b", flags);
+            RegExpMatcher m2 = get(cache, "(a+)b", flags);
+            MatchState s1 = m1.matcher("xaab");
+            MatchState s2 = m2.matcher("aaab");
+            assertTrue(s1.find(0));
+            assertTrue(s2.find(0));
+            assertEquals(1, s1.start());
+            assertEquals(0, s2.start());
+        }
+    }
+
+    @Test
+    public void testEngines() {
+        RegExpCache cache = new RegExpCache();
+        for (RegExpParser.Engine engine : RegExpParser.Engine.values()) {
+            RegExpMatcher matcher = get(cache, "(a+)b", "", engine);
+            MatchState state = matcher.matcher("xaab");
+            assertTrue(state.find(0));
+            assertEquals(1, state.start());
+            assertEquals(3, state.end(1));
+        }
+        assertEquals(0, cache.getHits());
+        assertEquals(3, cache.size());
+    }
+
+    @Test
+    public void testSyntaxErrorsNotCached() {
+        RegExpCache cache = new RegExpCache();
+        for (int i = 0; i < 2; ++i) {
+            try {
+                get(cache, "a(", "");
+                fail();
+            } catch (ParserException e) {
+                // expected
+            }
+        }
+        assertEquals(0, cache.getHits());
+        assertEquals(2, cache.getMisses());
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testBounded() {
+        RegExpCache cache = new RegExpCache(2);
+        get(cache, "a", "");
+        get(cache, "b", "");
+        get(cache, "a", "");
+        get(cache, "c", "");
+        assertEquals(2, cache.size());
+        // "a" was used more recently than "b"
+        get(cache, "a", "");
+        assertEquals(2, cache.getHits());
+        get(cache, "b", "");
+        assertEquals(4, cache.getMisses());
+    }
+}
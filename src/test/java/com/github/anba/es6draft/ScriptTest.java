@@ -29,6 +29,7 @@ import org.junit.runners.Parameterized.Parameter;
 import org.junit.runners.Parameterized.Parameters;
 import org.junit.runners.Parameterized.UseParametersRunnerFactory;
 
+import com.github.anba.es6draft.compiler.Compiler;
 import com.github.anba.es6draft.repl.console.ShellConsole;
 import com.github.anba.es6draft.runtime.internal.CompatibilityOption;
 import com.github.anba.es6draft.runtime.internal.ObjectAllocator;
@@ -42,12 +43,14 @@ import com.github.anba.es6draft.util.rules.ExceptionHandlers.ScriptExceptionHand
 import com.github.anba.es6draft.util.rules.ExceptionHandlers.StandardErrorHandler;
 
 /**
- *
+ * Runs the script tests. Sub-classes run a test suite with different compiler options, they need
+ * to declare their own {@code suiteValues()} and {@code globals} members which then shadow the
+ * members of this class.
  */
 @RunWith(Parallelized.class)
 @UseParametersRunnerFactory(ParameterizedRunnerFactory.class)
 @TestConfiguration(name = "script.test", file = "resource:/test-configuration.properties")
-public final class ScriptTest {
+public class ScriptTest {
     private static final Configuration configuration = loadConfiguration(ScriptTest.class);
 
     @Parameters(name = "{0}")
@@ -56,22 +59,41 @@ public final class ScriptTest {
     }
 
     @ClassRule
-    public static TestGlobals<TestGlobalObject, TestInfo> globals = new TestGlobals<TestGlobalObject, TestInfo>(
-            configuration) {
-        @Override
-        protected ObjectAllocator<TestGlobalObject> newAllocator(ShellConsole console,
-                TestInfo test, ScriptCache scriptCache) {
-            return newGlobalObjectAllocator(console, test, scriptCache);
-        }
+    public static TestGlobals<TestGlobalObject, TestInfo> globals = newGlobals(configuration,
+            EnumSet.noneOf(Compiler.Option.class));
+
+    static TestGlobals<TestGlobalObject, TestInfo> newGlobals(Configuration configuration,
+            final Set<Compiler.Option> compilerOptions) {
+        return new TestGlobals<TestGlobalObject, TestInfo>(configuration) {
+            @Override
+            protected ObjectAllocator<TestGlobalObject> newAllocator(ShellConsole console,
+                    TestInfo test, ScriptCache scriptCache) {
+                return newGlobalObjectAllocator(console, test, scriptCache);
+            }
+
+            @Override
+            protected Set<CompatibilityOption> getOptions() {
+                EnumSet<CompatibilityOption> options = EnumSet.copyOf(super.getOptions());
+                // TODO: Replace/move tests which require es7 extensions
+                options.addAll(CompatibilityOption.ECMAScript7());
+                return options;
+            }
+
+            @Override
+            protected Set<Compiler.Option> getCompilerOptions() {
+                return compilerOptions;
+            }
+        };
+    }
 
-        @Override
-        protected Set<CompatibilityOption> getOptions() {
-            EnumSet<CompatibilityOption> options = EnumSet.copyOf(super.getOptions());
-            // TODO: Replace/move tests which require es7 extensions
-            options.addAll(CompatibilityOption.ECMAScript7());
-            return options;
-        }
-    };
+    /**
+     * Returns the class rule to create new global objects.
+     * 
+     * @return the test globals
+     */
+    protected TestGlobals<TestGlobalObject, TestInfo> getGlobals() {
+        return globals;
+    }
 
     @Rule
     public Timeout maxTime = new Timeout(120, TimeUnit.SECONDS);
@@ -91,7 +113,7 @@ public final class ScriptTest {
     public void setUp() throws Throwable {
         assumeTrue("Test disabled", test.isEnabled());
 
-        global = globals.newGlobal(new ScriptTestConsole(), test);
+        global = getGlobals().newGlobal(new ScriptTestConsole(), test);
         exceptionHandler.setExecutionContext(global.getRealm().defaultContext());
     }
 
@@ -99,6 +121,7 @@ public final class ScriptTest {
     public void tearDown() {
         if (global != null) {
             global.getScriptLoader().getExecutor().shutdown();
+            global.getRealm().getWorld().shutdown();
         }
     }
 
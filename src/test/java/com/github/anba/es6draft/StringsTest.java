@@ -0,0 +1,112 @@
+/**
+ * Copyright (c) 2012-2015 André Bargull
+ * Alle Rechte vorbehalten / All Rights Reserved.  Use is subject to license terms.
+ *
+ * <https://github.com/anba/es6draft>
+ */
+package com.github.anba.es6draft;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+import org.mozilla.javascript.ConsString;
+
+import com.github.anba.es6draft.runtime.internal.Strings;
+
+/**
+ *
+ */
+public final class StringsTest {
+
+    @Test
+    public void testTrim() {
+        assertEquals("", Strings.trim(""));
+        assertEquals("", Strings.trim(" \t\n\u2028\ufeff"));
+        assertEquals("a b", Strings.trim(" \t a b\r\n"));
+        assertEquals("a b\r\n", Strings.trimLeft(" \t a b\r\n"));
+        assertEquals(" \t a b", Strings.trimRight(" \t a b\r\n"));
+        assertEquals("", Strings.trimLeft("\u3000"));
+        assertEquals("", Strings.trimRight("\u3000"));
+    }
+
+    @Test
+    public void testConcat() {
+        assertEquals("", Strings.concat("", ""));
+        assertEquals("ab", Strings.concat("a", "b"));
+        assertEquals("", Strings.concatWith(','));
+        assertEquals("a", Strings.concatWith(',', "a"));
+        assertEquals("a,,b", Strings.concatWith(',', "a", "", "b"));
+        assertEquals("", Strings.repeat('x', 0));
+        assertEquals("xxx", Strings.repeat('x', 3));
+    }
+
+    @Test
+    public void testQuote() {
+        assertEquals("\"\"", Strings.quote(""));
+        assertEquals("\"abc\u00e4\"", Strings.quote("abc\u00e4"));
+        assertEquals("\"a\\\"b\\\\c\"", Strings.quote("a\"b\\c"));
+        assertEquals("\"\\b\\f\\n\\r\\t\"", Strings.quote("\b\f\n\r\t"));
+        assertEquals("\"\\u0000\\u001f\\u0100\\ud834\\udf06\"",
+                Strings.quote("\u0000\u001f\u0100\ud834\udf06"));
+    }
+
+    @Test
+    public void testIndex() {
+        assertEquals(0, Strings.toArrayIndex("0"));
+        assertEquals(123, Strings.toArrayIndex("123"));
+        assertEquals(0xFFFF_FFFEL, Strings.toArrayIndex("4294967294"));
+        assertEquals(-1, Strings.toArrayIndex("4294967295"));
+        assertEquals(-1, Strings.toArrayIndex(""));
+        assertEquals(-1, Strings.toArrayIndex("01"));
+        assertEquals(-1, Strings.toArrayIndex("-1"));
+        assertEquals(-1, Strings.toArrayIndex("1.5"));
+        assertEquals(-1, Strings.toArrayIndex("12345678901"));
+
+        assertEquals(0x7FFF_FFFE, Strings.toStringIndex("2147483646"));
+        assertEquals(-1, Strings.toStringIndex("2147483647"));
+        assertEquals(7, Strings.toArgumentIndex("7"));
+        assertEquals(-1, Strings.toArgumentIndex("2147483648"));
+    }
+
+    @Test
+    public void testFlattenedConcatenations() {
+        String padding = Strings.repeat('.', 100);
+        CharSequence s = ConsString.concat(" \t" + padding, "a\"b");
+        s = ConsString.concat(s, ConsString.concat(padding + "\u0100", "\n "));
+        String flat = " \t" + padding + "a\"b" + padding + "\u0100\n ";
+        assertEquals(flat, s.toString());
+        assertEquals(flat.trim(), Strings.trim(s.toString()));
+        assertEquals(Strings.quote(flat), Strings.quote(s.toString()));
+
+        CharSequence index = ConsString.concat("4294967", Strings.repeat('9', 1));
+        assertEquals(42949679, Strings.toArrayIndex(index.toString()));
+    }
+
+    @Test
+    public void testConcatenations() {
+        CharSequence s = "";
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 3000; ++i) {
+            String part = (i % 7 == 0 ? "needle" : "hay") + i + ";";
+            s = ConsString.concat(s, part);
+            sb.append(part);
+        }
+        String flat = sb.toString();
+        for (String t : new String[] { "", "needle", "needle2996;", "hay1;", ";", "missing" }) {
+            for (int i = -1; i <= flat.length() + 1; i += 331) {
+                assertEquals(flat.indexOf(t, i), Strings.indexOf(s, t, i));
+                assertEquals(flat.lastIndexOf(t, i), Strings.lastIndexOf(s, t, i));
+                assertEquals(flat.startsWith(t, i), Strings.startsWith(s, t, i));
+            }
+            assertEquals(flat.lastIndexOf(t), Strings.lastIndexOf(s, t, flat.length()));
+        }
+        assertEquals(flat, s.toString());
+
+        CharSequence padded = ConsString.concat(ConsString.concat(" \t", s), "\n ");
+        CharSequence trimmed = Strings.trim(padded);
+        assertEquals(flat, trimmed.toString());
+        assertEquals(flat.substring(5, 20000),
+                ConsString.slice(padded, 7, 20002).toString());
+        assertEquals("", Strings.trim(ConsString.concat(" \t ", Strings.repeat(' ', 70))));
+    }
+}
@@ -0,0 +1,37 @@
+/*
+ * Copyright (c) 2012-2015 André Bargull
+ * Alle Rechte vorbehalten / All Rights Reserved.  Use is subject to license terms.
+ *
+ * <https://github.com/anba/es6draft>
+ */
+const {
+  assertSame, assertThrows
+} = Assert;
+
+// Members with non-serializable values are skipped, array elements become null
+{
+  let o = {a: [1, undefined, () => {}, Symbol()], b: undefined, c: () => {}, d: {}, e: []};
+  assertSame(`{"a":[1,null,null,null],"d":{},"e":[]}`, JSON.stringify(o));
+  assertSame(`{\n  "a": [\n    1,\n    null,\n    null,\n    null\n  ],\n  "d": {},\n  "e": []\n}`,
+             JSON.stringify(o, null, 2));
+  assertSame(`{}`, JSON.stringify({a: undefined}, null, 2));
+  assertSame(`{\n-"b": 2\n}`, JSON.stringify({a: 1, b: 2}, (k, v) => k === "a" ? void 0 : v, "-"));
+  assertSame(`[\n-[\n--{\n---"x": 0\n--}\n-]\n]`, JSON.stringify([[{x: 0}]], null, "-"));
+}
+
+// Top-level values
+assertSame(void 0, JSON.stringify(void 0));
+assertSame(void 0, JSON.stringify(() => {}));
+assertSame(`"\\u0000a\\"b\\\\c\\nd\\u001f"`, JSON.stringify("\0a\"b\\c\nd\x1f"));
+assertSame(`null`, JSON.stringify(NaN));
+
+// The same object can appear more than once, but not nested within itself
+{
+  let shared = {};
+  assertSame(`[{},{},{"a":{}}]`, JSON.stringify([shared, shared, {a: shared}]));
+
+  let cyclic = {a: {}};
+  cyclic.a.b = [cyclic];
+  assertThrows(TypeError, () => JSON.stringify(cyclic));
+  assertSame(`{"a":{"b":["x"]}}`, JSON.stringify(cyclic, (k, v) => v === cyclic && k !== "" ? "x" : v));
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright (c) 2012-2015 André Bargull
+ * Alle Rechte vorbehalten / All Rights Reserved.  Use is subject to license terms.
+ *
+ * <https://github.com/anba/es6draft>
+ */
+const {
+  assertSame, assertNull, assertEquals
+} = Assert;
+
+// Captures are reset on each iteration
+assertEquals(["zaacbbbcac", "z", "ac", "a", void 0, "c"],
+             [.../(z)((a+)?(b+)?(c))*/.exec("zaacbbbcac")]);
+assertEquals(["ab", void 0], [.../(?:(a)|b)*/.exec("ab")]);
+
+// Captures in negative lookahead are undefined
+assertEquals(["baaabaac", "ba", void 0, "abaac"],
+             [.../(.*?)a(?!(a+)b\2c)\2(.*)/.exec("baaabaac")]);
+assertEquals(["ab", "a"], [.../(?=(a))ab/.exec("ab")]);
+
+// Greedy and lazy quantifiers
+assertEquals(["abbb"], [.../ab*/.exec("abbbc")]);
+assertEquals(["a"], [.../ab*?/.exec("abbbc")]);
+assertEquals(["abb"], [.../ab{1,2}/.exec("abbbc")]);
+assertEquals(["ab"], [.../ab{1,2}?/.exec("abbbc")]);
+assertEquals(["aaa", "aa", "a"], [.../(a*)(a)/.exec("aaa")]);
+assertEquals(["", void 0], [.../(a)??/.exec("a")]);
+
+// Empty iterations terminate loops
+assertEquals(["", void 0], [.../(a*)*/.exec("b")]);
+assertEquals(["aa", void 0], [.../(?:a|())*/.exec("aab")]);
+
+// Back references
+assertEquals(["abab", "ab"], [.../(ab)\1/.exec("xabab")]);
+assertEquals(["aBAb", "aB"], [.../(ab)\1/i.exec("aBAb")]);
+assertEquals(["", void 0], [.../\1(a)?/.exec("b")]);
+
+// Anchors and word boundaries
+assertEquals(["bar"], [.../^bar$/m.exec("foo\nbar\nbaz")]);
+assertNull(/^bar$/.exec("foo\nbar\nbaz"));
+assertEquals(["cd"], [.../\b\w\w\b/.exec("a cd efg")]);
+assertEquals(["fg"], [.../\B\w\w/.exec("a efg")]);
+
+// Surrogate pairs
+assertSame(2, /^.$/u.exec("😀")[0].length);
+assertNull(/^.$/.exec("😀"));
+assertSame(1, /\ude00/.exec("😀").index);
+assertNull(/\ude00/u.exec("😀"));
+assertEquals(["\u{1F600}\u{1F600}"], [.../\u{1F600}+/u.exec("x\u{1F600}\u{1F600}")]);
+assertSame(1, "x😀".search(/[\u{1F600}]/u));
+
+// Sticky and global matching
+{
+  let re = /a/g, s = "baaba", indices = [];
+  for (let m; (m = re.exec(s)) !== null;) indices.push(m.index);
+  assertEquals([1, 2, 4], indices);
+}
+assertSame("a-b-c", "a.b.c".replace(/\./g, "-"));
+assertEquals(["a", "b", "c"], "a1b22c".split(/\d+/));
+
+// Deep backtracking does not overflow the stack
+assertSame(100000, /^(?:a|b)*$/.exec("a".repeat(100000))[0].length);
+
+// Annex B extensions
+assertEquals(["\x01"], [.../\1/.exec("\x01")]);
+assertEquals(["8"], [.../\8/.exec("8")]);
+assertEquals(["a", "a"], [.../(a)|\2/.exec("a")]);
+assertEquals(["\\c"], [.../\c/.exec("\\c")]);
+assertEquals(["{"], [.../{/.exec("{")]);
+assertEquals(["-"], [.../[\d-z]/.exec("-")]);
+assertEquals(["x"], [.../\x/.exec("x")]);
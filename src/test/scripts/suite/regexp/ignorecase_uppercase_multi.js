@@ -0,0 +1,33 @@
+/*
+ * Copyright (c) 2012-2015 André Bargull
+ * Alle Rechte vorbehalten / All Rights Reserved.  Use is subject to license terms.
+ *
+ * <https://github.com/anba/es6draft>
+ */
+const {
+  assertTrue, assertFalse
+} = Assert;
+
+// Characters whose uppercase form consists of multiple code units are not canonicalized
+// 21.2.2.8.2 Canonicalize, step 3.c
+let map = [
+  ["ß", "ẞ"],
+  ["ᾀ", "ᾈ"],
+  ["ᾳ", "ᾼ"],
+];
+
+for (let [ch, other] of map) {
+  assertTrue(new RegExp(`^${ch}$`, "i").test(ch));
+  assertFalse(new RegExp(`^${ch}$`, "i").test(other));
+  assertFalse(new RegExp(`^${other}$`, "i").test(ch));
+
+  assertTrue(new RegExp(`^[${ch}]$`, "i").test(ch));
+  assertFalse(new RegExp(`^[${ch}]$`, "i").test(other));
+  assertTrue(new RegExp(`^[^${ch}]$`, "i").test(other));
+
+  assertTrue(new RegExp(`^(${ch})\\1$`, "i").test(ch + ch));
+  assertFalse(new RegExp(`^(${ch})\\1$`, "i").test(ch + other));
+}
+
+assertFalse(/ᾀ/i.test("ᾈ"));
+assertFalse(/ᾈ/i.test("ᾀ"));
@@ -0,0 +1,92 @@
+/*
+ * Copyright (c) 2012-2015 André Bargull
+ * Alle Rechte vorbehalten / All Rights Reserved.  Use is subject to license terms.
+ *
+ * <https://github.com/anba/es6draft>
+ */
+const {
+  assertSame, assertEquals, assertThrows
+} = Assert;
+
+// Replace with literal patterns
+assertSame("x-b-x-b", "a-b-a-b".replace(/a/g, "x"));
+assertSame("x-b-a-b", "a-b-a-b".replace(/a/, "x"));
+assertSame("a-b-a-b", "a-b-a-b".replace(/c/g, "x"));
+assertSame("<<>>", "{{name}}".replace(/{{name}}/g, "<<>>"));
+assertSame("[ab]c[ab]", "abcab".replace(/ab/g, "[$&]"));
+assertSame("x[x]y[x[x]y]", "xay".replace(/a/g, "[$`]").replace(/y/, "y[$`$&]"));
+assertSame("[b]b", "ab".replace(/a/, "[$']"));
+assertSame("$b$b", "abab".replace(/a/g, "$$"));
+assertSame("$1b", "ab".replace(/a/, "$1"));
+assertSame("$b", "ab".replace(/a/, "$"));
+assertSame("\uD83Dx", "😀".replace(/\uDE00/, "x"));
+assertSame("😀", "😀".replace(/\uDE00/u, "x"));
+
+// lastIndex is reset for global patterns and ignored otherwise
+{
+  let re = /a/g;
+  re.lastIndex = 3;
+  assertSame("xbx", "aba".replace(re, "x"));
+  assertSame(0, re.lastIndex);
+
+  re = /a/;
+  re.lastIndex = 2;
+  assertSame("xba", "aba".replace(re, "x"));
+  assertSame(2, re.lastIndex);
+  assertSame("bcd", "bcd".replace(re, "x"));
+  assertSame(0, re.lastIndex);
+
+  let valueOfCalled = 0;
+  re.lastIndex = {valueOf() { valueOfCalled += 1; return 0; }};
+  assertSame("xb", "ab".replace(re, "x"));
+  assertSame(1, valueOfCalled);
+
+  re = /a/g;
+  Object.defineProperty(re, "lastIndex", {writable: false});
+  assertThrows(TypeError, () => "aba".replace(re, "x"));
+}
+
+// User-defined exec is called
+{
+  let re = /a/g;
+  let execCalled = 0;
+  re.exec = function(s) {
+    execCalled += 1;
+    return RegExp.prototype.exec.call(this, s);
+  };
+  assertSame("xbx", "aba".replace(re, "x"));
+  assertSame(3, execCalled);
+}
+{
+  let exec = RegExp.prototype.exec;
+  let execCalled = 0;
+  RegExp.prototype.exec = function(s) {
+    execCalled += 1;
+    return exec.call(this, s);
+  };
+  try {
+    assertSame("xbx", "aba".replace(/a/g, "x"));
+    assertSame(3, execCalled);
+  } finally {
+    RegExp.prototype.exec = exec;
+  }
+}
+{
+  class MyRegExp extends RegExp {
+    exec(s) {
+      let result = super.exec(s);
+      if (result !== null) {
+        result[0] = "ab";
+      }
+      return result;
+    }
+  }
+  assertSame("xc", "abc".replace(new MyRegExp("a"), "x"));
+}
+
+// Split with literal patterns
+assertEquals(["a", "b", "c"], "a, b, c".split(/, /));
+assertEquals(["a", "b"], "a, b, c".split(/, /, 2));
+assertEquals(["", "a", ""], ",a,".split(/,/));
+assertEquals(["abc"], "abc".split(/d/));
+assertEquals([], "abc".split(/b/, 0));
@@ -0,0 +1,37 @@
+/*
+ * Copyright (c) 2012-2015 André Bargull
+ * Alle Rechte vorbehalten / All Rights Reserved.  Use is subject to license terms.
+ *
+ * <https://github.com/anba/es6draft>
+ */
+const {
+  assertEquals
+} = Assert;
+
+// Results are unchanged when frequently executed patterns are compiled to bytecode
+const tests = [
+  [/(z)((a+)?(b+)?(c))*/, "zaacbbbcac"],
+  [/(.*?)a(?!(a+)b\2c)\2(.*)/, "baaabaac"],
+  [/(?=(a+))a*b\1/, "baaabac"],
+  [/(a*)*/, "b"],
+  [/(?:a|())*/, "aab"],
+  [/ab{1,2}?c*?$/, "abbccc"],
+  [/^(\S+) \[([^\]]+)\] "(\w+) ([^"]+)" (\d{3})$/m, "x\nhost [10/Oct/2000] \"GET /a b\" 200"],
+  [/\bfoo\B/, "a foobar"],
+  [/(ab)\1/i, "xaBAb"],
+  [/[^\s\d]+/, "  12abc"],
+  [/.+?\u{1F600}/u, "a\u{1F600}\u{1F600}"],
+  [/[\u{1F600}-\u{1F64F}]{2}/u, "x\u{1F600}\u{1F601}"],
+  [/\w+@\w+\.com/g, "mail: foo@bar.com"],
+];
+
+for (let [re, input] of tests) {
+  let expected = JSON.stringify(re.exec(input));
+  for (let i = 0; i < 1500; ++i) {
+    re.lastIndex = 0;
+    let result = re.exec(input);
+    if (JSON.stringify(result) !== expected) {
+      assertEquals(expected, JSON.stringify(result), `${re} at iteration ${i}`);
+    }
+  }
+}
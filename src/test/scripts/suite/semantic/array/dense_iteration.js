@@ -0,0 +1,68 @@
+/*
+ * Copyright (c) 2012-2015 André Bargull
+ * Alle Rechte vorbehalten / All Rights Reserved.  Use is subject to license terms.
+ *
+ * <https://github.com/anba/es6draft>
+ */
+const {
+  assertSame, assertEquals
+} = Assert;
+
+// Elements deleted by the callback are skipped
+{
+  let a = [0, 1, 2, 3, 4];
+  let seen = [];
+  a.forEach((v, k) => {
+    seen.push(v);
+    if (k === 1) {
+      delete a[3];
+    }
+  });
+  assertEquals([0, 1, 2, 4], seen);
+}
+
+// Holes are filled from the prototype chain
+{
+  let proto = Object.create(Array.prototype, {2: {value: "p", configurable: true}});
+  let a = [0, 1];
+  a[3] = 3;
+  Object.setPrototypeOf(a, proto);
+  assertEquals([0, 1, "p", 3], a.map(v => v));
+  assertSame(2, a.indexOf("p"));
+  assertSame("0,1,p,3", a.join());
+}
+
+// Callback appends elements, length is only read once
+{
+  let a = [1, 2, 3];
+  let count = 0;
+  a.forEach(v => { a.push(v); count++; });
+  assertSame(3, count);
+  assertEquals([1, 2, 3, 1, 2, 3], a);
+}
+
+// Callback replaces elements with accessors
+{
+  let a = [1, 2, 3];
+  let r = a.reduce((acc, v, k) => {
+    if (k === 1) {
+      Object.defineProperty(a, 2, {get() { return 10; }});
+    }
+    return acc + v;
+  });
+  assertSame(13, r);
+}
+
+// Element kinds are preserved
+{
+  let a = [1, 1.5, "x", -0, NaN];
+  assertSame(4, a.findIndex(v => v !== v));
+  assertSame(true, a.includes(NaN));
+  assertSame(-1, a.indexOf(NaN));
+  assertSame(3, a.lastIndexOf(0));
+  assertEquals([1.5], a.filter(v => v === 1.5));
+  assertSame(false, a.every(v => typeof v === "number"));
+  assertSame(true, a.some(v => typeof v === "string"));
+  assertSame("x", a.find(v => typeof v === "string"));
+  assertSame("NaN0x1.51", a.reduceRight((acc, v) => acc + String(v), ""));
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright (c) 2012-2015 André Bargull
+ * Alle Rechte vorbehalten / All Rights Reserved.  Use is subject to license terms.
+ *
+ * <https://github.com/anba/es6draft>
+ */
+const {
+  assertSame, assertFalse, assertTrue, assertEquals, assertUndefined
+} = Assert;
+
+// Int32 elements generalize to double and object elements
+{
+  let a = [];
+  for (let i = 0; i < 10; ++i) a.push(i);
+  assertEquals([0, 1, 2, 3, 4, 5, 6, 7, 8, 9], a);
+
+  a[3] = 1.5;
+  assertSame(1.5, a[3]);
+  assertSame(4, a[4]);
+
+  a[4] = -0;
+  assertSame(-0, a[4]);
+
+  a[5] = "five";
+  assertSame("five", a[5]);
+  assertSame(1.5, a[3]);
+  assertSame(9, a[9]);
+  assertSame(10, a.length);
+}
+
+// Holes and attribute changes are observable after transition
+{
+  let a = [1, 2, 3];
+  a[5] = 6;
+  assertSame(6, a.length);
+  assertFalse(4 in a);
+  assertSame(6, a[5]);
+
+  let b = [1, 2, 3];
+  Object.defineProperty(b, 1, {writable: false});
+  b[1] = 10;
+  assertSame(2, b[1]);
+  assertFalse(Object.getOwnPropertyDescriptor(b, 1).writable);
+  assertTrue(Object.getOwnPropertyDescriptor(b, 0).writable);
+
+  let c = [1, 2, 3];
+  delete c[0];
+  assertFalse(0 in c);
+  assertSame(3, c.length);
+  assertEquals(["1", "2"], Object.keys(c));
+}
+
+// Truncation and removal of last element
+{
+  let a = [1, 2, 3, 4, 5];
+  assertSame(5, a.pop());
+  assertSame(4, a.length);
+  a.length = 2;
+  assertEquals([1, 2], a);
+  assertUndefined(a[2]);
+  a.push(7);
+  assertEquals([1, 2, 7], a);
+}
+
+// Frozen arrays
+{
+  let a = Object.freeze([1, 2, 3]);
+  a[0] = 5;
+  a[3] = 4;
+  assertSame(1, a[0]);
+  assertSame(3, a.length);
+  assertFalse(3 in a);
+}
+
+// Indexed properties on the prototype chain are not shadowed by missing elements
+{
+  let a = [0, 1];
+  Object.setPrototypeOf(a, Object.create(Array.prototype, {2: {value: "proto"}}));
+  assertSame("proto", a[2]);
+  assertSame(0, a[0]);
+}
+
+// Property descriptors of packed elements are snapshots, changes are written back
+{
+  let a = [1, 2, 3];
+  let desc = Object.getOwnPropertyDescriptor(a, 1);
+  assertSame(2, desc.value);
+  desc.value = 20;
+  assertSame(2, a[1]);
+
+  Object.defineProperty(a, 1, {value: 10});
+  assertSame(10, a[1]);
+  Object.defineProperty(a, 2, {get() { return "getter"; }});
+  assertSame("getter", a[2]);
+  assertUndefined(Object.getOwnPropertyDescriptor(a, 2).value);
+
+  let b = [1.5, 2.5];
+  b[0] = 4;
+  assertSame(4, b[0]);
+  Reflect.set(b, 1, 8, b);
+  assertSame(8, b[1]);
+}
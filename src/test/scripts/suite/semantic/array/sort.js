@@ -0,0 +1,85 @@
+/*
+ * Copyright (c) 2012-2015 André Bargull
+ * Alle Rechte vorbehalten / All Rights Reserved.  Use is subject to license terms.
+ *
+ * <https://github.com/anba/es6draft>
+ */
+const {
+  assertSame, assertEquals
+} = Assert;
+
+// Default sort order compares string values
+{
+  assertEquals([1, 10, 2, 21, 3], [10, 2, 21, 1, 3].sort());
+  assertEquals([-1, -2, 0, 1.5, 1e21, Infinity, NaN], [NaN, 1e21, -2, 0, Infinity, 1.5, -1].sort());
+  assertEquals(["a", "b", "c"], ["c", "a", "b"].sort());
+  assertEquals(["1", 1, 2, true], [true, 2, "1", 1].sort());
+  assertEquals([1, 2, undefined, undefined, , ], [undefined, 2, , undefined, 1].sort());
+}
+
+// ToString is called on objects during sorting
+{
+  let log = [];
+  let o = {toString() { log.push("o"); return "b"; }};
+  assertEquals(["a", o, "c"], ["c", o, "a"].sort());
+  assertSame(true, log.length > 0);
+}
+
+// Numeric comparator functions
+{
+  let a = [3, -1, 2.5, 10, 0, -Infinity];
+  assertEquals([-Infinity, -1, 0, 2.5, 3, 10], a.slice().sort((a, b) => a - b));
+  assertEquals([10, 3, 2.5, 0, -1, -Infinity], a.slice().sort((a, b) => b - a));
+  assertEquals([-Infinity, -1, 0, 2.5, 3, 10], a.slice().sort(function(x, y) { return x - y; }));
+  assertEquals([10, 3, 2.5, 0, -1, -Infinity], a.slice().sort(function(x, y) { return y - x; }));
+}
+
+// Numeric comparator functions with mixed element types
+{
+  assertEquals(["1", 2, "3"], ["3", 2, "1"].sort((a, b) => a - b));
+  let o = {valueOf() { return 2; }};
+  assertEquals([1, o, 3], [3, o, 1].sort((a, b) => a - b));
+}
+
+// Sort is stable, +0 and -0 compare equal
+{
+  let a = [0, -0, 0, -0].sort((a, b) => a - b);
+  assertSame(0, a[0]);
+  assertSame(-0, a[1]);
+  assertSame(0, a[2]);
+  assertSame(-0, a[3]);
+
+  let b = [];
+  for (let i = 0; i < 100; ++i) b.push({k: i % 3, i});
+  b.sort((x, y) => x.k - y.k);
+  for (let i = 1; i < b.length; ++i) {
+    assertSame(true, b[i - 1].k < b[i].k || (b[i - 1].k === b[i].k && b[i - 1].i < b[i].i));
+  }
+}
+
+// Duplicate parameter names are not a numeric comparator
+{
+  let a = [3, 1, 2].sort(function(a, a) { return a - a; });
+  assertEquals([3, 1, 2], a);
+}
+
+// Inconsistent comparator functions still produce a permutation
+{
+  let a = [];
+  for (let i = 0; i < 200; ++i) a.push(i);
+  a.sort(() => Math.random() - 0.5);
+  assertSame(200, a.length);
+  assertEquals(Array.from({length: 200}, (_, k) => k), a.slice().sort((a, b) => a - b));
+}
+
+// Abrupt completions from the comparator function leave the array unchanged
+{
+  let a = [3, 2, 1];
+  class E extends Error {}
+  try {
+    a.sort(() => { throw new E; });
+  } catch (e) {
+    assertSame(true, e instanceof E);
+  }
+  assertEquals([3, 2, 1], a);
+}
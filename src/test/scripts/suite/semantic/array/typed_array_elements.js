@@ -0,0 +1,123 @@
+/*
+ * Copyright (c) 2012-2015 André Bargull
+ * Alle Rechte vorbehalten / All Rights Reserved.  Use is subject to license terms.
+ *
+ * <https://github.com/anba/es6draft>
+ */
+const {
+  assertSame, assertUndefined, assertThrows, assertEquals
+} = Assert;
+
+// Element get and set with int, double and string keys
+{
+  function fill(ta) {
+    for (let i = 0; i < ta.length; ++i) {
+      ta[i] = i * 100;
+    }
+    return ta;
+  }
+  assertEquals([0, 100, -56, 44], [...fill(new Int8Array(4))]);
+  assertEquals([0, 100, 200, 44], [...fill(new Uint8Array(4))]);
+  assertEquals([0, 100, 200, 255], [...fill(new Uint8ClampedArray(4))]);
+  assertEquals([0, 100, 200, 300], [...fill(new Int16Array(4))]);
+  assertEquals([0, 100, 200, 300], [...fill(new Uint16Array(4))]);
+  assertEquals([0, 100, 200, 300], [...fill(new Int32Array(4))]);
+  assertEquals([0, 100, 200, 300], [...fill(new Uint32Array(4))]);
+  assertEquals([0, 100, 200, 300], [...fill(new Float32Array(4))]);
+  assertEquals([0, 100, 200, 300], [...fill(new Float64Array(4))]);
+
+  let ta = new Int32Array(4);
+  ta[1.0] = 1;
+  ta["2"] = 2;
+  ta[3] = 3.7;
+  assertSame(1, ta[1]);
+  assertSame(2, ta[2.0]);
+  assertSame(3, ta["3"]);
+  assertSame(0, ta[-0]);
+}
+
+// Element value conversions
+{
+  let i16 = new Int16Array(1);
+  i16[0] = 0x18000;
+  assertSame(-0x8000, i16[0]);
+
+  let u32 = new Uint32Array(1);
+  u32[0] = -1;
+  assertSame(4294967295, u32[0]);
+
+  let u8c = new Uint8ClampedArray(3);
+  u8c[0] = -10;
+  u8c[1] = 300;
+  u8c[2] = 1.5;
+  assertEquals([0, 255, 2], [...u8c]);
+
+  let f32 = new Float32Array(2);
+  f32[0] = 0.1;
+  f32[1] = NaN;
+  assertSame(Math.fround(0.1), f32[0]);
+  assertSame(NaN, f32[1]);
+
+  let f64 = new Float64Array(1);
+  f64[0] = -0;
+  assertSame(-0, f64[0]);
+}
+
+// Out of bounds access
+{
+  let ta = new Uint8Array(2);
+  assertUndefined(ta[2]);
+  assertUndefined(ta[-1]);
+  ta[2] = 1;
+  ta[-1] = 1;
+  assertUndefined(ta[2]);
+  assertUndefined(ta[-1]);
+  assertSame(2, Object.keys(ta).length);
+}
+
+// Non-number values are converted before the buffer is checked
+{
+  let ta = new Int32Array(1);
+  let log = [];
+  ta[0] = {valueOf() { log.push("valueOf"); return 5; }};
+  assertSame(5, ta[0]);
+  assertEquals(["valueOf"], log);
+
+  ta[0] = "7";
+  assertSame(7, ta[0]);
+}
+
+// Detached buffers
+{
+  let ta = new Float64Array(2);
+  detachArrayBuffer(ta.buffer);
+  assertThrows(TypeError, () => ta[0]);
+  assertThrows(TypeError, () => { ta[0] = 1; });
+}
+
+// Polymorphic access sites
+{
+  function get(o, k) {
+    return o[k];
+  }
+  function set(o, k, v) {
+    o[k] = v;
+  }
+  let objects = [new Int8Array(2), new Float32Array(2), [0, 0], {0: 0, 1: 0}, new Uint16Array(2)];
+  for (let i = 0; i < 3; ++i) {
+    for (let o of objects) {
+      set(o, 1, -1.5);
+      set(o, "0", 3);
+    }
+  }
+  assertEquals([3, -1], [get(objects[0], 0), get(objects[0], 1)]);
+  assertEquals([3, -1.5], [get(objects[1], 0), get(objects[1], 1)]);
+  assertEquals([3, -1.5], [get(objects[2], 0), get(objects[2], 1)]);
+  assertEquals([3, -1.5], [get(objects[3], 0), get(objects[3], 1)]);
+  assertSame(65535, get(objects[4], 1));
+  assertUndefined(get(objects[0], 2));
+  assertUndefined(get("ab", 2));
+  assertSame("b", get("ab", 1));
+  assertThrows(TypeError, () => get(null, 0));
+  assertThrows(TypeError, () => set(undefined, 0, 0));
+}
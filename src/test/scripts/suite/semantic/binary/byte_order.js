@@ -0,0 +1,46 @@
+/*
+ * Copyright (c) 2012-2015 André Bargull
+ * Alle Rechte vorbehalten / All Rights Reserved.  Use is subject to license terms.
+ *
+ * <https://github.com/anba/es6draft>
+ */
+const {
+  assertSame
+} = Assert;
+
+// Big-endian DataView accesses don't change the byte order of typed array views.
+{
+  let buffer = new ArrayBuffer(8);
+  let view = new DataView(buffer);
+  let u16 = new Uint16Array(buffer);
+  let u32 = new Uint32Array(buffer);
+  let f32 = new Float32Array(buffer);
+
+  view.setUint16(0, 0x0102, false);
+  assertSame(0x0201, u16[0]);
+  assertSame(0x0102, view.getUint16(0, false));
+  assertSame(0x0201, view.getUint16(0, true));
+
+  u16[1] = 0x0304;
+  assertSame(0x0304, view.getUint16(2, true));
+  assertSame(0x0403, view.getUint16(2, false));
+
+  view.setUint32(4, 0x80000001, false);
+  assertSame(0x01000080, u32[1]);
+  u32[1] = 0x80000001;
+  assertSame(0x80000001, u32[1]);
+  assertSame(0x01000080, view.getUint32(4, false));
+
+  view.setFloat32(4, 1.5, false);
+  assertSame(1.5, view.getFloat32(4, false));
+  f32[1] = 1.5;
+  assertSame(1.5, view.getFloat32(4, true));
+  assertSame(1.5, f32[1]);
+
+  let f64 = new Float64Array(buffer);
+  view.setFloat64(0, -2.25, false);
+  assertSame(-2.25, view.getFloat64(0, false));
+  f64[0] = -2.25;
+  assertSame(-2.25, view.getFloat64(0, true));
+  assertSame(-2.25, f64[0]);
+}
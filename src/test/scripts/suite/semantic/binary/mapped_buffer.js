@@ -0,0 +1,72 @@
+/*
+ * Copyright (c) 2012-2015 André Bargull
+ * Alle Rechte vorbehalten / All Rights Reserved.  Use is subject to license terms.
+ *
+ * <https://github.com/anba/es6draft>
+ */
+const {
+  assertSame, assertThrows, assertEquals
+} = Assert;
+
+const fileName = "semantic/binary/mapped_buffer.js";
+
+// Map the complete file
+{
+  let buffer = mapFile(fileName);
+  assertSame(ArrayBuffer.prototype, Object.getPrototypeOf(buffer));
+  assertSame(true, buffer.byteLength > 0);
+  let bytes = new Uint8Array(buffer);
+  assertEquals([0x2f, 0x2a, 0x0a], [bytes[0], bytes[1], bytes[2]]);
+  assertSame(0x2f2a, new DataView(buffer).getUint16(0));
+}
+
+// Map a region of the file
+{
+  let buffer = mapFile(fileName, false, 1, 2);
+  assertSame(2, buffer.byteLength);
+  assertEquals([0x2a, 0x0a], [...new Uint8Array(buffer)]);
+  assertSame(0, mapFile(fileName, false, mapFile(fileName).byteLength).byteLength);
+}
+
+// Read-only mappings are immutable
+{
+  let buffer = mapFile(fileName);
+  let bytes = new Uint8Array(buffer);
+  bytes[0] = 0;
+  assertSame(0x2f, bytes[0]);
+  assertSame(false, Reflect.set(bytes, 0, 0));
+  assertThrows(TypeError, () => { "use strict"; bytes[0] = 0; });
+  assertThrows(TypeError, () => bytes.fill(0));
+  assertThrows(TypeError, () => bytes.copyWithin(0, 1));
+  assertThrows(TypeError, () => bytes.set([0]));
+  assertThrows(TypeError, () => bytes.set(new Uint8Array(1)));
+  assertThrows(TypeError, () => bytes.reverse());
+  assertThrows(TypeError, () => new DataView(buffer).setUint8(0, 0));
+  assertSame(0x2f, bytes[0]);
+
+  // Copies are mutable
+  let copy = new Uint8Array(buffer.slice(0, 1));
+  copy[0] = 0;
+  assertSame(0, copy[0]);
+  let mapped = bytes.map(v => v);
+  mapped[0] = 0;
+  assertSame(0, mapped[0]);
+}
+
+// Mapped buffers support slice and detach
+{
+  let buffer = mapFile(fileName);
+  let copy = buffer.slice(0, 2);
+  assertEquals([0x2f, 0x2a], [...new Uint8Array(copy)]);
+  detachArrayBuffer(buffer);
+  assertThrows(TypeError, () => buffer.byteLength);
+}
+
+// Invalid regions
+{
+  let length = mapFile(fileName).byteLength;
+  assertThrows(RangeError, () => mapFile(fileName, false, -1));
+  assertThrows(RangeError, () => mapFile(fileName, false, length + 1));
+  assertThrows(RangeError, () => mapFile(fileName, false, 0, -1));
+  assertThrows(RangeError, () => mapFile(fileName, false, 0, length + 1));
+}
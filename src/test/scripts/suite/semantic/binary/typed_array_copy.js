@@ -0,0 +1,91 @@
+/*
+ * Copyright (c) 2012-2015 André Bargull
+ * Alle Rechte vorbehalten / All Rights Reserved.  Use is subject to license terms.
+ *
+ * <https://github.com/anba/es6draft>
+ */
+const {
+  assertSame, assertEquals
+} = Assert;
+
+// TypedArray.prototype.set with compatible element types
+{
+  let i8 = new Int8Array([-1, 2, -128]);
+  let u8 = new Uint8Array(3);
+  u8.set(i8);
+  assertEquals([255, 2, 128], [...u8]);
+
+  let u8c = new Uint8ClampedArray(3);
+  u8c.set(i8);
+  assertEquals([0, 2, 0], [...u8c]);
+  u8c.set(u8);
+  assertEquals([255, 2, 128], [...u8c]);
+
+  let u32 = new Uint32Array(2);
+  u32.set(new Int32Array([-1, 7]));
+  assertEquals([4294967295, 7], [...u32]);
+
+  let f32 = new Float32Array(2);
+  f32.set(new Int32Array([1, -2]));
+  assertEquals([1, -2], [...f32]);
+}
+
+// TypedArray.prototype.set with overlapping ranges
+{
+  let buffer = new ArrayBuffer(8);
+  let all = new Uint8Array(buffer);
+  all.set([0, 1, 2, 3, 4, 5, 6, 7]);
+  new Int8Array(buffer, 2).set(new Uint8Array(buffer, 0, 4));
+  assertEquals([0, 1, 0, 1, 2, 3, 6, 7], [...all]);
+
+  all.set([0, 1, 2, 3, 4, 5, 6, 7]);
+  new Uint8Array(buffer, 0).set(new Uint8Array(buffer, 3, 4));
+  assertEquals([3, 4, 5, 6, 4, 5, 6, 7], [...all]);
+
+  all.set([0, 1, 2, 3, 4, 5, 6, 7]);
+  new Uint16Array(buffer, 2, 3).set(new Uint8Array(buffer, 0, 3));
+  assertEquals([0, 1, 2], [...new Uint16Array(buffer, 2, 3)]);
+}
+
+// TypedArray.prototype.slice with compatible element types
+{
+  class Uint8Species extends Int8Array {
+    static get [Symbol.species]() { return Uint8Array; }
+  }
+  let ta = new Uint8Species([-1, 1, -2, 2]);
+  let copy = ta.slice(1, 3);
+  assertSame(Uint8Array, copy.constructor);
+  assertEquals([1, 254], [...copy]);
+}
+
+// TypedArray.prototype.fill
+{
+  assertEquals([7, 7, 7, 7, 7], [...new Int16Array(5).fill(7)]);
+  assertEquals([0, 1.5, 1.5, 1.5, 0, 0, 0], [...new Float64Array(7).fill(1.5, 1, 4)]);
+  assertEquals([255, 255, 255], [...new Uint8ClampedArray(3).fill(300)]);
+  assertEquals([3, 3], [...new Uint32Array(2).fill("3")]);
+  assertEquals([NaN, NaN, NaN], [...new Float32Array(3).fill(undefined)]);
+  assertEquals([0, 0], [...new Int32Array(2).fill(1, 2)]);
+
+  let buffer = new ArrayBuffer(8);
+  new Uint16Array(buffer, 2, 2).fill(0x0101);
+  assertEquals([0, 0, 1, 1, 1, 1, 0, 0], [...new Uint8Array(buffer)]);
+
+  let log = [];
+  let value = {valueOf() { log.push("valueOf"); return 1; }};
+  new Int8Array(3).fill(value);
+  assertEquals(["valueOf", "valueOf", "valueOf"], log);
+}
+
+// TypedArray.prototype.copyWithin with non-zero byte offset
+{
+  let buffer = new ArrayBuffer(6);
+  let all = new Uint8Array(buffer);
+  all.set([0, 1, 2, 3, 4, 5]);
+  new Uint8Array(buffer, 2).copyWithin(0, 1);
+  assertEquals([0, 1, 3, 4, 5, 5], [...all]);
+
+  all.set([0, 1, 2, 3, 4, 5]);
+  new Uint8Array(buffer, 2).copyWithin(1, 0, 2);
+  assertEquals([0, 1, 2, 2, 3, 5], [...all]);
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright (c) 2012-2015 André Bargull
+ * Alle Rechte vorbehalten / All Rights Reserved.  Use is subject to license terms.
+ *
+ * <https://github.com/anba/es6draft>
+ */
+const {
+  assertSame, assertThrows
+} = Assert;
+
+// Call, construct and super call sites with multiple different targets
+
+function call(f, x) {
+  return f(x);
+}
+
+const fns = [
+  x => x + 1, x => x + 2, x => x + 3, x => x + 4, x => x + 5,
+  x => x + 6, x => x + 7, x => x + 8, Math.abs, String,
+];
+for (let i = 0; i < 3; ++i) {
+  fns.forEach((f, k) => {
+    if (k < 8) {
+      assertSame(10 + k + 1, call(f, 10));
+    }
+  });
+  assertSame(10, call(Math.abs, -10));
+  assertSame("10", call(String, 10));
+}
+
+// Closures created from the same function share the cache entry
+function adder(n) {
+  return x => x + n;
+}
+for (let i = 0; i < 10; ++i) {
+  assertSame(i + 5, call(adder(i), 5));
+}
+
+// Non-callable values still throw after the call site is megamorphic
+assertThrows(TypeError, () => call(null, 0));
+assertThrows(TypeError, () => call({}, 0));
+assertSame(3, call(x => x + 1, 2));
+
+// Construct sites
+function construct(C, x) {
+  return new C(x);
+}
+function A(x) { this.x = x; }
+function B(x) { this.x = x * 2; }
+class C { constructor(x) { this.x = x * 3; } }
+class D extends C { constructor(x) { super(x); this.x += 1; } }
+for (let i = 0; i < 3; ++i) {
+  for (let [K, v] of [[A, 1], [B, 2], [C, 3], [D, 4], [Number, 1], [Boolean, 1]]) {
+    let o = construct(K, 1);
+    assertSame(K.prototype, Object.getPrototypeOf(o));
+    if (typeof o.x === "number") {
+      assertSame(v, o.x);
+    }
+  }
+}
+assertThrows(TypeError, () => construct(x => x, 0));
+assertThrows(TypeError, () => construct(Math.abs, 0));
+
+// Super call sites with different parent constructors
+class Base {
+  constructor(x) { this.x = x; }
+}
+class Derived extends Base {
+  constructor(x) { super(x); }
+}
+const parents = [
+  class { constructor(x) { this.x = x + 1; } },
+  class { constructor(x) { this.x = x + 2; } },
+  class { constructor(x) { this.x = x + 3; } },
+  class { constructor(x) { this.x = x + 4; } },
+  class { constructor(x) { this.x = x + 5; } },
+  class { constructor(x) { this.x = x + 6; } },
+];
+for (let i = 0; i < 3; ++i) {
+  parents.forEach((P, k) => {
+    Object.setPrototypeOf(Derived, P);
+    Object.setPrototypeOf(Derived.prototype, P.prototype);
+    let o = new Derived(10);
+    assertSame(10 + k + 1, o.x);
+    assertSame(Derived.prototype, Object.getPrototypeOf(o));
+  });
+}
+Object.setPrototypeOf(Derived, Base);
+assertSame(10, new Derived(10).x);
+Object.setPrototypeOf(Derived, Array);
+assertSame(3, new Derived(3).length);
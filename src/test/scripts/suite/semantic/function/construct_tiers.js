@@ -0,0 +1,45 @@
+/*
+ * Copyright (c) 2012-2015 André Bargull
+ * Alle Rechte vorbehalten / All Rights Reserved.  Use is subject to license terms.
+ *
+ * <https://github.com/anba/es6draft>
+ */
+const {
+  assertSame, assertNotSame
+} = Assert;
+
+// Construct calls return the same result, independent of the execution tier.
+function Point(x, y) {
+  this.x = x;
+  this.y = y;
+}
+
+var object = {};
+function ReturnsObject() {
+  return object;
+}
+
+function ReturnsPrimitive() {
+  return 0;
+}
+
+function Other() {}
+
+for (let i = 0; i < 50; ++i) {
+  let p = new Point(i, i + 1);
+  assertSame(Point.prototype, Object.getPrototypeOf(p));
+  assertSame(i, p.x);
+  assertSame(i + 1, p.y);
+
+  assertSame(object, new ReturnsObject());
+
+  let q = new ReturnsPrimitive();
+  assertSame("object", typeof q);
+  assertSame(ReturnsPrimitive.prototype, Object.getPrototypeOf(q));
+
+  let r = Reflect.construct(Point, [i, i], Other);
+  assertSame(Other.prototype, Object.getPrototypeOf(r));
+  assertSame(i, r.x);
+
+  assertNotSame(new Point(0, 0), new Point(0, 0));
+}
@@ -0,0 +1,66 @@
+/*
+ * Copyright (c) 2012-2015 André Bargull
+ * Alle Rechte vorbehalten / All Rights Reserved.  Use is subject to license terms.
+ *
+ * <https://github.com/anba/es6draft>
+ */
+const {
+  assertSame
+} = Assert;
+
+// Function names and line numbers don't depend on when the function is compiled.
+function topFrame(stack) {
+  let [, name, lineNumber] = stack.split("\n")[0].match(/^(.*)@.*:(\d+)$/);
+  return `${name}:${lineNumber}`;
+}
+
+var functionExpression = function() {
+  return new Error().stack;
+};
+assertSame("functionExpression:18", topFrame(functionExpression()));
+
+var arrowFunction = (
+  a,
+  b
+) =>
+  new Error().stack;
+assertSame("arrowFunction:26", topFrame(arrowFunction()));
+
+var object = {
+  method() {
+    return new Error().stack;
+  },
+  get getter() {
+    return new Error().stack;
+  },
+};
+assertSame("method:31", topFrame(object.method()));
+assertSame("get getter:34", topFrame(object.getter));
+
+class C {
+  method() {
+    return new Error().stack;
+  }
+  static staticMethod() {
+    return new Error().stack;
+  }
+}
+assertSame("C.method:42", topFrame(new C().method()));
+assertSame("staticMethod:45", topFrame(C.staticMethod()));
+
+function outer() {
+  function inner() {
+    return new Error().stack;
+  }
+  return inner();
+}
+assertSame("inner:53", topFrame(outer()));
+
+// Lexical bindings of arrow functions are resolved in the enclosing function.
+function lexical() {
+  return () => [this, arguments[0]];
+}
+var thisValue = {};
+var [thisBinding, argument] = lexical.call(thisValue, 1)();
+assertSame(thisValue, thisBinding);
+assertSame(1, argument);
@@ -0,0 +1,78 @@
+/*
+ * Copyright (c) 2012-2015 André Bargull
+ * Alle Rechte vorbehalten / All Rights Reserved.  Use is subject to license terms.
+ *
+ * <https://github.com/anba/es6draft>
+ */
+const {
+  assertSame, assertEquals
+} = Assert;
+
+// Every function call has a stack frame, independent of the execution tier.
+function frames(stack) {
+  return stack.split("\n").filter(line => line !== "").map(line => {
+    let [, name, lineNumber] = line.match(/^(.*)@.*:(\d+)$/);
+    return `${name}:${lineNumber}`;
+  });
+}
+
+function inner() {
+  var error = new Error();
+  return error.stack;
+}
+
+function outer() {
+  return inner();
+}
+
+for (let i = 0; i < 3; ++i) {
+  assertEquals(["inner:20", "outer:25", ":29"], frames(outer()).slice(0, 3));
+}
+
+function thrower() {
+  throw new TypeError();
+}
+
+function caller() {
+  thrower();
+}
+
+try {
+  caller();
+} catch (e) {
+  assertEquals(["thrower:33", "caller:37", ":41"], frames(e.stack).slice(0, 3));
+}
+
+// Line numbers within loop bodies.
+function loopThrower(n) {
+  for (var k = 0; ; ++k) {
+    k < n || null.x;
+  }
+}
+
+for (let i = 0; i < 3; ++i) {
+  let caught = false;
+  try {
+    loopThrower(250);
+  } catch (e) {
+    caught = true;
+    assertEquals(["loopThrower:49", ":56"], frames(e.stack).slice(0, 2));
+  }
+  assertSame(true, caught);
+}
+
+function loops(n) {
+  var sum = 0, i = 0;
+  while (i < n) {
+    sum += i++;
+  }
+  do {
+    sum -= 1;
+  } while (--i > 0);
+  for (var j = 0; j < n; ++j) ;
+  return sum + j;
+}
+
+for (let i = 0; i < 3; ++i) {
+  assertSame(4950 - 100 + 100, loops(100));
+}
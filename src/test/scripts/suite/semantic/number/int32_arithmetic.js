@@ -0,0 +1,71 @@
+/*
+ * Copyright (c) 2012-2015 André Bargull
+ * Alle Rechte vorbehalten / All Rights Reserved.  Use is subject to license terms.
+ *
+ * <https://github.com/anba/es6draft>
+ */
+const {
+  assertSame
+} = Assert;
+
+// Int32 fast paths for addition, relational comparison and update expressions
+
+function add(a, b) {
+  return a + b;
+}
+for (let i = 0; i < 3; ++i) {
+  assertSame(3, add(1, 2));
+  assertSame(2147483648, add(2147483647, 1));
+  assertSame(-4294967296, add(-2147483648, -2147483648));
+  assertSame(3.5, add(1.5, 2));
+  assertSame("12", add("1", 2));
+  assertSame(-0, add(-0, -0));
+}
+
+function lessThan(a, b) {
+  return a < b;
+}
+for (let i = 0; i < 3; ++i) {
+  assertSame(true, lessThan(1, 2));
+  assertSame(false, lessThan(2, 2));
+  assertSame(true, lessThan(-2147483648, 2147483647));
+  assertSame(false, lessThan(NaN, 2));
+  assertSame(true, lessThan("a", "b"));
+}
+
+// Update expressions
+var x = 2147483647;
+x++;
+assertSame(2147483648, x);
+var y = -2147483648;
+--y;
+assertSame(-2147483649, y);
+var z = "1";
+z++;
+assertSame(2, z);
+var u;
+u++;
+assertSame(NaN, u);
+var calls = 0;
+var o = {valueOf() { calls++; return 10; }};
+++o;
+assertSame(11, o);
+assertSame(1, calls);
+var n = -1;
+n++;
+assertSame(0, n);
+assertSame(Infinity, 1 / n);
+
+// Loop counters and typed array elements
+var bytes = new Uint8Array(512);
+for (var i = 0; i < bytes.length; i++) {
+  bytes[i] = i;
+}
+var sum = 0;
+for (var i = 0; i < bytes.length; i++) {
+  sum += bytes[i];
+}
+assertSame(2 * (255 * 256 / 2), sum);
+assertSame(-129, new Int8Array([-1])[0] + new Int8Array([-128])[0]);
+assertSame(4294967295, new Uint32Array([-1])[0]);
+assertSame(1.5, new Float64Array([1.5])[0]);
@@ -0,0 +1,112 @@
+/*
+ * Copyright (c) 2012-2015 André Bargull
+ * Alle Rechte vorbehalten / All Rights Reserved.  Use is subject to license terms.
+ *
+ * <https://github.com/anba/es6draft>
+ */
+const {
+  assertSame, assertThrows
+} = Assert;
+
+// Named property get/set call sites with different receiver types
+
+function getX(o) {
+  return o.x;
+}
+
+function getLength(o) {
+  return o.length;
+}
+
+function setX(o, v) {
+  "use strict";
+  o.x = v;
+  return o.x;
+}
+
+function setXSloppy(o, v) {
+  o.x = v;
+  return o.x;
+}
+
+for (let i = 0; i < 3; ++i) {
+  assertSame(1, getX({x: 1}));
+  assertSame(void 0, getX([]));
+  assertSame(2, getX(Object.create({x: 2})));
+  assertSame(3, getX(new Proxy({x: 3}, {})));
+  assertSame(void 0, getX(function(){}));
+  assertSame(void 0, getX("abc"));
+  assertSame(void 0, getX(0));
+  assertSame(4, getX({get x() { return 4; }}));
+  assertThrows(TypeError, () => getX(void 0));
+  assertThrows(TypeError, () => getX(null));
+  assertSame(5, getX({x: 5}));
+}
+
+for (let i = 0; i < 3; ++i) {
+  assertSame(3, getLength("abc"));
+  assertSame(4, getLength("ab" + i + "c".repeat(1)));
+  assertSame(2, getLength([1, 2]));
+  assertSame(void 0, getLength({}));
+  assertSame(1, getLength(new String("a")));
+  assertSame(6, getLength("abcdef"));
+}
+
+for (let i = 0; i < 3; ++i) {
+  assertSame(1, setX({}, 1));
+  assertSame(2, setX([], 2));
+  assertSame(3, setX({x: 0}, 3));
+  assertThrows(TypeError, () => setX(Object.freeze({}), 4));
+  assertThrows(TypeError, () => setX({get x() { return 0; }}, 5));
+  assertThrows(TypeError, () => setX("abc", 6));
+  assertThrows(TypeError, () => setX(null, 7));
+  assertSame(0, setXSloppy({get x() { return 0; }}, 8));
+  assertSame(void 0, setXSloppy(Object.freeze({}), 9));
+  assertSame(void 0, setXSloppy(0, 10));
+}
+
+// Stores to own data properties with the same shape
+for (let i = 0; i < 3; ++i) {
+  let o = {x: 0, y: 0};
+  assertSame(1, setX(o, 1));
+  assertSame(2, setX(o, 2));
+  assertSame(3, setX({x: 0, y: 0}, 3));
+
+  let readOnly = {x: 0, y: 0};
+  Object.defineProperty(readOnly, "x", {writable: false});
+  assertThrows(TypeError, () => setX(readOnly, 4));
+  assertSame(0, readOnly.x);
+
+  let frozen = Object.freeze({x: 0, y: 0});
+  assertThrows(TypeError, () => setX(frozen, 5));
+  assertSame(0, frozen.x);
+
+  let accessor = {x: 0, y: 0};
+  Object.defineProperty(accessor, "x", {get() { return 6; }});
+  assertSame(6, setXSloppy(accessor, 7));
+
+  let f = function(){};
+  f.x = 0;
+  assertSame(8, setX(f, 8));
+}
+
+// Loads of data properties from the prototype object
+for (let i = 0; i < 3; ++i) {
+  let proto = {x: 1};
+  let o = Object.create(proto);
+  assertSame(1, getX(o));
+  proto.x = 2;
+  assertSame(2, getX(o));
+  o.x = 3;
+  assertSame(3, getX(o));
+  delete o.x;
+  assertSame(2, getX(o));
+  Object.setPrototypeOf(o, {x: 4});
+  assertSame(4, getX(o));
+  Object.defineProperty(Object.getPrototypeOf(o), "x", {get() { return 5; }});
+  assertSame(5, getX(o));
+
+  class C { get x() { return 6; } }
+  C.prototype.y = 0;
+  assertSame(6, getX(new C));
+}
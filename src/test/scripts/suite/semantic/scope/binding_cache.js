@@ -0,0 +1,158 @@
+/*
+ * Copyright (c) 2012-2015 André Bargull
+ * Alle Rechte vorbehalten / All Rights Reserved.  Use is subject to license terms.
+ *
+ * <https://github.com/anba/es6draft>
+ */
+const {
+  assertSame, assertThrows
+} = Assert;
+
+// Identifier value accesses resolved through cached (depth, slot) pairs
+
+function outer(a) {
+  let b = a + 1;
+  function middle(c) {
+    const d = c * 2;
+    return function inner(e) {
+      return a + b + c + d + e;
+    };
+  }
+  return middle(a);
+}
+
+for (let i = 0; i < 5; ++i) {
+  assertSame(i + (i + 1) + i + 2 * i + 10, outer(i)(10));
+}
+
+// Temporal dead zone
+function tdz(read) {
+  if (read) {
+    return x;
+  }
+  let x = 1;
+  return x;
+}
+for (let i = 0; i < 3; ++i) {
+  assertSame(1, tdz(false));
+  assertThrows(ReferenceError, () => tdz(true));
+}
+
+// Per-iteration bindings
+{
+  let fns = [];
+  for (let i = 0; i < 3; ++i) {
+    fns.push(() => i);
+  }
+  for (let k = 0; k < 3; ++k) {
+    assertSame(k, fns[k]());
+  }
+}
+
+// Shadowing bindings introduced by direct eval in a nested function
+function evalShadow(code) {
+  var v = "outer";
+  function f() {
+    eval(code);
+    return function() { return v; };
+  }
+  return f()();
+}
+for (let i = 0; i < 3; ++i) {
+  assertSame("outer", evalShadow(""));
+  assertSame("inner", evalShadow("var v = 'inner'"));
+  assertSame("outer", evalShadow(""));
+}
+
+// Shadowing bindings introduced by with statements
+function withShadow(obj) {
+  var w = "outer";
+  with (obj) {
+    return (() => w)();
+  }
+}
+for (let i = 0; i < 3; ++i) {
+  assertSame("outer", withShadow({}));
+  assertSame("inner", withShadow({w: "inner"}));
+}
+
+// Deleted bindings
+function deleted() {
+  eval("var del = 1");
+  function f() { return typeof del; }
+  let r1 = f();
+  delete del;
+  return [r1, f()];
+}
+for (let i = 0; i < 3; ++i) {
+  let [r1, r2] = deleted();
+  assertSame("number", r1);
+  assertSame("undefined", r2);
+}
+
+// Catch bindings
+function catchBinding(v) {
+  try {
+    throw v;
+  } catch (e) {
+    return (() => e)();
+  }
+}
+for (let i = 0; i < 3; ++i) {
+  assertSame(i, catchBinding(i));
+}
+
+// Identifier assignments resolved through cached (depth, slot) pairs
+function counter() {
+  let count = 0;
+  return {
+    inc() { count += 1; return count++; },
+    set(v) { return count = v; },
+    get() { return count; },
+  };
+}
+{
+  let c = counter();
+  for (let i = 0; i < 5; ++i) {
+    assertSame(2 * i + 1, c.inc());
+  }
+  assertSame(10, c.get());
+  assertSame(42, c.set(42));
+  assertSame(42, c.get());
+}
+
+// Assignments in the temporal dead zone and to immutable bindings
+function assignTdz(write) {
+  function f() { y = 1; }
+  if (write) {
+    f();
+  }
+  let y = 0;
+  f();
+  return y;
+}
+function assignConst() {
+  const z = 0;
+  (() => { z = 1; })();
+}
+for (let i = 0; i < 3; ++i) {
+  assertSame(1, assignTdz(false));
+  assertThrows(ReferenceError, () => assignTdz(true));
+  assertThrows(TypeError, () => assignConst());
+}
+
+// Assignments to bindings shadowed by direct eval in a nested function
+function evalShadowAssign(code) {
+  var v = "outer";
+  function f() {
+    eval(code);
+    (function() { v = "assigned"; })();
+  }
+  f();
+  return v;
+}
+for (let i = 0; i < 3; ++i) {
+  assertSame("assigned", evalShadowAssign(""));
+  assertSame("outer", evalShadowAssign("var v"));
+  assertSame("assigned", evalShadowAssign(""));
+}
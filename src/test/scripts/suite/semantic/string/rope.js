@@ -0,0 +1,142 @@
+/*
+ * Copyright (c) 2012-2015 André Bargull
+ * Alle Rechte vorbehalten / All Rights Reserved.  Use is subject to license terms.
+ *
+ * <https://github.com/anba/es6draft>
+ */
+const {
+  assertSame
+} = Assert;
+
+function flat(s) {
+  return s.split("").join("");
+}
+
+// Repeated appending and prepending creates deep concatenations
+{
+  let parts = [];
+  for (let i = 0; i < 2000; ++i) {
+    parts.push("part" + i + ";");
+  }
+  let appended = "", prepended = "";
+  for (let i = 0; i < parts.length; ++i) {
+    appended += parts[i];
+    prepended = parts[parts.length - 1 - i] + prepended;
+  }
+  let expected = parts.join("");
+  assertSame(expected.length, appended.length);
+  assertSame(expected.length, prepended.length);
+
+  // Character access
+  for (let i = 0; i < expected.length; i += 97) {
+    assertSame(expected[i], appended[i]);
+    assertSame(expected.charAt(i), prepended.charAt(i));
+    assertSame(expected.charCodeAt(i), appended.charCodeAt(i));
+    assertSame(expected.codePointAt(i), prepended.codePointAt(i));
+  }
+
+  // Substrings within a single part and across several parts
+  for (let [start, end] of [[0, 3], [5, 20], [100, 5000], [expected.length - 7, expected.length]]) {
+    assertSame(expected.slice(start, end), appended.slice(start, end));
+    assertSame(expected.substring(start, end), prepended.substring(start, end));
+    assertSame(expected.substr(start, end - start), appended.substr(start, end - start));
+  }
+
+  assertSame(expected, appended);
+  assertSame(expected, prepended);
+  assertSame(expected, flat(appended));
+}
+
+// Joining deep concatenations
+{
+  let left = "", right = "";
+  for (let i = 0; i < 500; ++i) {
+    left += "a" + i;
+    right = "b" + i + right;
+  }
+  let joined = left + right + left;
+  assertSame(flat(left) + flat(right) + flat(left), joined);
+  assertSame(flat(left) + flat(right), left.concat(right));
+  assertSame(flat(left).slice(300, 1700), joined.slice(300, 1700));
+}
+
+// Surrogate pairs split across concatenated parts
+{
+  let s = "x".repeat(20) + "\uD834";
+  let t = "\uDF06" + "y".repeat(20);
+  let u = s + t;
+  assertSame(0x1D306, u.codePointAt(20));
+  assertSame(0xD834, u.charCodeAt(20));
+  assertSame("𝌆", u.substring(20, 22));
+}
+
+// Alternating prepends and appends are rebalanced on access
+{
+  let s = "", parts = [];
+  for (let i = 0; i < 5000; ++i) {
+    let part = "-".repeat(64) + i;
+    if (i & 1) {
+      s = part + s;
+      parts.unshift(part);
+    } else {
+      s += part;
+      parts.push(part);
+    }
+  }
+  let expected = parts.join("");
+  for (let i = 0; i < expected.length; i += 997) {
+    assertSame(expected[i], s[i]);
+  }
+  assertSame(expected.slice(1000, 90000), s.slice(1000, 90000));
+  assertSame(expected, s);
+}
+
+// Operations which flatten their input
+{
+  let padding = "-".repeat(100);
+  let s = " \t" + padding + "\"";
+  s += padding + "\n ";
+  assertSame(flat(s).trim(), s.trim());
+  assertSame(JSON.stringify(flat(s)), JSON.stringify(s));
+  let index = "1" + "2".repeat(100).slice(0, 2);
+  let array = [];
+  array[index] = 0;
+  assertSame(123, array.length);
+}
+
+// String.prototype methods operate on concatenated strings without flattening them
+{
+  let s = "", parts = [];
+  for (let i = 0; i < 3000; ++i) {
+    let part = (i % 7 === 0 ? "Needle " : "hayΣ ") + i + ";";
+    s += part;
+    parts.push(part);
+  }
+  let expected = parts.join("");
+  for (let t of ["", "Needle", "Needle 2996;", "hayΣ 1;", "missing"]) {
+    for (let i = 0; i < expected.length; i += 1231) {
+      assertSame(expected.indexOf(t, i), s.indexOf(t, i));
+      assertSame(expected.lastIndexOf(t, i), s.lastIndexOf(t, i));
+      assertSame(expected.includes(t, i), s.includes(t, i));
+      assertSame(expected.startsWith(t, i), s.startsWith(t, i));
+      assertSame(expected.endsWith(t, i), s.endsWith(t, i));
+    }
+  }
+  assertSame(expected.split(";").join(), s.split(";").join());
+  assertSame(expected.split(";", 5).join(), s.split(";", 5).join());
+  assertSame(expected.replace("Needle 2996", "$`$'$&"), s.replace("Needle 2996", "$`$'$&"));
+  assertSame(expected.replace("Needle 2996", "[$&]"), s.replace("Needle 2996", "[$&]"));
+  assertSame(expected.replace("Needle 7;", () => "-"), s.replace("Needle 7;", () => "-"));
+  assertSame(expected.toLowerCase(), s.toLowerCase());
+  assertSame(expected.toUpperCase(), s.toUpperCase());
+  assertSame(expected.toLocaleLowerCase("tr"), s.toLocaleLowerCase("tr"));
+  assertSame(expected.toLocaleUpperCase("lt"), s.toLocaleUpperCase("lt"));
+  assertSame(expected.normalize("NFD"), s.normalize("NFD"));
+  assertSame(expected.normalize("NFKC"), s.normalize("NFKC"));
+  assertSame(0, expected.localeCompare(s));
+  assertSame(expected.localeCompare(expected + "a"), s.localeCompare(s + "a"));
+  assertSame(expected.repeat(3), s.repeat(3));
+  assertSame(("\t " + expected + "\n").trim(), ("\t " + s + "\n").trim());
+  assertSame([...expected].join("|"), [...s].join("|"));
+  assertSame(expected, s);
+}